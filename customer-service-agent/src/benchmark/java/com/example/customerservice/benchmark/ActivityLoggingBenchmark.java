@@ -0,0 +1,190 @@
+package com.example.customerservice.benchmark;
+
+import com.example.customerservice.service.AgentActivityLogger;
+import com.example.customerservice.service.AgentMonitoringService;
+import com.example.customerservice.service.activity.ActivityEventPipeline;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 单条聊天消息的活动日志开销
+ *
+ * - legacySynchronousLogging：复现管道引入前每条知识库直出消息的同步INFO日志
+ *   （控制器2行、会话服务3行、监控服务8行、活动记录2行，含完整输入和响应）
+ * - pipelineRequestThread：请求线程只投递事件，后台写入线程异步输出
+ * - pipelineInlineWriter：在同一线程上投递并立即写出，用于对比包含格式化在内的总分配量
+ *
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Djmh.args="ActivityLoggingBenchmark -prof gc"
+ * 对比 gc.alloc.rate.norm（每次操作分配字节数）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActivityLoggingBenchmark {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(
+        "yyyy-MM-dd HH:mm:ss"
+    );
+    private static final Logger controllerLog = LoggerFactory.getLogger(
+        "com.example.customerservice.controller.ChatController"
+    );
+    private static final Logger sessionLog = LoggerFactory.getLogger(
+        "com.example.customerservice.service.ChatSessionService"
+    );
+    private static final Logger monitoringLog = LoggerFactory.getLogger(
+        "com.example.customerservice.service.AgentMonitoringService"
+    );
+    private static final Logger activityLog = LoggerFactory.getLogger(
+        "com.example.customerservice.service.AgentActivityLogger"
+    );
+
+    private static final String USER_ID = "user001";
+    private static final String AGENT_NAME = "智能客服-" + USER_ID;
+    private static final String QUESTION = "智能手表的保修政策是什么？拆封后还能退货吗？";
+    private static final String ANSWER = buildAnswer();
+
+    @State(Scope.Benchmark)
+    public static class AsyncPipelineState {
+
+        @Param({ "1.0", "0.1" })
+        double sampleRate;
+
+        @Param({ "200" })
+        int maxPayloadChars;
+
+        ActivityEventPipeline pipeline;
+        AgentActivityLogger activityLogger;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkLogging.configureNullOutput(ch.qos.logback.classic.Level.INFO);
+            pipeline = new ActivityEventPipeline(65536, sampleRate, maxPayloadChars);
+            pipeline.start();
+            activityLogger = new AgentActivityLogger(
+                new AgentMonitoringService(pipeline)
+            );
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            pipeline.stop();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class InlinePipelineState {
+
+        ActivityEventPipeline pipeline;
+        AgentActivityLogger activityLogger;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkLogging.configureNullOutput(ch.qos.logback.classic.Level.INFO);
+            pipeline = new ActivityEventPipeline(1024, 1.0, 200);
+            activityLogger = new AgentActivityLogger(
+                new AgentMonitoringService(pipeline)
+            );
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LegacyState {
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkLogging.configureNullOutput(ch.qos.logback.classic.Level.INFO);
+        }
+    }
+
+    @Benchmark
+    public void legacySynchronousLogging(LegacyState state) {
+        controllerLog.info("收到用户 {} 的消息: {}", USER_ID, QUESTION);
+        sessionLog.info("处理用户 {} 的消息: {}", USER_ID, QUESTION);
+
+        monitoringLog.info("=== Agent Activity Start ===");
+        monitoringLog.info(
+            "Agent: {} | Message ID: {} | Time: {}",
+            AGENT_NAME,
+            1L,
+            LocalDateTime.now().format(FORMATTER)
+        );
+        monitoringLog.info("Input Message: {}", QUESTION);
+        monitoringLog.info("==========================");
+        activityLog.info("🚀 Agent消息处理开始: {} | 消息: {}", AGENT_NAME, QUESTION);
+
+        sessionLog.info(
+            "命中知识库问题直出策略，userId={}, question={}",
+            USER_ID,
+            QUESTION
+        );
+        sessionLog.info(
+            "用户 {} 的消息处理完成（知识库直出），响应长度: {}, 内容为:{}",
+            USER_ID,
+            ANSWER.length(),
+            ANSWER
+        );
+
+        monitoringLog.info("=== Agent Response ===");
+        monitoringLog.info(
+            "Agent: {} | Time: {}",
+            AGENT_NAME,
+            LocalDateTime.now().format(FORMATTER)
+        );
+        monitoringLog.info("Response: {}", ANSWER);
+        monitoringLog.info("=====================");
+        activityLog.info(
+            "🏁 Agent消息处理完成: {} | 响应长度: {} 字符",
+            AGENT_NAME,
+            ANSWER.length()
+        );
+
+        controllerLog.info("向用户 {} 发送响应，响应长度: {}", USER_ID, ANSWER.length());
+    }
+
+    @Benchmark
+    public void pipelineRequestThread(AsyncPipelineState state) {
+        state.activityLogger.logMessageProcessingStart(AGENT_NAME, QUESTION);
+        state.activityLogger.logMessageProcessingEnd(AGENT_NAME, ANSWER);
+    }
+
+    @Benchmark
+    public int pipelineInlineWriter(InlinePipelineState state) {
+        state.activityLogger.logMessageProcessingStart(AGENT_NAME, QUESTION);
+        state.activityLogger.logMessageProcessingEnd(AGENT_NAME, ANSWER);
+        return state.pipeline.flush();
+    }
+
+    private static String buildAnswer() {
+        StringBuilder answer = new StringBuilder(
+            "根据知识库检索和知识图谱分析，为您解答如下：\n\n【知识库参考】\n"
+        );
+        for (int i = 1; i <= 3; i++) {
+            answer
+                .append(i)
+                .append(". 售后服务政策-保修\n   ")
+                .append("保修政策 1. iPhone整机保修1年 2. MacBook整机保修2年 ")
+                .append("3. AirPods整机保修1年 4. 保修期内非人为损坏免费维修 ")
+                .append("自签收之日起7天内可无理由退货（特殊商品除外），15天内出现质量问题可换货。\n\n");
+        }
+        answer.append("【知识图谱关联】\n1. 保修（Service）\n   关联：售后服务政策-保修 -HAS_SERVICE-> 保修");
+        return answer.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.customerservice.benchmark;
+
+import io.agentscope.core.message.TextBlock;
+import io.agentscope.core.rag.model.Document;
+import io.agentscope.core.rag.model.DocumentMetadata;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 基准测试语料
+ *
+ * 以默认种子知识条目的文风生成可复现（固定随机种子）的客服文本和检索结果，
+ * 供各微基准与端到端负载驱动共用。
+ */
+public final class BenchmarkCorpus {
+
+    private static final String[] PRODUCTS = {
+        "iPhone 15 Pro", "MacBook Air M2", "AirPods Pro", "iPad Air", "智能手表", "蓝牙音箱",
+    };
+    private static final String[] TOPICS = { "保修", "退换货", "维修", "物流", "退款", "发票" };
+    private static final String[] SENTENCES = {
+        "自签收之日起7天内可无理由退货（特殊商品除外）",
+        "15天内出现质量问题可换货",
+        "退货商品需保持原包装完整，配件齐全",
+        "整机保修一年，主要部件保修两年",
+        "官方授权维修点提供维修服务，维修周期一般为1-2周",
+        "订单发货后可在\"我的订单\"页面查看物流信息",
+        "退款将在审核通过后3-5个工作日原路退回",
+        "电子发票会在确认收货后发送至预留邮箱",
+    };
+
+    private BenchmarkCorpus() {}
+
+    /**
+     * 生成一条知识条目正文，包含产品、订单号、服务词和问答对，覆盖规则预处理器的全部正则
+     */
+    public static String entryText(Random random) {
+        String product = pick(random, PRODUCTS);
+        String topic = pick(random, TOPICS);
+        StringBuilder text = new StringBuilder();
+        text.append(topic).append("政策说明\n");
+        text.append("产品：").append(product).append("\n");
+        text.append("订单：ORD").append(20240000 + random.nextInt(10000)).append("\n");
+        for (int i = 0; i < 4; i++) {
+            text.append(i + 1).append(". ").append(pick(random, SENTENCES)).append("\n");
+        }
+        text.append(product).append("如何").append(topic).append("?\n");
+        text.append("答案：请联系在线客服，提供订单号后由专人处理").append(topic).append("申请\n");
+        return text.toString();
+    }
+
+    /**
+     * 生成检索结果列表，约 duplicateRatio 比例的结果与前面的结果标题和内容完全相同
+     */
+    public static List<Document> retrievedDocuments(
+        int size,
+        double duplicateRatio,
+        long seed
+    ) {
+        Random random = new Random(seed);
+        List<Document> documents = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (i > 0 && random.nextDouble() < duplicateRatio) {
+                Document original = documents.get(random.nextInt(i));
+                documents.add(
+                    document(
+                        "entry-" + i,
+                        original.getPayloadValueAs("title", String.class),
+                        original.getMetadata().getContentText()
+                    )
+                );
+                continue;
+            }
+            String topic = pick(random, TOPICS);
+            documents.add(
+                document(
+                    "entry-" + i,
+                    "售后服务政策-" + topic + "-" + i,
+                    entryText(random)
+                )
+            );
+        }
+        return documents;
+    }
+
+    public static Document document(String entryId, String title, String content) {
+        DocumentMetadata metadata = DocumentMetadata.builder()
+            .content(TextBlock.builder().text(content).build())
+            .docId(entryId)
+            .chunkId(entryId + "-chunk-0")
+            .payload(
+                Map.of(
+                    "source",
+                    "benchmark",
+                    "type",
+                    "text",
+                    "title",
+                    title,
+                    "entryId",
+                    entryId
+                )
+            )
+            .build();
+        return new Document(metadata);
+    }
+
+    /**
+     * 模型回复样本：带 think 块、转义 think 块和 "思考：" 前缀行的回复
+     */
+    public static String reasoningResponse(int answerSentences) {
+        StringBuilder text = new StringBuilder();
+        text.append("<think>用户询问保修政策，需要先检索知识库，再整理要点。</think>\n");
+        text.append("思考：先确认产品型号\n");
+        text.append("您好，关于您咨询的问题：\n");
+        for (int i = 0; i < answerSentences; i++) {
+            text.append(i + 1).append(". ").append(SENTENCES[i % SENTENCES.length]).append("\n");
+            if (i % 4 == 3) {
+                text.append("\n&lt;think&gt;核对第").append(i).append("条&lt;/think&gt;\n");
+            }
+        }
+        text.append("如有其他问题，欢迎随时咨询。");
+        return text.toString();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
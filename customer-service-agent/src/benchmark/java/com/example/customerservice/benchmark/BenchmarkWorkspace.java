@@ -0,0 +1,56 @@
+package com.example.customerservice.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * 基准测试工作目录
+ *
+ * 分类、知识注册表和会话文件都写在当前工作目录下的 data/、sessions/。
+ * benchmark profile 把 exec 的工作目录设为 target/benchmark-work，
+ * 这里在写文件前校验工作目录，避免在项目根目录运行时覆盖开发数据。
+ */
+public final class BenchmarkWorkspace {
+
+    private static final String SCRATCH_DIRECTORY = "benchmark-work";
+
+    private BenchmarkWorkspace() {}
+
+    /**
+     * 校验当前工作目录是基准测试专用目录，并清空其中的 data/ 与 sessions/
+     */
+    public static Path prepareScratchDirectory() {
+        Path cwd = Paths.get("").toAbsolutePath();
+        if (cwd.getFileName() == null || !SCRATCH_DIRECTORY.equals(cwd.getFileName().toString())) {
+            throw new IllegalStateException(
+                "基准测试会改写 data/ 目录，请通过 mvn -Pbenchmark exec:exec 运行（工作目录 target/" +
+                SCRATCH_DIRECTORY + "），当前工作目录: " + cwd
+            );
+        }
+        deleteRecursively(cwd.resolve("data"));
+        deleteRecursively(cwd.resolve("sessions"));
+        return cwd;
+    }
+
+    private static void deleteRecursively(Path root) {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.customerservice.benchmark;
+
+import com.example.customerservice.service.runtime.BlockingTaskExecutors;
+import com.example.customerservice.service.runtime.VirtualThreads;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import reactor.core.publisher.Mono;
+
+/**
+ * 并发聊天负载测试：平台线程模式 vs 虚拟线程模式
+ *
+ * 每个模拟聊天与真实链路的阻塞形态一致：
+ * 请求线程上并行扇出向量检索和图谱检索（各自阻塞 retrievalMs），
+ * 然后阻塞等待一次Agent调用（Mono.delay(...).block()，模拟 agent.call(...).block()）。
+ *
+ * - platform：请求线程为固定200个平台线程（Tomcat 默认 threads.max），检索使用 BlockingTaskExecutors 平台线程池
+ * - virtual：请求线程与检索均为虚拟线程（需要 Java 21+，否则跳过）
+ *
+ * 对每个并发级别同时发起 N 个聊天，统计 p50/p95 和吞吐；
+ * 最大可持续并发 = p95 不超过单次聊天理想耗时 1.5 倍的最高并发级别。
+ *
+ * 运行：mvn -Pbenchmark test-compile exec:exec
+ *   -Dbenchmark.main=com.example.customerservice.benchmark.ChatConcurrencyLoadTest -Djmh.args=""
+ */
+public class ChatConcurrencyLoadTest {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long RETRIEVAL_MS = 50;
+    private static final long LLM_MS = 800;
+    private static final int[] CONCURRENCY_LEVELS = { 100, 200, 400, 800, 1600, 3200 };
+    private static final double SLO_FACTOR = 1.5;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkLogging.configureNullOutput(ch.qos.logback.classic.Level.WARN);
+        long idealMs = RETRIEVAL_MS + LLM_MS;
+        System.out.printf(
+            "Java %d, 单次聊天理想耗时 %dms, SLO p95 <= %.0fms%n%n",
+            Runtime.version().feature(),
+            idealMs,
+            idealMs * SLO_FACTOR
+        );
+
+        run("platform", false, idealMs);
+        if (VirtualThreads.isSupported()) {
+            run("virtual", true, idealMs);
+        } else {
+            System.out.println("virtual: 当前JVM不支持虚拟线程（需要 Java 21+），跳过");
+        }
+    }
+
+    private static void run(String mode, boolean virtual, long idealMs) throws Exception {
+        BlockingTaskExecutors executors = new BlockingTaskExecutors(virtual, 32);
+        ExecutorService requestExecutor = virtual
+            ? executors.newRequestExecutor().orElseThrow()
+            : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+
+        int maxSustainable = 0;
+        System.out.printf("%-9s %8s %10s %10s %12s%n", mode, "chats", "p50(ms)", "p95(ms)", "chats/s");
+        for (int concurrency : CONCURRENCY_LEVELS) {
+            long[] latencies = new long[concurrency];
+            CountDownLatch done = new CountDownLatch(concurrency);
+            long start = System.nanoTime();
+            for (int i = 0; i < concurrency; i++) {
+                int index = i;
+                long submittedAt = System.nanoTime();
+                requestExecutor.execute(() -> {
+                    simulateChat(executors);
+                    latencies[index] = TimeUnit.NANOSECONDS.toMillis(
+                        System.nanoTime() - submittedAt
+                    );
+                    done.countDown();
+                });
+            }
+            done.await();
+            double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            Arrays.sort(latencies);
+            long p50 = latencies[(int) (concurrency * 0.50)];
+            long p95 = latencies[(int) (concurrency * 0.95)];
+            System.out.printf(
+                "%-9s %8d %10d %10d %12.1f%n",
+                "",
+                concurrency,
+                p50,
+                p95,
+                concurrency / elapsedSeconds
+            );
+            if (p95 <= idealMs * SLO_FACTOR) {
+                maxSustainable = concurrency;
+            }
+        }
+        System.out.printf("%s 最大可持续并发聊天数: %d%n%n", mode, maxSustainable);
+
+        requestExecutor.shutdown();
+        executors.shutdown();
+    }
+
+    private static void simulateChat(BlockingTaskExecutors executors) {
+        List<CompletableFuture<Void>> fanOut = new ArrayList<>(2);
+        for (int i = 0; i < 2; i++) {
+            fanOut.add(
+                CompletableFuture.runAsync(
+                    () -> sleep(RETRIEVAL_MS),
+                    executors.retrieval()
+                )
+            );
+        }
+        CompletableFuture.allOf(fanOut.toArray(CompletableFuture[]::new)).join();
+        Mono.delay(Duration.ofMillis(LLM_MS)).block();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
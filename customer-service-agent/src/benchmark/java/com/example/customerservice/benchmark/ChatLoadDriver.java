@@ -0,0 +1,342 @@
+package com.example.customerservice.benchmark;
+
+import com.example.customerservice.CustomerServiceAgentApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 端到端聊天负载驱动
+ *
+ * 在同一进程内启动完整的 Spring 应用，外部依赖全部替换为进程内替身：
+ * - OpenAI 兼容的聊天/Embedding 接口 → {@link FakeOpenAiServer}（真实 HTTP，可配置延迟）
+ * - Milvus → AgentScope InMemoryStore（见 {@link FakeBackends}）
+ * - Neo4j → {@link InMemoryGraphDriver}
+ *
+ * 启动时应用照常初始化默认知识条目（Embedding 建索引、LLM 抽取三元组写入图谱），
+ * 然后以闭环方式（每个并发用户收到响应后立即发送下一条）压测 POST /api/chat/message，
+ * 消息按比例覆盖知识库直出、产品信息直出和 Agent 工具调用三条链路，
+ * 每个并发级别输出吞吐与 p50/p95/p99 延迟，并分别统计三条链路。
+ *
+ * 运行（参数以 key=value 形式通过 jmh.args 传入，均可省略）：
+ * mvn -Pbenchmark test-compile exec:exec
+ *   -Dbenchmark.main=com.example.customerservice.benchmark.ChatLoadDriver
+ *   -Djmh.args="concurrency=8,32,128 duration=15 warmup=5 chat-latency-ms=300 embedding-latency-ms=20 graph-latency-ms=1"
+ */
+public class ChatLoadDriver {
+
+    private static final int EMBEDDING_DIMENSIONS = 1024;
+
+    /** 消息样本：链路名 → 消息（按顺序轮换，知识库:产品:Agent = 3:1:2） */
+    private static final String[][] MESSAGES = {
+        { "knowledge", "智能手表如何保修？" },
+        { "agent", "帮我查一下订单ORD001现在的状态" },
+        { "knowledge", "退换货政策是什么" },
+        { "product", "介绍一下iPhone 15 Pro的配置" },
+        { "knowledge", "维修流程说明" },
+        { "agent", "订单ORD002的物流到哪了" },
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    private final Map<String, String> options;
+    private URI chatEndpoint;
+
+    private ChatLoadDriver(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int exitCode = 0;
+        try {
+            new ChatLoadDriver(parseOptions(args)).run();
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        }
+        // Agent 模型客户端、Reactor 调度器等持有非守护线程
+        System.exit(exitCode);
+    }
+
+    private void run() throws Exception {
+        BenchmarkWorkspace.prepareScratchDirectory();
+
+        int[] concurrencyLevels = Arrays.stream(option("concurrency", "8,32,128").split(","))
+            .mapToInt(level -> Integer.parseInt(level.trim()))
+            .toArray();
+        Duration duration = Duration.ofSeconds(Long.parseLong(option("duration", "15")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(option("warmup", "5")));
+
+        try (
+            FakeOpenAiServer openAi = new FakeOpenAiServer(
+                Long.parseLong(option("chat-latency-ms", "300")),
+                Long.parseLong(option("embedding-latency-ms", "20"))
+            )
+        ) {
+            InMemoryGraphDriver graph = new InMemoryGraphDriver(
+                Long.parseLong(option("graph-latency-ms", "1"))
+            );
+
+            long startedAt = System.nanoTime();
+            ConfigurableApplicationContext context = startApplication(openAi, graph);
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                chatEndpoint = URI.create("http://127.0.0.1:" + port + "/api/chat/message");
+                System.out.printf(
+                    "Java %d, 应用启动 %dms（Embedding %d 次，三元组抽取 %d 次，图谱节点 %d 个）%n",
+                    Runtime.version().feature(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt),
+                    openAi.getEmbeddingCalls(),
+                    openAi.getExtractionCalls(),
+                    graph.getNodeCount()
+                );
+                System.out.printf(
+                    "替身延迟：chat %sms, embedding %sms, graph %sms；每级持续 %ds%n%n",
+                    option("chat-latency-ms", "300"),
+                    option("embedding-latency-ms", "20"),
+                    option("graph-latency-ms", "1"),
+                    duration.toSeconds()
+                );
+
+                runLevel(concurrencyLevels[0], warmup, "warmup");
+
+                System.out.printf(
+                    "%-10s %-10s %8s %7s %10s %9s %9s %9s %9s%n",
+                    "并发", "链路", "请求数", "错误", "吞吐(/s)", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)"
+                );
+                for (int concurrency : concurrencyLevels) {
+                    long chatBefore = openAi.getChatCalls();
+                    long embeddingBefore = openAi.getEmbeddingCalls();
+                    long graphBefore = graph.getQueryCount();
+                    LevelResult result = runLevel(concurrency, duration, "load");
+                    result.print(concurrency);
+                    System.out.printf(
+                        "%-10s 替身调用：chat %d, embedding %d, graph %d（未识别 %d）%n%n",
+                        "",
+                        openAi.getChatCalls() - chatBefore,
+                        openAi.getEmbeddingCalls() - embeddingBefore,
+                        graph.getQueryCount() - graphBefore,
+                        graph.getUnrecognizedQueryCount()
+                    );
+                }
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(
+        FakeOpenAiServer openAi,
+        InMemoryGraphDriver graph
+    ) {
+        SpringApplication application = new SpringApplication(CustomerServiceAgentApplication.class);
+        application.addInitializers(new FakeBackends(graph, EMBEDDING_DIMENSIONS));
+        return application.run(
+            "--server.port=0",
+            "--spring.main.banner-mode=off",
+            "--CHAT_API_KEY=fake-key",
+            "--CHAT_BASE_URL=" + openAi.baseUrl(),
+            "--EMBEDDING_API_KEY=fake-key",
+            "--EMBEDDING_BASE_URL=" + openAi.baseUrl(),
+            "--NEO4J_PASSWORD=unused",
+            "--agentscope.embedding.dimensions=" + EMBEDDING_DIMENSIONS,
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.customerservice=WARN",
+            "--logging.level.com.example.customerservice.activity=WARN",
+            "--logging.level.io.agentscope=WARN",
+            "--logging.level.org.apache.catalina.loader=ERROR"
+        );
+    }
+
+    /**
+     * 闭环压测：concurrency 个用户各自串行发送消息，持续 duration
+     */
+    private LevelResult runLevel(int concurrency, Duration duration, String phase)
+        throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Worker> workerStates = new ArrayList<>(concurrency);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        long deadline = System.nanoTime() + duration.toNanos();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(phase + "-user-" + concurrency + "-" + i, i);
+            workerStates.add(worker);
+            workers.execute(() -> {
+                try {
+                    worker.loop(deadline);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        workers.shutdown();
+        return new LevelResult(workerStates, elapsedSeconds);
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("参数格式应为 key=value: " + arg);
+            }
+            options.put(arg.substring(0, separator).replaceFirst("^-+", ""), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private final class Worker {
+
+        private final String userId;
+        private int next;
+        private final Map<String, LatencyRecorder> latencies = new LinkedHashMap<>();
+        private int errors;
+
+        private Worker(String userId, int offset) {
+            this.userId = userId;
+            this.next = offset;
+        }
+
+        private void loop(long deadline) {
+            while (System.nanoTime() < deadline) {
+                String[] message = MESSAGES[next++ % MESSAGES.length];
+                long start = System.nanoTime();
+                boolean ok = send(message[1]);
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                if (ok) {
+                    latencies.computeIfAbsent(message[0], k -> new LatencyRecorder()).add(micros);
+                } else {
+                    errors++;
+                }
+            }
+        }
+
+        private boolean send(String message) {
+            try {
+                byte[] body = objectMapper.writeValueAsBytes(
+                    Map.of("userId", userId, "message", message)
+                );
+                HttpRequest request = HttpRequest.newBuilder(chatEndpoint)
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+                HttpResponse<Void> response = httpClient.send(
+                    request,
+                    HttpResponse.BodyHandlers.discarding()
+                );
+                return response.statusCode() == 200;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+    }
+
+    private static final class LevelResult {
+
+        private final Map<String, LatencyRecorder> byRoute = new LinkedHashMap<>();
+        private final LatencyRecorder overall = new LatencyRecorder();
+        private final double elapsedSeconds;
+        private int errors;
+
+        private LevelResult(List<Worker> workers, double elapsedSeconds) {
+            this.elapsedSeconds = elapsedSeconds;
+            for (String[] message : MESSAGES) {
+                byRoute.putIfAbsent(message[0], new LatencyRecorder());
+            }
+            for (Worker worker : workers) {
+                errors += worker.errors;
+                worker.latencies.forEach((route, recorder) -> {
+                    byRoute.get(route).addAll(recorder);
+                    overall.addAll(recorder);
+                });
+            }
+        }
+
+        private void print(int concurrency) {
+            printRow(String.valueOf(concurrency), "all", overall, errors);
+            byRoute.forEach((route, recorder) -> printRow("", route, recorder, -1));
+        }
+
+        private void printRow(String concurrency, String route, LatencyRecorder recorder, int errorCount) {
+            long[] sorted = recorder.sorted();
+            System.out.printf(
+                "%-10s %-10s %8d %7s %10.1f %9.1f %9.1f %9.1f %9.1f%n",
+                concurrency,
+                route,
+                sorted.length,
+                errorCount >= 0 ? String.valueOf(errorCount) : "",
+                sorted.length / elapsedSeconds,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.95),
+                percentile(sorted, 0.99),
+                sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1000.0
+            );
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1000.0;
+        }
+    }
+
+    /**
+     * 单线程写入的延迟记录（微秒）
+     */
+    private static final class LatencyRecorder {
+
+        private long[] values = new long[256];
+        private int size;
+
+        private void add(long micros) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = micros;
+        }
+
+        private void addAll(LatencyRecorder other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        private long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
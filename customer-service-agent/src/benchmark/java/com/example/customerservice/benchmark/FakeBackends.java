@@ -0,0 +1,102 @@
+package com.example.customerservice.benchmark;
+
+import io.agentscope.core.embedding.EmbeddingModel;
+import io.agentscope.core.rag.Knowledge;
+import io.agentscope.core.rag.knowledge.SimpleKnowledge;
+import io.agentscope.core.rag.store.InMemoryStore;
+import org.neo4j.driver.Driver;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+
+/**
+ * 把外部存储替换为进程内实现的上下文初始化器
+ *
+ * 在配置类解析之后（Ordered，晚于 ConfigurationClassPostProcessor）替换两个 Bean 定义：
+ * - neo4jDriver → {@link InMemoryGraphDriver}
+ * - knowledgeBase → SimpleKnowledge + AgentScope InMemoryStore（代替 MilvusStore），
+ *   Embedding 仍使用应用配置的 OpenAITextEmbedding，请求打到 {@link FakeOpenAiServer}
+ *
+ * 不使用 @Configuration，避免被应用的组件扫描收录。
+ */
+public final class FakeBackends
+    implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    private static final String POST_PROCESSOR_BEAN = "benchmarkFakeBackends";
+
+    private final InMemoryGraphDriver graph;
+    private final int embeddingDimensions;
+
+    public FakeBackends(InMemoryGraphDriver graph, int embeddingDimensions) {
+        this.graph = graph;
+        this.embeddingDimensions = embeddingDimensions;
+    }
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        BeanDefinitionRegistry registry = (BeanDefinitionRegistry) context.getBeanFactory();
+        RootBeanDefinition definition = new RootBeanDefinition(
+            Replacer.class,
+            () -> new Replacer(graph, embeddingDimensions)
+        );
+        registry.registerBeanDefinition(POST_PROCESSOR_BEAN, definition);
+    }
+
+    static final class Replacer implements BeanDefinitionRegistryPostProcessor, Ordered {
+
+        private final InMemoryGraphDriver graph;
+        private final int embeddingDimensions;
+
+        Replacer(InMemoryGraphDriver graph, int embeddingDimensions) {
+            this.graph = graph;
+            this.embeddingDimensions = embeddingDimensions;
+        }
+
+        @Override
+        public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry)
+            throws BeansException {
+            BeanFactory beanFactory = (BeanFactory) registry;
+            replace(
+                registry,
+                "neo4jDriver",
+                new RootBeanDefinition(Driver.class, graph::driver)
+            );
+            replace(
+                registry,
+                "knowledgeBase",
+                new RootBeanDefinition(Knowledge.class, () ->
+                    SimpleKnowledge.builder()
+                        .embeddingModel(beanFactory.getBean(EmbeddingModel.class))
+                        .embeddingStore(InMemoryStore.builder().dimensions(embeddingDimensions).build())
+                        .build()
+                )
+            );
+        }
+
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {}
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        private static void replace(
+            BeanDefinitionRegistry registry,
+            String name,
+            RootBeanDefinition replacement
+        ) {
+            if (!registry.containsBeanDefinition(name)) {
+                throw new IllegalStateException("未找到需要替换的Bean定义: " + name);
+            }
+            registry.removeBeanDefinition(name);
+            registry.registerBeanDefinition(name, replacement);
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.example.customerservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 进程内的 OpenAI 兼容接口替身
+ *
+ * 同时充当聊天模型（Agent、三元组抽取）和 Embedding 服务，按路径后缀分发：
+ * - .../chat/completions：支持普通 JSON 和 SSE 流式两种响应
+ *   - 请求带工具且最后一条消息不是工具结果时，返回一次工具调用（订单号→query_order_status，
+ *     物流→query_shipping_status，其余→search_knowledge_base），走完真实的 ReAct 工具链路
+ *   - 最后一条是工具结果时，返回带 think 块的最终回答，覆盖输出清洗
+ *   - 三元组抽取提示词返回固定结构的 JSON 三元组；多文档提示词按 <<<DOC 编号>>> 分隔逐篇生成，输出以编号为键的 JSON 对象
+ * - .../embeddings：字符 1-gram/2-gram 哈希到指定维度后归一化，语义相近的文本余弦相似度更高
+ *
+ * 每类请求可配置固定延迟，模拟远端模型的响应时间；聊天请求还可按输出 token 追加生成耗时。
+ * usage 中的 token 数按字符粗略估算（中文每字 1 个，ASCII 每 4 个字符 1 个）。
+ */
+public final class FakeOpenAiServer implements AutoCloseable {
+
+    private static final Pattern BATCH_DOCUMENT = Pattern.compile("<<<DOC (\\S+)>>>\\n(.*?)\\n<<<END \\1>>>", Pattern.DOTALL);
+    private static final Pattern ORDER_ID = Pattern.compile("ORD\\d{3,}", Pattern.CASE_INSENSITIVE);
+    private static final String[] GRAPH_KEYWORDS = {
+        "保修", "退换货", "维修", "退款", "物流", "订单", "发票", "iPhone 15 Pro", "MacBook Air M2",
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long chatLatencyMs;
+    private final long embeddingLatencyMs;
+    private final double completionTokenLatencyMs;
+
+    private final LongAdder chatCalls = new LongAdder();
+    private final LongAdder toolCalls = new LongAdder();
+    private final LongAdder extractionCalls = new LongAdder();
+    private final LongAdder embeddingCalls = new LongAdder();
+
+    public FakeOpenAiServer(long chatLatencyMs, long embeddingLatencyMs) throws IOException {
+        this(chatLatencyMs, embeddingLatencyMs, 0);
+    }
+
+    /**
+     * @param completionTokenLatencyMs 每个输出 token 追加的生成耗时，0 表示只有固定延迟
+     */
+    public FakeOpenAiServer(long chatLatencyMs, long embeddingLatencyMs, double completionTokenLatencyMs)
+        throws IOException {
+        this.chatLatencyMs = chatLatencyMs;
+        this.embeddingLatencyMs = embeddingLatencyMs;
+        this.completionTokenLatencyMs = completionTokenLatencyMs;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-openai-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 512);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long getChatCalls() {
+        return chatCalls.sum();
+    }
+
+    public long getToolCalls() {
+        return toolCalls.sum();
+    }
+
+    public long getExtractionCalls() {
+        return extractionCalls.sum();
+    }
+
+    public long getEmbeddingCalls() {
+        return embeddingCalls.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            if (path.endsWith("/embeddings")) {
+                embeddingCalls.increment();
+                sleep(embeddingLatencyMs);
+                sendJson(exchange, embeddings(request));
+            } else if (path.endsWith("/chat/completions")) {
+                chatCalls.increment();
+                ObjectNode message = chatMessage(request);
+                sleep(chatLatencyMs + Math.round(estimateTokens(message.path("content").asText("")) * completionTokenLatencyMs));
+                if (request.path("stream").asBoolean(false)) {
+                    sendStream(exchange, request, message);
+                } else {
+                    sendJson(exchange, completion(request, message));
+                }
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        } catch (RuntimeException e) {
+            byte[] body = ("{\"error\":{\"message\":\"" + e.getMessage() + "\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(500, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    // ---------------------------------------------------------------- chat
+
+    private ObjectNode chatMessage(JsonNode request) {
+        JsonNode messages = request.path("messages");
+        JsonNode last = messages.get(messages.size() - 1);
+        String systemPrompt = messages.size() > 0 && "system".equals(messages.get(0).path("role").asText())
+            ? text(messages.get(0))
+            : "";
+
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("role", "assistant");
+
+        if (systemPrompt.contains("三元组")) {
+            extractionCalls.increment();
+            String userPrompt = text(last);
+            if (systemPrompt.contains("<<<DOC")) {
+                ObjectNode documents = objectMapper.createObjectNode();
+                Matcher document = BATCH_DOCUMENT.matcher(userPrompt);
+                while (document.find()) {
+                    documents.putRawValue(document.group(1), new RawValue(triples(document.group(2))));
+                }
+                message.put("content", documents.toString());
+            } else {
+                message.put("content", triples(userPrompt));
+            }
+            return message;
+        }
+
+        boolean hasTools = request.path("tools").isArray() && request.path("tools").size() > 0;
+        if ("tool".equals(last.path("role").asText()) || !hasTools) {
+            String toolOutput = text(last);
+            message.put(
+                "content",
+                "<think>整理工具返回的结果，去掉内部字段。</think>\n您好，已为您查询：\n" +
+                toolOutput.substring(0, Math.min(160, toolOutput.length())) +
+                "\n如有其他问题，欢迎随时咨询。"
+            );
+            return message;
+        }
+
+        toolCalls.increment();
+        String userText = lastUserText(messages);
+        ObjectNode arguments = objectMapper.createObjectNode();
+        String toolName;
+        Matcher orderId = ORDER_ID.matcher(userText);
+        if (orderId.find() && userText.contains("物流")) {
+            toolName = "query_shipping_status";
+            arguments.put("orderId", orderId.group().toUpperCase());
+        } else if (orderId.find(0)) {
+            toolName = "query_order_status";
+            arguments.put("orderId", orderId.group().toUpperCase());
+        } else {
+            toolName = "search_knowledge_base";
+            arguments.put("question", userText);
+        }
+
+        ObjectNode function = objectMapper.createObjectNode();
+        function.put("name", toolName);
+        function.put("arguments", arguments.toString());
+        ObjectNode toolCall = objectMapper.createObjectNode();
+        toolCall.put("index", 0);
+        toolCall.put("id", "call_" + UUID.randomUUID().toString().substring(0, 8));
+        toolCall.put("type", "function");
+        toolCall.set("function", function);
+        message.putNull("content");
+        message.putArray("tool_calls").add(toolCall);
+        return message;
+    }
+
+    private String triples(String userPrompt) {
+        int start = userPrompt.indexOf("输入文本:");
+        String text = start >= 0 ? userPrompt.substring(start + 5) : userPrompt;
+        String subject = text.strip().lines().findFirst().orElse("知识条目").strip();
+        if (subject.length() > 20) {
+            subject = subject.substring(0, 20);
+        }
+        ArrayNode triples = objectMapper.createArrayNode();
+        for (String keyword : GRAPH_KEYWORDS) {
+            if (text.contains(keyword) && !keyword.equals(subject)) {
+                ObjectNode triple = triples.addObject();
+                triple.put("subject", subject);
+                triple.put("relation", keyword.contains(" ") ? "REFERENCES" : "MENTIONS");
+                triple.put("object", keyword);
+            }
+        }
+        return triples.toString();
+    }
+
+    private ObjectNode completion(JsonNode request, ObjectNode message) {
+        ObjectNode response = envelope(request, "chat.completion");
+        ObjectNode choice = response.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.set("message", message);
+        choice.put("finish_reason", message.has("tool_calls") ? "tool_calls" : "stop");
+        int promptTokens = 0;
+        for (JsonNode item : request.path("messages")) {
+            promptTokens += estimateTokens(text(item));
+        }
+        int completionTokens = Math.max(1, estimateTokens(message.path("content").asText("")));
+        ObjectNode usage = response.putObject("usage");
+        usage.put("prompt_tokens", promptTokens);
+        usage.put("completion_tokens", completionTokens);
+        usage.put("total_tokens", promptTokens + completionTokens);
+        return response;
+    }
+
+    private void sendStream(HttpExchange exchange, JsonNode request, ObjectNode message)
+        throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+
+        ObjectNode chunk = envelope(request, "chat.completion.chunk");
+        ObjectNode choice = chunk.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.set("delta", message);
+        choice.put("finish_reason", message.has("tool_calls") ? "tool_calls" : "stop");
+        writeEvent(out, chunk.toString());
+        writeEvent(out, "[DONE]");
+        out.flush();
+    }
+
+    private ObjectNode envelope(JsonNode request, String object) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("id", "chatcmpl-" + UUID.randomUUID());
+        response.put("object", object);
+        response.put("created", System.currentTimeMillis() / 1000);
+        response.put("model", request.path("model").asText("fake-model"));
+        return response;
+    }
+
+    private String lastUserText(JsonNode messages) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if ("user".equals(messages.get(i).path("role").asText())) {
+                return text(messages.get(i));
+            }
+        }
+        return "";
+    }
+
+    private String text(JsonNode message) {
+        JsonNode content = message.path("content");
+        if (content.isTextual()) {
+            return content.asText();
+        }
+        StringBuilder text = new StringBuilder();
+        for (JsonNode part : content) {
+            text.append(part.path("text").asText(""));
+        }
+        return text.toString();
+    }
+
+    // ----------------------------------------------------------- embeddings
+
+    private ObjectNode embeddings(JsonNode request) {
+        int dimensions = request.path("dimensions").asInt(1024);
+        boolean base64 = "base64".equals(request.path("encoding_format").asText());
+        List<String> inputs = new ArrayList<>();
+        JsonNode input = request.path("input");
+        if (input.isArray()) {
+            input.forEach(node -> inputs.add(node.asText()));
+        } else {
+            inputs.add(input.asText());
+        }
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("object", "list");
+        response.put("model", request.path("model").asText("fake-embedding"));
+        ArrayNode data = response.putArray("data");
+        for (int i = 0; i < inputs.size(); i++) {
+            float[] vector = embed(inputs.get(i), dimensions);
+            ObjectNode item = data.addObject();
+            item.put("object", "embedding");
+            item.put("index", i);
+            if (base64) {
+                ByteBuffer buffer = ByteBuffer.allocate(vector.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+                for (float value : vector) {
+                    buffer.putFloat(value);
+                }
+                item.put("embedding", Base64.getEncoder().encodeToString(buffer.array()));
+            } else {
+                ArrayNode values = item.putArray("embedding");
+                for (float value : vector) {
+                    values.add(value);
+                }
+            }
+        }
+        ObjectNode usage = response.putObject("usage");
+        usage.put("prompt_tokens", inputs.size());
+        usage.put("total_tokens", inputs.size());
+        return response;
+    }
+
+    /**
+     * 字符 1-gram/2-gram 哈希向量（确定性，无需模型）
+     */
+    static float[] embed(String text, int dimensions) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            vector[Math.floorMod(c * 31, dimensions)] += 0.5f;
+            if (i + 1 < text.length()) {
+                int bigram = c * 65_599 + text.charAt(i + 1);
+                vector[Math.floorMod(bigram, dimensions)] += 1.0f;
+            }
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            vector[0] = 1.0f;
+            return vector;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    // --------------------------------------------------------------- helpers
+
+    private static int estimateTokens(String text) {
+        int nonAscii = 0;
+        int ascii = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 0x80) {
+                ascii++;
+            } else {
+                nonAscii++;
+            }
+        }
+        return nonAscii + (ascii + 3) / 4;
+    }
+
+    private void sendJson(HttpExchange exchange, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,724 @@
+package com.example.customerservice.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.async.AsyncSession;
+import org.neo4j.driver.async.ResultCursor;
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalPath;
+import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.internal.InternalRelationship;
+import org.neo4j.driver.internal.value.ListValue;
+import org.neo4j.driver.internal.value.NodeValue;
+import org.neo4j.driver.internal.value.PathValue;
+import org.neo4j.driver.internal.value.RelationshipValue;
+import org.neo4j.driver.types.Entity;
+
+/**
+ * 进程内的 Neo4j 替身
+ *
+ * 用动态代理实现 Driver / Session / AsyncSession，背后是一张内存图。
+ * 只识别应用实际发出的 Cypher 语句形态（KnowledgeGraphService 的写入、统计对账、分页、导出和引用清理，
+ * GraphRAGRetriever 的实体匹配、N跳子图、路径和实体上下文），按语义在内存图上求值；
+ * 无法识别的语句返回空结果并计数，便于发现新增的查询形态。
+ *
+ * 每次 run 可配置固定延迟，模拟一次 Bolt 往返。
+ */
+public final class InMemoryGraphDriver {
+
+    private static final Pattern MERGE_TRIPLE = Pattern.compile(
+        "MERGE \\(s:(\\w+) \\{name: \\$subject\\}\\).*MERGE \\(o:(\\w+) \\{name: \\$object\\}\\).*MERGE \\(s\\)-\\[r:(\\w+)\\]->\\(o\\)",
+        Pattern.DOTALL
+    );
+    private static final Pattern MATCH_BY_NAME = Pattern.compile(
+        "MATCH \\(n:(\\w+)\\) WHERE n\\.name CONTAINS \\$keyword RETURN id\\(n\\) as id"
+    );
+    private static final Pattern SUBGRAPH = Pattern.compile(
+        "MATCH \\(n\\)-\\[r\\*1\\.\\.(\\d+)\\]-\\(m\\) WHERE id\\(n\\) IN \\[([\\d,]*)\\].*RETURN n, r, m",
+        Pattern.DOTALL
+    );
+    private static final Pattern COUNT_BY_LABEL = Pattern.compile(
+        "MATCH \\(n:`(\\w+)`\\) RETURN count\\(n\\) as cnt"
+    );
+    private static final Pattern COUNT_BY_TYPE = Pattern.compile(
+        "MATCH \\(\\)-\\[r:`(\\w+)`\\]->\\(\\) RETURN count\\(r\\) as cnt"
+    );
+    private static final Pattern PATHS_TO_NODE = Pattern.compile(
+        "MATCH path = \\(m\\)-\\[r\\*1\\.\\.(\\d+)\\]-\\(n\\) WHERE id\\(n\\) = \\$nodeId RETURN path, length\\(path\\) as hops LIMIT (\\d+)"
+    );
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, GraphNode> nodes = new LinkedHashMap<>();
+    private final Map<String, Long> nodeIndex = new HashMap<>();
+    private final Map<Long, GraphRelationship> relationships = new LinkedHashMap<>();
+    private final Map<String, Long> relationshipIndex = new HashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+
+    private final long latencyMs;
+    private final Executor delayedExecutor;
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder unrecognizedQueries = new LongAdder();
+
+    public InMemoryGraphDriver(long latencyMs) {
+        this.latencyMs = latencyMs;
+        this.delayedExecutor = CompletableFuture.delayedExecutor(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    public long getQueryCount() {
+        return queries.sum();
+    }
+
+    public long getUnrecognizedQueryCount() {
+        return unrecognizedQueries.sum();
+    }
+
+    public int getNodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Driver driver() {
+        return proxy(Driver.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "session":
+                    Class<?> type = args != null && args.length > 0 && args[0] instanceof Class<?> c ? c : Session.class;
+                    return type == AsyncSession.class ? asyncSession() : session();
+                case "close":
+                    return null;
+                case "closeAsync":
+                    return CompletableFuture.completedFuture(null);
+                case "verifyConnectivity":
+                    return null;
+                case "verifyConnectivityAsync":
+                    return CompletableFuture.completedFuture(null);
+                case "isEncrypted":
+                    return false;
+                default:
+                    return objectMethod(proxy, method.getName(), args, "InMemoryGraphDriver");
+            }
+        });
+    }
+
+    private Session session() {
+        return proxy(Session.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "run":
+                    sleep();
+                    return result(execute((String) args[0], parameters(args)));
+                case "close":
+                    return null;
+                case "isOpen":
+                    return true;
+                default:
+                    return objectMethod(proxy, method.getName(), args, "InMemoryGraphSession");
+            }
+        });
+    }
+
+    private AsyncSession asyncSession() {
+        return proxy(AsyncSession.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "runAsync":
+                    String cypher = (String) args[0];
+                    Map<String, Object> parameters = parameters(args);
+                    if (latencyMs <= 0) {
+                        return CompletableFuture.completedFuture(cursor(execute(cypher, parameters)));
+                    }
+                    return CompletableFuture.supplyAsync(
+                        () -> cursor(execute(cypher, parameters)),
+                        delayedExecutor
+                    );
+                case "closeAsync":
+                    return CompletableFuture.completedFuture(null);
+                default:
+                    return objectMethod(proxy, method.getName(), args, "InMemoryGraphAsyncSession");
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parameters(Object[] args) {
+        if (args.length > 1 && args[1] instanceof Map<?, ?> map) {
+            return (Map<String, Object>) map;
+        }
+        return Map.of();
+    }
+
+    private Result result(List<Record> records) {
+        Iterator<Record> iterator = records.iterator();
+        return proxy(Result.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "list":
+                    return records;
+                case "single":
+                    if (records.size() != 1) {
+                        throw new NoSuchElementException("Expected a result with a single record, got " + records.size());
+                    }
+                    return records.get(0);
+                case "hasNext":
+                    return iterator.hasNext();
+                case "next":
+                    return iterator.next();
+                case "stream":
+                    return records.stream();
+                case "keys":
+                    return records.isEmpty() ? List.of() : records.get(0).keys();
+                case "consume":
+                case "remove":
+                    return null;
+                case "isOpen":
+                    return false;
+                default:
+                    return objectMethod(proxy, method.getName(), args, "InMemoryGraphResult");
+            }
+        });
+    }
+
+    private ResultCursor cursor(List<Record> records) {
+        return proxy(ResultCursor.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "listAsync":
+                    return CompletableFuture.completedFuture(records);
+                case "singleAsync":
+                    return records.size() == 1
+                        ? CompletableFuture.completedFuture(records.get(0))
+                        : CompletableFuture.failedFuture(new NoSuchElementException());
+                case "keys":
+                    return records.isEmpty() ? List.of() : records.get(0).keys();
+                case "consumeAsync":
+                    return CompletableFuture.completedFuture(null);
+                default:
+                    return objectMethod(proxy, method.getName(), args, "InMemoryGraphCursor");
+            }
+        });
+    }
+
+    // --------------------------------------------------------------- Cypher
+
+    List<Record> execute(String cypher, Map<String, Object> parameters) {
+        queries.increment();
+        Matcher matcher = MERGE_TRIPLE.matcher(cypher);
+        if (matcher.find()) {
+            return mergeTriple(matcher.group(1), matcher.group(2), matcher.group(3), parameters);
+        }
+        if ((matcher = MATCH_BY_NAME.matcher(cypher)).find()) {
+            return matchByName(matcher.group(1), (String) parameters.get("keyword"));
+        }
+        if ((matcher = SUBGRAPH.matcher(cypher)).find()) {
+            return subgraph(ids(matcher.group(2)), Integer.parseInt(matcher.group(1)));
+        }
+        if ((matcher = PATHS_TO_NODE.matcher(cypher)).find()) {
+            return pathsToNode(
+                ((Number) parameters.get("nodeId")).longValue(),
+                Integer.parseInt(matcher.group(1)),
+                Integer.parseInt(matcher.group(2))
+            );
+        }
+        if (cypher.startsWith("MATCH (n) WHERE id(n) = $id OPTIONAL MATCH")) {
+            return entityContext(((Number) parameters.get("id")).longValue());
+        }
+        if (cypher.startsWith("MATCH (n) WHERE $entryId IN coalesce(n.entryIds, []) RETURN id(n)")) {
+            return entityIdsByEntry((String) parameters.get("entryId"));
+        }
+        if (cypher.equals("MATCH (n) RETURN count(n) as cnt")) {
+            return countRecord(read(nodes::size));
+        }
+        if (cypher.equals("MATCH ()-[r]->() RETURN count(r) as cnt")) {
+            return countRecord(read(relationships::size));
+        }
+        if ((matcher = COUNT_BY_LABEL.matcher(cypher)).matches()) {
+            String label = matcher.group(1);
+            return countRecord(read(() -> (int) nodes.values().stream().filter(n -> n.label.equals(label)).count()));
+        }
+        if ((matcher = COUNT_BY_TYPE.matcher(cypher)).matches()) {
+            String type = matcher.group(1);
+            return countRecord(read(() -> (int) relationships.values().stream().filter(r -> r.type.equals(type)).count()));
+        }
+        if (cypher.startsWith("MATCH (n) RETURN id(n) as id, labels(n)[0] as type")
+            || cypher.startsWith("MATCH (n) WHERE id(n) > $after RETURN id(n) as id")) {
+            return nodePage(
+                longParameter(parameters, "after", -1),
+                intParameter(parameters, "offset", 0),
+                intParameter(parameters, "limit", Integer.MAX_VALUE)
+            );
+        }
+        if (cypher.startsWith("MATCH (a)-[r]->(b) RETURN id(r) as id")
+            || cypher.startsWith("MATCH (a)-[r]->(b) WHERE id(r) > $after RETURN id(r) as id")) {
+            return relationshipPage(
+                longParameter(parameters, "after", -1),
+                intParameter(parameters, "offset", 0),
+                intParameter(parameters, "limit", Integer.MAX_VALUE)
+            );
+        }
+        if (cypher.contains("SET r.entryIds = [id IN")) {
+            write(() -> relationships.values().forEach(r -> r.entryIds.remove(parameters.get("entryId"))));
+            return List.of();
+        }
+        if (cypher.contains("DELETE r")) {
+            return idRecords(write(this::deleteUnreferencedRelationships));
+        }
+        if (cypher.contains("SET n.entryIds = [id IN")) {
+            write(() -> nodes.values().forEach(n -> n.entryIds.remove(parameters.get("entryId"))));
+            return List.of();
+        }
+        if (cypher.contains("NOT (n)--()") && cypher.contains("DELETE n")) {
+            return idRecords(write(this::deleteOrphanNodes));
+        }
+        if (cypher.equals("MATCH (n) DETACH DELETE n")) {
+            write(() -> {
+                nodes.clear();
+                nodeIndex.clear();
+                relationships.clear();
+                relationshipIndex.clear();
+            });
+            return List.of();
+        }
+        unrecognizedQueries.increment();
+        return List.of();
+    }
+
+    private List<Record> mergeTriple(
+        String subjectType,
+        String objectType,
+        String relation,
+        Map<String, Object> parameters
+    ) {
+        String entryId = (String) parameters.get("entryId");
+        return write(() -> {
+            GraphNode subject = mergeNode(subjectType, (String) parameters.get("subject"), entryId);
+            GraphNode object = mergeNode(objectType, (String) parameters.get("object"), entryId);
+            String key = subject.id + ":" + relation + ":" + object.id;
+            Long id = relationshipIndex.get(key);
+            GraphRelationship relationship = id != null ? relationships.get(id) : null;
+            if (relationship == null) {
+                relationship = new GraphRelationship(idSequence.incrementAndGet(), subject.id, object.id, relation);
+                relationships.put(relationship.id, relationship);
+                relationshipIndex.put(key, relationship.id);
+            }
+            relationship.entryIds.add(entryId);
+            return List.of(
+                record(
+                    List.of("subjectId", "objectId", "relationId"),
+                    Values.value(subject.id),
+                    Values.value(object.id),
+                    Values.value(relationship.id)
+                )
+            );
+        });
+    }
+
+    private GraphNode mergeNode(String label, String name, String entryId) {
+        String key = label + ":" + name;
+        Long id = nodeIndex.get(key);
+        GraphNode node = id != null ? nodes.get(id) : null;
+        if (node == null) {
+            node = new GraphNode(idSequence.incrementAndGet(), label, name);
+            nodes.put(node.id, node);
+            nodeIndex.put(key, node.id);
+        }
+        node.entryIds.add(entryId);
+        return node;
+    }
+
+    private List<Record> matchByName(String label, String keyword) {
+        return read(() -> {
+            List<Record> records = new ArrayList<>();
+            for (GraphNode node : nodes.values()) {
+                if (node.label.equals(label) && node.name.contains(keyword)) {
+                    records.add(record(List.of("id"), Values.value(node.id)));
+                }
+            }
+            return records;
+        });
+    }
+
+    /**
+     * 从每个起点出发枚举长度 1..hops 的无向简单路径，每条路径一行 (n, r, m)
+     */
+    private List<Record> subgraph(List<Long> startIds, int hops) {
+        return read(() -> {
+            List<Record> records = new ArrayList<>();
+            for (Long startId : startIds) {
+                GraphNode start = nodes.get(startId);
+                if (start == null) {
+                    continue;
+                }
+                forEachPath(start, hops, (path, end) -> {
+                    Value[] rels = path.stream().map(r -> (Value) new RelationshipValue(r.toDriver())).toArray(Value[]::new);
+                    records.add(
+                        record(
+                            List.of("n", "r", "m"),
+                            new NodeValue(start.toDriver()),
+                            new ListValue(rels),
+                            new NodeValue(end.toDriver())
+                        )
+                    );
+                    return true;
+                });
+            }
+            return records;
+        });
+    }
+
+    private List<Record> pathsToNode(long nodeId, int hops, int limit) {
+        return read(() -> {
+            List<Record> records = new ArrayList<>();
+            GraphNode target = nodes.get(nodeId);
+            if (target == null) {
+                return records;
+            }
+            forEachPath(target, hops, (path, end) -> {
+                // Cypher 路径方向为 (m)-...-(n)：从远端节点走回目标节点
+                List<Entity> entities = new ArrayList<>();
+                GraphNode current = end;
+                entities.add(current.toDriver());
+                for (int i = path.size() - 1; i >= 0; i--) {
+                    GraphRelationship rel = path.get(i);
+                    current = nodes.get(rel.otherEnd(current.id));
+                    entities.add(rel.toDriver());
+                    entities.add(current.toDriver());
+                }
+                records.add(
+                    record(
+                        List.of("path", "hops"),
+                        new PathValue(new InternalPath(entities)),
+                        Values.value(path.size())
+                    )
+                );
+                return records.size() < limit;
+            });
+            return records;
+        });
+    }
+
+    private List<Record> entityContext(long id) {
+        return read(() -> {
+            GraphNode node = nodes.get(id);
+            if (node == null) {
+                return List.of();
+            }
+            List<Map<String, Object>> connections = new ArrayList<>();
+            for (GraphRelationship rel : relationships.values()) {
+                if (rel.startId == id || rel.endId == id) {
+                    Map<String, Object> connection = new HashMap<>();
+                    connection.put("rel", rel.type);
+                    connection.put("target", nodes.get(rel.otherEnd(id)).name);
+                    connections.add(connection);
+                }
+            }
+            return List.of(
+                record(
+                    List.of("name", "type", "connections"),
+                    Values.value(node.name),
+                    Values.value(node.label),
+                    Values.value(connections)
+                )
+            );
+        });
+    }
+
+    private List<Record> entityIdsByEntry(String entryId) {
+        return read(() -> {
+            List<Record> records = new ArrayList<>();
+            for (GraphNode node : nodes.values()) {
+                if (node.entryIds.contains(entryId)) {
+                    records.add(record(List.of("id"), Values.value(node.id)));
+                }
+            }
+            return records;
+        });
+    }
+
+    private List<Record> nodePage(long after, int offset, int limit) {
+        return read(() ->
+            nodes.values().stream()
+                .filter(node -> node.id > after)
+                .skip(offset)
+                .limit(limit)
+                .map(node ->
+                    record(
+                        List.of("id", "type", "name", "props"),
+                        Values.value(node.id),
+                        Values.value(node.label),
+                        Values.value(node.name),
+                        Values.value(node.properties())
+                    )
+                )
+                .toList()
+        );
+    }
+
+    private List<Record> relationshipPage(long after, int offset, int limit) {
+        return read(() ->
+            relationships.values().stream()
+                .filter(rel -> rel.id > after)
+                .skip(offset)
+                .limit(limit)
+                .map(rel ->
+                    record(
+                        List.of("id", "source", "target", "relation"),
+                        Values.value(rel.id),
+                        Values.value(rel.startId),
+                        Values.value(rel.endId),
+                        Values.value(rel.type)
+                    )
+                )
+                .toList()
+        );
+    }
+
+    private List<Long> deleteUnreferencedRelationships() {
+        List<Long> deleted = new ArrayList<>();
+        relationships.values().removeIf(rel -> {
+            if (rel.entryIds.isEmpty()) {
+                relationshipIndex.remove(rel.startId + ":" + rel.type + ":" + rel.endId);
+                deleted.add(rel.id);
+                return true;
+            }
+            return false;
+        });
+        return deleted;
+    }
+
+    private List<Long> deleteOrphanNodes() {
+        List<Long> deleted = new ArrayList<>();
+        Set<Long> connected = new LinkedHashSet<>();
+        for (GraphRelationship rel : relationships.values()) {
+            connected.add(rel.startId);
+            connected.add(rel.endId);
+        }
+        nodes.values().removeIf(node -> {
+            if (node.entryIds.isEmpty() && !connected.contains(node.id)) {
+                nodeIndex.remove(node.label + ":" + node.name);
+                deleted.add(node.id);
+                return true;
+            }
+            return false;
+        });
+        return deleted;
+    }
+
+    /**
+     * 深度优先枚举从 start 出发、长度 1..maxHops 的简单路径（节点不重复）
+     */
+    private void forEachPath(GraphNode start, int maxHops, PathVisitor visitor) {
+        Map<Long, List<GraphRelationship>> adjacency = new HashMap<>();
+        for (GraphRelationship rel : relationships.values()) {
+            adjacency.computeIfAbsent(rel.startId, k -> new ArrayList<>()).add(rel);
+            adjacency.computeIfAbsent(rel.endId, k -> new ArrayList<>()).add(rel);
+        }
+        Deque<GraphRelationship> path = new ArrayDeque<>();
+        Set<Long> visited = new LinkedHashSet<>();
+        visited.add(start.id);
+        walk(start.id, maxHops, adjacency, path, visited, visitor);
+    }
+
+    private boolean walk(
+        long current,
+        int remaining,
+        Map<Long, List<GraphRelationship>> adjacency,
+        Deque<GraphRelationship> path,
+        Set<Long> visited,
+        PathVisitor visitor
+    ) {
+        if (remaining == 0) {
+            return true;
+        }
+        for (GraphRelationship rel : adjacency.getOrDefault(current, List.of())) {
+            long next = rel.otherEnd(current);
+            if (!visited.add(next)) {
+                continue;
+            }
+            path.addLast(rel);
+            boolean proceed = visitor.visit(new ArrayList<>(path), nodes.get(next)) &&
+                walk(next, remaining - 1, adjacency, path, visited, visitor);
+            path.removeLast();
+            visited.remove(next);
+            if (!proceed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // -------------------------------------------------------------- helpers
+
+    private static List<Long> ids(String csv) {
+        List<Long> ids = new ArrayList<>();
+        for (String id : csv.split(",")) {
+            if (!id.isBlank()) {
+                ids.add(Long.parseLong(id.trim()));
+            }
+        }
+        return ids;
+    }
+
+    private static int intParameter(Map<String, Object> parameters, String name, int defaultValue) {
+        Object value = parameters.get(name);
+        return value instanceof Number number ? number.intValue() : defaultValue;
+    }
+
+    private static long longParameter(Map<String, Object> parameters, String name, long defaultValue) {
+        Object value = parameters.get(name);
+        return value instanceof Number number ? number.longValue() : defaultValue;
+    }
+
+    private static List<Record> idRecords(List<Long> ids) {
+        return ids.stream().map(id -> record(List.of("id"), Values.value(id))).toList();
+    }
+
+    private static List<Record> countRecord(int count) {
+        return List.of(record(List.of("cnt"), Values.value((long) count)));
+    }
+
+    private static Record record(List<String> keys, Value... values) {
+        return new InternalRecord(keys, values);
+    }
+
+    private <T> T read(java.util.function.Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        write(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private <T> T write(java.util.function.Supplier<T> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void sleep() {
+        if (latencyMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(
+            InMemoryGraphDriver.class.getClassLoader(),
+            new Class<?>[] { type },
+            handler
+        );
+    }
+
+    private static Object objectMethod(Object proxy, String name, Object[] args, String label) {
+        switch (name) {
+            case "toString":
+                return label;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                throw new UnsupportedOperationException(label + " does not support " + name);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PathVisitor {
+        /** @return false 表示停止枚举 */
+        boolean visit(List<GraphRelationship> path, GraphNode end);
+    }
+
+    private static final class GraphNode {
+
+        private final long id;
+        private final String label;
+        private final String name;
+        private final Set<String> entryIds = new LinkedHashSet<>();
+
+        private GraphNode(long id, String label, String name) {
+            this.id = id;
+            this.label = label;
+            this.name = name;
+        }
+
+        private Map<String, Object> properties() {
+            Map<String, Object> properties = new LinkedHashMap<>();
+            properties.put("name", name);
+            properties.put("entryIds", new ArrayList<>(entryIds));
+            return properties;
+        }
+
+        private InternalNode toDriver() {
+            Map<String, Value> properties = new LinkedHashMap<>();
+            properties.put("name", Values.value(name));
+            properties.put("entryIds", Values.value(new ArrayList<>(entryIds)));
+            return new InternalNode(id, List.of(label), properties);
+        }
+    }
+
+    private static final class GraphRelationship {
+
+        private final long id;
+        private final long startId;
+        private final long endId;
+        private final String type;
+        private final Collection<String> entryIds = new LinkedHashSet<>();
+
+        private GraphRelationship(long id, long startId, long endId, String type) {
+            this.id = id;
+            this.startId = startId;
+            this.endId = endId;
+            this.type = type;
+        }
+
+        private long otherEnd(long nodeId) {
+            return nodeId == startId ? endId : startId;
+        }
+
+        private InternalRelationship toDriver() {
+            return new InternalRelationship(id, startId, endId, type);
+        }
+    }
+}
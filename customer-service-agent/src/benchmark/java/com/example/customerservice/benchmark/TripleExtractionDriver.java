@@ -0,0 +1,155 @@
+package com.example.customerservice.benchmark;
+
+import com.example.customerservice.dto.TripleExtractionStatsResponse;
+import com.example.customerservice.service.extractor.ExtractionCache;
+import com.example.customerservice.service.extractor.LLMTripleExtractor;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * 三元组抽取吞吐对比：逐条请求 vs 多文档合并请求
+ *
+ * 直接构造 {@link LLMTripleExtractor}（不启动 Spring、不启用磁盘缓存），对着 {@link FakeOpenAiServer} 抽取同一批条目：
+ * - 逐条串行：重建原来的做法，每个条目一次请求，等上一条返回再发下一条
+ * - 逐条并发：每个条目一次请求，由 max-in-flight 限制并发
+ * - 合并请求：{@link LLMTripleExtractor#extractTriplesBatch}，按 batch-documents / batch-tokens 打包
+ *
+ * 替身的响应时间 = chat-latency-ms（每次请求的固定开销）+ 输出 token × token-latency-ms，
+ * 输出每种模式的条目/分钟、请求数和每条目的输入/输出 token。
+ *
+ * 运行（参数均可省略）：
+ * mvn -Pbenchmark test-compile exec:exec
+ *   -Dbenchmark.main=com.example.customerservice.benchmark.TripleExtractionDriver
+ *   -Djmh.args="entries=200 chat-latency-ms=800 token-latency-ms=20 max-in-flight=4 batch-documents=8 batch-tokens=3000"
+ */
+public class TripleExtractionDriver {
+
+    private final Map<String, String> options;
+
+    private TripleExtractionDriver(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int exitCode = 0;
+        try {
+            new TripleExtractionDriver(parseOptions(args)).run();
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        }
+        System.exit(exitCode);
+    }
+
+    private void run() throws Exception {
+        int entries = Integer.parseInt(option("entries", "200"));
+        Map<String, String> texts = new LinkedHashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < entries; i++) {
+            texts.put("entry-" + i, BenchmarkCorpus.entryText(random));
+        }
+
+        try (
+            FakeOpenAiServer openAi = new FakeOpenAiServer(
+                Long.parseLong(option("chat-latency-ms", "800")),
+                0,
+                Double.parseDouble(option("token-latency-ms", "20"))
+            )
+        ) {
+            System.out.printf(
+                "条目 %d 个，替身延迟 %sms/请求 + %sms/输出token，max-in-flight %s，合并上限 %s 篇 / %s token%n%n",
+                entries,
+                option("chat-latency-ms", "800"),
+                option("token-latency-ms", "20"),
+                option("max-in-flight", "4"),
+                option("batch-documents", "8"),
+                option("batch-tokens", "3000")
+            );
+            System.out.printf(
+                "%-12s %8s %8s %12s %14s %14s %10s%n",
+                "模式", "请求数", "耗时(s)", "条目/分钟", "输入token/条目", "输出token/条目", "三元组"
+            );
+
+            measure(openAi, "逐条串行", texts, extractor -> {
+                Map<String, List<Map<String, String>>> results = new HashMap<>();
+                texts.forEach((id, text) -> results.put(id, extractor.extractTriples(text).block()));
+                return results;
+            });
+            measure(openAi, "逐条并发", texts, extractor -> {
+                Map<String, List<Map<String, String>>> results = new HashMap<>();
+                Flux.fromIterable(texts.entrySet())
+                    .flatMap(entry -> extractor.extractTriples(entry.getValue()).map(triples -> Map.entry(entry.getKey(), triples)))
+                    .doOnNext(entry -> results.put(entry.getKey(), entry.getValue()))
+                    .blockLast();
+                return results;
+            });
+            measure(openAi, "合并请求", texts, extractor -> extractor.extractTriplesBatch(texts).block());
+        }
+    }
+
+    private void measure(
+        FakeOpenAiServer openAi,
+        String mode,
+        Map<String, String> texts,
+        Function<LLMTripleExtractor, Map<String, List<Map<String, String>>>> extraction
+    ) {
+        ExtractionCache cache = new ExtractionCache(false, "unused", 1, 1);
+        LLMTripleExtractor extractor = new LLMTripleExtractor(
+            WebClient.builder(),
+            cache,
+            "fake-key",
+            openAi.baseUrl(),
+            "fake-model",
+            64,
+            5000,
+            120_000,
+            Integer.parseInt(option("max-in-flight", "4")),
+            0,
+            100,
+            1000,
+            Integer.parseInt(option("batch-documents", "8")),
+            Integer.parseInt(option("batch-tokens", "3000"))
+        );
+        try {
+            long callsBefore = openAi.getExtractionCalls();
+            long startedAt = System.nanoTime();
+            Map<String, List<Map<String, String>>> results = extraction.apply(extractor);
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            TripleExtractionStatsResponse stats = extractor.getStats();
+            System.out.printf(
+                "%-12s %8d %8.1f %12.0f %14.1f %14.1f %10d%n",
+                mode,
+                openAi.getExtractionCalls() - callsBefore,
+                seconds,
+                texts.size() / seconds * 60,
+                stats.getPromptTokens() / (double) texts.size(),
+                stats.getCompletionTokens() / (double) texts.size(),
+                results.values().stream().mapToInt(List::size).sum()
+            );
+        } finally {
+            extractor.shutdown();
+        }
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("参数格式应为 key=value: " + arg);
+            }
+            options.put(arg.substring(0, separator).replaceFirst("^-+", ""), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
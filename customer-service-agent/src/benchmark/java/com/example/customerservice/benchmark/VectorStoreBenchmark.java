@@ -0,0 +1,243 @@
+package com.example.customerservice.benchmark;
+
+import com.example.customerservice.service.vector.HnswStoreOptions;
+import com.example.customerservice.service.vector.HnswVectorStore;
+import io.agentscope.core.message.TextBlock;
+import io.agentscope.core.rag.model.Document;
+import io.agentscope.core.rag.model.DocumentMetadata;
+import io.agentscope.core.rag.store.InMemoryStore;
+import io.agentscope.core.rag.store.MilvusStore;
+import io.agentscope.core.rag.store.VDBStoreBase;
+import io.agentscope.core.rag.store.dto.SearchDocumentDto;
+import io.milvus.v2.common.IndexParam;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 向量库召回率/延迟对比
+ *
+ * 在同一份语料上比较：
+ * - exact：AgentScope InMemoryStore（暴力余弦，作为召回率基准）
+ * - hnsw-float32 / hnsw-int8：进程内 {@link HnswVectorStore}
+ * - milvus：仅在传入 milvus-uri 时参与（需要可访问的 Milvus 服务）
+ *
+ * 语料为高斯聚簇向量（簇数 = corpus / 100），贴近真实 Embedding 的聚簇分布；
+ * 查询为语料点加噪声。输出建库耗时、recall@k 以及单次检索 p50/p99 延迟。
+ *
+ * 运行（参数以 key=value 形式通过 jmh.args 传入，均可省略）：
+ * mvn -Pbenchmark test-compile exec:exec
+ *   -Dbenchmark.main=com.example.customerservice.benchmark.VectorStoreBenchmark
+ *   -Djmh.args="corpus=20000 dimensions=1024 queries=200 k=10 ef-search=32,64,128 milvus-uri=http://localhost:19530"
+ */
+public class VectorStoreBenchmark {
+
+    private final Map<String, String> options;
+
+    private VectorStoreBenchmark(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int exitCode = 0;
+        try {
+            new VectorStoreBenchmark(parseOptions(args)).run();
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        }
+        // Milvus 客户端持有非守护线程
+        System.exit(exitCode);
+    }
+
+    private void run() throws Exception {
+        Path workspace = BenchmarkWorkspace.prepareScratchDirectory();
+        int corpusSize = Integer.parseInt(option("corpus", "20000"));
+        int dimensions = Integer.parseInt(option("dimensions", "1024"));
+        int queryCount = Integer.parseInt(option("queries", "200"));
+        int k = Integer.parseInt(option("k", "10"));
+        int[] efSearchLevels = Arrays.stream(option("ef-search", "32,64,128").split(","))
+            .mapToInt(level -> Integer.parseInt(level.trim()))
+            .toArray();
+
+        Random random = new Random(42);
+        List<Document> corpus = clusteredCorpus(corpusSize, dimensions, random);
+        List<double[]> queries = new ArrayList<>(queryCount);
+        for (int i = 0; i < queryCount; i++) {
+            double[] base = corpus.get(random.nextInt(corpusSize)).getEmbedding();
+            queries.add(perturb(base, 0.3, random));
+        }
+        System.out.printf("语料 %d 条，%d 维，查询 %d 条，k=%d%n%n", corpusSize, dimensions, queryCount, k);
+
+        InMemoryStore exact = InMemoryStore.builder().dimensions(dimensions).build();
+        long exactBuild = timedAdd(exact, corpus);
+        List<Set<String>> truth = new ArrayList<>(queryCount);
+        for (double[] query : queries) {
+            truth.add(ids(exact.search(request(query, k)).block()));
+        }
+        report("exact", exactBuild, exact, queries, truth, k, null);
+
+        for (HnswStoreOptions.Quantization quantization : HnswStoreOptions.Quantization.values()) {
+            for (int efSearch : efSearchLevels) {
+                Path directory = workspace.resolve("data/hnsw-" + quantization + "-" + efSearch);
+                HnswStoreOptions storeOptions = new HnswStoreOptions(
+                    Integer.parseInt(option("m", "16")),
+                    Integer.parseInt(option("ef-construction", "200")),
+                    efSearch,
+                    quantization,
+                    0.2,
+                    Duration.ofMinutes(10)
+                );
+                try (HnswVectorStore store = new HnswVectorStore(directory, dimensions, storeOptions)) {
+                    long build = timedAdd(store, corpus);
+                    store.flush();
+                    report(
+                        "hnsw-" + quantization.name().toLowerCase() + " ef=" + efSearch,
+                        build,
+                        store,
+                        queries,
+                        truth,
+                        k,
+                        directory
+                    );
+                }
+            }
+        }
+
+        String milvusUri = options.get("milvus-uri");
+        if (milvusUri != null) {
+            MilvusStore milvus = MilvusStore.builder()
+                .uri(milvusUri)
+                .collectionName(option("milvus-collection", "vector_store_benchmark"))
+                .dimensions(dimensions)
+                .metricType(IndexParam.MetricType.COSINE)
+                .build();
+            try {
+                long build = timedAdd(milvus, corpus);
+                report("milvus", build, milvus, queries, truth, k, null);
+            } finally {
+                milvus.close();
+            }
+        } else {
+            System.out.println("未指定 milvus-uri，跳过 Milvus 对比");
+        }
+    }
+
+    private static long timedAdd(VDBStoreBase store, List<Document> corpus) {
+        long start = System.nanoTime();
+        for (int from = 0; from < corpus.size(); from += 1000) {
+            store.add(corpus.subList(from, Math.min(corpus.size(), from + 1000))).block();
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static void report(
+        String name,
+        long buildMillis,
+        VDBStoreBase store,
+        List<double[]> queries,
+        List<Set<String>> truth,
+        int k,
+        Path directory
+    ) throws Exception {
+        // 预热
+        for (double[] query : queries) {
+            store.search(request(query, k)).block();
+        }
+        long[] latencies = new long[queries.size()];
+        int found = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            long start = System.nanoTime();
+            List<Document> hits = store.search(request(queries.get(i), k)).block();
+            latencies[i] = System.nanoTime() - start;
+            Set<String> expected = truth.get(i);
+            found += (int) hits.stream().filter(hit -> expected.contains(hit.getId())).count();
+        }
+        Arrays.sort(latencies);
+        String size = "";
+        if (directory != null) {
+            try (Stream<Path> files = Files.list(directory)) {
+                long bytes = files.mapToLong(file -> file.toFile().length()).sum();
+                size = String.format("  磁盘 %.1f MB", bytes / 1024.0 / 1024.0);
+            }
+        }
+        System.out.printf(
+            "%-24s 建库 %6d ms  recall@%d %.3f  p50 %7.3f ms  p99 %7.3f ms%s%n",
+            name,
+            buildMillis,
+            k,
+            found / (double) (queries.size() * k),
+            latencies[latencies.length / 2] / 1e6,
+            latencies[(int) Math.min(latencies.length - 1, Math.ceil(latencies.length * 0.99) - 1)] / 1e6,
+            size
+        );
+    }
+
+    private static List<Document> clusteredCorpus(int size, int dimensions, Random random) {
+        int clusters = Math.max(1, size / 100);
+        List<double[]> centers = new ArrayList<>(clusters);
+        for (int i = 0; i < clusters; i++) {
+            double[] center = new double[dimensions];
+            for (int d = 0; d < dimensions; d++) {
+                center[d] = random.nextGaussian();
+            }
+            centers.add(center);
+        }
+        List<Document> corpus = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String entryId = "entry-" + i;
+            DocumentMetadata metadata = new DocumentMetadata(
+                TextBlock.builder().text("知识片段" + i).build(),
+                entryId,
+                entryId + "-chunk-0",
+                Map.of("entryId", entryId, "title", "标题" + i)
+            );
+            Document document = new Document(metadata);
+            document.setEmbedding(perturb(centers.get(random.nextInt(clusters)), 0.6, random));
+            corpus.add(document);
+        }
+        return corpus;
+    }
+
+    private static double[] perturb(double[] base, double noise, Random random) {
+        double[] vector = new double[base.length];
+        for (int d = 0; d < base.length; d++) {
+            vector[d] = base[d] + random.nextGaussian() * noise;
+        }
+        return vector;
+    }
+
+    private static SearchDocumentDto request(double[] query, int k) {
+        return SearchDocumentDto.builder().queryEmbedding(query).limit(k).build();
+    }
+
+    private static Set<String> ids(List<Document> documents) {
+        return documents.stream().map(Document::getId).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private String option(String key, String defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("参数格式应为 key=value: " + arg);
+            }
+            options.put(arg.substring(0, separator).replaceFirst("^-+", ""), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.customerservice.service;
+
+import com.example.customerservice.benchmark.BenchmarkWorkspace;
+import com.example.customerservice.dto.CategoryResponse;
+import com.example.customerservice.dto.CategoryTreeResponse;
+import com.example.customerservice.entity.Category;
+import com.example.customerservice.entity.EntryCategory;
+import com.example.customerservice.service.storage.EmbeddedKeyValueStore;
+import com.example.customerservice.service.storage.KeyValueStoreOptions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 大规模分类下 CategoryService 的读路径开销
+ *
+ * 三级分类树（10 个一级分类 × 30 个二级分类 × 其余为三级分类），
+ * 每个条目随机挂在 5 个三级分类下，关联总数由 associations 指定。
+ *
+ * - categoryTree：缓存命中时的分类树
+ * - categoryTreeAfterRename：重命名一个三级分类（含一次批次日志提交）后重建分类树
+ * - categoryIdsForEntry / entryIdsForCategory / entryCount / subtreeEntryCount：邻接索引查询
+ *
+ * 数据写成旧版 JSON 文件，由 init() 一次性导入内嵌存储，准备阶段不逐条调用 addEntryToCategory。
+ * 会改写工作目录下的 data/，必须在 target/benchmark-work 中运行：
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="CategoryIndexBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CategoryIndexBenchmark {
+
+    private static final int ROOTS = 10;
+    private static final int CHILDREN_PER_ROOT = 30;
+    private static final int CATEGORIES_PER_ENTRY = 5;
+
+    @State(Scope.Benchmark)
+    public static class CategoryState {
+
+        @Param({ "10000" })
+        public int categories;
+
+        @Param({ "1000000" })
+        public int associations;
+
+        EmbeddedKeyValueStore store;
+        CategoryService categoryService;
+        List<String> leafIds;
+        List<String> rootIds;
+        int entryCount;
+        int renameCounter;
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            BenchmarkWorkspace.prepareScratchDirectory();
+            ObjectMapper objectMapper = new ObjectMapper();
+            SplittableRandom generator = new SplittableRandom(17L);
+            long now = System.currentTimeMillis();
+
+            List<Category> stored = new ArrayList<>(categories);
+            rootIds = new ArrayList<>();
+            List<Category> middle = new ArrayList<>();
+            leafIds = new ArrayList<>();
+            for (int r = 0; r < ROOTS; r++) {
+                Category root = new Category("cat-r" + r, "一级" + r, null, "/一级" + r, 0, now, now);
+                stored.add(root);
+                rootIds.add(root.id());
+                for (int c = 0; c < CHILDREN_PER_ROOT; c++) {
+                    String name = "二级" + r + "-" + c;
+                    Category child = new Category("cat-m" + r + "-" + c, name, root.id(), root.path() + "/" + name, 1, now, now);
+                    stored.add(child);
+                    middle.add(child);
+                }
+            }
+            for (int i = 0; stored.size() < categories; i++) {
+                Category parent = middle.get(i % middle.size());
+                String name = "三级" + i;
+                Category leaf = new Category("cat-l" + i, name, parent.id(), parent.path() + "/" + name, 2, now, now);
+                stored.add(leaf);
+                leafIds.add(leaf.id());
+            }
+
+            entryCount = associations / CATEGORIES_PER_ENTRY;
+            List<EntryCategory> links = new ArrayList<>(associations);
+            for (int e = 0; e < entryCount; e++) {
+                LinkedHashSet<String> chosen = new LinkedHashSet<>();
+                while (chosen.size() < CATEGORIES_PER_ENTRY) {
+                    chosen.add(leafIds.get(generator.nextInt(leafIds.size())));
+                }
+                for (String categoryId : chosen) {
+                    links.add(new EntryCategory("ec-" + links.size(), "entry-" + e, categoryId));
+                }
+            }
+
+            Path categoriesPath = Paths.get("data", "categories.json");
+            Files.createDirectories(categoriesPath.getParent());
+            objectMapper.writeValue(categoriesPath.toFile(), stored);
+            objectMapper.writeValue(Paths.get("data", "entry-categories.json").toFile(), links);
+
+            long start = System.nanoTime();
+            store = new EmbeddedKeyValueStore(Paths.get("data", "classification"), KeyValueStoreOptions.defaults());
+            categoryService = new CategoryService(objectMapper, event -> {}, store, "data");
+            categoryService.init();
+            System.out.printf(
+                "%n加载 %d 个分类、%d 条关联耗时 %d ms%n",
+                stored.size(),
+                links.size(),
+                (System.nanoTime() - start) / 1_000_000
+            );
+            random = new SplittableRandom(23L);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            store.close();
+        }
+    }
+
+    @Benchmark
+    public CategoryTreeResponse categoryTree(CategoryState state) {
+        return state.categoryService.getCategoryTree();
+    }
+
+    @Benchmark
+    public CategoryTreeResponse categoryTreeAfterRename(CategoryState state) throws IOException {
+        CategoryResponse renamed = state.categoryService.updateCategory(
+            state.leafIds.get(0),
+            "三级-重命名" + (state.renameCounter++ & 1)
+        );
+        return renamed != null ? state.categoryService.getCategoryTree() : null;
+    }
+
+    @Benchmark
+    public List<String> categoryIdsForEntry(CategoryState state) {
+        return state.categoryService.getCategoryIdsForEntry("entry-" + state.random.nextInt(state.entryCount));
+    }
+
+    @Benchmark
+    public List<String> entryIdsForCategory(CategoryState state) {
+        return state.categoryService.getEntryIdsForCategory(
+            state.leafIds.get(state.random.nextInt(state.leafIds.size()))
+        );
+    }
+
+    @Benchmark
+    public int entryCount(CategoryState state) {
+        return state.categoryService.getEntryCount(state.leafIds.get(state.random.nextInt(state.leafIds.size())));
+    }
+
+    @Benchmark
+    public int subtreeEntryCount(CategoryState state) {
+        return state.categoryService.getSubtreeEntryCount(state.rootIds.get(state.random.nextInt(state.rootIds.size())));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.customerservice.service;
+
+import com.example.customerservice.benchmark.BenchmarkCorpus;
+import com.example.customerservice.dto.PreprocessedEntities;
+import com.example.customerservice.service.extractor.RulePreprocessor;
+import io.agentscope.core.rag.model.Document;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 聊天与检索链路上的纯CPU热点
+ *
+ * 与被测类同包，直接调用包级可见的静态方法：
+ * - sanitizeReasoningContent：每条Agent回复都会执行的思考过程剥离
+ * - deduplicateResults / filterResultsByQuestionFocus：每次向量检索后的结果后处理
+ * - rulePreprocess：知识条目写入和图谱抽取时的规则预处理
+ *
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Djmh.args="HotPathBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotPathBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class RetrievalState {
+
+        /** 检索返回的文档数（KnowledgeBaseService 默认 limit=10），约30%为重复结果 */
+        @Param({ "10", "100" })
+        public int results;
+
+        List<Document> documents;
+        List<Document> uniqueDocuments;
+
+        @Setup
+        public void setUp() {
+            documents = BenchmarkCorpus.retrievedDocuments(results, 0.3, 42L);
+            uniqueDocuments = KnowledgeBaseService.deduplicateResults(documents);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ResponseState {
+
+        /** Agent回复中的答案条数 */
+        @Param({ "4", "40" })
+        public int answerSentences;
+
+        String response;
+
+        @Setup
+        public void setUp() {
+            response = BenchmarkCorpus.reasoningResponse(answerSentences);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EntryState {
+
+        String entryText;
+        RulePreprocessor rulePreprocessor;
+
+        @Setup
+        public void setUp() {
+            entryText = BenchmarkCorpus.entryText(new Random(7L));
+            rulePreprocessor = new RulePreprocessor(List.of(), List.of());
+        }
+    }
+
+    @Benchmark
+    public String sanitizeReasoningContent(ResponseState state) {
+        return ChatSessionService.sanitizeReasoningContent(state.response);
+    }
+
+    @Benchmark
+    public List<Document> deduplicateResults(RetrievalState state) {
+        return KnowledgeBaseService.deduplicateResults(state.documents);
+    }
+
+    @Benchmark
+    public List<Document> filterResultsByQuestionFocus(RetrievalState state) {
+        return KnowledgeBaseService.filterResultsByQuestionFocus(
+            "智能手表如何保修？",
+            state.uniqueDocuments
+        );
+    }
+
+    @Benchmark
+    public PreprocessedEntities rulePreprocess(EntryState state) {
+        return state.rulePreprocessor.preprocess(state.entryText);
+    }
+}
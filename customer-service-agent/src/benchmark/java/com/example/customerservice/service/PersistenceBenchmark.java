@@ -0,0 +1,159 @@
+package com.example.customerservice.service;
+
+import com.example.customerservice.benchmark.BenchmarkCorpus;
+import com.example.customerservice.benchmark.BenchmarkWorkspace;
+import com.example.customerservice.dto.CategoryResponse;
+import com.example.customerservice.dto.CategoryTreeResponse;
+import com.example.customerservice.service.KnowledgeBaseService.ManagedKnowledgeEntry;
+import com.example.customerservice.service.storage.EmbeddedKeyValueStore;
+import com.example.customerservice.service.storage.KeyValueStoreOptions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 分类树与知识注册表的读写开销
+ *
+ * - categoryTree：CategoryService.getCategoryTree（分类管理页每次加载都会调用）
+ * - categoryRename：重命名一个分类，包含子路径更新和一次批次日志提交（fsync）
+ * - registryPersist / registryLoad：KnowledgeBaseService 每次增删改条目都会整份重写 knowledge-entries.json
+ *
+ * 会改写工作目录下的 data/，必须在 target/benchmark-work 中运行：
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="PersistenceBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class CategoryState {
+
+        /** 分类总数：每个一级分类下挂 9 个二级分类 */
+        @Param({ "50", "500" })
+        public int categories;
+
+        /** 每个二级分类关联的知识条目数 */
+        @Param({ "5" })
+        public int entriesPerCategory;
+
+        EmbeddedKeyValueStore store;
+        CategoryService categoryService;
+        String renameTarget;
+        int renameCounter;
+
+        @Setup
+        public void setUp() throws IOException {
+            BenchmarkWorkspace.prepareScratchDirectory();
+            store = new EmbeddedKeyValueStore(Paths.get("data", "classification"), KeyValueStoreOptions.defaults());
+            categoryService = new CategoryService(new ObjectMapper(), event -> {}, store, "data");
+            categoryService.init();
+
+            int roots = Math.max(1, categories / 10);
+            int entryCounter = 0;
+            for (int r = 0; r < roots; r++) {
+                CategoryResponse root = categoryService.createCategory("一级分类" + r, null);
+                renameTarget = root.getId();
+                for (int c = 0; c < 9; c++) {
+                    CategoryResponse child = categoryService.createCategory(
+                        "二级分类" + r + "-" + c,
+                        root.getId()
+                    );
+                    for (int e = 0; e < entriesPerCategory; e++) {
+                        categoryService.addEntryToCategory("entry-" + entryCounter++, child.getId());
+                    }
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            store.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RegistryState {
+
+        /** 注册表中的知识条目数 */
+        @Param({ "20", "200" })
+        public int entries;
+
+        KnowledgeBaseService knowledgeBaseService;
+
+        @Setup
+        public void setUp() throws IOException {
+            BenchmarkWorkspace.prepareScratchDirectory();
+            ObjectMapper objectMapper = new ObjectMapper();
+            Random random = new Random(11L);
+            List<ManagedKnowledgeEntry> stored = new ArrayList<>(entries);
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < entries; i++) {
+                String entryId = "entry-" + i;
+                stored.add(
+                    new ManagedKnowledgeEntry(
+                        entryId,
+                        "售后服务政策-" + i,
+                        BenchmarkCorpus.entryText(random),
+                        "knowledge-console",
+                        "text",
+                        now,
+                        now,
+                        List.of(entryId + "-chunk-0", entryId + "-chunk-1")
+                    )
+                );
+            }
+            Path registry = Paths.get("data", "knowledge-entries.json");
+            Files.createDirectories(registry.getParent());
+            objectMapper.writeValue(registry.toFile(), stored);
+
+            // 只用到注册表读写，检索与图谱依赖留空
+            knowledgeBaseService = new KnowledgeBaseService(null, objectMapper, null, null, null, null, null, null, null, new KnowledgeCorpusVersion(null));
+            knowledgeBaseService.loadRegistry();
+        }
+    }
+
+    @Benchmark
+    public CategoryTreeResponse categoryTree(CategoryState state) {
+        return state.categoryService.getCategoryTree();
+    }
+
+    @Benchmark
+    public CategoryResponse categoryRename(CategoryState state) throws IOException {
+        return state.categoryService.updateCategory(
+            state.renameTarget,
+            "一级分类-重命名" + (state.renameCounter++ & 1)
+        );
+    }
+
+    @Benchmark
+    public void registryPersist(RegistryState state) throws IOException {
+        state.knowledgeBaseService.persistRegistry();
+    }
+
+    @Benchmark
+    public void registryLoad(RegistryState state) throws IOException {
+        state.knowledgeBaseService.loadRegistry();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.customerservice.service.extractor;
+
+import com.example.customerservice.benchmark.BenchmarkCorpus;
+import com.example.customerservice.dto.PreprocessedEntities;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 规则预处理：四遍正则 + 列表查找 vs 单次扫描 + 集合查找
+ *
+ * 文档由 sections 段语料条目拼成（每段约 150 字），覆盖单条目到大文档导入。
+ * 每个基准方法都包含一次预处理和对全部规则三元组端点的类型推断，与 TripleExtractor 写入路径一致。
+ * 基线保留原来的四个正则和 List.contains 查找，仅用于对比。
+ *
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Djmh.args="RulePreprocessorBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RulePreprocessorBenchmark {
+
+    private static final Pattern QA_PATTERN = Pattern.compile("\\?(.*)\\n[答案：:](.*)");
+    private static final Pattern PRODUCT_PATTERN = Pattern.compile("[产品商品][：:]([^\n，,。]+)");
+    private static final Pattern ORDER_PATTERN = Pattern.compile("[订单单号][：:]([A-Z0-9]+)");
+    private static final Pattern SERVICE_PATTERN = Pattern.compile("(保修|质保|维修|退换|退款|退货|换货)[^。，,\n]*(?:的|是|方式|政策|条件|范围)?");
+
+    @Param({ "1", "50", "500" })
+    public int sections;
+
+    String text;
+    RulePreprocessor rulePreprocessor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7L);
+        StringBuilder document = new StringBuilder();
+        for (int i = 0; i < sections; i++) {
+            document.append(BenchmarkCorpus.entryText(random)).append('\n');
+        }
+        text = document.toString();
+        rulePreprocessor = new RulePreprocessor(List.of(), List.of());
+    }
+
+    @Benchmark
+    public int regexPassesWithListLookup() {
+        Map<String, Object> preprocessed = new HashMap<>();
+        preprocessed.put("products", findAll(PRODUCT_PATTERN, 1));
+        preprocessed.put("orders", findAll(ORDER_PATTERN, 1));
+        preprocessed.put("services", findAll(SERVICE_PATTERN, 1));
+        List<Map<String, String>> qas = new ArrayList<>();
+        Matcher matcher = QA_PATTERN.matcher(text);
+        while (matcher.find()) {
+            Map<String, String> qa = new HashMap<>();
+            qa.put("question", matcher.group(1).trim());
+            qa.put("answer", matcher.group(2).trim());
+            qas.add(qa);
+        }
+        preprocessed.put("qas", qas);
+
+        int typed = 0;
+        for (Object products : List.of(preprocessed.get("products"), preprocessed.get("services"))) {
+            for (Object entity : (List<?>) products) {
+                typed += listType((String) entity, preprocessed).length();
+            }
+        }
+        for (Map<String, String> qa : qas) {
+            typed += listType(qa.get("question"), preprocessed).length();
+            typed += listType(qa.get("answer"), preprocessed).length();
+        }
+        return typed;
+    }
+
+    @Benchmark
+    public int singlePassWithSetLookup() {
+        PreprocessedEntities preprocessed = rulePreprocessor.preprocess(text);
+        int typed = 0;
+        for (List<String> entities : List.of(preprocessed.getProducts(), preprocessed.getServices())) {
+            for (String entity : entities) {
+                typed += setType(entity, preprocessed).length();
+            }
+        }
+        for (PreprocessedEntities.QaPair qa : preprocessed.getQas()) {
+            typed += setType(qa.question(), preprocessed).length();
+            typed += setType(qa.answer(), preprocessed).length();
+        }
+        return typed;
+    }
+
+    private List<String> findAll(Pattern pattern, int group) {
+        List<String> values = new ArrayList<>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            values.add(matcher.group(group).trim());
+        }
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String listType(String entity, Map<String, Object> preprocessed) {
+        if (((List<String>) preprocessed.get("products")).contains(entity)) return "Product";
+        if (((List<String>) preprocessed.get("services")).contains(entity)) return "Service";
+        if (((List<String>) preprocessed.get("orders")).contains(entity)) return "Order";
+        if (entity.contains("?") || entity.contains("如何") || entity.contains("怎么")) return "QA";
+        return "Concept";
+    }
+
+    private static String setType(String entity, PreprocessedEntities preprocessed) {
+        if (preprocessed.containsProduct(entity)) return "Product";
+        if (preprocessed.containsService(entity)) return "Service";
+        if (preprocessed.containsOrder(entity)) return "Order";
+        if (preprocessed.containsQuestion(entity)) return "QA";
+        if (entity.contains("?") || entity.contains("？") || entity.contains("如何") || entity.contains("怎么")) return "QA";
+        return "Concept";
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.customerservice.config;
+
+import com.example.customerservice.service.storage.EmbeddedKeyValueStore;
+import com.example.customerservice.service.storage.KeyValueStoreOptions;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 分类、标签及其条目关联的内嵌存储
+ *
+ * CategoryService 与 TagService 共用一个存储实例，
+ * 删除分类/标签时连同关联一起在一个批次内提交。
+ */
+@Configuration
+public class ClassificationStoreConfig {
+
+    @Value("${classification-store.path:./data/classification}")
+    private String path;
+
+    @Value("${classification-store.sync-on-commit:true}")
+    private boolean syncOnCommit;
+
+    @Value("${classification-store.compaction-ratio:2.0}")
+    private double compactionRatio;
+
+    @Value("${classification-store.min-compaction-bytes:4194304}")
+    private long minCompactionBytes;
+
+    @Bean(destroyMethod = "close")
+    public EmbeddedKeyValueStore classificationStore() throws IOException {
+        return new EmbeddedKeyValueStore(
+            Path.of(path),
+            new KeyValueStoreOptions(syncOnCommit, compactionRatio, minCompactionBytes)
+        );
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.customerservice.config;
 
+import com.example.customerservice.service.vector.HnswStoreOptions;
+import com.example.customerservice.service.vector.HnswVectorStore;
+import com.example.customerservice.service.vector.MilvusIndexProfile;
+import com.example.customerservice.service.vector.ProfiledMilvusStore;
 import io.agentscope.core.embedding.EmbeddingModel;
 import io.agentscope.core.embedding.openai.OpenAITextEmbedding;
 import io.agentscope.core.rag.Knowledge;
@@ -7,15 +11,29 @@ import io.agentscope.core.rag.knowledge.SimpleKnowledge;
 import io.agentscope.core.rag.store.MilvusStore;
 import io.milvus.v2.common.IndexParam;
 import jakarta.annotation.PreDestroy;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 /**
  * RAG相关组件配置
  * 提供EmbeddingModel与Knowledge的单例Bean
+ *
+ * 向量库由 vector-store.type 选择：
+ * - milvus：外部 Milvus 服务（默认）
+ * - hnsw：进程内 HNSW 向量库，数据保存在 vector-store.hnsw.path
+ *
+ * Milvus 的索引与检索参数按 milvus.index.profiles 中的命名档位配置，
+ * milvus.index.profile 指定启动时应用的档位（为空则沿用集合现有索引）。
  */
 @Configuration
 public class RagConfig {
@@ -51,9 +69,44 @@ public class RagConfig {
     @Value("${milvus.token:}")
     private String milvusToken;
 
+    @Value("${milvus.index.profile:}")
+    private String milvusIndexProfile;
+
+    @Value("${vector-store.type:milvus}")
+    private String vectorStoreType;
+
+    @Value("${vector-store.hnsw.path:./data/hnsw}")
+    private String hnswPath;
+
+    @Value("${vector-store.hnsw.m:16}")
+    private int hnswM;
+
+    @Value("${vector-store.hnsw.ef-construction:200}")
+    private int hnswEfConstruction;
+
+    @Value("${vector-store.hnsw.ef-search:64}")
+    private int hnswEfSearch;
+
+    @Value("${vector-store.hnsw.quantization:none}")
+    private String hnswQuantization;
+
+    @Value("${vector-store.hnsw.compaction-threshold:0.2}")
+    private double hnswCompactionThreshold;
+
+    @Value("${vector-store.hnsw.flush-interval-seconds:5}")
+    private long hnswFlushIntervalSeconds;
+
     // Store reference to MilvusStore for cleanup
     private MilvusStore milvusStore;
 
+    private HnswVectorStore hnswStore;
+
+    private final Environment environment;
+
+    public RagConfig(Environment environment) {
+        this.environment = environment;
+    }
+
     @Bean
     public EmbeddingModel embeddingModel() {
         return OpenAITextEmbedding.builder()
@@ -67,6 +120,26 @@ public class RagConfig {
     @Bean
     public Knowledge knowledgeBase(EmbeddingModel embeddingModel)
         throws Exception {
+        if ("hnsw".equalsIgnoreCase(vectorStoreType)) {
+            hnswStore = new HnswVectorStore(
+                Path.of(hnswPath),
+                embeddingDimensions,
+                new HnswStoreOptions(
+                    hnswM,
+                    hnswEfConstruction,
+                    hnswEfSearch,
+                    HnswStoreOptions.Quantization.parse(hnswQuantization),
+                    hnswCompactionThreshold,
+                    Duration.ofSeconds(hnswFlushIntervalSeconds)
+                )
+            );
+            logger.info("知识库使用进程内HNSW向量库: {}", hnswPath);
+            return SimpleKnowledge.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(hnswStore)
+                .build();
+        }
+
         // Configure Milvus store
         MilvusStore.Builder builder = MilvusStore.builder()
             .uri(milvusUri)
@@ -89,12 +162,38 @@ public class RagConfig {
         // Build the Milvus store
         milvusStore = builder.build();
 
+        ProfiledMilvusStore profiledStore = new ProfiledMilvusStore(milvusStore, indexProfiles());
+        if (!milvusIndexProfile.isBlank()) {
+            try {
+                profiledStore.applyProfile(milvusIndexProfile);
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.warn("应用Milvus索引档位 {} 失败，沿用集合现有索引", milvusIndexProfile, e);
+            }
+        }
+
         return SimpleKnowledge.builder()
             .embeddingModel(embeddingModel)
-            .embeddingStore(milvusStore)
+            .embeddingStore(profiledStore)
             .build();
     }
 
+    /**
+     * 读取 milvus.index.profiles，保持配置文件中的档位顺序
+     */
+    private Map<String, MilvusIndexProfile> indexProfiles() {
+        Map<String, IndexProfileProperties> configured = Binder.get(environment)
+            .bind("milvus.index.profiles", Bindable.mapOf(String.class, IndexProfileProperties.class))
+            .orElseGet(Map::of);
+        Map<String, MilvusIndexProfile> profiles = new LinkedHashMap<>();
+        configured.forEach((name, properties) -> profiles.put(
+            name,
+            MilvusIndexProfile.of(name, properties.indexType(), properties.build(), properties.search())
+        ));
+        return profiles;
+    }
+
     /**
      * Cleanup resources when the application shuts down
      */
@@ -107,5 +206,25 @@ public class RagConfig {
                 logger.warn("关闭Milvus store时发生异常", e);
             }
         }
+        if (hnswStore != null) {
+            try {
+                hnswStore.close();
+            } catch (Exception e) {
+                logger.warn("关闭HNSW向量库时发生异常", e);
+            }
+        }
     }
+
+    /**
+     * 单个索引档位的配置项
+     *
+     * @param indexType 索引类型（HNSW、IVF_FLAT、IVF_PQ 等）
+     * @param build     建索引参数
+     * @param search    检索参数
+     */
+    public record IndexProfileProperties(
+        String indexType,
+        Map<String, String> build,
+        Map<String, String> search
+    ) {}
 }
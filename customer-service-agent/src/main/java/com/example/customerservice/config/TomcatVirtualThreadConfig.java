@@ -0,0 +1,35 @@
+package com.example.customerservice.config;
+
+import com.example.customerservice.service.runtime.BlockingTaskExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tomcat 请求线程配置
+ *
+ * 虚拟线程模式生效时，将 Tomcat 的请求执行器替换为每请求一个虚拟线程，
+ * 阻塞的 Agent 调用、检索和数据库访问不再受 server.tomcat.threads.max 限制。
+ */
+@Configuration
+public class TomcatVirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(
+        TomcatVirtualThreadConfig.class
+    );
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+        BlockingTaskExecutors executors
+    ) {
+        return protocolHandler ->
+            executors
+                .newRequestExecutor()
+                .ifPresent(executor -> {
+                    protocolHandler.setExecutor(executor);
+                    logger.info("Tomcat 请求执行器已切换为虚拟线程");
+                });
+    }
+}
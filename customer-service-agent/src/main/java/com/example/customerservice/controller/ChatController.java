@@ -1,17 +1,19 @@
 package com.example.customerservice.controller;
 
-import com.example.customerservice.dto.ChatMessageResult;
 import com.example.customerservice.service.AgentMonitoringService;
 import com.example.customerservice.service.ChatSessionService;
+import com.example.customerservice.service.session.ChatTurnRejectedException;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * 聊天控制器
@@ -34,75 +36,87 @@ public class ChatController {
 
     /**
      * 处理用户发送的消息
+     * 同一用户的消息在会话信箱中排队处理，排队期间不占用请求线程
      *
      * @param request 包含userId和message的请求体
-     * @return Agent回复的内容
+     * @return Agent回复的内容；排队已满或重复提交被拒绝时返回429
      */
     @PostMapping("/message")
-    public ResponseEntity<Map<String, Object>> handleMessage(
+    public Mono<ResponseEntity<Map<String, Object>>> handleMessage(
         @RequestBody Map<String, String> request
     ) {
         String userId = request.get("userId");
-        try {
-            String message = request.get("message");
-
-            logger.info("收到用户 {} 的消息: {}", userId, message);
-
-            if (userId == null || userId.trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(
-                    Map.of("error", "用户ID不能为空")
-                );
-            }
+        String message = request.get("message");
 
-            if (message == null || message.trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(
-                    Map.of("error", "消息内容不能为空")
-                );
-            }
+        logger.debug(
+            "收到用户 {} 的消息，长度: {}",
+            userId,
+            message != null ? message.length() : 0
+        );
 
-            // 处理用户消息
-            ChatMessageResult response = chatSessionService.processUserMessageWithMetadata(
-                userId,
-                message
+        if (userId == null || userId.trim().isEmpty()) {
+            return Mono.just(
+                ResponseEntity.badRequest().body(Map.of("error", "用户ID不能为空"))
             );
+        }
 
-            logger.info(
-                "向用户 {} 发送响应，响应长度: {}",
-                userId,
-                response.getResponse().length()
+        if (message == null || message.trim().isEmpty()) {
+            return Mono.just(
+                ResponseEntity.badRequest().body(Map.of("error", "消息内容不能为空"))
             );
+        }
 
-            // 构造响应
-            Map<String, Object> responseBody = Map.of(
-                "userId",
-                userId,
-                "response",
-                response.getResponse(),
-                "citations",
-                response.getCitations(),
-                "retrievalMode",
-                response.getRetrievalMode(),
-                "fallbackMode",
-                response.getFallbackMode(),
-                "timestamp",
-                response.getTimestamp()
-            );
+        // 处理用户消息
+        return chatSessionService
+            .submitUserMessage(userId, message)
+            .map(response -> {
+                logger.debug(
+                    "向用户 {} 发送响应，响应长度: {}",
+                    userId,
+                    response.getResponse().length()
+                );
 
-            return ResponseEntity.ok(responseBody);
-        } catch (Exception e) {
-            // 记录错误日志
-            logger.error(
-                "处理用户 {} 的消息时发生错误: {}",
-                userId,
-                e.getMessage(),
-                e
-            );
-            monitoringService.recordError("chat-message", e.getMessage());
+                // 构造响应
+                Map<String, Object> responseBody = Map.of(
+                    "userId",
+                    userId,
+                    "response",
+                    response.getResponse(),
+                    "citations",
+                    response.getCitations(),
+                    "retrievalMode",
+                    response.getRetrievalMode(),
+                    "fallbackMode",
+                    response.getFallbackMode(),
+                    "timestamp",
+                    response.getTimestamp()
+                );
+                return ResponseEntity.ok(responseBody);
+            })
+            .onErrorResume(ChatTurnRejectedException.class, e -> {
+                logger.warn("用户 {} 的消息被会话信箱拒绝: {}", userId, e.getMessage());
+                return Mono.just(
+                    ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(
+                        Map.of("error", e.getMessage())
+                    )
+                );
+            })
+            .onErrorResume(e -> {
+                // 记录错误日志
+                logger.error(
+                    "处理用户 {} 的消息时发生错误: {}",
+                    userId,
+                    e.getMessage(),
+                    e
+                );
+                monitoringService.recordError("chat-message", e.getMessage());
 
-            return ResponseEntity.status(500).body(
-                Map.of("error", "处理消息时发生错误: " + e.getMessage())
-            );
-        }
+                return Mono.just(
+                    ResponseEntity.status(500).body(
+                        Map.of("error", "处理消息时发生错误: " + e.getMessage())
+                    )
+                );
+            });
     }
 
     /**
@@ -164,7 +178,7 @@ public class ChatController {
         @RequestParam(defaultValue = "true") boolean stream,
         @RequestParam(defaultValue = "30") int streamInterval
     ) {
-        logger.info(
+        logger.debug(
             "收到用户 {} 的流式消息请求，间隔: {}ms",
             userId,
             streamInterval
@@ -6,6 +6,7 @@ import com.example.customerservice.service.extractor.TripleExtractor;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
@@ -60,7 +61,7 @@ public class ComparisonController {
      * @return 抽取预览结果，包含规则三元组、LLM三元组和预处理的实体信息
      */
     @PostMapping("/preview")
-    public TripleExtractResult previewExtract(@Valid @RequestBody TripleExtractRequest request) {
+    public Mono<TripleExtractResult> previewExtract(@Valid @RequestBody TripleExtractRequest request) {
         return tripleExtractor.previewExtract(request.getTitle(), request.getContent());
     }
 }
\ No newline at end of file
@@ -140,8 +140,8 @@ public class EntryGraphController {
     }
 
     private List<String> findRelatedEntries(String entryId, Set<String> entityIds) {
-        // Stub: Returns empty list. Future implementation should find entries
-        // that share similar graph entities with the given entryId.
-        return List.of();
+        // Ranked from the in-memory entry/entity index; falls back to the given entities
+        // when the entry itself has no graph references
+        return knowledgeGraphService.findRelatedEntryIds(entryId, entityIds);
     }
 }
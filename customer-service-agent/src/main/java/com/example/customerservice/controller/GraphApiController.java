@@ -1,12 +1,24 @@
 package com.example.customerservice.controller;
 
+import com.example.customerservice.dto.CommunitySummary;
 import com.example.customerservice.dto.GraphEdgeResponse;
 import com.example.customerservice.dto.GraphNodeResponse;
 import com.example.customerservice.dto.GraphStatsResponse;
+import com.example.customerservice.dto.KnowledgeOperationResponse;
 import com.example.customerservice.service.KnowledgeGraphService;
+import com.example.customerservice.service.KnowledgeGraphService.NodeProjection;
+import com.example.customerservice.service.graph.CommunitySummaryService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -15,7 +27,9 @@ import java.util.Map;
  *
  * 提供知识图谱的查询和管理接口：
  * - 统计信息查询
- * - 节点和边的分页查询
+ * - 节点和边的分页查询（偏移量分页或按ID游标分页）
+ * - 整个图谱的 NDJSON 流式导出
+ * - 社区摘要查询
  * - 图谱清空（危险操作）
  *
  * 前端可通过这些接口获取图谱数据，进行可视化展示。
@@ -24,10 +38,21 @@ import java.util.Map;
 @RequestMapping("/api/graph")
 public class GraphApiController {
 
+    /** 导出时每写出多少行刷新一次输出流 */
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+    private static final MediaType NDJSON = new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+
     private final KnowledgeGraphService knowledgeGraphService;
+    private final ObjectMapper objectMapper;
+    private final CommunitySummaryService communitySummaryService;
 
-    public GraphApiController(KnowledgeGraphService knowledgeGraphService) {
+    public GraphApiController(
+            KnowledgeGraphService knowledgeGraphService,
+            ObjectMapper objectMapper,
+            CommunitySummaryService communitySummaryService) {
         this.knowledgeGraphService = knowledgeGraphService;
+        this.objectMapper = objectMapper;
+        this.communitySummaryService = communitySummaryService;
     }
 
     /**
@@ -43,31 +68,92 @@ public class GraphApiController {
     /**
      * 分页获取图谱节点
      *
-     * @param limit  每页返回的节点数，默认100
-     * @param offset 偏移量，用于分页，默认0
+     * 传入 after 时按节点ID游标分页（推荐，深页不变慢），否则沿用 offset 分页。
+     *
+     * @param limit      每页返回的节点数，默认100
+     * @param offset     偏移量，用于分页，默认0
+     * @param after      上一页最后一个节点的ID
+     * @param projection 属性范围：full（默认）、summary、none
      * @return 节点列表
      */
     @GetMapping("/nodes")
     public List<GraphNodeResponse> getNodes(
             @RequestParam(defaultValue = "100") int limit,
-            @RequestParam(defaultValue = "0") int offset) {
-        return knowledgeGraphService.getAllNodes(limit, offset);
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String projection) {
+        NodeProjection nodeProjection = NodeProjection.from(projection);
+        if (after != null) {
+            return knowledgeGraphService.getNodesAfter(after, limit, nodeProjection);
+        }
+        return knowledgeGraphService.getAllNodes(limit, offset, nodeProjection);
     }
 
     /**
      * 分页获取图谱边
      *
+     * 传入 after 时按边ID游标分页，否则沿用 offset 分页。
+     *
      * @param limit  每页返回的边数，默认100
      * @param offset 偏移量，用于分页，默认0
+     * @param after  上一页最后一条边的ID
      * @return 边列表
      */
     @GetMapping("/edges")
     public List<GraphEdgeResponse> getEdges(
             @RequestParam(defaultValue = "100") int limit,
-            @RequestParam(defaultValue = "0") int offset) {
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Long after) {
+        if (after != null) {
+            return knowledgeGraphService.getEdgesAfter(after, limit);
+        }
         return knowledgeGraphService.getAllEdges(limit, offset);
     }
 
+    /**
+     * 以 NDJSON 流式导出整个图谱
+     *
+     * 每行一个 JSON 对象：先输出全部节点（kind=node），再输出全部边（kind=edge）。
+     * 边读边写，不在内存中拼出整张图。
+     *
+     * @param projection 节点属性范围：full（默认）、summary、none
+     * @return NDJSON 响应流
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportGraph(
+            @RequestParam(required = false) String projection) {
+        NodeProjection nodeProjection = NodeProjection.from(projection);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                // 行之间只用换行分隔，去掉 Jackson 默认的空格分隔符
+                generator.setRootValueSeparator(null);
+                int[] written = {0};
+                try {
+                    knowledgeGraphService.streamGraph(
+                        nodeProjection,
+                        node -> writeLine(generator, written, () -> writeNode(generator, node)),
+                        edge -> writeLine(generator, written, () -> writeEdge(generator, edge))
+                    );
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * 获取预先生成的社区摘要
+     *
+     * 后台任务在图谱变化后更新，按社区规模降序。
+     *
+     * @return 社区摘要列表
+     */
+    @GetMapping("/communities")
+    public List<CommunitySummary> getCommunities() {
+        return communitySummaryService.list();
+    }
+
     /**
      * 清空整个知识图谱
      *
@@ -81,4 +167,54 @@ public class GraphApiController {
         knowledgeGraphService.clearGraph();
         return ResponseEntity.ok(Map.of("message", "Graph cleared successfully"));
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<KnowledgeOperationResponse> handleBadRequest(
+        IllegalArgumentException exception
+    ) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+            new KnowledgeOperationResponse(
+                exception.getMessage(),
+                null,
+                System.currentTimeMillis()
+            )
+        );
+    }
+
+    private void writeLine(JsonGenerator generator, int[] written, LineWriter lineWriter) {
+        try {
+            lineWriter.write();
+            generator.writeRaw('\n');
+            if (++written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeNode(JsonGenerator generator, GraphNodeResponse node) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("kind", "node");
+        generator.writeStringField("id", node.getId());
+        generator.writeStringField("type", node.getType());
+        generator.writeStringField("name", node.getName());
+        generator.writeObjectField("properties", node.getProperties());
+        generator.writeEndObject();
+    }
+
+    private static void writeEdge(JsonGenerator generator, GraphEdgeResponse edge) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("kind", "edge");
+        generator.writeStringField("id", edge.getId());
+        generator.writeStringField("source", edge.getSource());
+        generator.writeStringField("target", edge.getTarget());
+        generator.writeStringField("relation", edge.getRelation());
+        generator.writeEndObject();
+    }
+
+    @FunctionalInterface
+    private interface LineWriter {
+        void write() throws IOException;
+    }
+}
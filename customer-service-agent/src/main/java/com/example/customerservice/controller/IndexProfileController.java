@@ -0,0 +1,76 @@
+package com.example.customerservice.controller;
+
+import com.example.customerservice.dto.IndexProfileBenchmarkResponse;
+import com.example.customerservice.dto.IndexProfileResponse;
+import com.example.customerservice.dto.KnowledgeOperationResponse;
+import com.example.customerservice.service.vector.IndexProfileService;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Milvus 索引档位控制器
+ */
+@RestController
+@RequestMapping("/api/knowledge/index-profiles")
+public class IndexProfileController {
+
+    private final IndexProfileService indexProfileService;
+
+    public IndexProfileController(IndexProfileService indexProfileService) {
+        this.indexProfileService = indexProfileService;
+    }
+
+    @GetMapping
+    public List<IndexProfileResponse> listProfiles() {
+        return indexProfileService.listProfiles();
+    }
+
+    @PutMapping("/active/{name}")
+    public IndexProfileResponse applyProfile(@PathVariable String name) {
+        return indexProfileService.applyProfile(name);
+    }
+
+    @PostMapping("/benchmark")
+    public IndexProfileBenchmarkResponse benchmark(
+        @RequestParam(defaultValue = "10") int k,
+        @RequestParam(defaultValue = "100") int queries,
+        @RequestParam(defaultValue = "10000") int corpus
+    ) {
+        return indexProfileService.benchmark(k, queries, corpus);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<KnowledgeOperationResponse> handleBadRequest(
+        IllegalArgumentException exception
+    ) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+            new KnowledgeOperationResponse(
+                exception.getMessage(),
+                null,
+                System.currentTimeMillis()
+            )
+        );
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<KnowledgeOperationResponse> handleConflict(
+        IllegalStateException exception
+    ) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+            new KnowledgeOperationResponse(
+                exception.getMessage(),
+                null,
+                System.currentTimeMillis()
+            )
+        );
+    }
+}
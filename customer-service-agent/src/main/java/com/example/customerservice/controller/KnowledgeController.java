@@ -1,10 +1,15 @@
 package com.example.customerservice.controller;
 
+import com.example.customerservice.dto.DuplicateReportResponse;
 import com.example.customerservice.dto.KnowledgeEntryCreateRequest;
+import com.example.customerservice.dto.KnowledgeEntryListRequest;
 import com.example.customerservice.dto.KnowledgeEntryListResponse;
 import com.example.customerservice.dto.KnowledgeOperationResponse;
+import com.example.customerservice.dto.KnowledgeSearchRequest;
 import com.example.customerservice.dto.KnowledgeStatusResponse;
+import com.example.customerservice.dto.VectorSearchResult;
 import com.example.customerservice.service.KnowledgeBaseService;
+import com.example.customerservice.service.vector.PayloadFilter;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,9 +20,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
+import reactor.core.publisher.Mono;
 
 /**
  * 知识库管理控制器
@@ -32,9 +39,21 @@ public class KnowledgeController {
         this.knowledgeBaseService = knowledgeBaseService;
     }
 
+    /**
+     * 按 updatedAt 倒序列出知识条目；不传 limit 时返回全部，传入时按 nextCursor 翻页
+     */
     @GetMapping("/entries")
-    public KnowledgeEntryListResponse listEntries() {
-        return knowledgeBaseService.listEntries();
+    public KnowledgeEntryListResponse listEntries(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(defaultValue = "true") boolean includeContent,
+        @RequestParam(required = false) String source,
+        @RequestParam(required = false) String categoryId,
+        @RequestParam(required = false) String tagId
+    ) {
+        return knowledgeBaseService.listEntries(
+            new KnowledgeEntryListRequest(cursor, limit, includeContent, source, categoryId, tagId)
+        );
     }
 
     @PostMapping("/entries")
@@ -62,11 +81,34 @@ public class KnowledgeController {
         return knowledgeBaseService.rebuildKnowledgeBase();
     }
 
+    /**
+     * 检索知识库，可按分类（含子分类）和标签限定范围
+     */
+    @PostMapping("/search")
+    public Mono<VectorSearchResult> search(@RequestBody KnowledgeSearchRequest request) {
+        if (request.getQuery() == null || request.getQuery().isBlank()) {
+            throw new IllegalArgumentException("检索问题不能为空");
+        }
+        return knowledgeBaseService.searchKnowledgeBaseScopedAsync(
+            request.getQuery(),
+            request.getLimit(),
+            PayloadFilter.of(request.getCategoryId(), request.getTagIds())
+        );
+    }
+
     @GetMapping("/status")
     public KnowledgeStatusResponse getStatus() {
         return knowledgeBaseService.getStatus();
     }
 
+    /**
+     * 近似重复的条目与片段分组
+     */
+    @GetMapping("/duplicates")
+    public DuplicateReportResponse getDuplicates() {
+        return knowledgeBaseService.getDuplicateReport();
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<KnowledgeOperationResponse> handleBadRequest(
         IllegalArgumentException exception
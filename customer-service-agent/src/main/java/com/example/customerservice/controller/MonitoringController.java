@@ -1,10 +1,20 @@
 package com.example.customerservice.controller;
 
+import com.example.customerservice.dto.ActivityPipelineStatsResponse;
+import com.example.customerservice.dto.AnswerCacheStatsResponse;
+import com.example.customerservice.dto.AnswerCoalescingStatsResponse;
+import com.example.customerservice.dto.GraphReplicaStatusResponse;
 import com.example.customerservice.dto.MonitoringResetResponse;
 import com.example.customerservice.dto.MonitoringStatusResponse;
 import com.example.customerservice.dto.MonitoringSummaryResponse;
+import com.example.customerservice.dto.RuntimeThreadingResponse;
+import com.example.customerservice.dto.TripleExtractionStatsResponse;
 import com.example.customerservice.service.ChatSessionService;
 import com.example.customerservice.service.AgentMonitoringService;
+import com.example.customerservice.service.extractor.LLMTripleExtractor;
+import com.example.customerservice.service.graph.GraphReplica;
+import com.example.customerservice.service.retriever.HybridAnswerService;
+import com.example.customerservice.service.runtime.VirtualThreadPinningMonitor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -22,6 +32,18 @@ public class MonitoringController {
     @Autowired
     private ChatSessionService chatSessionService;
 
+    @Autowired
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @Autowired
+    private GraphReplica graphReplica;
+
+    @Autowired
+    private LLMTripleExtractor llmTripleExtractor;
+
+    @Autowired
+    private HybridAnswerService hybridAnswerService;
+
     /**
      * 获取监控统计信息
      */
@@ -40,6 +62,54 @@ public class MonitoringController {
         return monitoringService.resetAndGetResponse();
     }
 
+    /**
+     * 获取活动日志管道统计（采样、丢弃、积压）
+     */
+    @GetMapping("/activity")
+    public ActivityPipelineStatsResponse getActivityPipelineStats() {
+        return monitoringService.getActivityPipelineStats();
+    }
+
+    /**
+     * 获取运行时线程模型（虚拟线程是否生效、钉住事件统计）
+     */
+    @GetMapping("/runtime")
+    public RuntimeThreadingResponse getRuntimeThreading() {
+        return pinningMonitor.getRuntimeThreading();
+    }
+
+    /**
+     * 获取图谱内存快照状态（是否就绪、落后 Neo4j 的写入数和时长）
+     */
+    @GetMapping("/graph-replica")
+    public GraphReplicaStatusResponse getGraphReplicaStatus() {
+        return graphReplica.getStatus();
+    }
+
+    /**
+     * 获取 LLM 三元组抽取调用统计（并发、排队时间与服务时间、重试）
+     */
+    @GetMapping("/triple-extraction")
+    public TripleExtractionStatsResponse getTripleExtractionStats() {
+        return llmTripleExtractor.getStats();
+    }
+
+    /**
+     * 获取知识问答答案缓存统计（命中率、过期未命中、淘汰、预热数）
+     */
+    @GetMapping("/answer-cache")
+    public AnswerCacheStatsResponse getAnswerCacheStats() {
+        return hybridAnswerService.getCacheStats();
+    }
+
+    /**
+     * 获取知识问答并发请求合并统计（实际计算次数、被合并的请求数、超时与中止）
+     */
+    @GetMapping("/answer-coalescing")
+    public AnswerCoalescingStatsResponse getAnswerCoalescingStats() {
+        return hybridAnswerService.getCoalescingStats();
+    }
+
     /**
      * 获取应用状态
      */
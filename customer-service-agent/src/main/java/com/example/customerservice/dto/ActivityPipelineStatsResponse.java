@@ -0,0 +1,75 @@
+package com.example.customerservice.dto;
+
+/**
+ * Agent活动日志管道统计响应
+ */
+public class ActivityPipelineStatsResponse {
+
+    private final long publishedEvents;
+    private final long writtenEvents;
+    private final long sampledOutEvents;
+    private final long droppedEvents;
+    private final int bufferedEvents;
+    private final int bufferCapacity;
+    private final double sampleRate;
+    private final int maxPayloadChars;
+    private final long checkedAt;
+
+    public ActivityPipelineStatsResponse(
+        long publishedEvents,
+        long writtenEvents,
+        long sampledOutEvents,
+        long droppedEvents,
+        int bufferedEvents,
+        int bufferCapacity,
+        double sampleRate,
+        int maxPayloadChars,
+        long checkedAt
+    ) {
+        this.publishedEvents = publishedEvents;
+        this.writtenEvents = writtenEvents;
+        this.sampledOutEvents = sampledOutEvents;
+        this.droppedEvents = droppedEvents;
+        this.bufferedEvents = bufferedEvents;
+        this.bufferCapacity = bufferCapacity;
+        this.sampleRate = sampleRate;
+        this.maxPayloadChars = maxPayloadChars;
+        this.checkedAt = checkedAt;
+    }
+
+    public long getPublishedEvents() {
+        return publishedEvents;
+    }
+
+    public long getWrittenEvents() {
+        return writtenEvents;
+    }
+
+    public long getSampledOutEvents() {
+        return sampledOutEvents;
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents;
+    }
+
+    public int getBufferedEvents() {
+        return bufferedEvents;
+    }
+
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getMaxPayloadChars() {
+        return maxPayloadChars;
+    }
+
+    public long getCheckedAt() {
+        return checkedAt;
+    }
+}
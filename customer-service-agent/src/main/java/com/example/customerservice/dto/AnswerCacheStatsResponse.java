@@ -0,0 +1,96 @@
+package com.example.customerservice.dto;
+
+/**
+ * 知识问答答案缓存统计
+ */
+public class AnswerCacheStatsResponse {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final int entries;
+    private final long hits;
+    private final long misses;
+    private final long staleMisses;
+    private final long evictions;
+    private final double hitRatio;
+    private final long corpusVersion;
+    private final int warmedUp;
+    private final long checkedAt;
+
+    /**
+     * @param misses        未命中次数，包含 staleMisses
+     * @param staleMisses   有缓存但语料版本已变化的次数
+     * @param hitRatio      hits / (hits + misses)，尚无请求时为 0
+     * @param corpusVersion 当前知识语料版本
+     * @param warmedUp      启动预热时计算的问题数
+     */
+    public AnswerCacheStatsResponse(
+        boolean enabled,
+        int maxEntries,
+        int entries,
+        long hits,
+        long misses,
+        long staleMisses,
+        long evictions,
+        double hitRatio,
+        long corpusVersion,
+        int warmedUp,
+        long checkedAt
+    ) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.entries = entries;
+        this.hits = hits;
+        this.misses = misses;
+        this.staleMisses = staleMisses;
+        this.evictions = evictions;
+        this.hitRatio = hitRatio;
+        this.corpusVersion = corpusVersion;
+        this.warmedUp = warmedUp;
+        this.checkedAt = checkedAt;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getStaleMisses() {
+        return staleMisses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public double getHitRatio() {
+        return hitRatio;
+    }
+
+    public long getCorpusVersion() {
+        return corpusVersion;
+    }
+
+    public int getWarmedUp() {
+        return warmedUp;
+    }
+
+    public long getCheckedAt() {
+        return checkedAt;
+    }
+}
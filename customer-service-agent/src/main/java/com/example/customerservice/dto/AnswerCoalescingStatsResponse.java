@@ -0,0 +1,68 @@
+package com.example.customerservice.dto;
+
+/**
+ * 知识问答并发请求合并统计
+ */
+public class AnswerCoalescingStatsResponse {
+
+    private final boolean enabled;
+    private final int inFlight;
+    private final long leaders;
+    private final long coalesced;
+    private final long timeouts;
+    private final long abandoned;
+    private final long checkedAt;
+
+    /**
+     * @param inFlight  当前进行中的共享计算数
+     * @param leaders   实际发起的计算次数
+     * @param coalesced 加入已有计算、未重复计算的请求数
+     * @param timeouts  超时的共享计算数
+     * @param abandoned 所有调用者都已取消而中止的共享计算数
+     */
+    public AnswerCoalescingStatsResponse(
+        boolean enabled,
+        int inFlight,
+        long leaders,
+        long coalesced,
+        long timeouts,
+        long abandoned,
+        long checkedAt
+    ) {
+        this.enabled = enabled;
+        this.inFlight = inFlight;
+        this.leaders = leaders;
+        this.coalesced = coalesced;
+        this.timeouts = timeouts;
+        this.abandoned = abandoned;
+        this.checkedAt = checkedAt;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public long getLeaders() {
+        return leaders;
+    }
+
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getAbandoned() {
+        return abandoned;
+    }
+
+    public long getCheckedAt() {
+        return checkedAt;
+    }
+}
@@ -18,15 +18,21 @@ public class CategoryTreeResponse {
         private final String path;
         private final int level;
         private final int entryCount;
+        private final int subtreeEntryCount;
         private final List<CategoryNode> children;
 
         public CategoryNode(String id, String name, String parentId, String path, int level, int entryCount, List<CategoryNode> children) {
+            this(id, name, parentId, path, level, entryCount, entryCount, children);
+        }
+
+        public CategoryNode(String id, String name, String parentId, String path, int level, int entryCount, int subtreeEntryCount, List<CategoryNode> children) {
             this.id = id;
             this.name = name;
             this.parentId = parentId;
             this.path = path;
             this.level = level;
             this.entryCount = entryCount;
+            this.subtreeEntryCount = subtreeEntryCount;
             this.children = children;
         }
 
@@ -36,6 +42,8 @@ public class CategoryTreeResponse {
         public String getPath() { return path; }
         public int getLevel() { return level; }
         public int getEntryCount() { return entryCount; }
+        /** 含全部子分类的关联数 */
+        public int getSubtreeEntryCount() { return subtreeEntryCount; }
         public List<CategoryNode> getChildren() { return children; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.customerservice.dto;
+
+import java.util.List;
+
+/**
+ * 图谱社区摘要
+ *
+ * score 为检索时与问题的相似度，列表接口中为 0。
+ */
+public class CommunitySummary {
+    private final String id;
+    private final String title;
+    private final String summary;
+    private final int size;
+    private final List<String> members;
+    private final double score;
+
+    public CommunitySummary(String id, String title, String summary, int size, List<String> members, double score) {
+        this.id = id;
+        this.title = title;
+        this.summary = summary;
+        this.size = size;
+        this.members = members;
+        this.score = score;
+    }
+
+    public String getId() { return id; }
+    public String getTitle() { return title; }
+    public String getSummary() { return summary; }
+    public int getSize() { return size; }
+    public List<String> getMembers() { return members; }
+    public double getScore() { return score; }
+}
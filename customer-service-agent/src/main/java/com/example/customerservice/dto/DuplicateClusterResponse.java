@@ -0,0 +1,25 @@
+package com.example.customerservice.dto;
+
+import java.util.List;
+
+/**
+ * 一组近似重复的知识条目或片段
+ */
+public class DuplicateClusterResponse {
+    private final List<String> ids;
+    private final List<String> entryIds;
+    private final List<String> titles;
+    private final double similarity;
+
+    public DuplicateClusterResponse(List<String> ids, List<String> entryIds, List<String> titles, double similarity) {
+        this.ids = ids;
+        this.entryIds = entryIds;
+        this.titles = titles;
+        this.similarity = similarity;
+    }
+
+    public List<String> getIds() { return ids; }
+    public List<String> getEntryIds() { return entryIds; }
+    public List<String> getTitles() { return titles; }
+    public double getSimilarity() { return similarity; }
+}
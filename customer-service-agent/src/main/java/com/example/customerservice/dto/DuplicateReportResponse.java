@@ -0,0 +1,34 @@
+package com.example.customerservice.dto;
+
+import java.util.List;
+
+/**
+ * 知识库近似重复报告
+ */
+public class DuplicateReportResponse {
+    private final String mode;
+    private final double threshold;
+    private final List<DuplicateClusterResponse> entryClusters;
+    private final List<DuplicateClusterResponse> chunkClusters;
+    private final long checkedAt;
+
+    public DuplicateReportResponse(
+        String mode,
+        double threshold,
+        List<DuplicateClusterResponse> entryClusters,
+        List<DuplicateClusterResponse> chunkClusters,
+        long checkedAt
+    ) {
+        this.mode = mode;
+        this.threshold = threshold;
+        this.entryClusters = entryClusters;
+        this.chunkClusters = chunkClusters;
+        this.checkedAt = checkedAt;
+    }
+
+    public String getMode() { return mode; }
+    public double getThreshold() { return threshold; }
+    public List<DuplicateClusterResponse> getEntryClusters() { return entryClusters; }
+    public List<DuplicateClusterResponse> getChunkClusters() { return chunkClusters; }
+    public long getCheckedAt() { return checkedAt; }
+}
@@ -0,0 +1,23 @@
+package com.example.customerservice.dto;
+
+/**
+ * 度数最高的节点（枢纽节点）
+ */
+public class GraphHubNode {
+    private final String id;
+    private final String type;
+    private final String name;
+    private final int degree;
+
+    public GraphHubNode(String id, String type, String name, int degree) {
+        this.id = id;
+        this.type = type;
+        this.name = name;
+        this.degree = degree;
+    }
+
+    public String getId() { return id; }
+    public String getType() { return type; }
+    public String getName() { return name; }
+    public int getDegree() { return degree; }
+}
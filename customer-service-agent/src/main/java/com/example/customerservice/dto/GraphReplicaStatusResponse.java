@@ -0,0 +1,88 @@
+package com.example.customerservice.dto;
+
+/**
+ * 图谱内存快照状态
+ */
+public class GraphReplicaStatusResponse {
+
+    private final boolean enabled;
+    private final boolean ready;
+    private final long version;
+    private final long snapshotVersion;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final long stalenessMs;
+    private final long builtAt;
+    private final long lastBuildMillis;
+    private final long checkedAt;
+
+    /**
+     * @param version         已应用到内存镜像的写入版本
+     * @param snapshotVersion 当前快照对应的版本，落后于 version 表示有写入尚未发布
+     * @param stalenessMs     最早一次未发布写入距今的毫秒数，没有待发布写入时为 0
+     * @param lastBuildMillis 最近一次构建快照的耗时
+     */
+    public GraphReplicaStatusResponse(
+        boolean enabled,
+        boolean ready,
+        long version,
+        long snapshotVersion,
+        int nodeCount,
+        int edgeCount,
+        long stalenessMs,
+        long builtAt,
+        long lastBuildMillis,
+        long checkedAt
+    ) {
+        this.enabled = enabled;
+        this.ready = ready;
+        this.version = version;
+        this.snapshotVersion = snapshotVersion;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.stalenessMs = stalenessMs;
+        this.builtAt = builtAt;
+        this.lastBuildMillis = lastBuildMillis;
+        this.checkedAt = checkedAt;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public long getStalenessMs() {
+        return stalenessMs;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    public long getLastBuildMillis() {
+        return lastBuildMillis;
+    }
+
+    public long getCheckedAt() {
+        return checkedAt;
+    }
+}
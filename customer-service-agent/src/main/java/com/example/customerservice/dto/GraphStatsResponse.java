@@ -1,17 +1,54 @@
 package com.example.customerservice.dto;
 
+import java.util.List;
+import java.util.Map;
+
 public class GraphStatsResponse {
     private final long nodeCount;
     private final long edgeCount;
+    private final Map<String, Long> labelCounts;
+    private final Map<String, Long> relationTypeCounts;
+    private final Map<String, Long> degreeDistribution;
+    private final List<GraphHubNode> topHubs;
+    private final long reconciledAt;
     private final long timestamp;
 
     public GraphStatsResponse(long nodeCount, long edgeCount) {
+        this(nodeCount, edgeCount, Map.of(), Map.of(), Map.of(), List.of(), 0L);
+    }
+
+    /**
+     * @param labelCounts        各节点标签的节点数，按数量降序
+     * @param relationTypeCounts 各关系类型的边数，按数量降序
+     * @param degreeDistribution 度数分布，key 为度数区间（如 "4-7"）
+     * @param topHubs            度数最高的若干节点
+     * @param reconciledAt       最近一次与 Neo4j 对账的时间
+     */
+    public GraphStatsResponse(
+        long nodeCount,
+        long edgeCount,
+        Map<String, Long> labelCounts,
+        Map<String, Long> relationTypeCounts,
+        Map<String, Long> degreeDistribution,
+        List<GraphHubNode> topHubs,
+        long reconciledAt
+    ) {
         this.nodeCount = nodeCount;
         this.edgeCount = edgeCount;
+        this.labelCounts = labelCounts;
+        this.relationTypeCounts = relationTypeCounts;
+        this.degreeDistribution = degreeDistribution;
+        this.topHubs = topHubs;
+        this.reconciledAt = reconciledAt;
         this.timestamp = System.currentTimeMillis();
     }
 
     public long getNodeCount() { return nodeCount; }
     public long getEdgeCount() { return edgeCount; }
+    public Map<String, Long> getLabelCounts() { return labelCounts; }
+    public Map<String, Long> getRelationTypeCounts() { return relationTypeCounts; }
+    public Map<String, Long> getDegreeDistribution() { return degreeDistribution; }
+    public List<GraphHubNode> getTopHubs() { return topHubs; }
+    public long getReconciledAt() { return reconciledAt; }
     public long getTimestamp() { return timestamp; }
-}
\ No newline at end of file
+}
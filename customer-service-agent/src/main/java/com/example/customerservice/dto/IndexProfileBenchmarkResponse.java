@@ -0,0 +1,49 @@
+package com.example.customerservice.dto;
+
+import java.util.List;
+
+/**
+ * 索引档位评估响应
+ */
+public class IndexProfileBenchmarkResponse {
+
+    private final int corpusSize;
+    private final int queryCount;
+    private final int k;
+    private final String activeProfile;
+    private final List<IndexProfileBenchmarkResult> results;
+
+    public IndexProfileBenchmarkResponse(
+        int corpusSize,
+        int queryCount,
+        int k,
+        String activeProfile,
+        List<IndexProfileBenchmarkResult> results
+    ) {
+        this.corpusSize = corpusSize;
+        this.queryCount = queryCount;
+        this.k = k;
+        this.activeProfile = activeProfile;
+        this.results = results;
+    }
+
+    public int getCorpusSize() {
+        return corpusSize;
+    }
+
+    public int getQueryCount() {
+        return queryCount;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public String getActiveProfile() {
+        return activeProfile;
+    }
+
+    public List<IndexProfileBenchmarkResult> getResults() {
+        return results;
+    }
+}
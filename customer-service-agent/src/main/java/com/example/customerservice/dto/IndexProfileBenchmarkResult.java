@@ -0,0 +1,54 @@
+package com.example.customerservice.dto;
+
+/**
+ * 单个索引档位的评估结果
+ */
+public class IndexProfileBenchmarkResult {
+
+    private final String profile;
+    private final String indexType;
+    private final long applyMillis;
+    private final double recallAtK;
+    private final double p50Millis;
+    private final double p99Millis;
+
+    public IndexProfileBenchmarkResult(
+        String profile,
+        String indexType,
+        long applyMillis,
+        double recallAtK,
+        double p50Millis,
+        double p99Millis
+    ) {
+        this.profile = profile;
+        this.indexType = indexType;
+        this.applyMillis = applyMillis;
+        this.recallAtK = recallAtK;
+        this.p50Millis = p50Millis;
+        this.p99Millis = p99Millis;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public String getIndexType() {
+        return indexType;
+    }
+
+    public long getApplyMillis() {
+        return applyMillis;
+    }
+
+    public double getRecallAtK() {
+        return recallAtK;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+}
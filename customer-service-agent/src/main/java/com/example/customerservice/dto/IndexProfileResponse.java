@@ -0,0 +1,49 @@
+package com.example.customerservice.dto;
+
+import java.util.Map;
+
+/**
+ * 向量索引档位响应
+ */
+public class IndexProfileResponse {
+
+    private final String name;
+    private final String indexType;
+    private final Map<String, Object> buildParams;
+    private final Map<String, Object> searchParams;
+    private final boolean active;
+
+    public IndexProfileResponse(
+        String name,
+        String indexType,
+        Map<String, Object> buildParams,
+        Map<String, Object> searchParams,
+        boolean active
+    ) {
+        this.name = name;
+        this.indexType = indexType;
+        this.buildParams = buildParams;
+        this.searchParams = searchParams;
+        this.active = active;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getIndexType() {
+        return indexType;
+    }
+
+    public Map<String, Object> getBuildParams() {
+        return buildParams;
+    }
+
+    public Map<String, Object> getSearchParams() {
+        return searchParams;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+}
@@ -11,6 +11,7 @@ public class KnowledgeEntryCreateRequest {
     private String content;
     private List<String> categoryIds;
     private List<String> tags;
+    private List<String> tagIds;
 
     public String getTitle() {
         return title;
@@ -43,4 +44,12 @@ public class KnowledgeEntryCreateRequest {
     public void setTags(List<String> tags) {
         this.tags = tags;
     }
+
+    public List<String> getTagIds() {
+        return tagIds;
+    }
+
+    public void setTagIds(List<String> tagIds) {
+        this.tagIds = tagIds;
+    }
 }
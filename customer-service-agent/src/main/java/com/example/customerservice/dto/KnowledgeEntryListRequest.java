@@ -0,0 +1,57 @@
+package com.example.customerservice.dto;
+
+/**
+ * 知识条目列表查询条件
+ *
+ * 按 updatedAt 倒序分页：cursor 为上一页响应中的 nextCursor，limit 为空时返回全部匹配条目。
+ * categoryId 包含其子分类下的条目；includeContent 为 false 时只返回预览，不返回正文。
+ */
+public class KnowledgeEntryListRequest {
+
+    private final String cursor;
+    private final Integer limit;
+    private final boolean includeContent;
+    private final String source;
+    private final String categoryId;
+    private final String tagId;
+
+    public KnowledgeEntryListRequest(
+        String cursor,
+        Integer limit,
+        boolean includeContent,
+        String source,
+        String categoryId,
+        String tagId
+    ) {
+        this.cursor = cursor;
+        this.limit = limit;
+        this.includeContent = includeContent;
+        this.source = source;
+        this.categoryId = categoryId;
+        this.tagId = tagId;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public boolean isIncludeContent() {
+        return includeContent;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getCategoryId() {
+        return categoryId;
+    }
+
+    public String getTagId() {
+        return tagId;
+    }
+}
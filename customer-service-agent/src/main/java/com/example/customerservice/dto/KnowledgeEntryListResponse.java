@@ -10,15 +10,30 @@ public class KnowledgeEntryListResponse {
     private final List<KnowledgeEntryResponse> entries;
     private final int total;
     private final long checkedAt;
+    private final String nextCursor;
 
     public KnowledgeEntryListResponse(
         List<KnowledgeEntryResponse> entries,
         int total,
         long checkedAt
+    ) {
+        this(entries, total, checkedAt, null);
+    }
+
+    /**
+     * @param total      匹配条件的条目总数（不只是本页）
+     * @param nextCursor 下一页游标，没有更多条目时为 null
+     */
+    public KnowledgeEntryListResponse(
+        List<KnowledgeEntryResponse> entries,
+        int total,
+        long checkedAt,
+        String nextCursor
     ) {
         this.entries = entries;
         this.total = total;
         this.checkedAt = checkedAt;
+        this.nextCursor = nextCursor;
     }
 
     public List<KnowledgeEntryResponse> getEntries() {
@@ -32,4 +47,8 @@ public class KnowledgeEntryListResponse {
     public long getCheckedAt() {
         return checkedAt;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
 }
@@ -0,0 +1,46 @@
+package com.example.customerservice.dto;
+
+import java.util.List;
+
+/**
+ * 知识库范围检索请求
+ */
+public class KnowledgeSearchRequest {
+
+    private String query;
+    private int limit = 5;
+    private String categoryId;
+    private List<String> tagIds;
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public String getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(String categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public List<String> getTagIds() {
+        return tagIds;
+    }
+
+    public void setTagIds(List<String> tagIds) {
+        this.tagIds = tagIds;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.customerservice.dto;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 规则预处理识别出的实体
+ *
+ * 列表保留文本中的出现顺序（含重复），序列化为 products / orders / services / qas；
+ * 另按集合提供实体归类查询，供三元组类型推断使用。
+ */
+public class PreprocessedEntities {
+
+    public static final PreprocessedEntities EMPTY = new PreprocessedEntities(List.of(), List.of(), List.of(), List.of());
+
+    private final List<String> products;
+    private final List<String> orders;
+    private final List<String> services;
+    private final List<QaPair> qas;
+
+    private final Set<String> productSet;
+    private final Set<String> orderSet;
+    private final Set<String> serviceSet;
+    private final Set<String> questionSet;
+
+    public PreprocessedEntities(List<String> products, List<String> orders, List<String> services, List<QaPair> qas) {
+        this.products = List.copyOf(products);
+        this.orders = List.copyOf(orders);
+        this.services = List.copyOf(services);
+        this.qas = List.copyOf(qas);
+        this.productSet = Set.copyOf(products);
+        this.orderSet = Set.copyOf(orders);
+        this.serviceSet = Set.copyOf(services);
+        this.questionSet = Set.copyOf(qas.stream().map(QaPair::question).toList());
+    }
+
+    public List<String> getProducts() { return products; }
+    public List<String> getOrders() { return orders; }
+    public List<String> getServices() { return services; }
+    public List<QaPair> getQas() { return qas; }
+
+    public boolean containsProduct(String entity) { return productSet.contains(entity); }
+    public boolean containsOrder(String entity) { return orderSet.contains(entity); }
+    public boolean containsService(String entity) { return serviceSet.contains(entity); }
+    public boolean containsQuestion(String entity) { return questionSet.contains(entity); }
+
+    /**
+     * 问答对
+     */
+    public record QaPair(String question, String answer) {}
+}
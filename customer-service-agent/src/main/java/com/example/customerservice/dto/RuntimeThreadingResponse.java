@@ -0,0 +1,63 @@
+package com.example.customerservice.dto;
+
+import java.util.Map;
+
+/**
+ * 运行时线程模型响应
+ */
+public class RuntimeThreadingResponse {
+
+    private final int javaVersion;
+    private final boolean virtualThreadsRequested;
+    private final boolean virtualThreadsActive;
+    private final boolean pinningMonitorActive;
+    private final long pinnedEvents;
+    private final Map<String, Long> pinnedHotspots;
+    private final long checkedAt;
+
+    public RuntimeThreadingResponse(
+        int javaVersion,
+        boolean virtualThreadsRequested,
+        boolean virtualThreadsActive,
+        boolean pinningMonitorActive,
+        long pinnedEvents,
+        Map<String, Long> pinnedHotspots,
+        long checkedAt
+    ) {
+        this.javaVersion = javaVersion;
+        this.virtualThreadsRequested = virtualThreadsRequested;
+        this.virtualThreadsActive = virtualThreadsActive;
+        this.pinningMonitorActive = pinningMonitorActive;
+        this.pinnedEvents = pinnedEvents;
+        this.pinnedHotspots = pinnedHotspots;
+        this.checkedAt = checkedAt;
+    }
+
+    public int getJavaVersion() {
+        return javaVersion;
+    }
+
+    public boolean isVirtualThreadsRequested() {
+        return virtualThreadsRequested;
+    }
+
+    public boolean isVirtualThreadsActive() {
+        return virtualThreadsActive;
+    }
+
+    public boolean isPinningMonitorActive() {
+        return pinningMonitorActive;
+    }
+
+    public long getPinnedEvents() {
+        return pinnedEvents;
+    }
+
+    public Map<String, Long> getPinnedHotspots() {
+        return pinnedHotspots;
+    }
+
+    public long getCheckedAt() {
+        return checkedAt;
+    }
+}
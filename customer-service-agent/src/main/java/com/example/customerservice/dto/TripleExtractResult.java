@@ -16,12 +16,12 @@ public class TripleExtractResult {
     private final List<Map<String, String>> llmTriples;
 
     /** 预处理提取的实体信息 */
-    private final Map<String, Object> preprocessedEntities;
+    private final PreprocessedEntities preprocessedEntities;
 
     public TripleExtractResult(
             List<Map<String, String>> ruleTriples,
             List<Map<String, String>> llmTriples,
-            Map<String, Object> preprocessedEntities) {
+            PreprocessedEntities preprocessedEntities) {
         this.ruleTriples = ruleTriples;
         this.llmTriples = llmTriples;
         this.preprocessedEntities = preprocessedEntities;
@@ -29,7 +29,7 @@ public class TripleExtractResult {
 
     public List<Map<String, String>> getRuleTriples() { return ruleTriples; }
     public List<Map<String, String>> getLlmTriples() { return llmTriples; }
-    public Map<String, Object> getPreprocessedEntities() { return preprocessedEntities; }
+    public PreprocessedEntities getPreprocessedEntities() { return preprocessedEntities; }
 
     /** 获取合并后的所有三元组数量 */
     public int getTotalCount() {
@@ -0,0 +1,117 @@
+package com.example.customerservice.dto;
+
+/**
+ * LLM 三元组抽取调用统计
+ */
+public class TripleExtractionStatsResponse {
+
+    private final int maxInFlight;
+    private final int inFlight;
+    private final int waiting;
+    private final long requests;
+    private final long succeeded;
+    private final long failed;
+    private final long retries;
+    private final long batchRequests;
+    private final long batchedDocuments;
+    private final long batchSplits;
+    private final long promptTokens;
+    private final long completionTokens;
+    private final boolean cacheEnabled;
+    private final long cacheHits;
+    private final long cacheMisses;
+    private final int cacheEntries;
+    private final long cacheBytes;
+    private final long cacheEvictions;
+    private final double avgQueueMillis;
+    private final double maxQueueMillis;
+    private final double avgServiceMillis;
+    private final double maxServiceMillis;
+    private final long checkedAt;
+
+    /**
+     * @param waiting          正在等待并发许可的调用数
+     * @param requests         已拿到许可开始执行的调用数
+     * @param retries          因 429/5xx 发起的重试次数
+     * @param batchRequests    多文档合并请求次数
+     * @param batchedDocuments 由合并请求得到结果的文档数
+     * @param batchSplits      合并请求响应无法解析、拆分重试的次数
+     * @param promptTokens     各次调用 usage 中的输入 token 合计
+     * @param cacheHits        命中磁盘缓存、未调用 LLM 的次数
+     * @param avgQueueMillis   平均等待许可的时间
+     * @param avgServiceMillis 平均服务时间（拿到许可到结束，含重试与退避）
+     */
+    public TripleExtractionStatsResponse(
+        int maxInFlight,
+        int inFlight,
+        int waiting,
+        long requests,
+        long succeeded,
+        long failed,
+        long retries,
+        long batchRequests,
+        long batchedDocuments,
+        long batchSplits,
+        long promptTokens,
+        long completionTokens,
+        boolean cacheEnabled,
+        long cacheHits,
+        long cacheMisses,
+        int cacheEntries,
+        long cacheBytes,
+        long cacheEvictions,
+        double avgQueueMillis,
+        double maxQueueMillis,
+        double avgServiceMillis,
+        double maxServiceMillis,
+        long checkedAt
+    ) {
+        this.maxInFlight = maxInFlight;
+        this.inFlight = inFlight;
+        this.waiting = waiting;
+        this.requests = requests;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.retries = retries;
+        this.batchRequests = batchRequests;
+        this.batchedDocuments = batchedDocuments;
+        this.batchSplits = batchSplits;
+        this.promptTokens = promptTokens;
+        this.completionTokens = completionTokens;
+        this.cacheEnabled = cacheEnabled;
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+        this.cacheEntries = cacheEntries;
+        this.cacheBytes = cacheBytes;
+        this.cacheEvictions = cacheEvictions;
+        this.avgQueueMillis = avgQueueMillis;
+        this.maxQueueMillis = maxQueueMillis;
+        this.avgServiceMillis = avgServiceMillis;
+        this.maxServiceMillis = maxServiceMillis;
+        this.checkedAt = checkedAt;
+    }
+
+    public int getMaxInFlight() { return maxInFlight; }
+    public int getInFlight() { return inFlight; }
+    public int getWaiting() { return waiting; }
+    public long getRequests() { return requests; }
+    public long getSucceeded() { return succeeded; }
+    public long getFailed() { return failed; }
+    public long getRetries() { return retries; }
+    public long getBatchRequests() { return batchRequests; }
+    public long getBatchedDocuments() { return batchedDocuments; }
+    public long getBatchSplits() { return batchSplits; }
+    public long getPromptTokens() { return promptTokens; }
+    public long getCompletionTokens() { return completionTokens; }
+    public boolean isCacheEnabled() { return cacheEnabled; }
+    public long getCacheHits() { return cacheHits; }
+    public long getCacheMisses() { return cacheMisses; }
+    public int getCacheEntries() { return cacheEntries; }
+    public long getCacheBytes() { return cacheBytes; }
+    public long getCacheEvictions() { return cacheEvictions; }
+    public double getAvgQueueMillis() { return avgQueueMillis; }
+    public double getMaxQueueMillis() { return maxQueueMillis; }
+    public double getAvgServiceMillis() { return avgServiceMillis; }
+    public double getMaxServiceMillis() { return maxServiceMillis; }
+    public long getCheckedAt() { return checkedAt; }
+}
@@ -1,36 +1,35 @@
 package com.example.customerservice.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
  * Agent活动记录服务
  * 用于记录Agent的工具调用和活动日志
+ *
+ * 所有活动统一交给 {@link AgentMonitoringService} 计数，并作为结构化事件异步输出，
+ * 每个动作只产生一条事件，不再在请求线程上同步打印完整输入和响应。
  */
 @Service
 public class AgentActivityLogger {
 
-    private static final Logger logger = LoggerFactory.getLogger(AgentActivityLogger.class);
+    private final AgentMonitoringService monitoringService;
 
-    @Autowired
-    private AgentMonitoringService monitoringService;
+    public AgentActivityLogger(AgentMonitoringService monitoringService) {
+        this.monitoringService = monitoringService;
+    }
 
     /**
      * 记录工具调用开始
      */
     public void logToolCallStart(String toolName, String parameters) {
         monitoringService.recordToolCall(toolName, parameters);
-        logger.info("🔧 工具调用开始: {} | 参数: {}", toolName, parameters);
     }
 
     /**
      * 记录工具调用完成
      */
     public void logToolCallEnd(String toolName, String result) {
-        logger.info("✅ 工具调用完成: {} | 结果长度: {} 字符",
-            toolName, result != null ? result.length() : 0);
+        monitoringService.recordToolResult(toolName, result);
     }
 
     /**
@@ -38,7 +37,6 @@ public class AgentActivityLogger {
      */
     public void logToolCallError(String toolName, String error) {
         monitoringService.recordError(toolName, error);
-        logger.error("❌ 工具调用错误: {} | 错误信息: {}", toolName, error);
     }
 
     /**
@@ -46,7 +44,6 @@ public class AgentActivityLogger {
      */
     public void logMessageProcessingStart(String agentName, String message) {
         monitoringService.recordAgentStart(agentName, message);
-        logger.info("🚀 Agent消息处理开始: {} | 消息: {}", agentName, message);
     }
 
     /**
@@ -54,14 +51,12 @@ public class AgentActivityLogger {
      */
     public void logMessageProcessingEnd(String agentName, String response) {
         monitoringService.recordAgentResponse(agentName, response);
-        logger.info("🏁 Agent消息处理完成: {} | 响应长度: {} 字符",
-            agentName, response != null ? response.length() : 0);
     }
 
     /**
      * 记录Agent思考过程
      */
     public void logAgentThought(String agentName, String thought) {
-        logger.info("💭 Agent思考 [{}]: {}", agentName, thought);
+        monitoringService.recordAgentThought(agentName, thought);
     }
 }
@@ -1,12 +1,13 @@
 package com.example.customerservice.service;
 
+import com.example.customerservice.dto.ActivityPipelineStatsResponse;
 import com.example.customerservice.dto.MonitoringResetResponse;
 import com.example.customerservice.dto.MonitoringStatusResponse;
 import com.example.customerservice.dto.MonitoringSummary;
 import com.example.customerservice.dto.MonitoringSummaryResponse;
+import com.example.customerservice.service.activity.ActivityEvent;
+import com.example.customerservice.service.activity.ActivityEventPipeline;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
@@ -16,12 +17,14 @@ import org.springframework.stereotype.Service;
 
 /**
  * Agent监控服务，用于跟踪和记录Agent的活动
+ *
+ * 计数器在请求线程上原子更新；活动明细以结构化事件投递到
+ * {@link ActivityEventPipeline}，由后台线程异步输出，不在请求路径上同步写日志。
  */
 @Service
 public class AgentMonitoringService {
 
     private static final Logger logger = LoggerFactory.getLogger(AgentMonitoringService.class);
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final String SERVICE_NAME = "Customer Service Agent";
 
     private final AtomicLong toolCallCount = new AtomicLong(0);
@@ -32,6 +35,11 @@ public class AgentMonitoringService {
     private final AtomicLong lastMessageAt = new AtomicLong(0);
     private final AtomicLong lastErrorAt = new AtomicLong(0);
     private final Map<String, Long> messageStartTimes = new ConcurrentHashMap<>();
+    private final ActivityEventPipeline activityPipeline;
+
+    public AgentMonitoringService(ActivityEventPipeline activityPipeline) {
+        this.activityPipeline = activityPipeline;
+    }
 
     /**
      * 记录Agent开始处理消息
@@ -39,11 +47,12 @@ public class AgentMonitoringService {
     public void recordAgentStart(String agentName, String message) {
         long msgId = messageCount.incrementAndGet();
         messageStartTimes.put(agentName, System.currentTimeMillis());
-        logger.info("=== Agent Activity Start ===");
-        logger.info("Agent: {} | Message ID: {} | Time: {}",
-            agentName, msgId, LocalDateTime.now().format(formatter));
-        logger.info("Input Message: {}", message);
-        logger.info("==========================");
+        activityPipeline.publish(
+            ActivityEvent.Type.AGENT_START,
+            agentName,
+            msgId,
+            message
+        );
     }
 
     /**
@@ -51,25 +60,36 @@ public class AgentMonitoringService {
      */
     public void recordToolCall(String toolName, String parameters) {
         long callId = toolCallCount.incrementAndGet();
-        logger.info(">>> Tool Call #{} - {} <<<", callId, toolName);
-        logger.info("Parameters: {}", parameters);
-        logger.info("Time: {}", LocalDateTime.now().format(formatter));
+        activityPipeline.publish(
+            ActivityEvent.Type.TOOL_CALL,
+            toolName,
+            callId,
+            parameters
+        );
     }
 
     /**
      * 记录工具调用结果
      */
     public void recordToolResult(String toolName, String result) {
-        logger.info("<<< Tool Result - {} >>>", toolName);
-        logger.info("Result: {}", result);
-        logger.info("Time: {}", LocalDateTime.now().format(formatter));
+        activityPipeline.publish(
+            ActivityEvent.Type.TOOL_RESULT,
+            toolName,
+            toolCallCount.get(),
+            result
+        );
     }
 
     /**
      * 记录Agent思考过程
      */
-    public void recordAgentThought(String thought) {
-        logger.info("🧠 Agent Thought: {}", thought);
+    public void recordAgentThought(String agentName, String thought) {
+        activityPipeline.publish(
+            ActivityEvent.Type.AGENT_THOUGHT,
+            agentName,
+            0,
+            thought
+        );
     }
 
     /**
@@ -81,22 +101,23 @@ public class AgentMonitoringService {
         if (startedAt != null) {
             totalResponseTimeMs.addAndGet(Math.max(0, completedAt - startedAt));
         }
-        completedMessageCount.incrementAndGet();
+        long completed = completedMessageCount.incrementAndGet();
         lastMessageAt.set(completedAt);
-        logger.info("=== Agent Response ===");
-        logger.info("Agent: {} | Time: {}",
-            agentName, LocalDateTime.now().format(formatter));
-        logger.info("Response: {}", response);
-        logger.info("=====================");
+        activityPipeline.publish(
+            ActivityEvent.Type.AGENT_RESPONSE,
+            agentName,
+            completed,
+            response
+        );
     }
 
     /**
      * 记录处理错误
      */
     public void recordError(String source, String error) {
-        errorCount.incrementAndGet();
+        long errors = errorCount.incrementAndGet();
         lastErrorAt.set(System.currentTimeMillis());
-        logger.error("!!! Agent Error [{}] {}", source, error);
+        activityPipeline.publish(ActivityEvent.Type.ERROR, source, errors, error);
     }
 
     /**
@@ -125,6 +146,13 @@ public class AgentMonitoringService {
         );
     }
 
+    /**
+     * 获取活动日志管道统计
+     */
+    public ActivityPipelineStatsResponse getActivityPipelineStats() {
+        return activityPipeline.getStats();
+    }
+
     /**
      * 获取服务健康状态
      */
@@ -159,6 +187,7 @@ public class AgentMonitoringService {
         lastMessageAt.set(0);
         lastErrorAt.set(0);
         messageStartTimes.clear();
+        activityPipeline.resetStatistics();
         logger.info("Statistics reset completed");
     }
 
@@ -5,11 +5,15 @@ import com.example.customerservice.dto.CategoryTreeResponse;
 import com.example.customerservice.dto.CategoryTreeResponse.CategoryNode;
 import com.example.customerservice.entity.Category;
 import com.example.customerservice.entity.EntryCategory;
+import com.example.customerservice.service.storage.EmbeddedKeyValueStore;
+import com.example.customerservice.service.storage.EmbeddedKeyValueStore.WriteBatch;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -18,211 +22,545 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
-
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 分类与条目-分类关联
+ *
+ * 分类和关联保存在内嵌键值存储的 categories / entry-categories 两张表中，
+ * 每次修改只写入变化的记录，删除分类时连同其关联和子分类的路径调整在一个批次内提交。
+ * 首次启动时从旧版 categories.json、entry-categories.json（classification-store.legacy-path 目录下）导入一次。
+ *
+ * 除按 ID 存放的分类外，内存中维护几组索引，读操作不再全表扫描：
+ * - childrenByParent：父分类 → 子分类（根分类挂在 ROOT 下），建树与子树遍历
+ * - associationsByEntry / entriesByCategory：条目 ↔ 分类双向邻接
+ * - subtreeEntryCounts：分类及其全部子分类下的关联数，增删关联时沿祖先链增量更新
+ *
+ * 读操作持读锁并发执行；修改持写锁，先提交到存储再更新内存，提交失败时内存保持不变。
+ * 分类树响应缓存到下一次修改为止。
+ */
 @Service
 public class CategoryService {
 
     private static final Logger logger = LoggerFactory.getLogger(CategoryService.class);
-    private static final Path CATEGORIES_PATH = Paths.get("data", "categories.json");
-    private static final Path ENTRY_CATEGORIES_PATH = Paths.get("data", "entry-categories.json");
+    private static final String CATEGORIES_TABLE = "categories";
+    private static final String ENTRY_CATEGORIES_TABLE = "entry-categories";
+    private static final String META_TABLE = "meta";
+    private static final String LEGACY_IMPORT_KEY = "categories.legacy-import";
+    private static final String ROOT = "";
 
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmbeddedKeyValueStore store;
+    private final Path categoriesPath;
+    private final Path entryCategoriesPath;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
     private final Map<String, Category> categories = new LinkedHashMap<>();
-    private final Map<String, EntryCategory> entryCategories = new LinkedHashMap<>();
 
-    public CategoryService(ObjectMapper objectMapper) {
+    private final Map<String, Set<String>> childrenByParent = new HashMap<>();
+    private final Map<String, Map<String, String>> associationsByEntry = new HashMap<>(); // entryId -> (categoryId -> associationId)
+    private final Map<String, Set<String>> entriesByCategory = new HashMap<>();
+    private final Map<String, Integer> subtreeEntryCounts = new HashMap<>();
+    private volatile CategoryTreeResponse cachedTree;
+
+    public CategoryService(
+        ObjectMapper objectMapper,
+        ApplicationEventPublisher eventPublisher,
+        EmbeddedKeyValueStore store,
+        @Value("${classification-store.legacy-path:./data}") String legacyPath
+    ) {
         this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.store = store;
+        this.categoriesPath = Paths.get(legacyPath, "categories.json");
+        this.entryCategoriesPath = Paths.get(legacyPath, "entry-categories.json");
     }
 
     @PostConstruct
     public void init() {
-        loadCategories();
-        loadEntryCategories();
+        lock.writeLock().lock();
+        try {
+            importLegacyFiles();
+            loadCategories();
+            rebuildIndexes();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     public List<CategoryResponse> listCategories() {
-        return categories.values().stream()
-            .map(c -> new CategoryResponse(c.id(), c.name(), c.parentId(), c.path(), c.level(), c.createdAt(), c.updatedAt()))
-            .toList();
+        lock.readLock().lock();
+        try {
+            return categories.values().stream()
+                .map(c -> new CategoryResponse(c.id(), c.name(), c.parentId(), c.path(), c.level(), c.createdAt(), c.updatedAt()))
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public CategoryTreeResponse getCategoryTree() {
-        List<CategoryNode> rootNodes = buildTree(null);
-        return new CategoryTreeResponse(rootNodes);
+        CategoryTreeResponse tree = cachedTree;
+        if (tree != null) {
+            return tree;
+        }
+        lock.readLock().lock();
+        try {
+            // 持读锁期间不会有修改把缓存置空，构建结果可以直接缓存
+            tree = new CategoryTreeResponse(buildTree(ROOT));
+            cachedTree = tree;
+            return tree;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public CategoryResponse createCategory(String name, String parentId) throws IOException {
         validateName(name);
 
-        // Check for duplicate name under same parent
-        boolean duplicateExists = categories.values().stream()
-            .anyMatch(c -> c.name().equals(name) && Objects.equals(c.parentId(), parentId));
-        if (duplicateExists) {
-            throw new IllegalArgumentException("同级分类下已存在同名分类: " + name);
-        }
-
-        long now = Instant.now().toEpochMilli();
-        String id = "cat-" + UUID.randomUUID().toString().substring(0, 8);
-
-        String path;
-        int level;
-        if (parentId == null) {
-            path = "/" + name;
-            level = 0;
-        } else {
-            Category parent = categories.get(parentId);
-            if (parent == null) {
-                throw new IllegalArgumentException("父分类不存在: " + parentId);
+        lock.writeLock().lock();
+        try {
+            // Check for duplicate name under same parent
+            boolean duplicateExists = children(parentKey(parentId)).stream()
+                .anyMatch(childId -> categories.get(childId).name().equals(name));
+            if (duplicateExists) {
+                throw new IllegalArgumentException("同级分类下已存在同名分类: " + name);
+            }
+
+            long now = Instant.now().toEpochMilli();
+            String id = "cat-" + UUID.randomUUID().toString().substring(0, 8);
+
+            String path;
+            int level;
+            if (parentId == null) {
+                path = "/" + name;
+                level = 0;
+            } else {
+                Category parent = categories.get(parentId);
+                if (parent == null) {
+                    throw new IllegalArgumentException("父分类不存在: " + parentId);
+                }
+                path = parent.path() + "/" + name;
+                level = parent.level() + 1;
             }
-            path = parent.path() + "/" + name;
-            level = parent.level() + 1;
-        }
 
-        Category category = new Category(id, name, parentId, path, level, now, now);
-        categories.put(id, category);
-        persistCategories();
+            Category category = new Category(id, name, parentId, path, level, now, now);
+            store.commit(new WriteBatch().put(CATEGORIES_TABLE, id, encode(category)));
+            categories.put(id, category);
+            childrenByParent.computeIfAbsent(parentKey(parentId), k -> new LinkedHashSet<>()).add(id);
+            cachedTree = null;
 
-        return new CategoryResponse(id, name, parentId, path, level, now, now);
+            return new CategoryResponse(id, name, parentId, path, level, now, now);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     public CategoryResponse updateCategory(String id, String newName) throws IOException {
         validateId(id);
-        Category existing = categories.get(id);
-        if (existing == null) {
-            throw new IllegalArgumentException("分类不存在: " + id);
-        }
-
         validateName(newName);
 
-        long now = Instant.now().toEpochMilli();
-        String newPath = existing.parentId() == null
-            ? "/" + newName
-            : categories.get(existing.parentId()).path() + "/" + newName;
+        Category updated;
+        lock.writeLock().lock();
+        try {
+            Category existing = categories.get(id);
+            if (existing == null) {
+                throw new IllegalArgumentException("分类不存在: " + id);
+            }
 
-        Category updated = new Category(id, newName, existing.parentId(), newPath, existing.level(), existing.createdAt(), now);
-        categories.put(id, updated);
+            long now = Instant.now().toEpochMilli();
+            String newPath = existing.parentId() == null
+                ? "/" + newName
+                : categories.get(existing.parentId()).path() + "/" + newName;
 
-        // Update child paths
-        updateChildPaths(id, newPath);
+            updated = new Category(id, newName, existing.parentId(), newPath, existing.level(), existing.createdAt(), now);
+            List<Category> changed = new ArrayList<>(List.of(updated));
+            // Update child paths
+            collectChildPathUpdates(id, newPath, existing.level(), now, changed);
+
+            WriteBatch batch = new WriteBatch();
+            for (Category category : changed) {
+                batch.put(CATEGORIES_TABLE, category.id(), encode(category));
+            }
+            store.commit(batch);
+            for (Category category : changed) {
+                categories.put(category.id(), category);
+            }
+            cachedTree = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
 
-        persistCategories();
-        return new CategoryResponse(id, newName, existing.parentId(), newPath, existing.level(), existing.createdAt(), now);
+        // 片段 payload 只冗余分类 ID，改名不需要重建索引
+        return new CategoryResponse(id, newName, updated.parentId(), updated.path(), updated.level(), updated.createdAt(), updated.updatedAt());
     }
 
     public void deleteCategory(String id) throws IOException {
         validateId(id);
-        Category category = categories.remove(id);
-        if (category == null) {
-            throw new IllegalArgumentException("分类不存在: " + id);
-        }
-
-        // Remove entry-category associations
-        entryCategories.entrySet().removeIf(e -> e.getValue().categoryId().equals(id));
 
-        // Move children to grandparent (reparent to deleted category's parent)
-        Category grandparent = category.parentId() != null ? categories.get(category.parentId()) : null;
-        for (Category child : categories.values()) {
-            if (id.equals(child.parentId())) {
+        Set<String> affectedEntryIds;
+        lock.writeLock().lock();
+        try {
+            Category category = categories.get(id);
+            if (category == null) {
+                throw new IllegalArgumentException("分类不存在: " + id);
+            }
+            affectedEntryIds = getEntryIdsForSubtree(id);
+
+            // Move children to grandparent (reparent to deleted category's parent), recursively updating paths
+            long now = Instant.now().toEpochMilli();
+            Category grandparent = category.parentId() != null ? categories.get(category.parentId()) : null;
+            List<Category> reparented = new ArrayList<>();
+            for (String childId : children(id)) {
+                Category child = categories.get(childId);
                 String newPath = grandparent == null
                     ? "/" + child.name()
                     : grandparent.path() + "/" + child.name();
-                Category updated = new Category(
+                int newLevel = grandparent == null ? 0 : grandparent.level() + 1;
+                reparented.add(new Category(
                     child.id(), child.name(), category.parentId(), newPath,
-                    grandparent == null ? 0 : grandparent.level() + 1,
-                    child.createdAt(), Instant.now().toEpochMilli()
-                );
-                categories.put(child.id(), updated);
-                // Recursively update children's paths
-                updateChildPaths(child.id(), newPath);
+                    newLevel,
+                    child.createdAt(), now
+                ));
+                collectChildPathUpdates(child.id(), newPath, newLevel, now, reparented);
+            }
+
+            // 分类、它的关联和子分类的新路径在同一批次内提交
+            List<String> linkedEntryIds = new ArrayList<>(entriesByCategory.getOrDefault(id, Set.of()));
+            WriteBatch batch = new WriteBatch().delete(CATEGORIES_TABLE, id);
+            for (String entryId : linkedEntryIds) {
+                batch.delete(ENTRY_CATEGORIES_TABLE, associationsByEntry.get(entryId).get(id));
+            }
+            for (Category updated : reparented) {
+                batch.put(CATEGORIES_TABLE, updated.id(), encode(updated));
+            }
+            store.commit(batch);
+
+            // Remove entry-category associations (ancestor counts are decremented while the category is still linked)
+            for (String entryId : linkedEntryIds) {
+                removeAssociation(entryId, id);
+            }
+            categories.remove(id);
+            Set<String> siblings = childrenByParent.get(parentKey(category.parentId()));
+            if (siblings != null) {
+                siblings.remove(id);
             }
+            subtreeEntryCounts.remove(id);
+            entriesByCategory.remove(id);
+            Set<String> orphans = childrenByParent.remove(id);
+            if (orphans != null) {
+                childrenByParent.computeIfAbsent(parentKey(category.parentId()), k -> new LinkedHashSet<>()).addAll(orphans);
+            }
+            for (Category updated : reparented) {
+                categories.put(updated.id(), updated);
+            }
+            cachedTree = null;
+        } finally {
+            lock.writeLock().unlock();
         }
 
-        persistCategories();
-        persistEntryCategories();
+        publishChanged(affectedEntryIds);
     }
 
     public void addEntryToCategory(String entryId, String categoryId) throws IOException {
         validateEntryId(entryId);
         validateId(categoryId);
-        if (!categories.containsKey(categoryId)) {
-            throw new IllegalArgumentException("分类不存在: " + categoryId);
-        }
 
-        // Check if already exists
-        for (EntryCategory ec : entryCategories.values()) {
-            if (ec.entryId().equals(entryId) && ec.categoryId().equals(categoryId)) {
-                return; // Already exists
+        lock.writeLock().lock();
+        try {
+            if (!categories.containsKey(categoryId)) {
+                throw new IllegalArgumentException("分类不存在: " + categoryId);
             }
-        }
 
-        String ecId = "ec-" + UUID.randomUUID().toString().substring(0, 8);
-        EntryCategory ec = new EntryCategory(ecId, entryId, categoryId);
-        entryCategories.put(ecId, ec);
-        persistEntryCategories();
+            // Check if already exists
+            if (associationsByEntry.getOrDefault(entryId, Map.of()).containsKey(categoryId)) {
+                return;
+            }
+
+            EntryCategory association = newAssociation(entryId, categoryId);
+            store.commit(new WriteBatch().put(ENTRY_CATEGORIES_TABLE, association.id(), encode(association)));
+            addAssociation(association);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publishChanged(Set.of(entryId));
     }
 
     public void removeEntryFromCategory(String entryId, String categoryId) throws IOException {
         validateEntryId(entryId);
         validateId(categoryId);
-        entryCategories.entrySet().removeIf(e ->
-            e.getValue().entryId().equals(entryId) && e.getValue().categoryId().equals(categoryId)
-        );
-        persistEntryCategories();
+
+        lock.writeLock().lock();
+        try {
+            String associationId = associationsByEntry.getOrDefault(entryId, Map.of()).get(categoryId);
+            if (associationId == null) {
+                return;
+            }
+            store.commit(new WriteBatch().delete(ENTRY_CATEGORIES_TABLE, associationId));
+            removeAssociation(entryId, categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publishChanged(Set.of(entryId));
+    }
+
+    /**
+     * 整体替换条目的分类关联（知识条目新增/编辑时使用）
+     *
+     * 不发布变更事件：调用方（KnowledgeBaseService）随后会自行重建该条目的索引。
+     */
+    public void replaceEntryCategories(String entryId, Collection<String> categoryIds) throws IOException {
+        validateEntryId(entryId);
+        for (String categoryId : categoryIds) {
+            validateId(categoryId);
+        }
+
+        lock.writeLock().lock();
+        try {
+            Set<String> target = new LinkedHashSet<>();
+            for (String categoryId : categoryIds) {
+                if (!categories.containsKey(categoryId)) {
+                    throw new IllegalArgumentException("分类不存在: " + categoryId);
+                }
+                target.add(categoryId);
+            }
+            Map<String, String> current = associationsByEntry.getOrDefault(entryId, Map.of());
+            List<String> removed = new ArrayList<>();
+            List<EntryCategory> added = new ArrayList<>();
+            WriteBatch batch = new WriteBatch();
+            for (Map.Entry<String, String> association : current.entrySet()) {
+                if (!target.contains(association.getKey())) {
+                    removed.add(association.getKey());
+                    batch.delete(ENTRY_CATEGORIES_TABLE, association.getValue());
+                }
+            }
+            for (String categoryId : target) {
+                if (!current.containsKey(categoryId)) {
+                    EntryCategory association = newAssociation(entryId, categoryId);
+                    added.add(association);
+                    batch.put(ENTRY_CATEGORIES_TABLE, association.id(), encode(association));
+                }
+            }
+            store.commit(batch);
+            for (String categoryId : removed) {
+                removeAssociation(entryId, categoryId);
+            }
+            added.forEach(this::addAssociation);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 条目所属分类及其全部祖先分类的ID（用于检索范围过滤：按父分类检索时包含子分类下的条目）
+     */
+    public List<String> getCategoryScopeIdsForEntry(String entryId) {
+        validateEntryId(entryId);
+        lock.readLock().lock();
+        try {
+            Set<String> scope = new LinkedHashSet<>();
+            for (String categoryId : categoryIdsForEntry(entryId)) {
+                Category current = categories.get(categoryId);
+                while (current != null && scope.add(current.id())) {
+                    current = current.parentId() != null ? categories.get(current.parentId()) : null;
+                }
+            }
+            return new ArrayList<>(scope);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public List<String> getCategoryIdsForEntry(String entryId) {
         validateEntryId(entryId);
-        return entryCategories.values().stream()
-            .filter(ec -> ec.entryId().equals(entryId))
-            .map(EntryCategory::categoryId)
-            .toList();
+        lock.readLock().lock();
+        try {
+            return categoryIdsForEntry(entryId);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public List<String> getEntryIdsForCategory(String categoryId) {
         validateId(categoryId);
-        return entryCategories.values().stream()
-            .filter(ec -> ec.categoryId().equals(categoryId))
-            .map(EntryCategory::entryId)
-            .toList();
+        lock.readLock().lock();
+        try {
+            Set<String> entryIds = entriesByCategory.get(categoryId);
+            return entryIds != null ? new ArrayList<>(entryIds) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 关联到该分类或其任一子分类的条目ID（列表按分类筛选时使用）
+     */
+    public Set<String> getEntryIdsForCategoryScope(String categoryId) {
+        validateId(categoryId);
+        lock.readLock().lock();
+        try {
+            return getEntryIdsForSubtree(categoryId);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public int getEntryCount(String categoryId) {
         validateId(categoryId);
-        return (int) entryCategories.values().stream()
-            .filter(ec -> ec.categoryId().equals(categoryId))
-            .count();
+        lock.readLock().lock();
+        try {
+            return entryCount(categoryId);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
-    private List<CategoryNode> buildTree(String parentId) {
-        return categories.values().stream()
-            .filter(c -> Objects.equals(parentId, c.parentId()))
+    /**
+     * 分类及其全部子分类下的关联数（同一条目挂在多个子分类下时按关联重复计数）
+     */
+    public int getSubtreeEntryCount(String categoryId) {
+        validateId(categoryId);
+        lock.readLock().lock();
+        try {
+            return subtreeEntryCounts.getOrDefault(categoryId, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<String> categoryIdsForEntry(String entryId) {
+        Map<String, String> associations = associationsByEntry.get(entryId);
+        return associations != null ? new ArrayList<>(associations.keySet()) : List.of();
+    }
+
+    private int entryCount(String categoryId) {
+        Set<String> entryIds = entriesByCategory.get(categoryId);
+        return entryIds != null ? entryIds.size() : 0;
+    }
+
+    /**
+     * 关联到该分类或其任一子分类的条目ID
+     */
+    private Set<String> getEntryIdsForSubtree(String categoryId) {
+        Set<String> entryIds = new LinkedHashSet<>();
+        Deque<String> pending = new ArrayDeque<>(List.of(categoryId));
+        while (!pending.isEmpty()) {
+            String current = pending.pop();
+            entryIds.addAll(entriesByCategory.getOrDefault(current, Set.of()));
+            children(current).forEach(pending::push);
+        }
+        return entryIds;
+    }
+
+    private void publishChanged(Set<String> entryIds) {
+        if (!entryIds.isEmpty()) {
+            eventPublisher.publishEvent(new EntryClassificationChangedEvent(entryIds));
+        }
+    }
+
+    private List<CategoryNode> buildTree(String parentKey) {
+        return children(parentKey).stream()
+            .map(categories::get)
             .map(c -> new CategoryNode(
                 c.id(),
                 c.name(),
                 c.parentId(),
                 c.path(),
                 c.level(),
-                getEntryCount(c.id()),
+                entryCount(c.id()),
+                subtreeEntryCounts.getOrDefault(c.id(), 0),
                 buildTree(c.id())
             ))
             .toList();
     }
 
-    private void updateChildPaths(String parentId, String parentPath) {
-        // Collect children first to avoid ConcurrentModificationException
-        List<Category> children = categories.values().stream()
-            .filter(c -> parentId.equals(c.parentId()))
-            .toList();
-
-        for (Category child : children) {
+    /**
+     * 计算子孙分类的新路径与层级（只收集到 changed，不修改内存）
+     */
+    private void collectChildPathUpdates(String parentId, String parentPath, int parentLevel, long now, List<Category> changed) {
+        for (String childId : children(parentId)) {
+            Category child = categories.get(childId);
             String newPath = parentPath + "/" + child.name();
-            Category updated = new Category(child.id(), child.name(), child.parentId(), newPath, child.level(), child.createdAt(), Instant.now().toEpochMilli());
-            categories.put(child.id(), updated);
-            updateChildPaths(child.id(), newPath);
+            changed.add(new Category(child.id(), child.name(), child.parentId(), newPath, parentLevel + 1, child.createdAt(), now));
+            collectChildPathUpdates(child.id(), newPath, parentLevel + 1, now, changed);
+        }
+    }
+
+    private static EntryCategory newAssociation(String entryId, String categoryId) {
+        return new EntryCategory("ec-" + UUID.randomUUID().toString().substring(0, 8), entryId, categoryId);
+    }
+
+    private void addAssociation(EntryCategory association) {
+        associationsByEntry.computeIfAbsent(association.entryId(), k -> new LinkedHashMap<>())
+            .put(association.categoryId(), association.id());
+        entriesByCategory.computeIfAbsent(association.categoryId(), k -> new LinkedHashSet<>())
+            .add(association.entryId());
+        adjustSubtreeCounts(association.categoryId(), 1);
+        cachedTree = null;
+    }
+
+    private boolean removeAssociation(String entryId, String categoryId) {
+        Map<String, String> associations = associationsByEntry.get(entryId);
+        String associationId = associations != null ? associations.remove(categoryId) : null;
+        if (associationId == null) {
+            return false;
+        }
+        if (associations.isEmpty()) {
+            associationsByEntry.remove(entryId);
+        }
+        Set<String> entryIds = entriesByCategory.get(categoryId);
+        if (entryIds != null && entryIds.remove(entryId) && entryIds.isEmpty()) {
+            entriesByCategory.remove(categoryId);
+        }
+        adjustSubtreeCounts(categoryId, -1);
+        cachedTree = null;
+        return true;
+    }
+
+    /**
+     * 沿祖先链调整子树关联数
+     */
+    private void adjustSubtreeCounts(String categoryId, int delta) {
+        Category current = categories.get(categoryId);
+        while (current != null) {
+            subtreeEntryCounts.merge(current.id(), delta, Integer::sum);
+            current = current.parentId() != null ? categories.get(current.parentId()) : null;
         }
     }
 
+    private void rebuildIndexes() {
+        childrenByParent.clear();
+        associationsByEntry.clear();
+        entriesByCategory.clear();
+        subtreeEntryCounts.clear();
+        for (Category category : categories.values()) {
+            childrenByParent.computeIfAbsent(parentKey(category.parentId()), k -> new LinkedHashSet<>()).add(category.id());
+        }
+        for (String stored : store.entries(ENTRY_CATEGORIES_TABLE).values()) {
+            EntryCategory association;
+            try {
+                association = objectMapper.readValue(stored, EntryCategory.class);
+            } catch (IOException e) {
+                logger.error("Failed to decode entry-category: {}", stored, e);
+                continue;
+            }
+            if (associationsByEntry.getOrDefault(association.entryId(), Map.of()).containsKey(association.categoryId())) {
+                continue; // 历史数据中的重复关联
+            }
+            addAssociation(association);
+        }
+        cachedTree = null;
+    }
+
+    private Set<String> children(String parentKey) {
+        return childrenByParent.getOrDefault(parentKey, Set.of());
+    }
+
+    private static String parentKey(String parentId) {
+        return parentId == null ? ROOT : parentId;
+    }
+
     private void validateName(String name) {
         if (name == null || name.isBlank()) {
             throw new IllegalArgumentException("分类名称不能为空");
@@ -241,41 +579,59 @@ public class CategoryService {
         }
     }
 
+    private String encode(Object value) throws IOException {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    /**
+     * 存储中的分类按创建时间排序加载，保持同级分类的展示顺序
+     */
     private void loadCategories() {
-        try {
-            if (Files.exists(CATEGORIES_PATH)) {
-                List<Category> loaded = objectMapper.readValue(CATEGORIES_PATH.toFile(), new TypeReference<List<Category>>() {});
-                categories.clear();
-                for (Category c : loaded) {
-                    categories.put(c.id(), c);
-                }
+        List<Category> loaded = new ArrayList<>();
+        for (String stored : store.entries(CATEGORIES_TABLE).values()) {
+            try {
+                loaded.add(objectMapper.readValue(stored, Category.class));
+            } catch (IOException e) {
+                logger.error("Failed to decode category: {}", stored, e);
             }
-        } catch (Exception e) {
-            logger.error("Failed to load categories", e);
+        }
+        loaded.sort(Comparator.comparingLong(Category::createdAt).thenComparing(Category::id));
+        categories.clear();
+        for (Category c : loaded) {
+            categories.put(c.id(), c);
         }
     }
 
-    private void persistCategories() throws IOException {
-        Files.createDirectories(CATEGORIES_PATH.getParent());
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(CATEGORIES_PATH.toFile(), categories.values());
-    }
-
-    private void loadEntryCategories() {
+    /**
+     * 首次启动时把旧版 JSON 文件导入存储（一个批次），之后不再读取这两个文件
+     */
+    private void importLegacyFiles() {
+        if (store.get(META_TABLE, LEGACY_IMPORT_KEY) != null) {
+            return;
+        }
         try {
-            if (Files.exists(ENTRY_CATEGORIES_PATH)) {
-                List<EntryCategory> loaded = objectMapper.readValue(ENTRY_CATEGORIES_PATH.toFile(), new TypeReference<List<EntryCategory>>() {});
-                entryCategories.clear();
-                for (EntryCategory ec : loaded) {
-                    entryCategories.put(ec.id(), ec);
+            WriteBatch batch = new WriteBatch();
+            int categoryCount = 0;
+            int associationCount = 0;
+            if (Files.exists(categoriesPath)) {
+                for (Category c : objectMapper.readValue(categoriesPath.toFile(), new TypeReference<List<Category>>() {})) {
+                    batch.put(CATEGORIES_TABLE, c.id(), encode(c));
+                    categoryCount++;
+                }
+            }
+            if (Files.exists(entryCategoriesPath)) {
+                for (EntryCategory ec : objectMapper.readValue(entryCategoriesPath.toFile(), new TypeReference<List<EntryCategory>>() {})) {
+                    batch.put(ENTRY_CATEGORIES_TABLE, ec.id(), encode(ec));
+                    associationCount++;
                 }
             }
+            batch.put(META_TABLE, LEGACY_IMPORT_KEY, Long.toString(Instant.now().toEpochMilli()));
+            store.commit(batch);
+            if (categoryCount > 0 || associationCount > 0) {
+                logger.info("已从 JSON 文件导入 {} 个分类、{} 条条目关联", categoryCount, associationCount);
+            }
         } catch (Exception e) {
-            logger.error("Failed to load entry-categories", e);
+            logger.error("Failed to import legacy category files", e);
         }
     }
-
-    private void persistEntryCategories() throws IOException {
-        Files.createDirectories(ENTRY_CATEGORIES_PATH.getParent());
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(ENTRY_CATEGORIES_PATH.toFile(), entryCategories.values());
-    }
-}
\ No newline at end of file
+}
@@ -5,6 +5,8 @@ import com.example.customerservice.dto.HybridAnswerResult;
 import com.example.customerservice.tools.CustomerServiceTools;
 import com.example.customerservice.tools.KnowledgeBaseTools;
 import com.example.customerservice.service.retriever.HybridAnswerService;
+import com.example.customerservice.service.runtime.BlockingTaskExecutors;
+import com.example.customerservice.service.session.ChatTurnMailbox;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.agentscope.core.ReActAgent;
@@ -27,6 +29,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * 聊天会话管理服务
@@ -79,15 +82,21 @@ public class ChatSessionService {
     private final KnowledgeBaseTools knowledgeBaseTools;
     private final HybridAnswerService hybridAnswerService;
     private final ObjectMapper objectMapper;
+    private final ChatTurnMailbox turnMailbox;
+    private final BlockingTaskExecutors executors;
 
     public ChatSessionService(
         KnowledgeBaseTools knowledgeBaseTools,
         HybridAnswerService hybridAnswerService,
-        ObjectMapper objectMapper
+        ObjectMapper objectMapper,
+        ChatTurnMailbox turnMailbox,
+        BlockingTaskExecutors executors
     ) {
         this.knowledgeBaseTools = knowledgeBaseTools;
         this.hybridAnswerService = hybridAnswerService;
         this.objectMapper = objectMapper;
+        this.turnMailbox = turnMailbox;
+        this.executors = executors;
     }
 
     /**
@@ -181,11 +190,48 @@ public class ChatSessionService {
         return buildAssistantMsg(userId, result.getResponse());
     }
 
+    /**
+     * 同步处理用户消息（供调试等同步调用方使用，会阻塞当前线程直到轮到该消息并处理完成）
+     *
+     * @param userId 用户ID
+     * @param userMessage 用户消息内容
+     * @return 处理结果
+     */
     public ChatMessageResult processUserMessageWithMetadata(
         String userId,
         String userMessage
     ) {
-        logger.info("处理用户 {} 的消息: {}", userId, userMessage);
+        return submitUserMessage(userId, userMessage).block();
+    }
+
+    /**
+     * 提交用户消息
+     * 同一用户的消息经会话信箱按顺序逐条处理，排队期间不占用线程
+     *
+     * @param userId 用户ID
+     * @param userMessage 用户消息内容
+     * @return 处理结果；排队已满或重复提交被拒绝时以 ChatTurnRejectedException 结束
+     */
+    public Mono<ChatMessageResult> submitUserMessage(
+        String userId,
+        String userMessage
+    ) {
+        return turnMailbox.submit(userId, userMessage, () ->
+            Mono.defer(() -> executeTurn(userId, userMessage))
+        );
+    }
+
+    /**
+     * 执行单轮对话
+     * 意图路由、知识库检索、图谱检索和Agent调用组合为一条 Mono 链路，自身不调用 block()；
+     * Agent 内部的模型客户端与同步工具可能阻塞，因此 Agent 调用在聊天轮次调度器上订阅。
+     */
+    private Mono<ChatMessageResult> executeTurn(String userId, String userMessage) {
+        logger.debug(
+            "处理用户 {} 的消息，长度: {}",
+            userId,
+            userMessage != null ? userMessage.length() : 0
+        );
         activityLogger.logMessageProcessingStart(
             "智能客服-" + userId,
             userMessage
@@ -196,35 +242,32 @@ public class ChatSessionService {
                 userId,
                 userMessage
             );
-            logger.info(
-                "用户 {} 的消息处理完成（产品信息直出），响应长度: {}, 内容为:{}",
+            logger.debug(
+                "用户 {} 的消息处理完成（产品信息直出），响应长度: {}",
                 userId,
-                directResponse.getResponse().length(),
-                directResponse.getResponse()
+                directResponse.getResponse().length()
             );
             activityLogger.logMessageProcessingEnd(
                 "智能客服-" + userId,
                 directResponse.getResponse()
             );
-            return directResponse;
+            return Mono.just(directResponse);
         }
 
         if (isKnowledgeIntent(userMessage)) {
-            ChatMessageResult directResponse = handleDirectKnowledgeQuery(
-                userId,
-                userMessage
-            );
-            logger.info(
-                "用户 {} 的消息处理完成（知识库直出），响应长度: {}, 内容为:{}",
-                userId,
-                directResponse.getResponse().length(),
-                directResponse.getResponse()
-            );
-            activityLogger.logMessageProcessingEnd(
-                "智能客服-" + userId,
-                directResponse.getResponse()
+            return handleDirectKnowledgeQuery(userId, userMessage).doOnNext(
+                directResponse -> {
+                    logger.debug(
+                        "用户 {} 的消息处理完成（知识库直出），响应长度: {}",
+                        userId,
+                        directResponse.getResponse().length()
+                    );
+                    activityLogger.logMessageProcessingEnd(
+                        "智能客服-" + userId,
+                        directResponse.getResponse()
+                    );
+                }
             );
-            return directResponse;
         }
 
         ReActAgent agent = getUserSession(userId);
@@ -236,7 +279,20 @@ public class ChatSessionService {
             .build();
 
         // 调用Agent处理消息
-        Msg response = agent.call(userMsg).block();
+        return agent
+            .call(userMsg)
+            .subscribeOn(executors.chatTurns())
+            .map(response -> toAgentResult(userId, userMessage, response))
+            .switchIfEmpty(
+                Mono.fromSupplier(() -> toAgentResult(userId, userMessage, null))
+            );
+    }
+
+    private ChatMessageResult toAgentResult(
+        String userId,
+        String userMessage,
+        Msg response
+    ) {
         response = fallbackIfOrderStatusPending(userId, userMessage, response);
         response = sanitizeAssistantResponse(userId, response);
 
@@ -249,11 +305,10 @@ public class ChatSessionService {
             System.currentTimeMillis()
         );
 
-        logger.info(
-            "用户 {} 的消息处理完成，响应长度: {}, 内容为:{}",
+        logger.debug(
+            "用户 {} 的消息处理完成，响应长度: {}",
             userId,
-            responseText.length(),
-            responseText
+            responseText.length()
         );
         activityLogger.logMessageProcessingEnd(
             "智能客服-" + userId,
@@ -281,25 +336,22 @@ public class ChatSessionService {
         );
     }
 
-    private ChatMessageResult handleDirectKnowledgeQuery(
+    private Mono<ChatMessageResult> handleDirectKnowledgeQuery(
         String userId,
         String userMessage
     ) {
-        logger.info(
-            "命中知识库问题直出策略，userId={}, question={}",
-            userId,
-            userMessage
-        );
-        HybridAnswerResult result = hybridAnswerService.answerQuestion(
-            userMessage
-        );
-        return new ChatMessageResult(
-            result.getAnswer(),
-            result.getCitations(),
-            result.getRetrievalMode(),
-            result.getFallbackMode(),
-            System.currentTimeMillis()
-        );
+        logger.debug("命中知识库问题直出策略，userId={}", userId);
+        return hybridAnswerService
+            .answerQuestionAsync(userMessage)
+            .map(result ->
+                new ChatMessageResult(
+                    result.getAnswer(),
+                    result.getCitations(),
+                    result.getRetrievalMode(),
+                    result.getFallbackMode(),
+                    System.currentTimeMillis()
+                )
+            );
     }
 
     private Msg fallbackIfOrderStatusPending(
@@ -542,67 +594,61 @@ public class ChatSessionService {
         String userMessage,
         int streamInterval
     ) {
-        logger.info("开始流式处理用户 {} 的消息: {}", userId, userMessage);
-
-        // 先获取完整的Agent响应
-        return Flux.<String>create(sink -> {
-            try {
-                // 处理用户消息获取完整响应
-                ChatMessageResult result = processUserMessageWithMetadata(
-                    userId,
-                    userMessage
-                );
-                String fullResponse = sanitizeReasoningContent(
-                    result.getResponse()
-                );
-
-                logger.info(
-                    "用户 {} 的完整响应已获取，长度: {}",
-                    userId,
-                    fullResponse.length()
-                );
-
-                // 检查是否为空响应
-                if (fullResponse == null || fullResponse.isEmpty()) {
-                    sink.next("[系统响应为空]");
-                    sink.complete();
-                    return;
-                }
+        logger.debug("开始流式处理用户 {} 的消息", userId);
+
+        // 先经会话信箱获取完整的Agent响应，再分块输出
+        return submitUserMessage(userId, userMessage)
+            .flatMapMany(result -> Flux.<String>create(sink -> {
+                try {
+                    String fullResponse = sanitizeReasoningContent(
+                        result.getResponse()
+                    );
 
-                // 分块发送响应，模拟打字机效果
-                int chunkSize = streamInterval > 0 ? 5 : 20; // 根据间隔动态调整块大小
-                int totalLength = fullResponse.length();
+                    logger.debug(
+                        "用户 {} 的完整响应已获取，长度: {}",
+                        userId,
+                        fullResponse.length()
+                    );
 
-                for (int i = 0; i < totalLength; i += chunkSize) {
-                    int end = Math.min(i + chunkSize, totalLength);
-                    String chunk = fullResponse.substring(i, end);
+                    // 检查是否为空响应
+                    if (fullResponse == null || fullResponse.isEmpty()) {
+                        sink.next("[系统响应为空]");
+                        sink.complete();
+                        return;
+                    }
 
-                    // 将换行符转义为字符串形式，避免SSE将其作为行分隔符
-                    // 这样前端接收到的数据不会因为换行符而被拆分成多条
-                    chunk = chunk.replace("\\", "\\\\").replace("\n", "\\n");
+                    // 分块发送响应，模拟打字机效果
+                    int chunkSize = streamInterval > 0 ? 5 : 20; // 根据间隔动态调整块大小
+                    int totalLength = fullResponse.length();
 
-                    // 直接发送纯文本，Spring WebFlux会自动处理SSE格式
-                    sink.next(chunk);
+                    for (int i = 0; i < totalLength; i += chunkSize) {
+                        int end = Math.min(i + chunkSize, totalLength);
+                        String chunk = fullResponse.substring(i, end);
 
-                    logger.debug(
-                        "发送流式块: 前进={}, 剩余={}",
-                        end,
-                        totalLength - end
-                    );
-                }
+                        // 将换行符转义为字符串形式，避免SSE将其作为行分隔符
+                        // 这样前端接收到的数据不会因为换行符而被拆分成多条
+                        chunk = chunk.replace("\\", "\\\\").replace("\n", "\\n");
 
-                sink.next(buildMetadataEvent(result));
+                        // 直接发送纯文本，Spring WebFlux会自动处理SSE格式
+                        sink.next(chunk);
+                    }
 
-                // 发送结束信号（纯文本，不加data:前缀）
-                sink.next("[DONE]");
-                sink.complete();
+                    sink.next(buildMetadataEvent(result));
 
-                logger.info("用户 {} 的流式响应发送完成", userId);
-            } catch (Exception e) {
-                logger.error("流式处理用户消息失败", e);
-                sink.error(e);
-            }
-        })
+                    // 发送结束信号（纯文本，不加data:前缀）
+                    sink.next("[DONE]");
+                    sink.complete();
+
+                    logger.debug(
+                        "用户 {} 的流式响应发送完成，分块数: {}",
+                        userId,
+                        (totalLength + chunkSize - 1) / chunkSize
+                    );
+                } catch (Exception e) {
+                    logger.error("流式处理用户消息失败", e);
+                    sink.error(e);
+                }
+            }))
             // 添加延迟，模拟打字机效果
             .delayElements(Duration.ofMillis(streamInterval))
             .doOnError(error -> logger.error("流式处理出错", error));
@@ -655,7 +701,11 @@ public class ChatSessionService {
             .build();
     }
 
-    private String sanitizeReasoningContent(String content) {
+    /**
+     * 剥离模型输出中的思考过程（think/thought/reasoning 标签及前缀行）
+     * 无实例状态，包级可见以便基准测试直接调用
+     */
+    static String sanitizeReasoningContent(String content) {
         if (content == null || content.isBlank()) {
             return "";
         }
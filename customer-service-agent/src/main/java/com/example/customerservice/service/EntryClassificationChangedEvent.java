@@ -0,0 +1,14 @@
+package com.example.customerservice.service;
+
+import java.util.Set;
+
+/**
+ * 知识条目的分类或标签关联发生变化
+ *
+ * 所属分类及其祖先分类的 ID、标签 ID 冗余存放在每个知识片段的 payload 中，
+ * KnowledgeBaseService 收到事件后在后台重建受影响条目的片段，保持检索过滤条件与关联关系一致。
+ * 只改名不影响 ID，不发布此事件。
+ *
+ * @param entryIds 受影响的知识条目ID
+ */
+public record EntryClassificationChangedEvent(Set<String> entryIds) {}
@@ -1,6 +1,9 @@
 package com.example.customerservice.service;
 
+import com.example.customerservice.dto.DuplicateClusterResponse;
+import com.example.customerservice.dto.DuplicateReportResponse;
 import com.example.customerservice.dto.KnowledgeEntryCreateRequest;
+import com.example.customerservice.dto.KnowledgeEntryListRequest;
 import com.example.customerservice.dto.KnowledgeEntryListResponse;
 import com.example.customerservice.dto.KnowledgeEntryResponse;
 import com.example.customerservice.dto.KnowledgeOperationResponse;
@@ -9,8 +12,14 @@ import com.example.customerservice.dto.RetrievedChunk;
 import com.example.customerservice.dto.VectorSearchResult;
 import com.example.customerservice.service.KnowledgeGraphService;
 import com.example.customerservice.service.extractor.TripleExtractor;
+import com.example.customerservice.service.retriever.LexicalIndex;
+import com.example.customerservice.service.retriever.NearDuplicateIndex;
+import com.example.customerservice.service.runtime.BlockingTaskExecutors;
+import com.example.customerservice.service.vector.FilterableVectorStore;
+import com.example.customerservice.service.vector.PayloadFilter;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.message.TextBlock;
 import io.agentscope.core.rag.Knowledge;
 import io.agentscope.core.rag.knowledge.SimpleKnowledge;
 import io.agentscope.core.rag.model.Document;
@@ -20,28 +29,46 @@ import io.agentscope.core.rag.reader.ReaderInput;
 import io.agentscope.core.rag.reader.SplitStrategy;
 import io.agentscope.core.rag.reader.TextReader;
 import io.agentscope.core.rag.store.VDBStoreBase;
+import io.agentscope.core.rag.store.dto.SearchDocumentDto;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 /**
  * 知识库服务
  * 提供基于RAG的文档检索和问答功能
+ *
+ * 条目写操作在对象锁内串行执行；条目表和按 updatedAt 倒序维护的有序索引都是并发容器，
+ * 管理台轮询的列表接口不持有对象锁，按游标分页，不会被重建索引等长耗时写操作阻塞。
  */
 @Service
 public class KnowledgeBaseService {
@@ -51,6 +78,9 @@ public class KnowledgeBaseService {
     );
     private static final String REGISTRY_SOURCE = "knowledge-console";
     private static final String ENTRY_TYPE = "text";
+    private static final double RETRIEVE_SCORE_THRESHOLD = 0.3;
+    private static final int UNFILTERED_OVERFETCH = 5;
+    private static final int MAX_PAGE_SIZE = 500;
     private static final Path REGISTRY_PATH = Paths.get(
         "data",
         "knowledge-entries.json"
@@ -60,8 +90,24 @@ public class KnowledgeBaseService {
     private final ObjectMapper objectMapper;
     private final TripleExtractor tripleExtractor;
     private final KnowledgeGraphService knowledgeGraphService;
+    private final BlockingTaskExecutors executors;
+    private final LexicalIndex lexicalIndex;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final CategoryService categoryService;
+    private final TagService tagService;
+    private final KnowledgeCorpusVersion corpusVersion;
     private final Map<String, ManagedKnowledgeEntry> entries =
-        new LinkedHashMap<>();
+        new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<EntryOrder, ManagedKnowledgeEntry> entriesByUpdatedAt =
+        new ConcurrentSkipListMap<>();
+    private final Map<String, Integer> entryCountBySource = new ConcurrentHashMap<>();
+    /** 分类/标签关联变化、等待后台重建片段的条目 */
+    private final Set<String> pendingReclassified = ConcurrentHashMap.newKeySet();
+    private final ExecutorService reclassifier = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "knowledge-reclassify");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private volatile Long lastUpdatedAt;
     private volatile Long lastRebuildAt;
@@ -71,12 +117,24 @@ public class KnowledgeBaseService {
         Knowledge knowledgeBase,
         ObjectMapper objectMapper,
         TripleExtractor tripleExtractor,
-        KnowledgeGraphService knowledgeGraphService
+        KnowledgeGraphService knowledgeGraphService,
+        BlockingTaskExecutors executors,
+        LexicalIndex lexicalIndex,
+        NearDuplicateIndex nearDuplicateIndex,
+        CategoryService categoryService,
+        TagService tagService,
+        KnowledgeCorpusVersion corpusVersion
     ) {
         this.knowledgeBase = knowledgeBase;
         this.objectMapper = objectMapper;
         this.tripleExtractor = tripleExtractor;
         this.knowledgeGraphService = knowledgeGraphService;
+        this.executors = executors;
+        this.lexicalIndex = lexicalIndex;
+        this.nearDuplicateIndex = nearDuplicateIndex;
+        this.categoryService = categoryService;
+        this.tagService = tagService;
+        this.corpusVersion = corpusVersion;
     }
 
     /**
@@ -98,23 +156,78 @@ public class KnowledgeBaseService {
         }
     }
 
-    public synchronized KnowledgeEntryListResponse listEntries() {
-        List<KnowledgeEntryResponse> list = entries.values()
-            .stream()
-            .sorted(
-                Comparator.comparingLong(ManagedKnowledgeEntry::updatedAt)
-                    .reversed()
-            )
+    public KnowledgeEntryListResponse listEntries() {
+        return listEntries(new KnowledgeEntryListRequest(null, null, true, null, null, null));
+    }
+
+    /**
+     * 按 updatedAt 倒序分页列出知识条目
+     *
+     * 直接遍历维护好的有序索引，不排序也不持有对象锁；预览在写入时生成。
+     * 按分类/标签筛选时先取出范围内的条目ID再排序，按来源筛选时沿索引跳过不匹配的条目。
+     *
+     * @param request 游标、页大小、是否返回正文和筛选条件
+     * @return 本页条目、匹配总数和下一页游标
+     */
+    public KnowledgeEntryListResponse listEntries(KnowledgeEntryListRequest request) {
+        EntryOrder after = decodeCursor(request.getCursor());
+        int limit = request.getLimit() == null
+            ? Integer.MAX_VALUE
+            : Math.max(1, Math.min(request.getLimit(), MAX_PAGE_SIZE));
+        String source = blankToNull(request.getSource());
+        Set<String> scope = scopeEntryIds(
+            blankToNull(request.getCategoryId()),
+            blankToNull(request.getTagId())
+        );
+
+        List<ManagedKnowledgeEntry> page = new ArrayList<>();
+        int total;
+        if (scope == null) {
+            NavigableMap<EntryOrder, ManagedKnowledgeEntry> remaining = after == null
+                ? entriesByUpdatedAt
+                : entriesByUpdatedAt.tailMap(after, false);
+            for (ManagedKnowledgeEntry entry : remaining.values()) {
+                if (source != null && !source.equals(entry.source())) {
+                    continue;
+                }
+                page.add(entry);
+                if (page.size() > limit) {
+                    break;
+                }
+            }
+            total = source == null
+                ? entries.size()
+                : entryCountBySource.getOrDefault(source, 0);
+        } else {
+            List<ManagedKnowledgeEntry> matched = scope.stream()
+                .map(entries::get)
+                .filter(Objects::nonNull)
+                .filter(entry -> source == null || source.equals(entry.source()))
+                .toList();
+            total = matched.size();
+            matched.stream()
+                .filter(entry -> after == null || EntryOrder.of(entry).compareTo(after) > 0)
+                .sorted(Comparator.comparing(EntryOrder::of))
+                .limit(limit == Integer.MAX_VALUE ? Long.MAX_VALUE : limit + 1L)
+                .forEach(page::add);
+        }
+
+        String nextCursor = null;
+        if (page.size() > limit) {
+            page = page.subList(0, limit);
+            nextCursor = encodeCursor(EntryOrder.of(page.get(limit - 1)));
+        }
+        List<KnowledgeEntryResponse> list = page.stream()
             .map(entry ->
                 new KnowledgeEntryResponse(
                     entry.entryId(),
                     entry.title(),
-                    entry.content(),
-                    preview(entry.content()),
+                    request.isIncludeContent() ? entry.content() : null,
+                    entry.preview(),
                     entry.source(),
                     entry.type(),
-                    List.of(),
-                    List.of(),
+                    categoryService.getCategoryIdsForEntry(entry.entryId()),
+                    tagService.getTagIdsForEntry(entry.entryId()),
                     entry.createdAt(),
                     entry.updatedAt()
                 )
@@ -123,8 +236,9 @@ public class KnowledgeBaseService {
 
         return new KnowledgeEntryListResponse(
             list,
-            list.size(),
-            Instant.now().toEpochMilli()
+            total,
+            Instant.now().toEpochMilli(),
+            nextCursor
         );
     }
 
@@ -133,7 +247,13 @@ public class KnowledgeBaseService {
     ) throws IOException {
         String title = request != null ? request.getTitle() : null;
         String content = request != null ? request.getContent() : null;
-        return createManagedEntry(title, content, REGISTRY_SOURCE);
+        return createManagedEntry(
+            title,
+            content,
+            REGISTRY_SOURCE,
+            request != null ? request.getCategoryIds() : null,
+            request != null ? request.getTagIds() : null
+        );
     }
 
     public synchronized KnowledgeOperationResponse updateEntry(
@@ -167,10 +287,14 @@ public class KnowledgeBaseService {
             new ArrayList<>()
         );
 
+        List<String> previousCategoryIds = categoryService.getCategoryIdsForEntry(entryId);
+        List<String> previousTagIds = tagService.getTagIdsForEntry(entryId);
+        applyClassification(entryId, request.getCategoryIds(), request.getTagIds());
+
         deleteIndexedChunks(existing.chunkIds());
         knowledgeGraphService.removeEntryReferences(entryId);
 
-        entries.put(entryId, updated);
+        putEntry(updated);
 
         try {
             indexEntry(updated);
@@ -182,8 +306,9 @@ public class KnowledgeBaseService {
             persistRegistry();
         } catch (Exception exception) {
             logger.error("更新知识条目失败，尝试回滚 entryId={}", entryId, exception);
-            entries.put(entryId, existing);
+            putEntry(existing);
             try {
+                applyClassification(entryId, previousCategoryIds, previousTagIds);
                 indexEntry(existing.withChunkIds(new ArrayList<>()));
                 tripleExtractor.extractAndStore(
                     existing.getEntryId(),
@@ -211,11 +336,41 @@ public class KnowledgeBaseService {
         String title,
         String content,
         String source
+    ) throws IOException {
+        return createManagedEntry(title, content, source, null, null);
+    }
+
+    private KnowledgeOperationResponse createManagedEntry(
+        String title,
+        String content,
+        String source,
+        List<String> categoryIds,
+        List<String> tagIds
     ) throws IOException {
         validateEntry(title, content);
 
         long now = Instant.now().toEpochMilli();
+        List<NearDuplicateIndex.Match> duplicates = nearDuplicateIndex.findDuplicateEntries(content.trim(), null);
+        if (!duplicates.isEmpty() && nearDuplicateIndex.mode() == NearDuplicateIndex.Mode.MERGE) {
+            // 与已有条目近似重复：不再切块、向量化和抽取三元组，直接返回已有条目
+            NearDuplicateIndex.Match existing = duplicates.get(0);
+            logger.info(
+                "新增知识与已有条目近似重复，已合并，title={}, entryId={}, similarity={}",
+                title,
+                existing.entryId(),
+                existing.similarity()
+            );
+            lastOperationMessage = "新增知识与已有条目近似重复: " + getEntryTitle(existing.entryId());
+            return new KnowledgeOperationResponse(
+                String.format("与已有知识条目近似重复（相似度 %.2f），未重复创建", existing.similarity()),
+                existing.entryId(),
+                now
+            );
+        }
+
         String entryId = "kb-" + UUID.randomUUID();
+        // 先写分类/标签关联，建索引时才能冗余进片段 payload
+        applyClassification(entryId, categoryIds, tagIds);
         ManagedKnowledgeEntry entry = new ManagedKnowledgeEntry(
             entryId,
             title.trim(),
@@ -227,18 +382,29 @@ public class KnowledgeBaseService {
             new ArrayList<>()
         );
 
-        entries.put(entryId, entry);
+        putEntry(entry);
         try {
             indexEntry(entry);
             updateEntryChunkIds(entryId, entry.chunkIds());
             persistRegistry();
         } catch (Exception exception) {
-            entries.remove(entryId);
+            removeEntry(entryId);
+            nearDuplicateIndex.removeEntry(entryId);
+            applyClassification(entryId, List.of(), List.of());
             throw exception;
         }
 
         lastUpdatedAt = now;
         lastOperationMessage = "已新增知识条目: " + entry.title();
+        int duplicateChunks = nearDuplicateIndex.countDuplicateChunks(entryId);
+        if (!duplicates.isEmpty() || duplicateChunks > 0) {
+            logger.warn(
+                "新增知识条目存在近似重复，entryId={}, duplicateEntries={}, duplicateChunks={}",
+                entryId,
+                duplicates.stream().map(NearDuplicateIndex.Match::entryId).toList(),
+                duplicateChunks
+            );
+        }
 
         // Extract triples to Neo4j
         try {
@@ -248,20 +414,22 @@ public class KnowledgeBaseService {
         }
 
         return new KnowledgeOperationResponse(
-            "知识条目已创建",
+            duplicateMessage("知识条目已创建", duplicates, duplicateChunks),
             entryId,
             now
         );
     }
 
     public synchronized KnowledgeOperationResponse deleteEntry(String entryId) throws IOException {
-        ManagedKnowledgeEntry entry = entries.remove(entryId);
+        ManagedKnowledgeEntry entry = removeEntry(entryId);
         if (entry == null) {
             throw new IllegalArgumentException("知识条目不存在: " + entryId);
         }
 
         deleteIndexedChunks(entry.chunkIds());
+        nearDuplicateIndex.removeEntry(entryId);
         knowledgeGraphService.removeEntryReferences(entryId);
+        applyClassification(entryId, List.of(), List.of());
         persistRegistry();
 
         long now = Instant.now().toEpochMilli();
@@ -279,25 +447,17 @@ public class KnowledgeBaseService {
             deleteIndexedChunks(entry.chunkIds());
             knowledgeGraphService.removeEntryReferences(entry.entryId());
         });
-        entries.replaceAll((entryId, entry) -> entry.withChunkIds(new ArrayList<>()));
+        for (ManagedKnowledgeEntry entry : new ArrayList<>(entries.values())) {
+            putEntry(entry.withChunkIds(new ArrayList<>()));
+        }
 
+        List<TripleExtractor.Source> sources = new ArrayList<>();
         for (ManagedKnowledgeEntry entry : entries.values()) {
             indexEntry(entry);
-            try {
-                tripleExtractor.extractAndStore(
-                    entry.getEntryId(),
-                    entry.getTitle(),
-                    entry.getContent()
-                );
-            } catch (Exception e) {
-                logger.warn(
-                    "知识条目重建图谱失败，entryId={}, title={}",
-                    entry.getEntryId(),
-                    entry.getTitle(),
-                    e
-                );
-            }
+            sources.add(new TripleExtractor.Source(entry.getEntryId(), entry.getTitle(), entry.getContent()));
         }
+        // 多个条目合并成少量 LLM 请求，单个条目失败在抽取器内记录日志
+        tripleExtractor.extractAndStoreAll(sources);
 
         persistRegistry();
 
@@ -326,20 +486,14 @@ public class KnowledgeBaseService {
 
     /**
      * 根据问题检索相关文档
+     * 检索本身不持有对象锁，避免阻塞等待向量库时串行化所有查询（虚拟线程下也不会钉住承载线程）
      *
      * @param question 用户问题
      * @return 相关文档内容
      */
-    public synchronized String searchKnowledgeBase(String question) {
+    public String searchKnowledgeBase(String question) {
         try {
-            RetrieveConfig config = RetrieveConfig.builder()
-                .limit(10)
-                .scoreThreshold(0.3)
-                .build();
-
-            List<Document> results = knowledgeBase
-                .retrieve(question, config)
-                .block();
+            List<Document> results = retrieveFused(question, 10, PayloadFilter.NONE).block();
 
             if (results == null || results.isEmpty()) {
                 return "抱歉，知识库中没有找到与您的问题相关的信息。请尝试重新表述问题或联系人工客服。";
@@ -392,35 +546,192 @@ public class KnowledgeBaseService {
      * @param limit 返回结果数量限制
      * @return 结构化检索结果
      */
-    public synchronized VectorSearchResult searchKnowledgeBaseStructured(String question, int limit) {
-        try {
-            RetrieveConfig config = RetrieveConfig.builder()
-                .limit(limit > 0 ? limit : 10)
-                .scoreThreshold(0.3)
-                .build();
+    public VectorSearchResult searchKnowledgeBaseStructured(String question, int limit) {
+        return searchKnowledgeBaseStructuredAsync(question, limit).block();
+    }
 
-            List<Document> results = knowledgeBase.retrieve(question, config).block();
-            List<RetrievedChunk> chunks = new ArrayList<>();
+    /**
+     * 异步检索知识库并返回结构化结果
+     *
+     * Embedding 客户端内部是同步HTTP调用，因此订阅切换到检索调度器，
+     * 保证调用线程（请求线程或事件循环）不被阻塞。
+     *
+     * @param question 用户问题
+     * @param limit 返回结果数量限制
+     * @return 结构化检索结果；检索失败时返回带错误提示的空结果
+     */
+    public Mono<VectorSearchResult> searchKnowledgeBaseStructuredAsync(String question, int limit) {
+        return searchKnowledgeBaseScopedAsync(question, limit, PayloadFilter.NONE);
+    }
 
-            if (results != null) {
+    /**
+     * 在分类/标签范围内检索知识库
+     *
+     * 过滤条件下推到向量库（Milvus 过滤表达式或 HNSW 图遍历过滤），只在范围内的片段中取 top-k，
+     * 不再全库检索后在 Java 侧筛选。
+     *
+     * @param question 用户问题
+     * @param limit 返回结果数量限制
+     * @param filter 分类/标签范围，{@link PayloadFilter#NONE} 表示全库
+     * @return 结构化检索结果；检索失败时返回带错误提示的空结果
+     */
+    public Mono<VectorSearchResult> searchKnowledgeBaseScopedAsync(
+        String question,
+        int limit,
+        PayloadFilter filter
+    ) {
+        return retrieveFused(question, limit > 0 ? limit : 10, filter)
+            .map(results -> {
+                List<RetrievedChunk> chunks = new ArrayList<>();
                 for (Document doc : results) {
                     String content = doc.getMetadata().getContentText();
                     double score = doc.getScore();
                     String title = doc.getPayloadValueAs("title", String.class);
                     chunks.add(new RetrievedChunk(content != null ? content : "", score, title));
                 }
-            }
 
-            String answer = chunks.isEmpty()
-                ? "抱歉，知识库中没有找到与您的问题相关的信息。"
-                : "根据知识库中的信息，为您找到以下相关内容：\n\n" +
-                  String.join("\n\n", chunks.stream().limit(3).map(RetrievedChunk::getContent).toList());
+                String answer = chunks.isEmpty()
+                    ? "抱歉，知识库中没有找到与您的问题相关的信息。"
+                    : "根据知识库中的信息，为您找到以下相关内容：\n\n" +
+                      String.join("\n\n", chunks.stream().limit(3).map(RetrievedChunk::getContent).toList());
 
-            return new VectorSearchResult(answer, chunks);
-        } catch (Exception e) {
-            logger.error("知识库检索失败，question={}", question, e);
-            return new VectorSearchResult("抱歉，检索知识库时发生错误，请稍后再试。", List.of());
+                return new VectorSearchResult(answer, chunks);
+            })
+            .onErrorResume(e -> {
+                logger.error("知识库检索失败，question={}", question, e);
+                return Mono.just(
+                    new VectorSearchResult("抱歉，检索知识库时发生错误，请稍后再试。", List.of())
+                );
+            });
+    }
+
+    /**
+     * 词法 + 向量混合召回
+     *
+     * 先查内存中的 BM25 索引：高置信命中（如"退货运费"这类原文短语）直接返回，不调用 Embedding；
+     * 否则执行向量检索，两路结果按 RRF 融合。向量检索失败但词法有命中时降级为词法结果。
+     *
+     * @param question 用户问题
+     * @param limit 返回结果数量限制
+     * @param filter 分类/标签范围
+     * @return 按相关度排序的文档
+     */
+    private Mono<List<Document>> retrieveFused(String question, int limit, PayloadFilter filter) {
+        LexicalIndex.LexicalSearchResult lexical = lexicalIndex.search(
+            question,
+            limit,
+            doc -> filter.test(doc.getMetadata().getPayload())
+        );
+        if (lexical.highConfidence()) {
+            logger.debug("词法检索高置信命中，跳过向量检索，question={}", question);
+            return Mono.just(lexical.hits());
+        }
+
+        Mono<List<Document>> vectorSearch = Mono.defer(() -> retrieveVectors(question, limit, filter))
+            .subscribeOn(executors.retrievalScheduler())
+            .defaultIfEmpty(List.of());
+        if (lexical.hits().isEmpty()) {
+            return vectorSearch;
         }
+        return vectorSearch
+            .map(vectorHits -> lexicalIndex.fuse(vectorHits, lexical.hits(), limit))
+            .onErrorResume(e -> {
+                logger.warn("向量检索失败，降级为词法检索结果，question={}", question, e);
+                return Mono.just(lexical.hits());
+            });
+    }
+
+    /**
+     * 向量检索；有范围条件时自行生成查询向量并把过滤条件交给向量库
+     *
+     * 不支持过滤下推的向量库（如 InMemoryStore）多取几倍结果后在 Java 侧过滤。
+     */
+    private Mono<List<Document>> retrieveVectors(String question, int limit, PayloadFilter filter) {
+        if (filter.isEmpty() || !(knowledgeBase instanceof SimpleKnowledge simpleKnowledge)) {
+            RetrieveConfig config = RetrieveConfig.builder()
+                .limit(limit)
+                .scoreThreshold(RETRIEVE_SCORE_THRESHOLD)
+                .build();
+            return knowledgeBase.retrieve(question, config);
+        }
+        VDBStoreBase store = simpleKnowledge.getEmbeddingStore();
+        return simpleKnowledge.getEmbeddingModel()
+            .embed(TextBlock.builder().text(question).build())
+            .flatMap(embedding -> {
+                SearchDocumentDto request = SearchDocumentDto.builder()
+                    .queryEmbedding(embedding)
+                    .limit(limit)
+                    .scoreThreshold(RETRIEVE_SCORE_THRESHOLD)
+                    .build();
+                if (store instanceof FilterableVectorStore filterable) {
+                    return filterable.search(request, filter);
+                }
+                request.setLimit(limit * UNFILTERED_OVERFETCH);
+                return store.search(request).map(results -> results.stream()
+                    .filter(doc -> filter.test(doc.getMetadata().getPayload()))
+                    .limit(limit)
+                    .toList()
+                );
+            });
+    }
+
+    @PreDestroy
+    public void shutdownReclassifier() {
+        reclassifier.shutdownNow();
+    }
+
+    /**
+     * 分类/标签关联变化后重建受影响条目的片段，使 payload 中冗余的分类和标签 ID 与关联一致
+     *
+     * 只登记条目并交给后台线程处理，不占用发起变更的请求线程；短时间内的多次变更合并处理。
+     */
+    @EventListener
+    public void onEntryClassificationChanged(EntryClassificationChangedEvent event) {
+        pendingReclassified.addAll(event.entryIds());
+        reclassifier.execute(this::reindexReclassified);
+    }
+
+    /**
+     * 先写入新片段再删除不再使用的旧片段：片段ID不变时向量库（HNSW 按ID替换，Milvus 按主键 upsert）、
+     * 词法索引和近似重复索引原地替换，写入失败时旧片段和注册表中的 chunkIds 保持不变，条目仍可检索
+     *
+     * 切块和 Embedding 在对象锁外完成，只有写入索引时持有对象锁；期间条目被修改或删除时放弃本次结果，
+     * 修改操作自身已按最新的分类/标签重建了片段。
+     */
+    private void reindexReclassified() {
+        int reindexed = 0;
+        for (String entryId : List.copyOf(pendingReclassified)) {
+            pendingReclassified.remove(entryId);
+            ManagedKnowledgeEntry entry = entries.get(entryId);
+            if (entry == null) {
+                continue;
+            }
+            try {
+                List<Document> chunks = embedChunks(chunkEntry(entry));
+                synchronized (this) {
+                    if (entries.get(entryId) != entry) {
+                        continue;
+                    }
+                    indexChunks(entry, chunks);
+                    Set<String> current = new HashSet<>(entries.get(entryId).chunkIds());
+                    deleteIndexedChunks(entry.chunkIds().stream().filter(chunkId -> !current.contains(chunkId)).toList());
+                }
+                reindexed++;
+            } catch (Exception e) {
+                logger.warn("分类/标签变更后重建知识条目索引失败，保留原有片段，entryId={}", entryId, e);
+            }
+        }
+        if (reindexed == 0) {
+            return;
+        }
+        synchronized (this) {
+            try {
+                persistRegistry();
+            } catch (IOException e) {
+                logger.warn("分类/标签变更后保存知识注册表失败", e);
+            }
+        }
+        logger.info("分类/标签关联变更，已重建 {} 个知识条目的索引", reindexed);
     }
 
     /**
@@ -443,13 +754,56 @@ public class KnowledgeBaseService {
         return entry != null ? entry.title() : null;
     }
 
+    /**
+     * 当前知识库中近似重复的条目与片段分组
+     */
+    public DuplicateReportResponse getDuplicateReport() {
+        return new DuplicateReportResponse(
+            nearDuplicateIndex.mode().name().toLowerCase(Locale.ROOT),
+            nearDuplicateIndex.threshold(),
+            nearDuplicateIndex.entryClusters().stream().map(this::toClusterResponse).toList(),
+            nearDuplicateIndex.chunkClusters().stream().map(this::toClusterResponse).toList(),
+            Instant.now().toEpochMilli()
+        );
+    }
+
+    private DuplicateClusterResponse toClusterResponse(NearDuplicateIndex.Cluster cluster) {
+        List<String> titles = cluster.entryIds().stream()
+            .map(id -> {
+                String title = getEntryTitle(id);
+                return title != null ? title : "";
+            })
+            .toList();
+        return new DuplicateClusterResponse(cluster.ids(), cluster.entryIds(), titles, cluster.similarity());
+    }
+
+    private static String duplicateMessage(
+        String message,
+        List<NearDuplicateIndex.Match> duplicates,
+        int duplicateChunks
+    ) {
+        List<String> notes = new ArrayList<>();
+        if (!duplicates.isEmpty()) {
+            NearDuplicateIndex.Match closest = duplicates.get(0);
+            notes.add(String.format(
+                "与 %d 条已有条目近似重复，最相似 %s（%.2f）",
+                duplicates.size(),
+                closest.entryId(),
+                closest.similarity()
+            ));
+        }
+        if (duplicateChunks > 0) {
+            notes.add(duplicateChunks + " 个片段与已有片段近似重复");
+        }
+        return notes.isEmpty() ? message : message + "；" + String.join("；", notes);
+    }
+
     private void seedDefaultEntries() throws IOException {
         logger.info("知识库注册表为空，开始写入默认知识条目");
         long now = Instant.now().toEpochMilli();
         for (SeedEntry seed : defaultSeedEntries()) {
             String entryId = "kb-default-" + UUID.randomUUID();
-            entries.put(
-                entryId,
+            putEntry(
                 new ManagedKnowledgeEntry(
                     entryId,
                     seed.title(),
@@ -471,23 +825,26 @@ public class KnowledgeBaseService {
         for (ManagedKnowledgeEntry entry : entries.values()) {
             if (entry.chunkIds().isEmpty()) {
                 indexEntry(entry);
+            } else {
+                // 向量已在库中，词法索引和近似重复索引只在内存里，启动时按相同切块规则重建
+                List<Document> chunks = chunkEntry(entry);
+                lexicalIndex.addAll(chunks);
+                nearDuplicateIndex.addEntry(entry.entryId(), entry.content());
+                nearDuplicateIndex.addChunks(chunks);
             }
         }
         persistRegistry();
     }
 
     private void ensureManagedGraph() {
+        List<TripleExtractor.Source> sources = new ArrayList<>();
         for (ManagedKnowledgeEntry entry : entries.values()) {
             try {
                 if (
                     knowledgeGraphService.findEntityIdsByEntryId(entry.entryId())
                         .isEmpty()
                 ) {
-                    tripleExtractor.extractAndStore(
-                        entry.getEntryId(),
-                        entry.getTitle(),
-                        entry.getContent()
-                    );
+                    sources.add(new TripleExtractor.Source(entry.getEntryId(), entry.getTitle(), entry.getContent()));
                 }
             } catch (Exception e) {
                 logger.warn(
@@ -498,51 +855,45 @@ public class KnowledgeBaseService {
                 );
             }
         }
+        if (!sources.isEmpty()) {
+            tripleExtractor.extractAndStoreAll(sources);
+        }
     }
 
     private void indexEntry(ManagedKnowledgeEntry entry) {
-        try {
-            TextReader reader = new TextReader(
-                512,
-                SplitStrategy.PARAGRAPH,
-                50
-            );
-            List<Document> docs = reader
-                .read(ReaderInput.fromString(entry.content()))
-                .block();
-            if (docs == null || docs.isEmpty()) {
-                throw new IllegalStateException("未能为知识条目生成有效文档");
-            }
+        indexChunks(entry, chunkEntry(entry));
+    }
 
-            List<String> chunkIds = new ArrayList<>();
-            List<Document> managedDocs = new ArrayList<>();
-            for (int i = 0; i < docs.size(); i++) {
-                Document doc = docs.get(i);
-                String chunkId = entry.entryId() + "-chunk-" + i;
-                chunkIds.add(chunkId);
-
-                DocumentMetadata metadata = DocumentMetadata.builder()
-                    .content(doc.getMetadata().getContent())
-                    .docId(entry.entryId())
-                    .chunkId(chunkId)
-                    .payload(
-                        Map.of(
-                            "source",
-                            entry.source(),
-                            "type",
-                            entry.type(),
-                            "title",
-                            entry.title(),
-                            "entryId",
-                            entry.entryId()
-                        )
-                    )
-                    .build();
-                managedDocs.add(new Document(metadata));
+    /**
+     * 为片段计算向量，之后可直接写入向量库而不必持有对象锁等待 Embedding；
+     * Knowledge 实现不支持单独取得 Embedding 模型时原样返回，由 {@link #indexChunks} 交给 Knowledge 计算
+     */
+    private List<Document> embedChunks(List<Document> managedDocs) {
+        if (knowledgeBase instanceof SimpleKnowledge simpleKnowledge) {
+            for (Document doc : managedDocs) {
+                doc.setEmbedding(simpleKnowledge.getEmbeddingModel().embed(doc.getMetadata().getContent()).block());
             }
+        }
+        return managedDocs;
+    }
 
-            knowledgeBase.addDocuments(managedDocs).block();
+    private void indexChunks(ManagedKnowledgeEntry entry, List<Document> managedDocs) {
+        try {
+            List<String> chunkIds = managedDocs.stream()
+                .map(doc -> doc.getMetadata().getChunkId())
+                .collect(Collectors.toList());
+
+            VDBStoreBase store = extractStore();
+            if (store != null && managedDocs.stream().allMatch(doc -> doc.getEmbedding() != null)) {
+                store.add(managedDocs).block();
+            } else {
+                knowledgeBase.addDocuments(managedDocs).block();
+            }
+            lexicalIndex.addAll(managedDocs);
+            nearDuplicateIndex.addEntry(entry.entryId(), entry.content());
+            nearDuplicateIndex.addChunks(managedDocs);
             updateEntryChunkIds(entry.entryId(), chunkIds);
+            corpusVersion.bump();
             logger.info(
                 "知识条目已索引，entryId={}, title={}, chunkCount={}",
                 entry.entryId(),
@@ -555,15 +906,70 @@ public class KnowledgeBaseService {
         }
     }
 
+    /**
+     * 把知识条目切块并附上 source/type/title/entryId payload，chunkId 为 entryId-chunk-序号
+     *
+     * payload 同时冗余分类范围（所属分类及祖先分类ID）和标签ID，供范围检索过滤。
+     */
+    private List<Document> chunkEntry(ManagedKnowledgeEntry entry) {
+        TextReader reader = new TextReader(
+            512,
+            SplitStrategy.PARAGRAPH,
+            50
+        );
+        List<Document> docs = reader
+            .read(ReaderInput.fromString(entry.content()))
+            .block();
+        if (docs == null || docs.isEmpty()) {
+            throw new IllegalStateException("未能为知识条目生成有效文档");
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("source", entry.source());
+        payload.put("type", entry.type());
+        payload.put("title", entry.title());
+        payload.put("entryId", entry.entryId());
+        payload.put(PayloadFilter.CATEGORY_IDS, categoryService.getCategoryScopeIdsForEntry(entry.entryId()));
+        payload.put(PayloadFilter.TAG_IDS, tagService.getTagIdsForEntry(entry.entryId()));
+
+        List<Document> managedDocs = new ArrayList<>();
+        for (int i = 0; i < docs.size(); i++) {
+            Document doc = docs.get(i);
+            String chunkId = entry.entryId() + "-chunk-" + i;
+
+            DocumentMetadata metadata = DocumentMetadata.builder()
+                .content(doc.getMetadata().getContent())
+                .docId(entry.entryId())
+                .chunkId(chunkId)
+                .payload(payload)
+                .build();
+            managedDocs.add(new Document(metadata));
+        }
+        return managedDocs;
+    }
+
+    /**
+     * 按请求替换条目的分类/标签关联；参数为 null 表示保持不变
+     */
+    private void applyClassification(
+        String entryId,
+        List<String> categoryIds,
+        List<String> tagIds
+    ) throws IOException {
+        if (categoryIds != null) {
+            categoryService.replaceEntryCategories(entryId, categoryIds);
+        }
+        if (tagIds != null) {
+            tagService.replaceEntryTags(entryId, tagIds);
+        }
+    }
+
     private void updateEntryChunkIds(String entryId, List<String> chunkIds) {
         ManagedKnowledgeEntry existing = entries.get(entryId);
         if (existing == null) {
             return;
         }
-        entries.put(
-            entryId,
-            existing.withChunkIds(chunkIds).touch(Instant.now().toEpochMilli())
-        );
+        putEntry(existing.withChunkIds(chunkIds).touch(Instant.now().toEpochMilli()));
     }
 
     private void deleteIndexedChunks(List<String> chunkIds) {
@@ -571,19 +977,22 @@ public class KnowledgeBaseService {
             return;
         }
 
+        lexicalIndex.removeAll(chunkIds);
+        nearDuplicateIndex.removeChunks(chunkIds);
         VDBStoreBase store = extractStore();
         if (store == null) {
             logger.warn("当前 Knowledge 实现不支持直接删除向量条目");
-            return;
-        }
-
-        for (String chunkId : chunkIds) {
-            try {
-                store.delete(chunkId).block();
-            } catch (Exception e) {
-                logger.warn("删除知识条目 chunk 失败，chunkId={}", chunkId, e);
+        } else {
+            for (String chunkId : chunkIds) {
+                try {
+                    store.delete(chunkId).block();
+                } catch (Exception e) {
+                    logger.warn("删除知识条目 chunk 失败，chunkId={}", chunkId, e);
+                }
             }
         }
+        // 向量删除完成后再推进版本，否则删除期间的检索会把仍含旧片段的结果缓存到新版本下
+        corpusVersion.bump();
     }
 
     private VDBStoreBase extractStore() {
@@ -593,17 +1002,22 @@ public class KnowledgeBaseService {
         return null;
     }
 
+    /**
+     * 条目表是并发容器，检索时直接读取，不等待对象锁内的写操作
+     */
     private List<Document> filterManagedResults(List<Document> results) {
-        Set<String> activeEntryIds = entries.keySet();
         return results.stream()
             .filter(doc -> {
                 String entryId = doc.getPayloadValueAs("entryId", String.class);
-                return entryId != null && activeEntryIds.contains(entryId);
+                return entryId != null && entries.containsKey(entryId);
             })
             .collect(Collectors.toList());
     }
 
-    private List<Document> deduplicateResults(List<Document> results) {
+    /**
+     * 按标题+内容去重，保持原有顺序（包级可见以便基准测试直接调用）
+     */
+    static List<Document> deduplicateResults(List<Document> results) {
         Set<String> seen = new LinkedHashSet<>();
         List<Document> unique = new ArrayList<>();
         for (Document doc : results) {
@@ -620,7 +1034,10 @@ public class KnowledgeBaseService {
         return unique;
     }
 
-    private List<Document> filterResultsByQuestionFocus(
+    /**
+     * 问题包含保修/退换/维修等焦点词时，只保留命中焦点词的文档；无命中则原样返回
+     */
+    static List<Document> filterResultsByQuestionFocus(
         String question,
         List<Document> results
     ) {
@@ -660,7 +1077,7 @@ public class KnowledgeBaseService {
         return focused.isEmpty() ? results : focused;
     }
 
-    private void loadRegistry() throws IOException {
+    void loadRegistry() throws IOException {
         if (!Files.exists(REGISTRY_PATH)) {
             Files.createDirectories(REGISTRY_PATH.getParent());
             return;
@@ -671,19 +1088,96 @@ public class KnowledgeBaseService {
             new TypeReference<List<ManagedKnowledgeEntry>>() {}
         );
         entries.clear();
+        entriesByUpdatedAt.clear();
+        entryCountBySource.clear();
         for (ManagedKnowledgeEntry entry : storedEntries) {
-            entries.put(entry.entryId(), entry);
+            putEntry(entry);
         }
     }
 
-    private void persistRegistry() throws IOException {
+    void persistRegistry() throws IOException {
         Files.createDirectories(REGISTRY_PATH.getParent());
         objectMapper.writerWithDefaultPrettyPrinter().writeValue(
             REGISTRY_PATH.toFile(),
             entries.values()
+                .stream()
+                .sorted(
+                    Comparator.comparingLong(ManagedKnowledgeEntry::createdAt)
+                        .thenComparing(ManagedKnowledgeEntry::entryId)
+                )
+                .toList()
         );
     }
 
+    /**
+     * 写入条目并同步有序索引与来源计数（调用方持有对象锁）
+     */
+    private void putEntry(ManagedKnowledgeEntry entry) {
+        ManagedKnowledgeEntry previous = entries.put(entry.entryId(), entry);
+        if (previous != null) {
+            entriesByUpdatedAt.remove(EntryOrder.of(previous));
+            entryCountBySource.merge(String.valueOf(previous.source()), -1, Integer::sum);
+        }
+        entriesByUpdatedAt.put(EntryOrder.of(entry), entry);
+        entryCountBySource.merge(String.valueOf(entry.source()), 1, Integer::sum);
+        corpusVersion.bump();
+    }
+
+    private ManagedKnowledgeEntry removeEntry(String entryId) {
+        ManagedKnowledgeEntry removed = entries.remove(entryId);
+        if (removed != null) {
+            entriesByUpdatedAt.remove(EntryOrder.of(removed));
+            entryCountBySource.merge(String.valueOf(removed.source()), -1, Integer::sum);
+            corpusVersion.bump();
+        }
+        return removed;
+    }
+
+    /**
+     * 分类/标签筛选范围内的条目ID，没有这两个条件时返回 null；两者都有时取交集
+     */
+    private Set<String> scopeEntryIds(String categoryId, String tagId) {
+        Set<String> scope = null;
+        if (categoryId != null) {
+            scope = new HashSet<>(categoryService.getEntryIdsForCategoryScope(categoryId));
+        }
+        if (tagId != null) {
+            List<String> tagged = tagService.getEntryIdsForTag(tagId);
+            if (scope == null) {
+                scope = new HashSet<>(tagged);
+            } else {
+                scope.retainAll(new HashSet<>(tagged));
+            }
+        }
+        return scope;
+    }
+
+    private static String encodeCursor(EntryOrder order) {
+        String raw = order.updatedAt() + ":" + order.entryId();
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static EntryOrder decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new EntryOrder(
+                Long.parseLong(raw.substring(0, separator)),
+                raw.substring(separator + 1)
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("无效的分页游标: " + cursor);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
     private void updateLastUpdatedAtFromEntries() {
         lastUpdatedAt = entries.values()
             .stream()
@@ -692,16 +1186,6 @@ public class KnowledgeBaseService {
             .orElse(null);
     }
 
-    private String preview(String content) {
-        if (content == null || content.isBlank()) {
-            return "";
-        }
-        String normalized = content.replaceAll("\\s+", " ").trim();
-        return normalized.length() > 120
-            ? normalized.substring(0, 120) + "..."
-            : normalized;
-    }
-
     private void validateEntry(String title, String content) {
         if (title == null || title.isBlank()) {
             throw new IllegalArgumentException("知识标题不能为空");
@@ -800,6 +1284,22 @@ public class KnowledgeBaseService {
         );
     }
 
+    /**
+     * 列表排序键：updatedAt 倒序，相同时按 entryId 升序
+     */
+    private record EntryOrder(long updatedAt, String entryId) implements Comparable<EntryOrder> {
+
+        static EntryOrder of(ManagedKnowledgeEntry entry) {
+            return new EntryOrder(entry.updatedAt(), entry.entryId());
+        }
+
+        @Override
+        public int compareTo(EntryOrder other) {
+            int byTime = Long.compare(other.updatedAt, updatedAt);
+            return byTime != 0 ? byTime : entryId.compareTo(other.entryId);
+        }
+    }
+
     private static class SeedEntry {
 
         private final String title;
@@ -821,6 +1321,9 @@ public class KnowledgeBaseService {
 
     public static class ManagedKnowledgeEntry {
 
+        private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+        private static final int PREVIEW_LENGTH = 120;
+
         private String entryId;
         private String title;
         private String content;
@@ -829,6 +1332,7 @@ public class KnowledgeBaseService {
         private long createdAt;
         private long updatedAt;
         private List<String> chunkIds;
+        private String preview;
 
         public ManagedKnowledgeEntry() {}
 
@@ -850,6 +1354,7 @@ public class KnowledgeBaseService {
             this.createdAt = createdAt;
             this.updatedAt = updatedAt;
             this.chunkIds = chunkIds;
+            this.preview = buildPreview(content);
         }
 
         public String entryId() {
@@ -884,6 +1389,16 @@ public class KnowledgeBaseService {
             return chunkIds == null ? new ArrayList<>() : chunkIds;
         }
 
+        /**
+         * 列表展示用的正文预览，写入时生成并随注册表保存；旧注册表中没有该字段时首次访问补算
+         */
+        public String preview() {
+            if (preview == null) {
+                preview = buildPreview(content);
+            }
+            return preview;
+        }
+
         public ManagedKnowledgeEntry withChunkIds(List<String> newChunkIds) {
             return new ManagedKnowledgeEntry(
                 entryId,
@@ -932,6 +1447,7 @@ public class KnowledgeBaseService {
 
         public void setContent(String content) {
             this.content = content;
+            this.preview = null;
         }
 
         public String getSource() {
@@ -973,5 +1489,23 @@ public class KnowledgeBaseService {
         public void setChunkIds(List<String> chunkIds) {
             this.chunkIds = chunkIds;
         }
+
+        public String getPreview() {
+            return preview();
+        }
+
+        public void setPreview(String preview) {
+            this.preview = preview;
+        }
+
+        private static String buildPreview(String content) {
+            if (content == null || content.isBlank()) {
+                return "";
+            }
+            String normalized = WHITESPACE.matcher(content).replaceAll(" ").trim();
+            return normalized.length() > PREVIEW_LENGTH
+                ? normalized.substring(0, PREVIEW_LENGTH) + "..."
+                : normalized;
+        }
     }
 }
@@ -0,0 +1,37 @@
+package com.example.customerservice.service;
+
+import com.example.customerservice.service.graph.GraphReplica;
+import com.example.customerservice.service.graph.GraphSnapshot;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * 知识语料版本
+ *
+ * 单调递增，检索结果依赖的任何数据变化后都会变大，用于判断缓存的答案是否过期：
+ * - 条目注册表、向量/词法索引和 Neo4j 图谱的写入由写入方调用 {@link #bump()}
+ * - 图谱内存快照的发布延迟于 Neo4j 写入，快照版本本身也计入，
+ *   写入后、新快照发布前算出的答案在快照发布时同样失效
+ */
+@Component
+public class KnowledgeCorpusVersion {
+
+    private final GraphReplica graphReplica;
+    private final AtomicLong mutations = new AtomicLong();
+
+    public KnowledgeCorpusVersion(GraphReplica graphReplica) {
+        this.graphReplica = graphReplica;
+    }
+
+    /**
+     * 记录一次语料变化（在变化对检索可见之后调用）
+     */
+    public void bump() {
+        mutations.incrementAndGet();
+    }
+
+    public long current() {
+        GraphSnapshot snapshot = graphReplica != null ? graphReplica.current() : null;
+        return mutations.get() + (snapshot != null ? snapshot.version() : 0);
+    }
+}
@@ -3,15 +3,28 @@ package com.example.customerservice.service;
 import com.example.customerservice.dto.GraphEdgeResponse;
 import com.example.customerservice.dto.GraphNodeResponse;
 import com.example.customerservice.dto.GraphStatsResponse;
+import com.example.customerservice.service.graph.EntryEntityIndex;
+import com.example.customerservice.service.graph.GraphReplica;
+import com.example.customerservice.service.graph.GraphStatistics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.Session;
 import org.neo4j.driver.Result;
 import org.neo4j.driver.Record;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 /**
  * 知识图谱服务
@@ -21,6 +34,17 @@ import java.util.*;
  *
  * 实体类型: Product, Service, Order, QA, Concept
  * 关系类型: BELONGS_TO, HAS_SERVICE, RELATED_TO, REFERENCES, MENTIONS
+ *
+ * 图谱统计由 {@link GraphStatistics} 在内存中维护：写入语句返回受影响的节点/关系ID，
+ * 据此增量更新；后台定期用计数存储（count store）核对总数和各标签/类型数量，
+ * 不一致时流式扫描整张图重建。
+ *
+ * 同样的写入结果也同步到 {@link GraphReplica}，供 GraphRAG 检索在内存快照上遍历；
+ * 对账重建时副本一并整体重新加载。
+ *
+ * 重建扫描不阻塞写入：扫描期间写入方对内存结构（统计、条目-实体索引、副本）的更新照常生效，
+ * 同时记入日志，扫描结果替换内存结构后按顺序重放，扫描之后落地的写入不会被覆盖。
+ * 这些更新都是幂等的（按ID登记或移除），扫描已经读到的写入重放一次结果不变。
  */
 @Service
 public class KnowledgeGraphService {
@@ -29,79 +53,345 @@ public class KnowledgeGraphService {
 
     /** Neo4j数据库连接驱动 */
     private final Driver driver;
+    private final GraphStatistics statistics;
+    private final GraphReplica replica;
+    private final EntryEntityIndex entryIndex;
+    private final KnowledgeCorpusVersion corpusVersion;
+    private final long reconcileIntervalSeconds;
+    private final Object reconcileMonitor = new Object();
+    /** 写入方更新内存结构时持读锁，重建开始记日志和替换重放时持写锁 */
+    private final ReadWriteLock mirrorLock = new ReentrantReadWriteLock();
+    /** 重建扫描期间的内存结构更新，null 表示没有进行中的扫描 */
+    private Queue<Runnable> reloadJournal;
+    private final ScheduledExecutorService reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "graph-stats-reconcile");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    public KnowledgeGraphService(Driver driver) {
+    public KnowledgeGraphService(
+        Driver driver,
+        GraphReplica replica,
+        KnowledgeCorpusVersion corpusVersion,
+        @Value("${knowledge-graph.stats.top-hubs:10}") int topHubs,
+        @Value("${knowledge-graph.stats.reconcile-interval-seconds:300}") long reconcileIntervalSeconds,
+        @Value("${knowledge-graph.related-entries.limit:10}") int relatedEntriesLimit
+    ) {
         this.driver = driver;
+        this.replica = replica;
+        this.corpusVersion = corpusVersion;
+        this.statistics = new GraphStatistics(topHubs);
+        this.entryIndex = new EntryEntityIndex(relatedEntriesLimit);
+        this.reconcileIntervalSeconds = Math.max(1, reconcileIntervalSeconds);
+    }
+
+    /**
+     * 启动后立即在后台建立一次统计，之后按间隔对账
+     */
+    @PostConstruct
+    public void startReconciler() {
+        reconciler.scheduleWithFixedDelay(
+            this::reconcileQuietly,
+            0,
+            reconcileIntervalSeconds,
+            TimeUnit.SECONDS
+        );
+    }
+
+    @PreDestroy
+    public void stopReconciler() {
+        reconciler.shutdownNow();
     }
 
     /**
      * 获取图谱统计信息
      *
-     * @return 包含节点数量和边数量的统计对象
+     * 直接读取内存计数；统计尚未建立（如启动时 Neo4j 不可用）时同步建立一次。
+     *
+     * @return 节点/边总数、标签与关系类型分布、度数分布和枢纽节点
      */
     public GraphStatsResponse getStats() {
+        if (!statistics.isInitialized()) {
+            reconcile();
+        }
+        return statistics.toResponse();
+    }
+
+    /**
+     * 与 Neo4j 对账
+     *
+     * 先用计数存储核对总数和已知标签/关系类型的数量（都是 O(1) 查询），
+     * 一致时只刷新对账时间；不一致或尚未建立时流式扫描整张图，重建统计、条目-实体索引并重新加载内存副本。
+     */
+    public void reconcile() {
+        synchronized (reconcileMonitor) {
+            if (statistics.isInitialized() && countsMatch()) {
+                statistics.markReconciled(System.currentTimeMillis());
+                return;
+            }
+            long startedAt = System.currentTimeMillis();
+            GraphStatistics rebuilt = new GraphStatistics(0);
+            EntryEntityIndex rebuiltIndex = new EntryEntityIndex(0);
+            GraphReplica.Loader loader = replica.loader();
+            Queue<Runnable> journal = new ConcurrentLinkedQueue<>();
+            setJournal(journal);
+            try {
+                scanGraph(rebuilt, rebuiltIndex, loader);
+            } catch (RuntimeException e) {
+                setJournal(null);
+                throw e;
+            }
+            mirrorLock.writeLock().lock();
+            try {
+                statistics.replaceWith(rebuilt, startedAt);
+                entryIndex.replaceWith(rebuiltIndex);
+                replica.replaceWith(loader);
+                journal.forEach(Runnable::run);
+                reloadJournal = null;
+            } finally {
+                mirrorLock.writeLock().unlock();
+            }
+            logger.info(
+                "图谱统计已重建: nodes={}, edges={}, 重放扫描期间写入 {} 次, 耗时 {}ms",
+                rebuilt.nodeCount(),
+                rebuilt.relationCount(),
+                journal.size(),
+                System.currentTimeMillis() - startedAt
+            );
+        }
+    }
+
+    private void scanGraph(GraphStatistics rebuilt, EntryEntityIndex rebuiltIndex, GraphReplica.Loader loader) {
+        streamGraph(
+            NodeProjection.FULL,
+            node -> {
+                long id = Long.parseLong(node.getId());
+                rebuilt.recordNode(id, node.getType(), node.getName());
+                loader.addNode(id, node.getType(), node.getName());
+                if (node.getProperties().get("entryIds") instanceof List<?> entryIds) {
+                    for (Object entryId : entryIds) {
+                        rebuiltIndex.link(String.valueOf(entryId), id);
+                    }
+                }
+            },
+            edge -> {
+                long id = Long.parseLong(edge.getId());
+                long source = Long.parseLong(edge.getSource());
+                long target = Long.parseLong(edge.getTarget());
+                rebuilt.recordRelation(id, edge.getRelation(), source, target);
+                loader.addRelation(id, edge.getRelation(), source, target);
+            }
+        );
+    }
+
+    private void setJournal(Queue<Runnable> journal) {
+        mirrorLock.writeLock().lock();
+        try {
+            reloadJournal = journal;
+        } finally {
+            mirrorLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 更新内存结构；有进行中的重建扫描时同时记入日志，替换后重放
+     */
+    private void mirror(Runnable update) {
+        mirrorLock.readLock().lock();
+        try {
+            update.run();
+            Queue<Runnable> journal = reloadJournal;
+            if (journal != null) {
+                journal.add(update);
+            }
+        } finally {
+            mirrorLock.readLock().unlock();
+        }
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            logger.warn("图谱统计对账失败: {}", e.getMessage());
+        }
+    }
+
+    private boolean countsMatch() {
         try (Session session = driver.session()) {
-            // 统计所有节点数量
-            long nodeCount = session.run("MATCH (n) RETURN count(n) as cnt").single().get("cnt").asLong();
-            // 统计所有边数量
-            long edgeCount = session.run("MATCH ()-[r]->() RETURN count(r) as cnt").single().get("cnt").asLong();
-            return new GraphStatsResponse(nodeCount, edgeCount);
+            if (count(session, "MATCH (n) RETURN count(n) as cnt") != statistics.nodeCount()
+                || count(session, "MATCH ()-[r]->() RETURN count(r) as cnt") != statistics.relationCount()) {
+                return false;
+            }
+            for (Map.Entry<String, Long> label : statistics.labelCounts().entrySet()) {
+                if (count(session, "MATCH (n:`" + label.getKey() + "`) RETURN count(n) as cnt") != label.getValue()) {
+                    return false;
+                }
+            }
+            for (Map.Entry<String, Long> type : statistics.relationTypeCounts().entrySet()) {
+                if (count(session, "MATCH ()-[r:`" + type.getKey() + "`]->() RETURN count(r) as cnt") != type.getValue()) {
+                    return false;
+                }
+            }
+            return true;
         }
     }
 
+    private static long count(Session session, String query) {
+        return session.run(query).single().get("cnt").asLong();
+    }
+
     /**
-     * 分页获取所有节点
+     * 分页获取所有节点（偏移量分页，保留给旧客户端）
      *
      * @param limit  每页返回的最大节点数
      * @param offset 偏移量，用于分页
      * @return 节点列表
      */
     public List<GraphNodeResponse> getAllNodes(int limit, int offset) {
-        try (Session session = driver.session()) {
-            Result result = session.run(
-                // 查询节点及其属性，按ID排序进行分页
-                "MATCH (n) RETURN id(n) as id, labels(n)[0] as type, n.name as name, properties(n) as props ORDER BY id SKIP $offset LIMIT $limit",
-                Map.of("offset", offset, "limit", limit)
-            );
-            List<GraphNodeResponse> nodes = new ArrayList<>();
-            for (Record record : result.list()) {
-                String nodeId = String.valueOf(record.get("id").asLong());
-                String type = record.get("type").asString();
-                // 处理可能为null的name字段
-                String name = record.get("name").isNull() ? "" : record.get("name").asString();
-                nodes.add(new GraphNodeResponse(nodeId, type, name, record.get("props").asMap()));
-            }
-            return nodes;
-        }
+        return getAllNodes(limit, offset, NodeProjection.FULL);
     }
 
     /**
-     * 分页获取所有边
+     * 分页获取所有节点（偏移量分页），只返回指定范围的属性
+     *
+     * @param limit      每页返回的最大节点数
+     * @param offset     偏移量，用于分页
+     * @param projection 返回的属性范围
+     * @return 节点列表
+     */
+    public List<GraphNodeResponse> getAllNodes(int limit, int offset, NodeProjection projection) {
+        return queryNodes(
+            // 查询节点及其属性，按ID排序进行分页
+            "MATCH (n) RETURN id(n) as id, labels(n)[0] as type, n.name as name, "
+                + projection.returnClause + " ORDER BY id SKIP $offset LIMIT $limit",
+            Map.of("offset", offset, "limit", limit),
+            projection
+        );
+    }
+
+    /**
+     * 按节点ID游标分页获取节点
+     *
+     * 只返回 id 大于 afterId 的节点，下一页以本页最后一个节点的 id 作为 afterId，
+     * 不需要像 SKIP 那样先数过前面所有行，翻到深页也不会越来越慢。
+     *
+     * @param afterId    上一页最后一个节点的ID，null 表示从头开始
+     * @param limit      每页返回的最大节点数
+     * @param projection 返回的属性范围
+     * @return 节点列表，按 id 升序
+     */
+    public List<GraphNodeResponse> getNodesAfter(Long afterId, int limit, NodeProjection projection) {
+        return queryNodes(
+            "MATCH (n) WHERE id(n) > $after "
+                + "RETURN id(n) as id, labels(n)[0] as type, n.name as name, "
+                + projection.returnClause + " ORDER BY id LIMIT $limit",
+            Map.of("after", afterId != null ? afterId : -1L, "limit", limit),
+            projection
+        );
+    }
+
+    /**
+     * 分页获取所有边（偏移量分页，保留给旧客户端）
      *
      * @param limit  每页返回的最大边数
      * @param offset 偏移量，用于分页
      * @return 边列表
      */
     public List<GraphEdgeResponse> getAllEdges(int limit, int offset) {
+        return queryEdges(
+            // 查询边的起止节点和关系类型，按ID排序进行分页
+            "MATCH (a)-[r]->(b) RETURN id(r) as id, id(a) as source, id(b) as target, type(r) as relation ORDER BY id SKIP $offset LIMIT $limit",
+            Map.of("offset", offset, "limit", limit)
+        );
+    }
+
+    /**
+     * 按边ID游标分页获取边
+     *
+     * @param afterId 上一页最后一条边的ID，null 表示从头开始
+     * @param limit   每页返回的最大边数
+     * @return 边列表，按 id 升序
+     */
+    public List<GraphEdgeResponse> getEdgesAfter(Long afterId, int limit) {
+        return queryEdges(
+            "MATCH (a)-[r]->(b) WHERE id(r) > $after "
+                + "RETURN id(r) as id, id(a) as source, id(b) as target, type(r) as relation ORDER BY id LIMIT $limit",
+            Map.of("after", afterId != null ? afterId : -1L, "limit", limit)
+        );
+    }
+
+    /**
+     * 逐条流式读取整个图谱：先全部节点，再全部边
+     *
+     * 结果通过驱动按批拉取（迭代 Result 而不是 list()），
+     * 每条记录交给回调后即可丢弃，堆内不会保留整张图。
+     *
+     * @param projection 节点属性范围
+     * @param nodeConsumer 节点回调
+     * @param edgeConsumer 边回调
+     */
+    public void streamGraph(
+        NodeProjection projection,
+        Consumer<GraphNodeResponse> nodeConsumer,
+        Consumer<GraphEdgeResponse> edgeConsumer
+    ) {
         try (Session session = driver.session()) {
-            Result result = session.run(
-                // 查询边的起止节点和关系类型，按ID排序进行分页
-                "MATCH (a)-[r]->(b) RETURN id(r) as id, id(a) as source, id(b) as target, type(r) as relation ORDER BY id SKIP $offset LIMIT $limit",
-                Map.of("offset", offset, "limit", limit)
+            Result nodes = session.run(
+                "MATCH (n) RETURN id(n) as id, labels(n)[0] as type, n.name as name, " + projection.returnClause
+            );
+            while (nodes.hasNext()) {
+                nodeConsumer.accept(toNode(nodes.next(), projection));
+            }
+            Result edges = session.run(
+                "MATCH (a)-[r]->(b) RETURN id(r) as id, id(a) as source, id(b) as target, type(r) as relation"
             );
+            while (edges.hasNext()) {
+                edgeConsumer.accept(toEdge(edges.next()));
+            }
+        }
+    }
+
+    private List<GraphNodeResponse> queryNodes(String query, Map<String, Object> parameters, NodeProjection projection) {
+        try (Session session = driver.session()) {
+            Result result = session.run(query, parameters);
+            List<GraphNodeResponse> nodes = new ArrayList<>();
+            while (result.hasNext()) {
+                nodes.add(toNode(result.next(), projection));
+            }
+            return nodes;
+        }
+    }
+
+    private List<GraphEdgeResponse> queryEdges(String query, Map<String, Object> parameters) {
+        try (Session session = driver.session()) {
+            Result result = session.run(query, parameters);
             List<GraphEdgeResponse> edges = new ArrayList<>();
-            for (Record record : result.list()) {
-                edges.add(new GraphEdgeResponse(
-                    String.valueOf(record.get("id").asLong()),
-                    String.valueOf(record.get("source").asLong()),
-                    String.valueOf(record.get("target").asLong()),
-                    record.get("relation").asString()
-                ));
+            while (result.hasNext()) {
+                edges.add(toEdge(result.next()));
             }
             return edges;
         }
     }
 
+    private static GraphNodeResponse toNode(Record record, NodeProjection projection) {
+        String nodeId = String.valueOf(record.get("id").asLong());
+        String type = record.get("type").isNull() ? "" : record.get("type").asString();
+        // 处理可能为null的name字段
+        String name = record.get("name").isNull() ? "" : record.get("name").asString();
+        Map<String, Object> props = projection == NodeProjection.NONE ? Map.of() : record.get("props").asMap();
+        return new GraphNodeResponse(nodeId, type, name, props);
+    }
+
+    private static GraphEdgeResponse toEdge(Record record) {
+        return new GraphEdgeResponse(
+            String.valueOf(record.get("id").asLong()),
+            String.valueOf(record.get("source").asLong()),
+            String.valueOf(record.get("target").asLong()),
+            record.get("relation").asString()
+        );
+    }
+
     /**
      * 添加三元组到图谱
      *
@@ -127,7 +417,7 @@ public class KnowledgeGraphService {
     ) {
         long now = System.currentTimeMillis();
         try (Session session = driver.session()) {
-            session.run(
+            Result result = session.run(
                 "MERGE (s:" + subjectType + " {name: $subject}) " +
                 "ON CREATE SET s.entryIds = [$entryId], s.createdAt = $now, s.updatedAt = $now " +
                 "ON MATCH SET s.entryIds = CASE " +
@@ -145,7 +435,8 @@ public class KnowledgeGraphService {
                 "ON MATCH SET r.entryIds = CASE " +
                 "  WHEN $entryId IN coalesce(r.entryIds, []) THEN coalesce(r.entryIds, []) " +
                 "  ELSE coalesce(r.entryIds, []) + $entryId END, " +
-                "  r.updatedAt = $now",
+                "  r.updatedAt = $now " +
+                "RETURN id(s) as subjectId, id(o) as objectId, id(r) as relationId",
                 Map.of(
                     "entryId",
                     entryId,
@@ -157,7 +448,24 @@ public class KnowledgeGraphService {
                     now
                 )
             );
+            if (result.hasNext()) {
+                Record record = result.next();
+                long subjectId = record.get("subjectId").asLong();
+                long objectId = record.get("objectId").asLong();
+                long relationId = record.get("relationId").asLong();
+                mirror(() -> {
+                    statistics.recordNode(subjectId, subjectType, subject);
+                    statistics.recordNode(objectId, objectType, object);
+                    statistics.recordRelation(relationId, relation, subjectId, objectId);
+                    replica.upsertNode(subjectId, subjectType, subject);
+                    replica.upsertNode(objectId, objectType, object);
+                    replica.upsertRelation(relationId, relation, subjectId, objectId);
+                    entryIndex.link(entryId, subjectId);
+                    entryIndex.link(entryId, objectId);
+                });
+            }
         }
+        corpusVersion.bump();
     }
 
     /**
@@ -173,6 +481,7 @@ public class KnowledgeGraphService {
             return;
         }
 
+        mirror(() -> entryIndex.removeEntry(entryId));
         try (Session session = driver.session()) {
             session.run(
                 "MATCH ()-[r]-() " +
@@ -181,11 +490,19 @@ public class KnowledgeGraphService {
                 Map.of("entryId", entryId)
             );
 
-            session.run(
+            Result deletedRelations = session.run(
                 "MATCH ()-[r]-() " +
                 "WHERE size(coalesce(r.entryIds, [])) = 0 " +
-                "DELETE r"
+                "WITH DISTINCT r, id(r) as id " +
+                "DELETE r RETURN id"
             );
+            while (deletedRelations.hasNext()) {
+                long id = deletedRelations.next().get("id").asLong();
+                mirror(() -> {
+                    statistics.removeRelation(id);
+                    replica.removeRelation(id);
+                });
+            }
 
             session.run(
                 "MATCH (n) " +
@@ -194,12 +511,21 @@ public class KnowledgeGraphService {
                 Map.of("entryId", entryId)
             );
 
-            session.run(
+            Result deletedNodes = session.run(
                 "MATCH (n) " +
                 "WHERE size(coalesce(n.entryIds, [])) = 0 AND NOT (n)--() " +
-                "DELETE n"
+                "WITH n, id(n) as id " +
+                "DELETE n RETURN id"
             );
+            while (deletedNodes.hasNext()) {
+                long id = deletedNodes.next().get("id").asLong();
+                mirror(() -> {
+                    statistics.removeNode(id);
+                    replica.removeNode(id);
+                });
+            }
         }
+        corpusVersion.bump();
     }
 
     public Set<String> findEntityIdsByEntryId(String entryId) {
@@ -230,5 +556,66 @@ public class KnowledgeGraphService {
         try (Session session = driver.session()) {
             session.run("MATCH (n) DETACH DELETE n");
         }
+        mirror(() -> {
+            statistics.clear();
+            entryIndex.clear();
+            replica.clear();
+        });
+        corpusVersion.bump();
+    }
+
+    /**
+     * 与知识条目共享图谱实体最多（按实体稀有度加权）的其他条目
+     *
+     * 读取内存中的条目-实体倒排索引，不访问 Neo4j。条目本身没有实体引用时，
+     * 按调用方给出的实体（如按标题匹配到的实体）计算。
+     *
+     * @param entryId   知识条目ID
+     * @param entityIds 条目没有实体引用时使用的实体ID
+     * @return 相关条目ID，按相关度降序
+     */
+    public List<String> findRelatedEntryIds(String entryId, Collection<String> entityIds) {
+        if (entryId == null || entryId.isBlank()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>();
+        for (String entityId : entityIds) {
+            try {
+                ids.add(Long.parseLong(entityId));
+            } catch (NumberFormatException ignored) {
+                // 非图谱节点ID
+            }
+        }
+        return entryIndex.relatedEntries(entryId, ids);
+    }
+
+    /**
+     * 节点属性投影
+     *
+     * FULL 返回全部属性（含 entryIds 列表）；SUMMARY 只返回时间戳和引用条目数；
+     * NONE 只返回 id、类型和名称。
+     */
+    public enum NodeProjection {
+        FULL("properties(n) as props"),
+        SUMMARY("{createdAt: n.createdAt, updatedAt: n.updatedAt, entryCount: size(coalesce(n.entryIds, []))} as props"),
+        NONE("null as props");
+
+        private final String returnClause;
+
+        NodeProjection(String returnClause) {
+            this.returnClause = returnClause;
+        }
+
+        public static NodeProjection from(String value) {
+            if (value == null || value.isBlank()) {
+                return FULL;
+            }
+            for (NodeProjection projection : values()) {
+                if (projection.name().equalsIgnoreCase(value.trim())) {
+                    return projection;
+                }
+            }
+            throw new IllegalArgumentException("不支持的投影: " + value + "（可选 full、summary、none）");
+        }
     }
 }
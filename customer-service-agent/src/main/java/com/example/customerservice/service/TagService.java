@@ -2,11 +2,15 @@ package com.example.customerservice.service;
 
 import com.example.customerservice.dto.TagResponse;
 import com.example.customerservice.entity.Tag;
+import com.example.customerservice.service.storage.EmbeddedKeyValueStore;
+import com.example.customerservice.service.storage.EmbeddedKeyValueStore.WriteBatch;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -15,32 +19,71 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * 标签与条目-标签关联
+ *
+ * 标签保存在内嵌键值存储的 tags 表，关联保存在 entry-tags 表（key 为 entryId + 分隔符 + tagId），
+ * 删除标签时连同其全部关联在一个批次内提交。首次启动时从旧版 tags.json、entry-tags.json（classification-store.legacy-path 目录下）导入一次。
+ *
+ * 读操作持读锁并发执行；修改持写锁，先提交到存储再更新内存。
+ */
 @Service
 public class TagService {
 
     private static final Logger logger = LoggerFactory.getLogger(TagService.class);
-    private static final Path TAGS_PATH = Paths.get("data", "tags.json");
-    private static final Path ENTRY_TAGS_PATH = Paths.get("data", "entry-tags.json");
+    private static final String TAGS_TABLE = "tags";
+    private static final String ENTRY_TAGS_TABLE = "entry-tags";
+    private static final String META_TABLE = "meta";
+    private static final String LEGACY_IMPORT_KEY = "tags.legacy-import";
+    private static final char KEY_SEPARATOR = '\u0000';
 
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmbeddedKeyValueStore store;
+    private final Path tagsPath;
+    private final Path entryTagsPath;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
     private final Map<String, Tag> tags = new LinkedHashMap<>();
     private final Map<String, Set<String>> entryTags = new LinkedHashMap<>(); // entryId -> Set of tagIds
+    private final Map<String, Set<String>> entriesByTag = new HashMap<>(); // tagId -> Set of entryIds
 
-    public TagService(ObjectMapper objectMapper) {
+    public TagService(
+        ObjectMapper objectMapper,
+        ApplicationEventPublisher eventPublisher,
+        EmbeddedKeyValueStore store,
+        @Value("${classification-store.legacy-path:./data}") String legacyPath
+    ) {
         this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.store = store;
+        this.tagsPath = Paths.get(legacyPath, "tags.json");
+        this.entryTagsPath = Paths.get(legacyPath, "entry-tags.json");
     }
 
     @PostConstruct
     public void init() {
-        loadTags();
-        loadEntryTags();
+        lock.writeLock().lock();
+        try {
+            importLegacyFiles();
+            loadTags();
+            loadEntryTags();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     public List<TagResponse> listTags() {
-        return tags.values().stream()
-            .map(t -> new TagResponse(t.id(), t.name(), t.createdAt()))
-            .toList();
+        lock.readLock().lock();
+        try {
+            return tags.values().stream()
+                .map(t -> new TagResponse(t.id(), t.name(), t.createdAt()))
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public TagResponse createTag(String name) throws IOException {
@@ -48,119 +91,242 @@ public class TagService {
             throw new IllegalArgumentException("标签名称不能为空");
         }
 
-        // Check for duplicate name - return existing if found
-        for (Tag existing : tags.values()) {
-            if (existing.name().equals(name)) {
-                return new TagResponse(existing.id(), existing.name(), existing.createdAt());
+        lock.writeLock().lock();
+        try {
+            // Check for duplicate name - return existing if found
+            for (Tag existing : tags.values()) {
+                if (existing.name().equals(name)) {
+                    return new TagResponse(existing.id(), existing.name(), existing.createdAt());
+                }
             }
-        }
 
-        long now = Instant.now().toEpochMilli();
-        String id = "tag-" + UUID.randomUUID().toString().substring(0, 8);
-        Tag tag = new Tag(id, name.trim(), now);
-        tags.put(id, tag);
-        persistTags();
+            long now = Instant.now().toEpochMilli();
+            String id = "tag-" + UUID.randomUUID().toString().substring(0, 8);
+            Tag tag = new Tag(id, name.trim(), now);
+            store.commit(new WriteBatch().put(TAGS_TABLE, id, objectMapper.writeValueAsString(tag)));
+            tags.put(id, tag);
 
-        return new TagResponse(id, name.trim(), now);
+            return new TagResponse(id, name.trim(), now);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     public void deleteTag(String id) throws IOException {
-        Tag removed = tags.remove(id);
-        if (removed == null) {
-            throw new IllegalArgumentException("标签不存在: " + id);
-        }
+        Set<String> affectedEntryIds;
+        lock.writeLock().lock();
+        try {
+            if (!tags.containsKey(id)) {
+                throw new IllegalArgumentException("标签不存在: " + id);
+            }
 
-        // Remove from all entries
-        for (Set<String> tagIds : entryTags.values()) {
-            tagIds.remove(id);
-        }
+            // Remove from all entries in the same batch
+            affectedEntryIds = new LinkedHashSet<>(entriesByTag.getOrDefault(id, Set.of()));
+            WriteBatch batch = new WriteBatch().delete(TAGS_TABLE, id);
+            for (String entryId : affectedEntryIds) {
+                batch.delete(ENTRY_TAGS_TABLE, associationKey(entryId, id));
+            }
+            store.commit(batch);
 
-        persistTags();
-        persistEntryTags();
+            tags.remove(id);
+            for (String entryId : affectedEntryIds) {
+                unlink(entryId, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publishChanged(affectedEntryIds);
     }
 
     public void addTagToEntry(String entryId, String tagId) throws IOException {
-        if (!tags.containsKey(tagId)) {
-            throw new IllegalArgumentException("标签不存在: " + tagId);
+        lock.writeLock().lock();
+        try {
+            if (!tags.containsKey(tagId)) {
+                throw new IllegalArgumentException("标签不存在: " + tagId);
+            }
+            if (entryTags.getOrDefault(entryId, Set.of()).contains(tagId)) {
+                return;
+            }
+            store.commit(new WriteBatch().put(ENTRY_TAGS_TABLE, associationKey(entryId, tagId), ""));
+            link(entryId, tagId);
+        } finally {
+            lock.writeLock().unlock();
         }
-
-        entryTags.computeIfAbsent(entryId, k -> new LinkedHashSet<>()).add(tagId);
-        persistEntryTags();
+        publishChanged(Set.of(entryId));
     }
 
     public void removeTagFromEntry(String entryId, String tagId) throws IOException {
-        Set<String> tagIds = entryTags.get(entryId);
-        if (tagIds != null) {
-            tagIds.remove(tagId);
-            persistEntryTags();
+        lock.writeLock().lock();
+        try {
+            if (!entryTags.getOrDefault(entryId, Set.of()).contains(tagId)) {
+                return;
+            }
+            store.commit(new WriteBatch().delete(ENTRY_TAGS_TABLE, associationKey(entryId, tagId)));
+            unlink(entryId, tagId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publishChanged(Set.of(entryId));
+    }
+
+    /**
+     * 整体替换条目的标签（知识条目新增/编辑时使用）
+     *
+     * 不发布变更事件：调用方（KnowledgeBaseService）随后会自行重建该条目的索引。
+     */
+    public void replaceEntryTags(String entryId, Collection<String> tagIds) throws IOException {
+        lock.writeLock().lock();
+        try {
+            Set<String> target = new LinkedHashSet<>();
+            for (String tagId : tagIds) {
+                if (!tags.containsKey(tagId)) {
+                    throw new IllegalArgumentException("标签不存在: " + tagId);
+                }
+                target.add(tagId);
+            }
+            Set<String> current = new LinkedHashSet<>(entryTags.getOrDefault(entryId, Set.of()));
+            WriteBatch batch = new WriteBatch();
+            for (String tagId : current) {
+                if (!target.contains(tagId)) {
+                    batch.delete(ENTRY_TAGS_TABLE, associationKey(entryId, tagId));
+                }
+            }
+            for (String tagId : target) {
+                if (!current.contains(tagId)) {
+                    batch.put(ENTRY_TAGS_TABLE, associationKey(entryId, tagId), "");
+                }
+            }
+            store.commit(batch);
+            for (String tagId : current) {
+                unlink(entryId, tagId);
+            }
+            for (String tagId : target) {
+                link(entryId, tagId);
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     public List<String> getTagIdsForEntry(String entryId) {
-        Set<String> tagIds = entryTags.get(entryId);
-        return tagIds != null ? new ArrayList<>(tagIds) : List.of();
+        lock.readLock().lock();
+        try {
+            Set<String> tagIds = entryTags.get(entryId);
+            return tagIds != null ? new ArrayList<>(tagIds) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public List<String> getEntryIdsForTag(String tagId) {
-        List<String> result = new ArrayList<>();
-        for (Map.Entry<String, Set<String>> e : entryTags.entrySet()) {
-            if (e.getValue().contains(tagId)) {
-                result.add(e.getKey());
-            }
+        lock.readLock().lock();
+        try {
+            Set<String> entryIds = entriesByTag.get(tagId);
+            return entryIds != null ? new ArrayList<>(entryIds) : List.of();
+        } finally {
+            lock.readLock().unlock();
         }
-        return result;
     }
 
     public List<TagResponse> getTagsForEntry(String entryId) {
+        lock.readLock().lock();
+        try {
+            Set<String> tagIds = entryTags.get(entryId);
+            if (tagIds == null) return List.of();
+
+            return tagIds.stream()
+                .map(tags::get)
+                .filter(Objects::nonNull)
+                .map(t -> new TagResponse(t.id(), t.name(), t.createdAt()))
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void link(String entryId, String tagId) {
+        entryTags.computeIfAbsent(entryId, k -> new LinkedHashSet<>()).add(tagId);
+        entriesByTag.computeIfAbsent(tagId, k -> new LinkedHashSet<>()).add(entryId);
+    }
+
+    private void unlink(String entryId, String tagId) {
         Set<String> tagIds = entryTags.get(entryId);
-        if (tagIds == null) return List.of();
+        if (tagIds != null && tagIds.remove(tagId) && tagIds.isEmpty()) {
+            entryTags.remove(entryId);
+        }
+        Set<String> entryIds = entriesByTag.get(tagId);
+        if (entryIds != null && entryIds.remove(entryId) && entryIds.isEmpty()) {
+            entriesByTag.remove(tagId);
+        }
+    }
+
+    private static String associationKey(String entryId, String tagId) {
+        return entryId + KEY_SEPARATOR + tagId;
+    }
 
-        return tagIds.stream()
-            .map(tags::get)
-            .filter(Objects::nonNull)
-            .map(t -> new TagResponse(t.id(), t.name(), t.createdAt()))
-            .toList();
+    private void publishChanged(Set<String> entryIds) {
+        if (!entryIds.isEmpty()) {
+            eventPublisher.publishEvent(new EntryClassificationChangedEvent(entryIds));
+        }
     }
 
     private void loadTags() {
-        try {
-            if (Files.exists(TAGS_PATH)) {
-                List<Tag> loaded = objectMapper.readValue(TAGS_PATH.toFile(), new TypeReference<List<Tag>>() {});
-                tags.clear();
-                for (Tag t : loaded) {
-                    tags.put(t.id(), t);
-                }
+        List<Tag> loaded = new ArrayList<>();
+        for (String stored : store.entries(TAGS_TABLE).values()) {
+            try {
+                loaded.add(objectMapper.readValue(stored, Tag.class));
+            } catch (IOException e) {
+                logger.error("Failed to decode tag: {}", stored, e);
             }
-        } catch (Exception e) {
-            logger.error("Failed to load tags", e);
+        }
+        loaded.sort(Comparator.comparingLong(Tag::createdAt).thenComparing(Tag::id));
+        tags.clear();
+        for (Tag t : loaded) {
+            tags.put(t.id(), t);
         }
     }
 
-    private void persistTags() throws IOException {
-        Files.createDirectories(TAGS_PATH.getParent());
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(TAGS_PATH.toFile(), tags.values());
+    private void loadEntryTags() {
+        entryTags.clear();
+        entriesByTag.clear();
+        for (String key : store.entries(ENTRY_TAGS_TABLE).keySet()) {
+            int separator = key.indexOf(KEY_SEPARATOR);
+            if (separator > 0) {
+                link(key.substring(0, separator), key.substring(separator + 1));
+            }
+        }
     }
 
-    private void loadEntryTags() {
+    /**
+     * 首次启动时把旧版 JSON 文件导入存储（一个批次），之后不再读取这两个文件
+     */
+    private void importLegacyFiles() {
+        if (store.get(META_TABLE, LEGACY_IMPORT_KEY) != null) {
+            return;
+        }
         try {
-            if (Files.exists(ENTRY_TAGS_PATH)) {
-                Map<String, List<String>> loaded = objectMapper.readValue(ENTRY_TAGS_PATH.toFile(), new TypeReference<Map<String, List<String>>>() {});
-                entryTags.clear();
+            WriteBatch batch = new WriteBatch();
+            if (Files.exists(tagsPath)) {
+                for (Tag t : objectMapper.readValue(tagsPath.toFile(), new TypeReference<List<Tag>>() {})) {
+                    batch.put(TAGS_TABLE, t.id(), objectMapper.writeValueAsString(t));
+                }
+            }
+            if (Files.exists(entryTagsPath)) {
+                Map<String, List<String>> loaded = objectMapper.readValue(entryTagsPath.toFile(), new TypeReference<Map<String, List<String>>>() {});
                 for (Map.Entry<String, List<String>> e : loaded.entrySet()) {
-                    entryTags.put(e.getKey(), new LinkedHashSet<>(e.getValue()));
+                    for (String tagId : e.getValue()) {
+                        batch.put(ENTRY_TAGS_TABLE, associationKey(e.getKey(), tagId), "");
+                    }
                 }
             }
+            int imported = batch.size();
+            batch.put(META_TABLE, LEGACY_IMPORT_KEY, Long.toString(Instant.now().toEpochMilli()));
+            store.commit(batch);
+            if (imported > 0) {
+                logger.info("已从 JSON 文件导入 {} 条标签与条目标签记录", imported);
+            }
         } catch (Exception e) {
-            logger.error("Failed to load entry-tags", e);
-        }
-    }
-
-    private void persistEntryTags() throws IOException {
-        Files.createDirectories(ENTRY_TAGS_PATH.getParent());
-        Map<String, List<String>> toSave = new LinkedHashMap<>();
-        for (Map.Entry<String, Set<String>> e : entryTags.entrySet()) {
-            toSave.put(e.getKey(), new ArrayList<>(e.getValue()));
+            logger.error("Failed to import legacy tag files", e);
         }
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(ENTRY_TAGS_PATH.toFile(), toSave);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.example.customerservice.service.activity;
+
+/**
+ * 结构化Agent活动事件
+ *
+ * 请求线程只负责创建该对象并投递到环形缓冲区，
+ * 负载截断与格式化均由后台写入线程完成，避免在请求路径上拼接和复制长文本。
+ *
+ * @param timestamp 事件发生时间（毫秒）
+ * @param type      事件类型
+ * @param source    事件来源（Agent名称或工具名称）
+ * @param ref       关联序号（消息ID、工具调用ID），无则为0
+ * @param payload   原始负载引用（用户输入、工具参数、响应文本等）
+ */
+public record ActivityEvent(
+    long timestamp,
+    Type type,
+    String source,
+    long ref,
+    String payload
+) {
+
+    public enum Type {
+        AGENT_START,
+        AGENT_RESPONSE,
+        TOOL_CALL,
+        TOOL_RESULT,
+        AGENT_THOUGHT,
+        ERROR
+    }
+}
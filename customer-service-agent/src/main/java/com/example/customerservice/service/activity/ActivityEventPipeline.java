@@ -0,0 +1,256 @@
+package com.example.customerservice.service.activity;
+
+import com.example.customerservice.dto.ActivityPipelineStatsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Agent活动日志管道
+ *
+ * 请求线程调用 {@link #publish} 时只做采样判断并把事件写入无锁环形缓冲区，
+ * 由后台写入线程批量取出、截断负载并输出为单行结构化日志。
+ *
+ * 策略：
+ * - 采样：常规事件按 sample-rate 采样，ERROR 事件不参与采样
+ * - 截断：负载最多输出 max-payload-chars 个字符，设为0时只输出长度
+ * - 背压：缓冲区满时丢弃事件并计数，绝不阻塞请求线程；缓冲区的 1/8 只留给 ERROR 事件，
+ *   常规事件把其余空间占满后 ERROR 仍可写入，预留空间也用完时 ERROR 同样丢弃并计数
+ */
+@Component
+public class ActivityEventPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(
+        ActivityEventPipeline.class
+    );
+    private static final Logger activityLog = LoggerFactory.getLogger(
+        "com.example.customerservice.activity"
+    );
+    private static final int DRAIN_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long DROP_REPORT_INTERVAL_MS = 10_000;
+
+    private final ActivityRingBuffer<ActivityEvent> buffer;
+    private final int errorReserve;
+    private final double sampleRate;
+    private final int maxPayloadChars;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    private volatile boolean running;
+    private volatile boolean writerParked;
+    private Thread writerThread;
+    private long lastReportedDrops;
+    private long lastDropReportAt;
+
+    public ActivityEventPipeline(
+        @Value("${agent.activity.buffer-size:8192}") int bufferSize,
+        @Value("${agent.activity.sample-rate:1.0}") double sampleRate,
+        @Value("${agent.activity.max-payload-chars:200}") int maxPayloadChars
+    ) {
+        this.buffer = new ActivityRingBuffer<>(bufferSize);
+        this.errorReserve = Math.max(1, buffer.capacity() / 8);
+        this.sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+        this.maxPayloadChars = Math.max(0, maxPayloadChars);
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "activity-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info(
+            "Agent活动日志管道已启动，缓冲区容量: {}, 采样率: {}, 负载截断: {} 字符",
+            buffer.capacity(),
+            sampleRate,
+            maxPayloadChars
+        );
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 发布活动事件
+     *
+     * @param type    事件类型
+     * @param source  事件来源
+     * @param ref     关联序号
+     * @param payload 原始负载（仅保存引用，不在请求线程上复制）
+     */
+    public void publish(
+        ActivityEvent.Type type,
+        String source,
+        long ref,
+        String payload
+    ) {
+        if (!shouldSample(type)) {
+            sampledOut.increment();
+            return;
+        }
+        ActivityEvent event = new ActivityEvent(
+            System.currentTimeMillis(),
+            type,
+            source,
+            ref,
+            payload
+        );
+        int headroom = type == ActivityEvent.Type.ERROR ? 0 : errorReserve;
+        if (!buffer.offer(event, headroom)) {
+            dropped.increment();
+            return;
+        }
+        published.increment();
+        if (writerParked) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    public ActivityPipelineStatsResponse getStats() {
+        return new ActivityPipelineStatsResponse(
+            published.sum(),
+            written.sum(),
+            sampledOut.sum(),
+            dropped.sum(),
+            buffer.size(),
+            buffer.capacity(),
+            sampleRate,
+            maxPayloadChars,
+            Instant.now().toEpochMilli()
+        );
+    }
+
+    public void resetStatistics() {
+        published.reset();
+        written.reset();
+        sampledOut.reset();
+        dropped.reset();
+        lastReportedDrops = 0;
+    }
+
+    /**
+     * 同步处理缓冲区中已有的全部事件，供基准测试和停机时使用。
+     * 后台写入线程运行期间，其他线程调用不会执行任何操作。
+     *
+     * @return 本次写出的事件数
+     */
+    public int flush() {
+        if (running && Thread.currentThread() != writerThread) {
+            return 0;
+        }
+        int total = 0;
+        int drained;
+        while ((drained = buffer.drain(this::write, DRAIN_BATCH)) > 0) {
+            total += drained;
+        }
+        return total;
+    }
+
+    private boolean shouldSample(ActivityEvent.Type type) {
+        if (type == ActivityEvent.Type.ERROR || sampleRate >= 1.0) {
+            return true;
+        }
+        return sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private void runWriter() {
+        while (running) {
+            int drained = buffer.drain(this::write, DRAIN_BATCH);
+            if (drained == 0) {
+                writerParked = true;
+                if (buffer.size() == 0 && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                writerParked = false;
+            }
+            reportDrops();
+        }
+        flush();
+        reportDrops();
+    }
+
+    private void write(ActivityEvent event) {
+        written.increment();
+        String payload = event.payload();
+        int length = payload != null ? payload.length() : 0;
+        if (event.type() == ActivityEvent.Type.ERROR) {
+            activityLog.error(
+                "type={} source={} ref={} len={} payload={}",
+                event.type(),
+                event.source(),
+                event.ref(),
+                length,
+                truncate(payload)
+            );
+            return;
+        }
+        if (activityLog.isInfoEnabled()) {
+            activityLog.info(
+                "type={} source={} ref={} len={} payload={}",
+                event.type(),
+                event.source(),
+                event.ref(),
+                length,
+                truncate(payload)
+            );
+        }
+    }
+
+    private String truncate(String payload) {
+        if (payload == null || maxPayloadChars == 0) {
+            return "-";
+        }
+        if (payload.length() <= maxPayloadChars) {
+            return payload.replace('\n', ' ');
+        }
+        return (
+            payload.substring(0, maxPayloadChars).replace('\n', ' ') +
+            "...(+" +
+            (payload.length() - maxPayloadChars) +
+            ")"
+        );
+    }
+
+    private void reportDrops() {
+        long now = System.currentTimeMillis();
+        if (now - lastDropReportAt < DROP_REPORT_INTERVAL_MS) {
+            return;
+        }
+        lastDropReportAt = now;
+        long totalDrops = dropped.sum();
+        if (totalDrops > lastReportedDrops) {
+            logger.warn(
+                "Agent活动日志缓冲区已满，累计丢弃 {} 条事件（新增 {} 条）",
+                totalDrops,
+                totalDrops - lastReportedDrops
+            );
+            lastReportedDrops = totalDrops;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.customerservice.service.activity;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 无锁有界环形缓冲区（多生产者、单消费者）
+ *
+ * 每个槽位维护一个序号：序号等于写入位置时可写，等于写入位置+1时可读。
+ * 生产者通过CAS抢占写入位置，缓冲区满时直接返回false而不是阻塞请求线程；
+ * 写入时可指定预留空间，剩余容量不足时同样返回false，为更重要的元素留出位置；
+ * 消费者只能是单个后台线程。
+ */
+public class ActivityRingBuffer<T> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public ActivityRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("缓冲区容量至少为2");
+        }
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 尝试写入一个元素
+     *
+     * @param item 待写入元素
+     * @return 写入成功返回true；缓冲区已满返回false
+     */
+    public boolean offer(T item) {
+        return offer(item, 0);
+    }
+
+    /**
+     * 尝试写入一个元素，并保证写入后仍至少剩余 headroom 个空位
+     *
+     * @param item     待写入元素
+     * @param headroom 需要保留的空位数
+     * @return 写入成功返回true；剩余空位不足返回false
+     */
+    public boolean offer(T item, int headroom) {
+        while (true) {
+            long position = tail.get();
+            // head 只增不减，读到旧值时只会更保守地拒绝
+            if (headroom > 0 && position - head.get() >= capacity - headroom) {
+                return false;
+            }
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, item);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+            // diff > 0：其他生产者已占用该位置，重试
+        }
+    }
+
+    /**
+     * 取出一个元素，仅允许消费者线程调用
+     *
+     * @return 元素；缓冲区为空时返回null
+     */
+    public T poll() {
+        long position = head.get();
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        T item = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, position + capacity);
+        head.lazySet(position + 1);
+        return item;
+    }
+
+    /**
+     * 批量取出元素，仅允许消费者线程调用
+     *
+     * @param consumer 元素处理函数
+     * @param maxItems 本次最多取出的数量
+     * @return 实际取出的数量
+     */
+    public int drain(Consumer<T> consumer, int maxItems) {
+        int drained = 0;
+        T item;
+        while (drained < maxItems && (item = poll()) != null) {
+            consumer.accept(item);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.customerservice.service.extractor;
+
+import com.example.customerservice.service.graph.EntityAliasTable;
+import com.example.customerservice.service.vector.VectorMath;
+import io.agentscope.core.embedding.EmbeddingModel;
+import io.agentscope.core.message.TextBlock;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 实体名称规范化
+ *
+ * 三元组写入图谱前，把同一实体的不同写法合并到一个规范名，避免 "保修"、"质保"、"保修政策" 各成一个节点：
+ * 1. 归一化：全角转半角、大小写、首尾标点和空白（{@link EntityAliasTable#key}）
+ * 2. 别名表：同义词词典和此前登记的别名，命中即返回规范名
+ * 3. Embedding 聚类：未登记的短名称（配置的类型、长度上限内）与同类型已有规范名比较余弦相似度，
+ *    超过阈值时登记为其别名；否则登记为新的规范名。合并会写入别名表和图谱、无法自动撤销，
+ *    因此默认只对 Service 开启；型号记号（名称中的字母数字部分）不同的名称不合并，
+ *    避免 "iPhone 15" 与 "iPhone 15 Pro"、"X1" 与 "X2" 这类向量接近的不同产品被合成一个节点
+ *
+ * 规范名的向量随别名表保存，只有从未计算过向量的规范名才在首次比较时计算一次。Embedding 调用失败时跳过聚类。
+ */
+@Component
+public class EntityCanonicalizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityCanonicalizer.class);
+    private static final Duration EMBEDDING_TIMEOUT = Duration.ofSeconds(10);
+    private static final Pattern NON_MODEL_CHARS = Pattern.compile("[^a-z0-9]");
+
+    private final EntityAliasTable aliasTable;
+    private final EmbeddingModel embeddingModel;
+    private final boolean embeddingEnabled;
+    private final double threshold;
+    private final Set<String> embeddingTypes;
+    private final int maxNameLength;
+
+    public EntityCanonicalizer(
+        EntityAliasTable aliasTable,
+        EmbeddingModel embeddingModel,
+        @Value("${knowledge-graph.canonicalization.embedding.enabled:true}") boolean embeddingEnabled,
+        @Value("${knowledge-graph.canonicalization.embedding.threshold:0.92}") double threshold,
+        @Value("${knowledge-graph.canonicalization.embedding.types:Service}") String embeddingTypes,
+        @Value("${knowledge-graph.canonicalization.embedding.max-name-length:16}") int maxNameLength
+    ) {
+        this.aliasTable = aliasTable;
+        this.embeddingModel = embeddingModel;
+        this.embeddingEnabled = embeddingEnabled;
+        this.threshold = threshold;
+        this.embeddingTypes = Arrays.stream(embeddingTypes.split(","))
+            .map(String::trim)
+            .filter(type -> !type.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+        this.maxNameLength = maxNameLength;
+        aliasTable.useVectorModel(embeddingModel.getModelName() + "/" + embeddingModel.getDimensions());
+    }
+
+    /**
+     * 返回名称的规范名，必要时登记新的规范名或别名
+     *
+     * @param name 抽取得到的实体名称
+     * @param type 推断出的实体类型
+     * @return 写入图谱时使用的名称
+     */
+    public String canonicalize(String name, String type) {
+        String display = display(name);
+        if (EntityAliasTable.key(display).isEmpty()) {
+            return display;
+        }
+        String canonical = aliasTable.resolve(display);
+        if (canonical != null) {
+            aliasTable.recordType(canonical, type);
+            return canonical;
+        }
+
+        if (embeddingEnabled && embeddingTypes.contains(type) && display.length() <= maxNameLength) {
+            double[] vector = embed(display);
+            if (vector != null) {
+                String nearest = nearest(display, vector, type);
+                if (nearest != null) {
+                    aliasTable.registerAlias(display, nearest);
+                    logger.info("实体 \"{}\" 合并到 \"{}\"（{}）", display, nearest, type);
+                    return nearest;
+                }
+                aliasTable.putVector(display, vector);
+            }
+        }
+        return aliasTable.registerCanonical(display, type);
+    }
+
+    /**
+     * 展示用的名称：NFKC 后去掉首尾空白、内部空白合并，保留大小写
+     */
+    static String display(String name) {
+        return Normalizer.normalize(name == null ? "" : name, Normalizer.Form.NFKC).strip().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * 名称中的型号记号：小写后只保留字母和数字，中文名称为空串
+     */
+    static String modelToken(String name) {
+        return NON_MODEL_CHARS.matcher(name.toLowerCase(Locale.ROOT)).replaceAll("");
+    }
+
+    private String nearest(String display, double[] vector, String type) {
+        String modelToken = modelToken(display);
+        String best = null;
+        double bestScore = threshold;
+        for (String candidate : aliasTable.canonicalNames(type)) {
+            if (candidate.length() > maxNameLength || !modelToken(candidate).equals(modelToken)) {
+                continue;
+            }
+            double[] candidateVector = aliasTable.vector(candidate);
+            if (candidateVector == null) {
+                candidateVector = embed(candidate);
+                if (candidateVector == null) {
+                    continue;
+                }
+                aliasTable.putVector(candidate, candidateVector);
+            }
+            double score = VectorMath.cosine(vector, candidateVector);
+            if (score >= bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private double[] embed(String text) {
+        try {
+            return embeddingModel.embed(TextBlock.builder().text(text).build()).block(EMBEDDING_TIMEOUT);
+        } catch (Exception e) {
+            logger.warn("实体名称 Embedding 失败，跳过聚类 name={}: {}", text, e.getMessage());
+            return null;
+        }
+    }
+}
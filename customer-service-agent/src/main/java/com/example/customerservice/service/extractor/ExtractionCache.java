@@ -0,0 +1,254 @@
+package com.example.customerservice.service.extractor;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * LLM 抽取结果的磁盘缓存
+ *
+ * 以 SHA-256(模型名 + 提示词 + 输入文本) 为键，每个键一个 JSON 文件，内容为解析后的三元组。
+ * 提示词或模型变化时键随之变化，旧结果自然不再命中并按 LRU 淘汰。
+ *
+ * 内存中按访问顺序维护键和文件大小，条目数或总字节数超限时删除最久未访问的文件；
+ * 命中时更新文件修改时间，重启后按修改时间恢复 LRU 顺序。
+ * 写入在后台线程执行（临时文件 + 原子移动），不占用调用方或网络 IO 线程。
+ */
+@Component
+public class ExtractionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionCache.class);
+    private static final String SUFFIX = ".json";
+    private static final TypeReference<List<Map<String, String>>> TRIPLES = new TypeReference<>() {};
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "extraction-cache-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long totalBytes;
+
+    public ExtractionCache(
+        @Value("${triple-extraction.cache.enabled:true}") boolean enabled,
+        @Value("${triple-extraction.cache.path:./data/extraction-cache}") String path,
+        @Value("${triple-extraction.cache.max-entries:20000}") int maxEntries,
+        @Value("${triple-extraction.cache.max-bytes:134217728}") long maxBytes
+    ) {
+        this.directory = Paths.get(path);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytes = Math.max(1, maxBytes);
+        this.enabled = enabled && load();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 缓存键：各部分依次以 \0 分隔后取 SHA-256
+     */
+    public static String key(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update((part != null ? part : "").getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 是否缓存了该键，不计入命中统计
+     */
+    public synchronized boolean contains(String key) {
+        return enabled && sizes.get(key) != null;
+    }
+
+    public Optional<List<Map<String, String>>> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            if (sizes.get(key) == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+        }
+        Path file = file(key);
+        try {
+            List<Map<String, String>> triples = objectMapper.readValue(file.toFile(), TRIPLES);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.increment();
+            return Optional.of(triples);
+        } catch (IOException e) {
+            // 文件被外部删除或损坏，视为未命中
+            logger.debug("读取抽取缓存失败 key={}: {}", key, e.getMessage());
+            forget(key);
+            misses.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 异步写入；同一键重复写入时覆盖
+     */
+    public void put(String key, List<Map<String, String>> triples) {
+        if (!enabled) {
+            return;
+        }
+        List<Map<String, String>> copy = List.copyOf(triples);
+        writer.execute(() -> write(key, copy));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public synchronized int size() {
+        return sizes.size();
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private void write(String key, List<Map<String, String>> triples) {
+        Path target = file(key);
+        Path temp = directory.resolve(key + ".tmp");
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(triples);
+            Files.write(temp, bytes);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            List<String> evicted;
+            synchronized (this) {
+                Long previous = sizes.put(key, (long) bytes.length);
+                totalBytes += bytes.length - (previous != null ? previous : 0);
+                evicted = evictLocked();
+            }
+            for (String stale : evicted) {
+                Files.deleteIfExists(file(stale));
+            }
+        } catch (IOException e) {
+            logger.warn("写入抽取缓存失败 key={}: {}", key, e.getMessage());
+        }
+    }
+
+    private List<String> evictLocked() {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> eldest = sizes.entrySet().iterator();
+        while ((sizes.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            totalBytes -= entry.getValue();
+            evicted.add(entry.getKey());
+            eldest.remove();
+            evictions.increment();
+        }
+        return evicted;
+    }
+
+    private synchronized void forget(String key) {
+        Long size = sizes.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    /**
+     * 扫描缓存目录，按修改时间从旧到新恢复访问顺序；目录不可用时禁用缓存
+     */
+    private boolean load() {
+        try {
+            Files.createDirectories(directory);
+            List<Map.Entry<Path, BasicFileAttributes>> files = new ArrayList<>();
+            try (Stream<Path> listing = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) listing::iterator) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".tmp")) {
+                        Files.deleteIfExists(file);
+                    } else if (name.endsWith(SUFFIX)) {
+                        files.add(Map.entry(file, Files.readAttributes(file, BasicFileAttributes.class)));
+                    }
+                }
+            }
+            files.sort(Map.Entry.comparingByValue((a, b) -> a.lastModifiedTime().compareTo(b.lastModifiedTime())));
+            List<String> evicted;
+            synchronized (this) {
+                for (Map.Entry<Path, BasicFileAttributes> file : files) {
+                    String name = file.getKey().getFileName().toString();
+                    sizes.put(name.substring(0, name.length() - SUFFIX.length()), file.getValue().size());
+                    totalBytes += file.getValue().size();
+                }
+                evicted = evictLocked();
+            }
+            for (String stale : evicted) {
+                Files.deleteIfExists(file(stale));
+            }
+            logger.info("抽取缓存已加载: entries={}, bytes={}", sizes.size(), totalBytes);
+            return true;
+        } catch (IOException e) {
+            logger.warn("抽取缓存目录不可用，已禁用缓存 path={}: {}", directory, e.getMessage());
+            return false;
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.customerservice.service.extractor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * 非阻塞的并发上限（信号量语义）
+ *
+ * 超过上限的调用排队等待许可，等待期间不占用线程；订阅取消时从队列移除或中止进行中的调用。
+ * 同时统计排队时间与服务时间，区分“在我们这边排队”和“下游本身慢”。
+ */
+final class InFlightLimiter {
+
+    private final int maxInFlight;
+    private final Deque<Runnable> waiting = new ArrayDeque<>();
+    private int inFlight;
+
+    private final LongAdder started = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder serviceNanos = new LongAdder();
+    private final AtomicLong maxQueueNanos = new AtomicLong();
+    private final AtomicLong maxServiceNanos = new AtomicLong();
+
+    InFlightLimiter(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * 拿到许可后才订阅 call，结束（成功、失败或取消）时归还许可
+     */
+    <T> Mono<T> limit(Mono<T> call) {
+        return Mono.create(sink -> {
+            long queuedAt = System.nanoTime();
+            AtomicReference<Disposable> running = new AtomicReference<>();
+            Runnable start = () -> {
+                long startedAt = System.nanoTime();
+                started.increment();
+                record(queueNanos, maxQueueNanos, startedAt - queuedAt);
+                // 先归还许可再向下游发出结果，调用方看到结果时统计已更新
+                AtomicBoolean finished = new AtomicBoolean();
+                Runnable finish = () -> {
+                    if (finished.compareAndSet(false, true)) {
+                        record(serviceNanos, maxServiceNanos, System.nanoTime() - startedAt);
+                        release();
+                    }
+                };
+                running.set(call
+                    .doOnSuccess(value -> finish.run())
+                    .doOnError(error -> finish.run())
+                    .doOnCancel(finish)
+                    .subscribe(sink::success, sink::error, sink::success));
+            };
+            sink.onCancel(() -> {
+                if (!dequeue(start)) {
+                    Disposable disposable = running.get();
+                    if (disposable != null) {
+                        disposable.dispose();
+                    }
+                }
+            });
+            acquire(start);
+        });
+    }
+
+    int maxInFlight() {
+        return maxInFlight;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    synchronized int waiting() {
+        return waiting.size();
+    }
+
+    long started() {
+        return started.sum();
+    }
+
+    long totalQueueNanos() {
+        return queueNanos.sum();
+    }
+
+    long totalServiceNanos() {
+        return serviceNanos.sum();
+    }
+
+    long maxQueueNanos() {
+        return maxQueueNanos.get();
+    }
+
+    long maxServiceNanos() {
+        return maxServiceNanos.get();
+    }
+
+    private void acquire(Runnable start) {
+        synchronized (this) {
+            if (inFlight >= maxInFlight) {
+                waiting.addLast(start);
+                return;
+            }
+            inFlight++;
+        }
+        start.run();
+    }
+
+    private synchronized boolean dequeue(Runnable start) {
+        return waiting.remove(start);
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.pollFirst();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+        // 许可直接转交给队首
+        next.run();
+    }
+
+    private static void record(LongAdder total, AtomicLong max, long nanos) {
+        total.add(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+}
@@ -1,15 +1,42 @@
 package com.example.customerservice.service.extractor;
 
+import com.example.customerservice.dto.TripleExtractionStatsResponse;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * LLM 三元组抽取
+ *
+ * 通过独立连接池的 WebClient 调用 chat/completions，等待响应期间不占用线程。
+ * 连接超时、响应超时可配置；同时进行的调用不超过 max-in-flight，多余的排队等待；
+ * 429/5xx 按带抖动的指数退避重试。调用失败时返回空列表，不影响规则抽取结果。
+ *
+ * 成功解析的结果按 模型名 + 提示词 + 文本 写入 {@link ExtractionCache}，相同文本再次抽取时不调用 LLM。
+ * 批量请求的结果以批量系统提示词和打包指令为键单独缓存，任一提示词修改后旧结果自然失效；
+ * 查找时两种键都认，同一文本无论经单篇还是批量抽取过都不再调用 LLM。
+ *
+ * 批量抽取（重建、初始化）把多篇短文档按 token 预算打包进一次请求，每篇带分隔符和编号，
+ * 要求按编号输出 JSON 对象；整批无法解析时对半拆分重试，拆到单篇时走单文档请求。
+ */
 @Component
 public class LLMTripleExtractor {
     private static final Logger logger = LoggerFactory.getLogger(LLMTripleExtractor.class);
@@ -25,84 +52,446 @@ public class LLMTripleExtractor {
             3. 每个三元组表示 (实体A, 关系, 实体B)
             4. 输出纯JSON数组，不要包含其他文字
             """;
+    private static final String BATCH_SYSTEM_PROMPT = SYSTEM_PROMPT + """
+
+            本次输入包含多篇文档，每篇以 <<<DOC 编号>>> 开头、以 <<<END 编号>>> 结尾，请逐篇单独抽取。
+            输出格式以此为准：一个纯JSON对象，键为文档编号，值为该文档的三元组数组；没有三元组的文档输出空数组。
+            """;
+    private static final String BATCH_INSTRUCTION = "请逐篇提取三元组，输出JSON对象:";
 
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final ExtractionCache cache;
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+    private final InFlightLimiter limiter;
 
-    @Value("${minimax.api-key:}")
-    private String apiKey;
+    private final String apiKey;
+    private final String modelName;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
 
-    @Value("${minimax.base-url:https://api.minimax.chat}")
-    private String baseUrl;
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder batchRequests = new LongAdder();
+    private final LongAdder batchedDocuments = new LongAdder();
+    private final LongAdder batchSplits = new LongAdder();
+    private final LongAdder promptTokens = new LongAdder();
+    private final LongAdder completionTokens = new LongAdder();
+    private final int batchMaxDocuments;
+    private final int batchMaxTokens;
 
-    @Value("${minimax.model-name:MiniMax-M2.7}")
-    private String modelName;
+    public LLMTripleExtractor(
+        WebClient.Builder webClientBuilder,
+        ExtractionCache cache,
+        @Value("${minimax.api-key:}") String apiKey,
+        @Value("${minimax.base-url:https://api.minimax.chat}") String baseUrl,
+        @Value("${minimax.model-name:MiniMax-M2.7}") String modelName,
+        @Value("${triple-extraction.http.max-connections:16}") int maxConnections,
+        @Value("${triple-extraction.http.connect-timeout-ms:5000}") int connectTimeoutMs,
+        @Value("${triple-extraction.http.response-timeout-ms:60000}") long responseTimeoutMs,
+        @Value("${triple-extraction.http.max-in-flight:4}") int maxInFlight,
+        @Value("${triple-extraction.http.max-retries:3}") int maxRetries,
+        @Value("${triple-extraction.http.retry-backoff-ms:500}") long retryBackoffMs,
+        @Value("${triple-extraction.http.max-retry-backoff-ms:8000}") long maxRetryBackoffMs,
+        @Value("${triple-extraction.batch.max-documents:8}") int batchMaxDocuments,
+        @Value("${triple-extraction.batch.max-tokens:3000}") int batchMaxTokens
+    ) {
+        this.cache = cache;
+        this.apiKey = apiKey;
+        this.modelName = modelName;
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryBackoff = Duration.ofMillis(Math.max(1, retryBackoffMs));
+        this.maxRetryBackoff = Duration.ofMillis(Math.max(retryBackoffMs, maxRetryBackoffMs));
+        this.batchMaxDocuments = Math.max(1, batchMaxDocuments);
+        this.batchMaxTokens = Math.max(1, batchMaxTokens);
+        this.limiter = new InFlightLimiter(maxInFlight);
+        this.connectionProvider = ConnectionProvider.builder("llm-triple-extraction")
+            .maxConnections(Math.max(maxConnections, limiter.maxInFlight()))
+            .maxIdleTime(Duration.ofSeconds(30))
+            .evictInBackground(Duration.ofSeconds(60))
+            .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+            .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+        this.webClient = webClientBuilder
+            .baseUrl(baseUrl)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionProvider.dispose();
+    }
 
-    public List<Map<String, String>> extractTriples(String text) {
+    /**
+     * 调用 LLM 抽取三元组
+     *
+     * @param text 待抽取文本
+     * @return 三元组列表（subject/relation/object）；未配置 API key 或调用失败时为空列表
+     */
+    public Mono<List<Map<String, String>>> extractTriples(String text) {
         if (apiKey == null || apiKey.isBlank()) {
             logger.warn("MiniMax API key not configured, skipping LLM extraction");
-            return List.of();
+            return Mono.just(List.of());
         }
 
-        String userPrompt = "输入文本: " + text + "\n\n请提取三元组，输出JSON数组:";
+        Optional<List<Map<String, String>>> cached = cached(text);
+        if (cached.isPresent()) {
+            return Mono.just(cached.get());
+        }
+        return extractSingle(text, cacheKey(text));
+    }
 
-        try {
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", modelName);
-            requestBody.put("messages", List.of(
-                Map.of("role", "system", "content", SYSTEM_PROMPT),
-                Map.of("role", "user", "content", userPrompt)
-            ));
+    /**
+     * 批量抽取多篇文档的三元组
+     *
+     * 先查缓存，未命中的文档按顺序打包：每批不超过 batch.max-documents 篇、估算 token 不超过 batch.max-tokens，
+     * 单篇超出预算时独占一批。各批并发发出，受 max-in-flight 限制。
+     *
+     * @param textsById 文档 ID → 待抽取文本
+     * @return 文档 ID → 三元组列表，顺序与输入一致；抽取失败的文档为空列表
+     */
+    public Mono<Map<String, List<Map<String, String>>>> extractTriplesBatch(Map<String, String> textsById) {
+        Map<String, List<Map<String, String>>> results = new HashMap<>();
+        if (apiKey == null || apiKey.isBlank()) {
+            logger.warn("MiniMax API key not configured, skipping LLM extraction");
+            return Mono.just(ordered(textsById, results));
+        }
+
+        List<Map.Entry<String, String>> pending = new ArrayList<>();
+        for (Map.Entry<String, String> entry : textsById.entrySet()) {
+            Optional<List<Map<String, String>>> cached = cached(entry.getValue());
+            if (cached.isPresent()) {
+                results.put(entry.getKey(), cached.get());
+            } else {
+                pending.add(entry);
+            }
+        }
+
+        return Flux.fromIterable(pack(pending))
+            .flatMap(this::extractPacked)
+            .doOnNext(results::putAll)
+            .then(Mono.fromSupplier(() -> ordered(textsById, results)));
+    }
+
+    private Mono<List<Map<String, String>>> extractSingle(String text, String cacheKey) {
+        return complete(SYSTEM_PROMPT, userPrompt(text))
+            .map(this::parseTriples)
+            .doOnNext(triples -> {
+                succeeded.increment();
+                cache.put(cacheKey, triples);
+            })
+            .onErrorResume(e -> {
+                failed.increment();
+                logger.warn("LLM extraction failed: {}", e.getMessage());
+                return Mono.just(List.of());
+            });
+    }
 
-            String url = baseUrl + "/v1/chat/completions";
+    /**
+     * 一次请求抽取一批文档
+     *
+     * 响应中缺少的文档单独再抽一次；整批无法解析时对半拆分，直到单篇走单文档请求。
+     * 网络错误（重试耗尽、超时）不拆分，整批返回空列表。
+     */
+    private Mono<Map<String, List<Map<String, String>>>> extractPacked(List<Map.Entry<String, String>> docs) {
+        if (docs.size() == 1) {
+            Map.Entry<String, String> doc = docs.get(0);
+            return extractSingle(doc.getValue(), cacheKey(doc.getValue()))
+                .map(triples -> Map.of(doc.getKey(), triples));
+        }
+
+        batchRequests.increment();
+        StringBuilder prompt = new StringBuilder("输入文本共 ").append(docs.size()).append(" 篇:\n\n");
+        for (int i = 0; i < docs.size(); i++) {
+            String id = "d" + (i + 1);
+            prompt.append("<<<DOC ").append(id).append(">>>\n")
+                .append(docs.get(i).getValue())
+                .append("\n<<<END ").append(id).append(">>>\n\n");
+        }
+        prompt.append(BATCH_INSTRUCTION);
+
+        return complete(BATCH_SYSTEM_PROMPT, prompt.toString())
+            .map(response -> parseBatch(response, docs.size()))
+            .flatMap(parsed -> {
+                succeeded.increment();
+                Map<String, List<Map<String, String>>> resolved = new HashMap<>();
+                List<Map.Entry<String, String>> missing = new ArrayList<>();
+                for (int i = 0; i < docs.size(); i++) {
+                    Map.Entry<String, String> doc = docs.get(i);
+                    List<Map<String, String>> triples = parsed.get(i);
+                    if (triples != null) {
+                        resolved.put(doc.getKey(), triples);
+                        cache.put(batchCacheKey(doc.getValue()), triples);
+                    } else {
+                        missing.add(doc);
+                    }
+                }
+                batchedDocuments.add(resolved.size());
+                if (missing.isEmpty()) {
+                    return Mono.just(resolved);
+                }
+                logger.warn("批量抽取响应缺少 {}/{} 篇文档，单独重试", missing.size(), docs.size());
+                return Flux.fromIterable(missing)
+                    .flatMap(doc -> extractPacked(List.of(doc)))
+                    .collect(() -> resolved, Map::putAll);
+            })
+            .onErrorResume(MalformedResponseException.class, e -> {
+                failed.increment();
+                batchSplits.increment();
+                logger.warn("批量抽取响应无法解析，拆分 {} 篇文档重试: {}", docs.size(), e.getMessage());
+                int half = docs.size() / 2;
+                return Flux.just(docs.subList(0, half), docs.subList(half, docs.size()))
+                    .flatMap(this::extractPacked)
+                    .collect(HashMap::new, Map::putAll);
+            })
+            .onErrorResume(e -> {
+                failed.increment();
+                logger.warn("LLM batch extraction failed for {} documents: {}", docs.size(), e.getMessage());
+                Map<String, List<Map<String, String>>> empty = new HashMap<>();
+                docs.forEach(doc -> empty.put(doc.getKey(), List.of()));
+                return Mono.just(empty);
+            });
+    }
+
+    /**
+     * 调用 chat/completions 并返回消息内容；重试在许可内进行，usage 计入 token 统计
+     */
+    private Mono<String> complete(String systemPrompt, String userPrompt) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", modelName);
+        requestBody.put("messages", List.of(
+            Map.of("role", "system", "content", systemPrompt),
+            Map.of("role", "user", "content", userPrompt)
+        ));
 
-            // Using RestTemplate to call MiniMax API
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.postForObject(url, requestBody, Map.class);
+        Mono<String> completion = webClient.post()
+            .uri("/v1/chat/completions")
+            .headers(headers -> headers.setBearerAuth(apiKey))
+            .bodyValue(requestBody)
+            .retrieve()
+            .bodyToMono(JsonNode.class)
+            .doOnNext(response -> {
+                promptTokens.add(response.path("usage").path("prompt_tokens").asLong(0));
+                completionTokens.add(response.path("usage").path("completion_tokens").asLong(0));
+            })
+            .map(response -> response.path("choices").path(0).path("message").path("content").asText(""))
+            .retryWhen(
+                Retry.backoff(maxRetries, retryBackoff)
+                    .maxBackoff(maxRetryBackoff)
+                    .jitter(0.5)
+                    .filter(LLMTripleExtractor::isRetryable)
+                    .doBeforeRetry(signal -> retries.increment())
+                    .onRetryExhaustedThrow((spec, signal) -> signal.failure())
+            );
 
-            if (response == null) {
-                return List.of();
+        return limiter.limit(completion).defaultIfEmpty("");
+    }
+
+    /**
+     * 按顺序装批：篇数或估算 token 超出预算时开新批
+     */
+    private List<List<Map.Entry<String, String>>> pack(List<Map.Entry<String, String>> docs) {
+        List<List<Map.Entry<String, String>>> batches = new ArrayList<>();
+        List<Map.Entry<String, String>> current = new ArrayList<>();
+        int tokens = 0;
+        for (Map.Entry<String, String> doc : docs) {
+            int docTokens = estimateTokens(doc.getValue());
+            if (!current.isEmpty() && (current.size() >= batchMaxDocuments || tokens + docTokens > batchMaxTokens)) {
+                batches.add(current);
+                current = new ArrayList<>();
+                tokens = 0;
             }
+            current.add(doc);
+            tokens += docTokens;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
 
-            // Parse the response
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
-            if (choices == null || choices.isEmpty()) {
-                return List.of();
+    /**
+     * 粗略估算 token 数：非 ASCII 字符（中文等）每个按 1 个，ASCII 字符每 4 个按 1 个
+     */
+    static int estimateTokens(String text) {
+        int nonAscii = 0;
+        int ascii = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 0x80) {
+                ascii++;
+            } else {
+                nonAscii++;
             }
+        }
+        return nonAscii + (ascii + 3) / 4;
+    }
 
-            @SuppressWarnings("unchecked")
-            Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-            String content = (String) message.get("content");
+    /**
+     * 优先取单篇结果，没有时取批量结果；只查一次，命中统计不重复计数
+     */
+    private Optional<List<Map<String, String>>> cached(String text) {
+        String singleKey = cacheKey(text);
+        String batchKey = batchCacheKey(text);
+        return cache.get(!cache.contains(singleKey) && cache.contains(batchKey) ? batchKey : singleKey);
+    }
 
-            return parseTriples(content);
-        } catch (Exception e) {
-            logger.warn("LLM extraction failed: {}", e.getMessage());
-            return List.of();
+    /**
+     * 单篇请求结果的缓存键
+     */
+    String cacheKey(String text) {
+        return ExtractionCache.key(modelName, SYSTEM_PROMPT, userPrompt(text));
+    }
+
+    /**
+     * 批量请求中某一篇结果的缓存键：不含同批其他文档和编号，同一文本换批次打包仍能命中
+     */
+    String batchCacheKey(String text) {
+        return ExtractionCache.key(modelName, BATCH_SYSTEM_PROMPT, BATCH_INSTRUCTION, text);
+    }
+
+    private static String userPrompt(String text) {
+        return "输入文本: " + text + "\n\n请提取三元组，输出JSON数组:";
+    }
+
+    private static Map<String, List<Map<String, String>>> ordered(
+        Map<String, String> textsById,
+        Map<String, List<Map<String, String>>> results
+    ) {
+        Map<String, List<Map<String, String>>> ordered = new LinkedHashMap<>();
+        for (String id : textsById.keySet()) {
+            ordered.put(id, results.getOrDefault(id, List.of()));
         }
+        return ordered;
+    }
+
+    public TripleExtractionStatsResponse getStats() {
+        long requests = limiter.started();
+        long finished = succeeded.sum() + failed.sum();
+        return new TripleExtractionStatsResponse(
+            limiter.maxInFlight(),
+            limiter.inFlight(),
+            limiter.waiting(),
+            requests,
+            succeeded.sum(),
+            failed.sum(),
+            retries.sum(),
+            batchRequests.sum(),
+            batchedDocuments.sum(),
+            batchSplits.sum(),
+            promptTokens.sum(),
+            completionTokens.sum(),
+            cache.isEnabled(),
+            cache.hits(),
+            cache.misses(),
+            cache.size(),
+            cache.totalBytes(),
+            cache.evictions(),
+            requests > 0 ? toMillis(limiter.totalQueueNanos()) / requests : 0,
+            toMillis(limiter.maxQueueNanos()),
+            finished > 0 ? toMillis(limiter.totalServiceNanos()) / finished : 0,
+            toMillis(limiter.maxServiceNanos()),
+            System.currentTimeMillis()
+        );
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        return error instanceof WebClientResponseException response
+            && (response.getStatusCode().value() == 429 || response.getStatusCode().is5xxServerError());
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
     }
 
+    /**
+     * 解析响应中的三元组 JSON 数组；找不到或无法解析时抛出异常，这类结果不写入缓存
+     */
     private List<Map<String, String>> parseTriples(String response) {
-        List<Map<String, String>> triples = new ArrayList<>();
+        int start = response.indexOf('[');
+        int end = response.lastIndexOf(']');
+        if (start == -1 || end < start) {
+            logger.warn("Failed to parse LLM response as JSON: {}", response);
+            throw new MalformedResponseException("no JSON array in LLM response");
+        }
         try {
-            int start = response.indexOf('[');
-            int end = response.lastIndexOf(']');
-            if (start != -1 && end != -1) {
-                String jsonArray = response.substring(start, end + 1);
-                JsonNode node = objectMapper.readTree(jsonArray);
-                if (node.isArray()) {
-                    for (JsonNode item : node) {
-                        Map<String, String> triple = new HashMap<>();
-                        triple.put("subject", item.has("subject") ? item.get("subject").asText() : item.get("s").asText());
-                        triple.put("relation", item.has("relation") ? item.get("relation").asText() : item.get("p").asText());
-                        triple.put("object", item.has("object") ? item.get("object").asText() : item.get("o").asText());
-                        triples.add(triple);
-                    }
-                }
-            }
+            return toTriples(objectMapper.readTree(response.substring(start, end + 1)));
         } catch (Exception e) {
             logger.warn("Failed to parse LLM response as JSON: {}", response, e);
+            throw new MalformedResponseException("LLM 返回内容无法解析为三元组: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 解析批量响应：按文档顺序返回三元组列表，响应中缺少的文档为 null
+     *
+     * 兼容 {"d1": [...]}、{"d1": {"triples": [...]}} 以及键写成 "1"、"DOC d1" 等变体；
+     * 一篇都对不上时视为整批无法解析。
+     */
+    private List<List<Map<String, String>>> parseBatch(String response, int size) {
+        int start = response.indexOf('{');
+        int end = response.lastIndexOf('}');
+        JsonNode root;
+        try {
+            root = start == -1 || end < start ? null : objectMapper.readTree(response.substring(start, end + 1));
+        } catch (Exception e) {
+            root = null;
+        }
+        if (root == null || !root.isObject()) {
+            throw new MalformedResponseException("no JSON object in LLM batch response");
+        }
+
+        List<List<Map<String, String>>> parsed = new ArrayList<>(Collections.nCopies(size, null));
+        int found = 0;
+        Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String digits = field.getKey().replaceAll("\\D", "");
+            JsonNode value = field.getValue().isObject() ? field.getValue().path("triples") : field.getValue();
+            if (digits.isEmpty() || digits.length() > 4 || !value.isArray()) {
+                continue;
+            }
+            int index = Integer.parseInt(digits) - 1;
+            if (index >= 0 && index < size && parsed.get(index) == null) {
+                parsed.set(index, toTriples(value));
+                found++;
+            }
+        }
+        if (found == 0) {
+            throw new MalformedResponseException("no document ids in LLM batch response");
+        }
+        return parsed;
+    }
+
+    /**
+     * 缺少主语、关系或宾语的项跳过，不影响同一数组里的其他三元组
+     */
+    private static List<Map<String, String>> toTriples(JsonNode array) {
+        List<Map<String, String>> triples = new ArrayList<>();
+        for (JsonNode item : array) {
+            String subject = item.path(item.has("subject") ? "subject" : "s").asText("");
+            String relation = item.path(item.has("relation") ? "relation" : "p").asText("");
+            String object = item.path(item.has("object") ? "object" : "o").asText("");
+            if (!subject.isBlank() && !relation.isBlank() && !object.isBlank()) {
+                Map<String, String> triple = new HashMap<>();
+                triple.put("subject", subject);
+                triple.put("relation", relation);
+                triple.put("object", object);
+                triples.add(triple);
+            }
         }
         return triples;
     }
-}
\ No newline at end of file
+
+    /**
+     * 响应内容不是约定的 JSON 格式（与网络错误区分：只有这类错误会触发拆批）
+     */
+    private static final class MalformedResponseException extends RuntimeException {
+        MalformedResponseException(String message) {
+            super(message);
+        }
+    }
+}
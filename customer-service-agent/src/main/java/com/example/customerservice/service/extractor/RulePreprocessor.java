@@ -1,21 +1,24 @@
 package com.example.customerservice.service.extractor;
 
+import com.example.customerservice.dto.PreprocessedEntities;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * 规则预处理器
  *
- * 使用正则表达式从文本中快速提取结构化的知识信息。
+ * 从文本中快速提取结构化的知识信息。
  * 这是知识抽取管道的第一环，用于快速识别文本中的：
  * - 产品名称
  * - 订单编号
  * - 服务类型（保修、质保、维修等）
  * - 问答对
  *
+ * 所有规则在一次从左到右的扫描中完成（每条规则各自记录续扫位置，互不影响），
+ * 不再对同一文本分别跑四遍正则。产品、服务词表可通过 rule-preprocessor.lexicon.* 扩展。
+ *
  * 与LLM抽取相比，规则抽取速度快但覆盖范围有限，
  * 适合处理格式规范的文本。
  */
@@ -23,125 +26,206 @@ import java.util.regex.Pattern;
 public class RulePreprocessor {
 
     /**
-     * 问答对提取正则
-     *
-     * 匹配格式：问号结尾的问题 + 换行 + "答案："或"答："开头的内容
+     * 内置服务词
      *
-     * 例如：
-     * "智能手表如何保修？\n答案：联系客服处理"
-     * 匹配结果：问题="智能手表如何保修"，答案="联系客服处理"
+     * 命中后记录服务词本身，并跳到所在分句末尾（。，, 或换行）再继续找，
+     * 同一分句只记第一个，例如 "退换货政策" -> "退换"
      */
-    private static final Pattern QA_PATTERN = Pattern.compile("\\?(.*)\\n[答案：:](.*)");
+    private static final List<String> SERVICE_KEYWORDS = List.of("保修", "质保", "维修", "退换", "退款", "退货", "换货");
 
-    /**
-     * 产品名称提取正则
-     *
-     * 匹配"[产品/商品]：[产品名]"格式
-     *
-     * 例如："产品：智能手表" -> 提取出"智能手表"
-     */
-    private static final Pattern PRODUCT_PATTERN = Pattern.compile("[产品商品][：:]([^\n，,。]+)");
+    /** 服务词（内置 + 配置）按首字索引 */
+    private final KeywordTable services;
 
-    /**
-     * 订单编号提取正则
-     *
-     * 匹配"[订单/单号]：[订单号]"格式，订单号通常为大写字母和数字的组合
-     *
-     * 例如："订单：ORD20240315001" -> 提取出"ORD20240315001"
-     */
-    private static final Pattern ORDER_PATTERN = Pattern.compile("[订单单号][：:]([A-Z0-9]+)");
+    /** 配置的产品词表；文本中出现即视为产品 */
+    private final KeywordTable lexiconProducts;
 
-    /**
-     * 服务类型提取正则
-     *
-     * 匹配服务相关词汇：保修、质保、维修、退换、退款、退货、换货
-     * 可选地匹配后面跟着的修饰词：的、是、政策、条件等
-     *
-     * 例如：
-     * "保修两年" -> 提取出"保修"
-     * "退换货政策" -> 提取出"退换"
-     */
-    private static final Pattern SERVICE_PATTERN = Pattern.compile("(保修|质保|维修|退换|退款|退货|换货)[^。，,\n]*(?:的|是|方式|政策|条件|范围)?");
+    public RulePreprocessor(
+        @Value("${rule-preprocessor.lexicon.products:}") List<String> productLexicon,
+        @Value("${rule-preprocessor.lexicon.services:}") List<String> serviceLexicon
+    ) {
+        List<String> serviceKeywords = new ArrayList<>(SERVICE_KEYWORDS);
+        serviceKeywords.addAll(serviceLexicon);
+        this.services = new KeywordTable(serviceKeywords);
+        this.lexiconProducts = new KeywordTable(productLexicon);
+    }
 
     /**
      * 从文本中提取结构化信息
      *
-     * @param text 输入文本
-     * @return 包含以下键的Map：
-     *         - products: List<String> 产品名称列表
-     *         - orders: List<String> 订单编号列表
-     *         - services: List<String> 服务类型列表
-     *         - qas: List<Map<String, String>> 问答对列表，每项包含question和answer
-     */
-    public Map<String, Object> preprocess(String text) {
-        Map<String, Object> extracted = new HashMap<>();
-        extracted.put("products", extractProducts(text));
-        extracted.put("orders", extractOrders(text));
-        extracted.put("services", extractServices(text));
-        extracted.put("qas", extractQAs(text));
-        return extracted;
-    }
-
-    /**
-     * 提取产品名称
+     * 规则：
+     * - 产品："产品：X"、"商品：X"，X 到换行或 ，,。 为止
+     * - 订单："订单：X"、"单号：X"，X 为大写字母和数字
+     * - 服务：服务词表中的词，同一分句只记第一个
+     * - 问答：以 ? 或 ？ 结尾的一行 + 下一行以 "答案：" 或 "答：" 开头，
+     *   例如 "智能手表如何保修？\n答案：联系客服处理" -> 问题="智能手表如何保修"，答案="联系客服处理"
      *
      * @param text 输入文本
-     * @return 产品名称列表
+     * @return 识别出的产品、订单、服务和问答对
      */
-    private List<String> extractProducts(String text) {
+    public PreprocessedEntities preprocess(String text) {
         List<String> products = new ArrayList<>();
-        Matcher matcher = PRODUCT_PATTERN.matcher(text);
-        while (matcher.find()) {
-            products.add(matcher.group(1).trim());
+        List<String> orders = new ArrayList<>();
+        List<String> serviceHits = new ArrayList<>();
+        List<PreprocessedEntities.QaPair> qas = new ArrayList<>();
+        Set<String> seenProducts = lexiconProducts.isEmpty() ? null : new HashSet<>();
+
+        int length = text.length();
+        int productResume = 0;
+        int orderResume = 0;
+        int serviceResume = 0;
+        int lexiconResume = 0;
+        int lineStart = 0;
+        String question = null;
+
+        for (int i = 0; i <= length; i++) {
+            if (i == length || text.charAt(i) == '\n') {
+                if (question != null) {
+                    String answer = answer(text, lineStart, i);
+                    if (answer != null) {
+                        qas.add(new PreprocessedEntities.QaPair(question, answer));
+                    }
+                }
+                question = question(text, lineStart, i);
+                lineStart = i + 1;
+                continue;
+            }
+
+            char c = text.charAt(i);
+            if ((c == ':' || c == '：') && i > 0) {
+                char marker = text.charAt(i - 1);
+                if (i - 1 >= productResume && (marker == '产' || marker == '品' || marker == '商')) {
+                    int end = i + 1;
+                    while (end < length && !isClauseEnd(text.charAt(end))) {
+                        end++;
+                    }
+                    if (end > i + 1) {
+                        String product = text.substring(i + 1, end).trim();
+                        products.add(product);
+                        if (seenProducts != null) {
+                            seenProducts.add(product);
+                        }
+                        productResume = end;
+                    }
+                } else if (i - 1 >= orderResume && (marker == '订' || marker == '单' || marker == '号')) {
+                    int end = i + 1;
+                    while (end < length && isOrderChar(text.charAt(end))) {
+                        end++;
+                    }
+                    if (end > i + 1) {
+                        orders.add(text.substring(i + 1, end));
+                        orderResume = end;
+                    }
+                }
+            }
+
+            if (i >= serviceResume) {
+                String service = services.match(text, i);
+                if (service != null) {
+                    serviceHits.add(service);
+                    int end = i + service.length();
+                    while (end < length && !isClauseEnd(text.charAt(end))) {
+                        end++;
+                    }
+                    serviceResume = end;
+                }
+            }
+
+            if (seenProducts != null && i >= lexiconResume) {
+                String product = lexiconProducts.match(text, i);
+                if (product != null) {
+                    if (seenProducts.add(product)) {
+                        products.add(product);
+                    }
+                    lexiconResume = i + product.length();
+                }
+            }
         }
-        return products;
+
+        return new PreprocessedEntities(products, orders, serviceHits, qas);
+    }
+
+    private static boolean isClauseEnd(char c) {
+        return c == '\n' || c == '，' || c == ',' || c == '。';
+    }
+
+    private static boolean isOrderChar(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
     }
 
     /**
-     * 提取订单编号
-     *
-     * @param text 输入文本
-     * @return 订单编号列表
+     * 以 ? 或 ？ 结尾的行返回去掉问号的问题，否则返回 null
      */
-    private List<String> extractOrders(String text) {
-        List<String> orders = new ArrayList<>();
-        Matcher matcher = ORDER_PATTERN.matcher(text);
-        while (matcher.find()) {
-            orders.add(matcher.group(1).trim());
+    private static String question(String text, int start, int end) {
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (end == start || (text.charAt(end - 1) != '?' && text.charAt(end - 1) != '？')) {
+            return null;
         }
-        return orders;
+        String question = text.substring(start, end - 1).trim();
+        return question.isEmpty() ? null : question;
     }
 
     /**
-     * 提取服务类型
-     *
-     * @param text 输入文本
-     * @return 服务类型列表
+     * 以 "答案：" / "答："（冒号全角半角均可）开头的行返回答案，否则返回 null
      */
-    private List<String> extractServices(String text) {
-        List<String> services = new ArrayList<>();
-        Matcher matcher = SERVICE_PATTERN.matcher(text);
-        while (matcher.find()) {
-            services.add(matcher.group(1).trim());
+    private static String answer(String text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        if (start < end && text.charAt(start) == '答') {
+            start++;
+            if (start < end && text.charAt(start) == '案') {
+                start++;
+            }
+            if (start < end && (text.charAt(start) == '：' || text.charAt(start) == ':')) {
+                String answer = text.substring(start + 1, end).trim();
+                return answer.isEmpty() ? null : answer;
+            }
         }
-        return services;
+        return null;
     }
 
     /**
-     * 提取问答对
-     *
-     * @param text 输入文本
-     * @return 问答对列表，每个Map包含"question"和"answer"两个键
+     * 按首字索引的词表，同一位置取最长匹配
      */
-    private List<Map<String, String>> extractQAs(String text) {
-        List<Map<String, String>> qas = new ArrayList<>();
-        Matcher matcher = QA_PATTERN.matcher(text);
-        while (matcher.find()) {
-            Map<String, String> qa = new HashMap<>();
-            qa.put("question", matcher.group(1).trim());
-            qa.put("answer", matcher.group(2).trim());
-            qas.add(qa);
+    private static final class KeywordTable {
+
+        private final BitSet firstChars = new BitSet();
+        private final Map<Character, String[]> byFirstChar = new HashMap<>();
+
+        KeywordTable(Collection<String> keywords) {
+            Map<Character, List<String>> grouped = new HashMap<>();
+            for (String keyword : keywords) {
+                String trimmed = keyword.trim();
+                if (!trimmed.isEmpty()) {
+                    grouped.computeIfAbsent(trimmed.charAt(0), c -> new ArrayList<>()).add(trimmed);
+                }
+            }
+            grouped.forEach((first, words) -> {
+                firstChars.set(first);
+                byFirstChar.put(first, words.stream()
+                    .distinct()
+                    .sorted(Comparator.comparingInt(String::length).reversed())
+                    .toArray(String[]::new));
+            });
+        }
+
+        boolean isEmpty() {
+            return byFirstChar.isEmpty();
+        }
+
+        String match(String text, int offset) {
+            char first = text.charAt(offset);
+            if (!firstChars.get(first)) {
+                return null;
+            }
+            for (String keyword : byFirstChar.get(first)) {
+                if (text.startsWith(keyword, offset)) {
+                    return keyword;
+                }
+            }
+            return null;
         }
-        return qas;
     }
-}
\ No newline at end of file
+}
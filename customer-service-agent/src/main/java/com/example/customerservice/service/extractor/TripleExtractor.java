@@ -1,10 +1,12 @@
 package com.example.customerservice.service.extractor;
 
+import com.example.customerservice.dto.PreprocessedEntities;
 import com.example.customerservice.dto.TripleExtractResult;
 import com.example.customerservice.service.KnowledgeGraphService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 import java.util.*;
 
@@ -17,6 +19,7 @@ import java.util.*;
  * 2. LLM抽取：使用大语言模型进行深层语义抽取
  *
  * 抽取结果直接存储到Neo4j图数据库中。
+ * 重建、初始化等批量场景使用 {@link #extractAndStoreAll}，多篇文档合并成少量 LLM 请求。
  */
 @Component
 public class TripleExtractor {
@@ -32,10 +35,24 @@ public class TripleExtractor {
     /** 知识图谱服务，用于存储抽取的三元组 */
     private final KnowledgeGraphService knowledgeGraphService;
 
-    public TripleExtractor(RulePreprocessor rulePreprocessor, LLMTripleExtractor llmTripleExtractor, KnowledgeGraphService knowledgeGraphService) {
+    /** 实体名称规范化，写入前把同义写法合并到规范名 */
+    private final EntityCanonicalizer entityCanonicalizer;
+
+    /**
+     * 批量抽取的输入
+     */
+    public record Source(String entryId, String title, String content) {}
+
+    public TripleExtractor(
+        RulePreprocessor rulePreprocessor,
+        LLMTripleExtractor llmTripleExtractor,
+        KnowledgeGraphService knowledgeGraphService,
+        EntityCanonicalizer entityCanonicalizer
+    ) {
         this.rulePreprocessor = rulePreprocessor;
         this.llmTripleExtractor = llmTripleExtractor;
         this.knowledgeGraphService = knowledgeGraphService;
+        this.entityCanonicalizer = entityCanonicalizer;
     }
 
     /**
@@ -45,47 +62,24 @@ public class TripleExtractor {
      *
      * @param title   知识条目标题
      * @param content 知识条目内容
-     * @return 包含规则抽取结果、LLM抽取结果和预处理的实体信息
+     * @return 包含规则抽取结果、LLM抽取结果和预处理的实体信息；等待 LLM 响应期间不占用线程
      */
-    public TripleExtractResult previewExtract(String title, String content) {
+    public Mono<TripleExtractResult> previewExtract(String title, String content) {
         String fullText = title + "\n" + content;
-        List<Map<String, String>> ruleTriples = new ArrayList<>();
-        List<Map<String, String>> llmTriples = new ArrayList<>();
 
         // 第一步：规则预提取
-        Map<String, Object> preprocessed = rulePreprocessor.preprocess(fullText);
+        PreprocessedEntities preprocessed = rulePreprocessor.preprocess(fullText);
 
         // 第二步：规则转换为三元组
-        @SuppressWarnings("unchecked")
-        List<String> products = (List<String>) preprocessed.getOrDefault("products", List.of());
-        for (String product : products) {
-            ruleTriples.add(Map.of("subject", product, "relation", "MENTIONS", "object", title));
-        }
-
-        @SuppressWarnings("unchecked")
-        List<String> services = (List<String>) preprocessed.getOrDefault("services", List.of());
-        for (String service : services) {
-            ruleTriples.add(Map.of("subject", title, "relation", "HAS_SERVICE", "object", service));
-        }
-
-        @SuppressWarnings("unchecked")
-        List<Map<String, String>> qas = (List<Map<String, String>>) preprocessed.getOrDefault("qas", List.of());
-        for (Map<String, String> qa : qas) {
-            ruleTriples.add(Map.of(
-                "subject", qa.get("question"),
-                "relation", "RELATED_TO",
-                "object", qa.get("answer")
-            ));
-        }
+        List<Map<String, String>> ruleTriples = ruleTriples(title, preprocessed);
 
         // 第三步：LLM抽取
-        try {
-            llmTriples = llmTripleExtractor.extractTriples(fullText);
-        } catch (Exception e) {
-            logger.warn("LLM预览抽取失败: {}", e.getMessage());
-        }
-
-        return new TripleExtractResult(ruleTriples, llmTriples, preprocessed);
+        return llmTripleExtractor.extractTriples(fullText)
+            .onErrorResume(e -> {
+                logger.warn("LLM预览抽取失败: {}", e.getMessage());
+                return Mono.just(List.of());
+            })
+            .map(llmTriples -> new TripleExtractResult(ruleTriples, llmTriples, preprocessed));
     }
 
     /**
@@ -96,7 +90,8 @@ public class TripleExtractor {
      * 2. 转换为三元组：将预提取的信息转换为(实体, 关系, 实体)格式
      * 3. LLM深层抽取：使用大语言模型从文本中抽取更多隐含的三元组
      * 4. 推断实体类型：根据抽取结果推断实体的类型（Product, Service, Order, QA, Concept）
-     * 5. 存储到Neo4j：将三元组存储到图数据库
+     * 5. 名称规范化：同义写法合并到规范名（{@link EntityCanonicalizer}）
+     * 6. 存储到Neo4j：将三元组存储到图数据库
      *
      * @param knowledgeEntryId 知识条目ID，用于日志追踪
      * @param title           知识条目标题
@@ -104,49 +99,78 @@ public class TripleExtractor {
      */
     public void extractAndStore(String knowledgeEntryId, String title, String content) {
         String fullText = title + "\n" + content;
-        List<Map<String, String>> triples = new ArrayList<>();
-
-        // ========== 第一步：规则预提取 ==========
-        // 使用正则表达式快速从文本中提取结构化信息
-        Map<String, Object> preprocessed = rulePreprocessor.preprocess(fullText);
 
-        // ========== 第二步：将预提取的信息转换为三元组 ==========
-
-        // 2.1 提取产品信息 -> (产品, MENTIONS, 标题)
-        @SuppressWarnings("unchecked")
-        List<String> products = (List<String>) preprocessed.getOrDefault("products", List.of());
-        for (String product : products) {
-            triples.add(Map.of("subject", product, "relation", "MENTIONS", "object", title));
+        // ========== 第三步：LLM深层抽取 ==========
+        // 使用大语言模型从文本中抽取更多隐含的语义关系
+        List<Map<String, String>> llmTriples = List.of();
+        try {
+            // 写入路径仍是同步的，在调用线程上等待；超时和并发上限由 LLMTripleExtractor 控制
+            List<Map<String, String>> extracted = llmTripleExtractor.extractTriples(fullText).block();
+            if (extracted != null) {
+                llmTriples = extracted;
+            }
+        } catch (Exception e) {
+            logger.warn("LLM抽取失败 entry {}: {}", knowledgeEntryId, e.getMessage());
         }
 
-        // 2.2 提取服务信息 -> (标题, HAS_SERVICE, 服务)
-        @SuppressWarnings("unchecked")
-        List<String> services = (List<String>) preprocessed.getOrDefault("services", List.of());
-        for (String service : services) {
-            triples.add(Map.of("subject", title, "relation", "HAS_SERVICE", "object", service));
-        }
+        store(knowledgeEntryId, title, fullText, llmTriples);
+    }
 
-        // 2.3 提取问答对 -> (问题, RELATED_TO, 答案)
-        @SuppressWarnings("unchecked")
-        List<Map<String, String>> qas = (List<Map<String, String>>) preprocessed.getOrDefault("qas", List.of());
-        for (Map<String, String> qa : qas) {
-            triples.add(Map.of(
-                "subject", qa.get("question"),
-                "relation", "RELATED_TO",
-                "object", qa.get("answer")
-            ));
+    /**
+     * 批量抽取并存储
+     *
+     * LLM 部分一次提交所有条目，由 {@link LLMTripleExtractor#extractTriplesBatch} 打包成少量请求；
+     * 规则抽取和存储仍逐条进行，单个条目失败只记录日志，不影响其他条目。
+     *
+     * @param sources 待抽取的知识条目
+     */
+    public void extractAndStoreAll(List<Source> sources) {
+        Map<String, String> texts = new LinkedHashMap<>();
+        for (Source source : sources) {
+            texts.put(source.entryId(), source.title() + "\n" + source.content());
         }
 
-        // ========== 第三步：LLM深层抽取 ==========
-        // 使用大语言模型从文本中抽取更多隐含的语义关系
+        Map<String, List<Map<String, String>>> llmTriples = Map.of();
         try {
-            List<Map<String, String>> llmTriples = llmTripleExtractor.extractTriples(fullText);
-            triples.addAll(llmTriples);
+            Map<String, List<Map<String, String>>> extracted = llmTripleExtractor.extractTriplesBatch(texts).block();
+            if (extracted != null) {
+                llmTriples = extracted;
+            }
         } catch (Exception e) {
-            logger.warn("LLM抽取失败 entry {}: {}", knowledgeEntryId, e.getMessage());
+            logger.warn("LLM批量抽取失败 entries {}: {}", texts.size(), e.getMessage());
         }
 
-        // ========== 第四步和第五步：推断类型并存储 ==========
+        for (Source source : sources) {
+            try {
+                store(
+                    source.entryId(),
+                    source.title(),
+                    texts.get(source.entryId()),
+                    llmTriples.getOrDefault(source.entryId(), List.of())
+                );
+            } catch (Exception e) {
+                logger.warn("知识条目抽取图谱失败，entryId={}, title={}", source.entryId(), source.title(), e);
+            }
+        }
+    }
+
+    /**
+     * 规则抽取 + 合并 LLM 结果，推断类型后写入图谱
+     */
+    private void store(String knowledgeEntryId, String title, String fullText, List<Map<String, String>> llmTriples) {
+        List<Map<String, String>> triples = new ArrayList<>();
+
+        // ========== 第一步：规则预提取 ==========
+        // 单次扫描从文本中快速提取结构化信息
+        PreprocessedEntities preprocessed = rulePreprocessor.preprocess(fullText);
+
+        // ========== 第二步：将预提取的信息转换为三元组 ==========
+        triples.addAll(ruleTriples(title, preprocessed));
+
+        // 第三步的 LLM 结果由调用方传入
+        triples.addAll(llmTriples);
+
+        // ========== 第四步到第六步：推断类型、规范化名称并存储 ==========
         for (Map<String, String> triple : triples) {
             String subject = triple.get("subject");
             String relation = triple.get("relation");
@@ -158,6 +182,12 @@ public class TripleExtractor {
 
             // 只有当实体类型都能确定时才存储
             if (subjectType != null && objectType != null) {
+                subject = entityCanonicalizer.canonicalize(subject, subjectType);
+                object = entityCanonicalizer.canonicalize(object, objectType);
+                if (subject.equals(object)) {
+                    // 两端合并成同一个实体，不写自环
+                    continue;
+                }
                 try {
                     knowledgeGraphService.addTriple(
                         knowledgeEntryId,
@@ -177,6 +207,29 @@ public class TripleExtractor {
         logger.info("知识条目 {} 抽取并存储了 {} 个三元组", knowledgeEntryId, triples.size());
     }
 
+    /**
+     * 将预提取的信息转换为三元组
+     */
+    private static List<Map<String, String>> ruleTriples(String title, PreprocessedEntities preprocessed) {
+        List<Map<String, String>> triples = new ArrayList<>();
+
+        // 产品信息 -> (产品, MENTIONS, 标题)
+        for (String product : preprocessed.getProducts()) {
+            triples.add(Map.of("subject", product, "relation", "MENTIONS", "object", title));
+        }
+
+        // 服务信息 -> (标题, HAS_SERVICE, 服务)
+        for (String service : preprocessed.getServices()) {
+            triples.add(Map.of("subject", title, "relation", "HAS_SERVICE", "object", service));
+        }
+
+        // 问答对 -> (问题, RELATED_TO, 答案)
+        for (PreprocessedEntities.QaPair qa : preprocessed.getQas()) {
+            triples.add(Map.of("subject", qa.question(), "relation", "RELATED_TO", "object", qa.answer()));
+        }
+        return triples;
+    }
+
     /**
      * 推断实体类型
      *
@@ -186,24 +239,20 @@ public class TripleExtractor {
      * - 如果实体在预提取的产品列表中 -> Product
      * - 如果实体在预提取的服务列表中 -> Service
      * - 如果实体在预提取的订单列表中 -> Order
-     * - 如果实体包含问号或疑问词(如何、怎么) -> QA
+     * - 如果实体是预提取的问题，或包含问号、疑问词(如何、怎么) -> QA
      * - 其他情况 -> Concept（通用概念）
      *
      * @param entity       实体名称
      * @param preprocessed 预提取的结构化信息
      * @return 实体类型，如果无法推断则返回null
      */
-    @SuppressWarnings("unchecked")
-    private String inferEntityType(String entity, Map<String, Object> preprocessed) {
-        List<String> products = (List<String>) preprocessed.getOrDefault("products", List.of());
-        List<String> services = (List<String>) preprocessed.getOrDefault("services", List.of());
-        List<String> orders = (List<String>) preprocessed.getOrDefault("orders", List.of());
-
-        if (products.contains(entity)) return "Product";
-        if (services.contains(entity)) return "Service";
-        if (orders.contains(entity)) return "Order";
+    private String inferEntityType(String entity, PreprocessedEntities preprocessed) {
+        if (preprocessed.containsProduct(entity)) return "Product";
+        if (preprocessed.containsService(entity)) return "Service";
+        if (preprocessed.containsOrder(entity)) return "Order";
+        if (preprocessed.containsQuestion(entity)) return "QA";
         // 问答类实体通常包含问号或疑问词
-        if (entity.contains("?") || entity.contains("如何") || entity.contains("怎么")) return "QA";
+        if (entity.contains("?") || entity.contains("？") || entity.contains("如何") || entity.contains("怎么")) return "QA";
         // 默认归类为通用概念
         return "Concept";
     }
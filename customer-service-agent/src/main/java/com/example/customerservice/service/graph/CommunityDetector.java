@@ -0,0 +1,291 @@
+package com.example.customerservice.service.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 图谱社区划分（Louvain）
+ *
+ * 在 {@link GraphSnapshot} 的 CSR 邻接上运行，按无向图处理，平行边累加为权重：
+ * 1. 局部移动：按编号顺序把每个节点移到模块度增益最大的相邻社区，直到一轮没有节点移动
+ * 2. 聚合：每个社区收缩为一个节点（内部边变成自环），在新图上重复第 1 步
+ * 直到某一层没有任何节点移动。节点按固定顺序处理，相同输入得到相同结果。
+ *
+ * 可传入上一次的划分作为初始社区（增量重算），图谱只有局部变化时大部分节点不会移动，
+ * 社区编号之外的划分结果保持稳定。
+ */
+public final class CommunityDetector {
+
+    private static final int MAX_PASSES = 32;
+    private static final int MAX_LEVELS = 16;
+    private static final double EPSILON = 1e-12;
+
+    private CommunityDetector() {}
+
+    /**
+     * @param snapshot 图谱快照
+     * @param initial  每个节点的初始社区（任意非负整数，-1 表示单独成社区）；为 null 时全部单独成社区
+     * @return 每个节点的社区编号 0..k-1；没有关联边的节点为 -1
+     */
+    public static int[] detect(GraphSnapshot snapshot, int[] initial) {
+        int nodeCount = snapshot.nodeCount();
+        int[] offsets = new int[nodeCount + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] = offsets[node] + snapshot.degree(node);
+        }
+        int[] neighbors = new int[offsets[nodeCount]];
+        double[] weights = new double[offsets[nodeCount]];
+        int[] cursor = Arrays.copyOf(offsets, nodeCount);
+        for (int edge = 0; edge < snapshot.edgeCount(); edge++) {
+            int source = snapshot.edgeSource(edge);
+            int target = snapshot.edgeTarget(edge);
+            neighbors[cursor[source]] = target;
+            weights[cursor[source]++] = 1;
+            neighbors[cursor[target]] = source;
+            weights[cursor[target]++] = 1;
+        }
+        Level level = new Level(nodeCount, offsets, neighbors, weights);
+
+        int[] membership = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            membership[node] = node;
+        }
+        int[] start = initialCommunities(initial, nodeCount);
+
+        for (int depth = 0; depth < MAX_LEVELS; depth++) {
+            int[] community = level.moveNodes(start);
+            int moved = 0;
+            int[] dense = new int[level.size];
+            Arrays.fill(dense, -1);
+            int communityCount = 0;
+            for (int node = 0; node < level.size; node++) {
+                if (dense[community[node]] == -1) {
+                    dense[community[node]] = communityCount++;
+                }
+                if (community[node] != node) {
+                    moved++;
+                }
+            }
+            for (int node = 0; node < level.size; node++) {
+                community[node] = dense[community[node]];
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                membership[node] = community[membership[node]];
+            }
+            if (moved == 0 || communityCount == level.size) {
+                break;
+            }
+            level = level.aggregate(community, communityCount);
+            start = null;
+        }
+
+        int[] result = new int[nodeCount];
+        int[] dense = new int[nodeCount];
+        Arrays.fill(dense, -1);
+        int count = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            if (snapshot.degree(node) == 0) {
+                result[node] = -1;
+                continue;
+            }
+            int community = membership[node];
+            if (dense[community] == -1) {
+                dense[community] = count++;
+            }
+            result[node] = dense[community];
+        }
+        return result;
+    }
+
+    /**
+     * 模块度 Q = Σ_c [ in_c / 2m - (tot_c / 2m)^2 ]，用于测试和日志
+     */
+    public static double modularity(GraphSnapshot snapshot, int[] community) {
+        double twoM = 2.0 * snapshot.edgeCount();
+        if (twoM == 0) {
+            return 0;
+        }
+        int max = Arrays.stream(community).max().orElse(-1);
+        double[] internal = new double[max + 1];
+        double[] total = new double[max + 1];
+        for (int edge = 0; edge < snapshot.edgeCount(); edge++) {
+            int source = community[snapshot.edgeSource(edge)];
+            int target = community[snapshot.edgeTarget(edge)];
+            total[source]++;
+            total[target]++;
+            if (source == target) {
+                internal[source] += 2;
+            }
+        }
+        double q = 0;
+        for (int c = 0; c <= max; c++) {
+            q += internal[c] / twoM - (total[c] / twoM) * (total[c] / twoM);
+        }
+        return q;
+    }
+
+    /**
+     * 把任意编号的初始社区映射到节点编号空间：同一社区的节点共用其中第一个节点的编号
+     */
+    private static int[] initialCommunities(int[] initial, int nodeCount) {
+        if (initial == null || initial.length != nodeCount) {
+            return null;
+        }
+        int[] start = new int[nodeCount];
+        Map<Integer, Integer> representative = new HashMap<>();
+        for (int node = 0; node < nodeCount; node++) {
+            int self = node;
+            start[node] = initial[node] < 0 ? node : representative.computeIfAbsent(initial[node], c -> self);
+        }
+        return start;
+    }
+
+    /**
+     * 一层加权图（CSR，每条无向边在两端各出现一次，自环出现一次且权重为内部边权重的两倍）
+     */
+    private static final class Level {
+        private final int size;
+        private final int[] offsets;
+        private final int[] neighbors;
+        private final double[] weights;
+        private final double[] strength;
+        private final double totalWeight;
+
+        Level(int size, int[] offsets, int[] neighbors, double[] weights) {
+            this.size = size;
+            this.offsets = offsets;
+            this.neighbors = neighbors;
+            this.weights = weights;
+            this.strength = new double[size];
+            double total = 0;
+            for (int node = 0; node < size; node++) {
+                for (int slot = offsets[node]; slot < offsets[node + 1]; slot++) {
+                    strength[node] += weights[slot];
+                }
+                total += strength[node];
+            }
+            this.totalWeight = total;
+        }
+
+        /**
+         * 局部移动阶段
+         *
+         * @return 每个节点所在社区（以节点编号表示）
+         */
+        int[] moveNodes(int[] start) {
+            int[] community = new int[size];
+            double[] total = new double[size];
+            for (int node = 0; node < size; node++) {
+                community[node] = start != null ? start[node] : node;
+                total[community[node]] += strength[node];
+            }
+            if (totalWeight == 0) {
+                return community;
+            }
+            double[] linkWeight = new double[size];
+            int[] touched = new int[size];
+            for (int pass = 0; pass < MAX_PASSES; pass++) {
+                boolean moved = false;
+                for (int node = 0; node < size; node++) {
+                    if (strength[node] == 0) {
+                        continue;
+                    }
+                    int current = community[node];
+                    int touchedCount = 0;
+                    linkWeight[current] = 0;
+                    touched[touchedCount++] = current;
+                    for (int slot = offsets[node]; slot < offsets[node + 1]; slot++) {
+                        int neighbor = neighbors[slot];
+                        if (neighbor == node) {
+                            continue;
+                        }
+                        int target = community[neighbor];
+                        if (linkWeight[target] == 0 && target != current) {
+                            touched[touchedCount++] = target;
+                        }
+                        linkWeight[target] += weights[slot];
+                    }
+
+                    total[current] -= strength[node];
+                    double ratio = strength[node] / totalWeight;
+                    int best = current;
+                    double bestGain = linkWeight[current] - total[current] * ratio;
+                    for (int i = 0; i < touchedCount; i++) {
+                        int candidate = touched[i];
+                        double gain = linkWeight[candidate] - total[candidate] * ratio;
+                        if (gain > bestGain + EPSILON) {
+                            best = candidate;
+                            bestGain = gain;
+                        }
+                    }
+                    total[best] += strength[node];
+                    if (best != current) {
+                        community[node] = best;
+                        moved = true;
+                    }
+                    for (int i = 0; i < touchedCount; i++) {
+                        linkWeight[touched[i]] = 0;
+                    }
+                }
+                if (!moved) {
+                    break;
+                }
+            }
+            return community;
+        }
+
+        /**
+         * 聚合阶段：社区收缩为节点，社区间的边权重累加
+         */
+        Level aggregate(int[] community, int communityCount) {
+            int[][] members = new int[communityCount][];
+            int[] memberCounts = new int[communityCount];
+            for (int node = 0; node < size; node++) {
+                memberCounts[community[node]]++;
+            }
+            for (int c = 0; c < communityCount; c++) {
+                members[c] = new int[memberCounts[c]];
+            }
+            int[] fill = new int[communityCount];
+            for (int node = 0; node < size; node++) {
+                members[community[node]][fill[community[node]]++] = node;
+            }
+
+            int[] newOffsets = new int[communityCount + 1];
+            int[] newNeighbors = new int[neighbors.length];
+            double[] newWeights = new double[neighbors.length];
+            double[] linkWeight = new double[communityCount];
+            boolean[] seen = new boolean[communityCount];
+            int[] touched = new int[communityCount];
+            int cursor = 0;
+            for (int c = 0; c < communityCount; c++) {
+                int touchedCount = 0;
+                for (int node : members[c]) {
+                    for (int slot = offsets[node]; slot < offsets[node + 1]; slot++) {
+                        int target = community[neighbors[slot]];
+                        if (!seen[target]) {
+                            seen[target] = true;
+                            touched[touchedCount++] = target;
+                        }
+                        linkWeight[target] += weights[slot];
+                    }
+                }
+                for (int i = 0; i < touchedCount; i++) {
+                    int target = touched[i];
+                    newNeighbors[cursor] = target;
+                    newWeights[cursor++] = linkWeight[target];
+                    linkWeight[target] = 0;
+                    seen[target] = false;
+                }
+                newOffsets[c + 1] = cursor;
+            }
+            return new Level(
+                communityCount,
+                newOffsets,
+                Arrays.copyOf(newNeighbors, cursor),
+                Arrays.copyOf(newWeights, cursor)
+            );
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.example.customerservice.service.graph;
+
+import com.example.customerservice.dto.CommunitySummary;
+import com.example.customerservice.service.KnowledgeCorpusVersion;
+import com.example.customerservice.service.extractor.ExtractionCache;
+import com.example.customerservice.service.vector.VectorMath;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.embedding.EmbeddingModel;
+import io.agentscope.core.message.TextBlock;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * 图谱社区摘要
+ *
+ * 后台任务定期检查 {@link GraphReplica} 的快照版本，图谱有变化时：
+ * 1. 用 {@link CommunityDetector} 在快照上划分社区，以上一次的划分作为初始社区
+ * 2. 为每个社区（不少于 min-size 个实体）生成文本摘要：实体类型分布、核心实体和主要关系
+ * 3. 对摘要做 Embedding，与社区一起保存在 path，重启后直接可用
+ *
+ * 社区按成员和内部关系计算签名，签名未变的社区沿用已有的摘要和向量，
+ * 条目增删只会让涉及的少数社区重新生成摘要。
+ *
+ * "你们有哪些售后服务" 这类概括性问题（{@link #isGlobalQuestion}）按问题向量与摘要向量的相似度
+ * 取几条摘要回答，不再按关键词展开大范围子图。副本未启用时不生成摘要。
+ */
+@Component
+public class CommunitySummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommunitySummaryService.class);
+    private static final Duration EMBEDDING_TIMEOUT = Duration.ofSeconds(30);
+
+    /** 概括性问题的特征词 */
+    private static final List<String> GLOBAL_MARKERS = List.of(
+        "哪些", "有什么", "都有", "所有", "全部", "列举", "总结", "概述", "概况", "汇总", "整体"
+    );
+
+    private final GraphReplica graphReplica;
+    private final EmbeddingModel embeddingModel;
+    private final KnowledgeCorpusVersion corpusVersion;
+    private final boolean enabled;
+    private final Path path;
+    private final int minSize;
+    private final int maxMembers;
+    private final double minScore;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "graph-community-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile List<Community> communities = List.of();
+    private long builtVersion = -1;
+    private volatile long lastRunMillis;
+    private volatile int lastReused;
+    private volatile int lastSummarized;
+
+    public CommunitySummaryService(
+        GraphReplica graphReplica,
+        EmbeddingModel embeddingModel,
+        KnowledgeCorpusVersion corpusVersion,
+        @Value("${knowledge-graph.communities.enabled:true}") boolean enabled,
+        @Value("${knowledge-graph.communities.path:./data/community-summaries.json}") String path,
+        @Value("${knowledge-graph.communities.refresh-interval-ms:60000}") long refreshIntervalMs,
+        @Value("${knowledge-graph.communities.min-size:3}") int minSize,
+        @Value("${knowledge-graph.communities.max-members:12}") int maxMembers,
+        @Value("${knowledge-graph.communities.min-score:0.5}") double minScore
+    ) {
+        this.graphReplica = graphReplica;
+        this.embeddingModel = embeddingModel;
+        this.corpusVersion = corpusVersion;
+        this.enabled = enabled;
+        this.path = Paths.get(path);
+        this.minSize = Math.max(2, minSize);
+        this.maxMembers = Math.max(1, maxMembers);
+        this.minScore = minScore;
+        if (enabled) {
+            load();
+            if (refreshIntervalMs > 0) {
+                refresher.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * 是否为概括性问题，例如 "你们有哪些售后服务"、"总结一下退换货政策"
+     */
+    public static boolean isGlobalQuestion(String question) {
+        if (question == null) {
+            return false;
+        }
+        for (String marker : GLOBAL_MARKERS) {
+            if (question.contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 当前全部社区摘要，按规模降序
+     */
+    public List<CommunitySummary> list() {
+        return communities.stream().map(community -> community.toSummary(0)).toList();
+    }
+
+    /**
+     * 与问题最相似的社区摘要；尚无摘要或都低于 min-score 时返回空列表
+     *
+     * @param question 用户问题
+     * @param limit    最多返回的摘要数
+     */
+    public Mono<List<CommunitySummary>> searchAsync(String question, int limit) {
+        List<Community> current = communities;
+        if (!enabled || current.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return embeddingModel.embed(TextBlock.builder().text(question).build())
+            .map(vector -> current.stream()
+                .filter(community -> community.vector() != null)
+                .map(community -> community.toSummary(VectorMath.cosine(vector, community.vector())))
+                .filter(summary -> summary.getScore() >= minScore)
+                .sorted(Comparator.comparingDouble(CommunitySummary::getScore).reversed())
+                .limit(limit)
+                .toList());
+    }
+
+    /**
+     * 快照版本变化时重新划分社区并更新摘要；由后台任务定期调用
+     */
+    public synchronized void refresh() {
+        GraphSnapshot snapshot = graphReplica.current();
+        if (!enabled || snapshot == null || snapshot.version() == builtVersion) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        List<Community> previous = communities;
+
+        int nodeCount = snapshot.nodeCount();
+        Map<Long, Integer> previousCommunity = new HashMap<>();
+        for (int i = 0; i < previous.size(); i++) {
+            for (long nodeId : previous.get(i).nodeIds()) {
+                previousCommunity.put(nodeId, i);
+            }
+        }
+        int[] initial = null;
+        if (!previousCommunity.isEmpty()) {
+            initial = new int[nodeCount];
+            for (int node = 0; node < nodeCount; node++) {
+                initial[node] = previousCommunity.getOrDefault(snapshot.nodeId(node), -1);
+            }
+        }
+        int[] assignment = CommunityDetector.detect(snapshot, initial);
+
+        int communityCount = 0;
+        for (int community : assignment) {
+            communityCount = Math.max(communityCount, community + 1);
+        }
+        List<List<Integer>> members = new ArrayList<>(communityCount);
+        List<List<Integer>> edges = new ArrayList<>(communityCount);
+        for (int c = 0; c < communityCount; c++) {
+            members.add(new ArrayList<>());
+            edges.add(new ArrayList<>());
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            if (assignment[node] >= 0) {
+                members.get(assignment[node]).add(node);
+            }
+        }
+        int[] internalDegree = new int[nodeCount];
+        for (int edge = 0; edge < snapshot.edgeCount(); edge++) {
+            int source = snapshot.edgeSource(edge);
+            int target = snapshot.edgeTarget(edge);
+            if (assignment[source] >= 0 && assignment[source] == assignment[target]) {
+                edges.get(assignment[source]).add(edge);
+                internalDegree[source]++;
+                internalDegree[target]++;
+            }
+        }
+
+        Map<String, Community> bySignature = new HashMap<>();
+        for (Community community : previous) {
+            if (community.vector() != null) {
+                bySignature.put(community.signature(), community);
+            }
+        }
+        List<Community> next = new ArrayList<>();
+        int reused = 0;
+        int summarized = 0;
+        for (int c = 0; c < communityCount; c++) {
+            List<Integer> nodes = members.get(c);
+            if (nodes.size() < minSize) {
+                continue;
+            }
+            nodes.sort(Comparator.<Integer>comparingInt(node -> -internalDegree[node])
+                .thenComparing(snapshot::name));
+            String signature = signature(snapshot, nodes, edges.get(c));
+            Community existing = bySignature.get(signature);
+            if (existing != null) {
+                next.add(existing);
+                reused++;
+                continue;
+            }
+            List<Long> nodeIds = nodes.stream().map(snapshot::nodeId).toList();
+            List<String> names = nodes.stream().limit(maxMembers).map(snapshot::name).toList();
+            String title = String.join("、", names.subList(0, Math.min(2, names.size())));
+            String summary = describe(snapshot, title, nodes, edges.get(c), internalDegree);
+            next.add(new Community(signature.substring(0, 12), signature, title, summary, nodeIds, names, embed(summary)));
+            summarized++;
+        }
+        next.sort(Comparator.comparingInt((Community community) -> -community.nodeIds().size())
+            .thenComparing(Community::id));
+
+        communities = List.copyOf(next);
+        builtVersion = snapshot.version();
+        if (!communities.equals(previous)) {
+            // 摘要晚于快照更新，快照发布后、摘要更新前缓存的全局问题答案需要再次失效
+            corpusVersion.bump();
+        }
+        lastRunMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        lastReused = reused;
+        lastSummarized = summarized;
+        if (summarized > 0 || next.size() != previous.size()) {
+            persist();
+        }
+        logger.info(
+            "图谱社区已更新: version={}, communities={}, reused={}, summarized={}, modularity={}, {}ms",
+            builtVersion, next.size(), reused, summarized,
+            String.format("%.3f", CommunityDetector.modularity(snapshot, assignment)), lastRunMillis
+        );
+    }
+
+    public long lastRunMillis() {
+        return lastRunMillis;
+    }
+
+    public int lastReused() {
+        return lastReused;
+    }
+
+    public int lastSummarized() {
+        return lastSummarized;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("图谱社区更新失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 摘要文本：实体类型分布、核心实体（社区内度数最高的若干个）、主要关系
+     */
+    private String describe(GraphSnapshot snapshot, String title, List<Integer> nodes, List<Integer> edges, int[] internalDegree) {
+        Map<String, Integer> labelCounts = new LinkedHashMap<>();
+        for (int node : nodes) {
+            labelCounts.merge(snapshot.label(node), 1, Integer::sum);
+        }
+        StringBuilder text = new StringBuilder();
+        text.append("「").append(title).append("」相关的 ").append(nodes.size()).append(" 个实体（");
+        labelCounts.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .forEach(entry -> text.append(entry.getKey()).append(' ').append(entry.getValue()).append(" 个，"));
+        text.setLength(text.length() - 1);
+        text.append("）\n核心实体：");
+        nodes.stream().limit(maxMembers).forEach(node ->
+            text.append(snapshot.name(node)).append("（").append(snapshot.label(node)).append("）、")
+        );
+        text.setLength(text.length() - 1);
+
+        if (!edges.isEmpty()) {
+            text.append("\n主要关系：");
+            edges.stream()
+                .sorted(Comparator.<Integer>comparingInt(edge ->
+                        -(internalDegree[snapshot.edgeSource(edge)] + internalDegree[snapshot.edgeTarget(edge)]))
+                    .thenComparingLong(snapshot::edgeId))
+                .limit(maxMembers)
+                .forEach(edge -> text.append(snapshot.name(snapshot.edgeSource(edge)))
+                    .append(" -").append(snapshot.edgeType(edge)).append("-> ")
+                    .append(snapshot.name(snapshot.edgeTarget(edge))).append("；"));
+            text.setLength(text.length() - 1);
+        }
+        return text.toString();
+    }
+
+    /**
+     * 社区签名：成员（ID、标签、名称）和内部关系（ID、类型、端点）排序后取 SHA-256
+     */
+    private static String signature(GraphSnapshot snapshot, List<Integer> nodes, List<Integer> edges) {
+        List<String> parts = new ArrayList<>(nodes.size() + edges.size());
+        for (int node : nodes) {
+            parts.add("n" + snapshot.nodeId(node) + '\u0001' + snapshot.label(node) + '\u0001' + snapshot.name(node));
+        }
+        for (int edge : edges) {
+            parts.add("e" + snapshot.edgeId(edge) + '\u0001' + snapshot.edgeType(edge) + '\u0001'
+                + snapshot.nodeId(snapshot.edgeSource(edge)) + '\u0001' + snapshot.nodeId(snapshot.edgeTarget(edge)));
+        }
+        parts.sort(null);
+        return ExtractionCache.key(parts.toArray(String[]::new));
+    }
+
+    private double[] embed(String text) {
+        try {
+            return embeddingModel.embed(TextBlock.builder().text(text).build()).block(EMBEDDING_TIMEOUT);
+        } catch (Exception e) {
+            // 没有向量的社区不参与检索，下次更新时重试
+            logger.warn("社区摘要 Embedding 失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            communities = List.copyOf(objectMapper.readValue(path.toFile(), new TypeReference<List<Community>>() {}));
+            logger.info("图谱社区摘要已加载: {} 个", communities.size());
+        } catch (IOException e) {
+            logger.warn("读取图谱社区摘要失败，等待重新生成 path={}: {}", path, e.getMessage());
+        }
+    }
+
+    private void persist() {
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = parent.resolve(path.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), communities);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("写入图谱社区摘要失败 path={}: {}", path, e.getMessage());
+        }
+    }
+
+    record Community(
+        String id,
+        String signature,
+        String title,
+        String summary,
+        List<Long> nodeIds,
+        List<String> members,
+        double[] vector
+    ) {
+        CommunitySummary toSummary(double score) {
+            return new CommunitySummary(id, title, summary, nodeIds.size(), members, score);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.customerservice.service.graph;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 实体别名表
+ *
+ * 记录 归一化键 → 规范名、每个规范名的实体类型和 Embedding 向量。写入图谱前由
+ * {@code EntityCanonicalizer} 把名称换成规范名，检索时用 {@link #expand} 把查询里的变体
+ * 换回规范名，任何变体都能命中同一个节点。
+ *
+ * 来源：
+ * 1. 配置的同义词词典（knowledge-graph.canonicalization.synonyms，每次启动重新应用，覆盖已学到的别名）；
+ *    词典里的规范名在第一次被抽取到时记录类型（{@link #recordType}），之后才参与同类型的 Embedding 聚类
+ * 2. 抽取过程中登记的规范名和 Embedding 聚类得到的别名，保存在 alias-path，重启后恢复
+ *
+ * 规范名的向量一并保存，重启后不必逐个重新 Embedding；向量模型（名称和维度）变化时丢弃已保存的向量。
+ *
+ * 变更在后台线程合并写盘（临时文件 + 原子移动）。
+ */
+@Component
+public class EntityAliasTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityAliasTable.class);
+
+    private final Path path;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> canonicalByKey = new HashMap<>();
+    private final Map<String, String> typeByCanonical = new HashMap<>();
+    private final Map<String, double[]> vectorByCanonical = new HashMap<>();
+    private String vectorModel;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "entity-alias-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EntityAliasTable(
+        @Value("${knowledge-graph.canonicalization.alias-path:./data/entity-aliases.json}") String path,
+        @Value("${knowledge-graph.canonicalization.synonyms:}") String synonyms
+    ) {
+        this.path = Paths.get(path);
+        load();
+        applySynonyms(synonyms);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 归一化键：NFKC（全角转半角）、去掉首尾标点和空白、内部空白合并、小写
+     */
+    public static String key(String name) {
+        if (name == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(name, Normalizer.Form.NFKC).toLowerCase();
+        StringBuilder key = new StringBuilder(normalized.length());
+        boolean space = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = key.length() > 0;
+            } else {
+                if (space) {
+                    key.append(' ');
+                    space = false;
+                }
+                key.append(c);
+            }
+        }
+        int start = 0;
+        int end = key.length();
+        while (start < end && isTrimmable(key.charAt(start))) {
+            start++;
+        }
+        while (end > start && isTrimmable(key.charAt(end - 1))) {
+            end--;
+        }
+        return key.substring(start, end).trim();
+    }
+
+    /**
+     * 名称对应的规范名；没有登记时返回 null
+     */
+    public synchronized String resolve(String name) {
+        return canonicalByKey.get(key(name));
+    }
+
+    /**
+     * 登记新的规范名（已有登记时返回已有的规范名）
+     */
+    public String registerCanonical(String name, String type) {
+        String canonical;
+        synchronized (this) {
+            String key = key(name);
+            String existing = canonicalByKey.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            canonical = name;
+            canonicalByKey.put(key, canonical);
+            typeByCanonical.putIfAbsent(canonical, type);
+        }
+        scheduleFlush();
+        return canonical;
+    }
+
+    /**
+     * 记录规范名的类型（已有类型时保持不变），用于同义词词典中尚无类型的规范名
+     */
+    public void recordType(String canonical, String type) {
+        synchronized (this) {
+            if (typeByCanonical.putIfAbsent(canonical, type) != null) {
+                return;
+            }
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * 设定规范名向量所属的模型；与已保存向量的模型不同时丢弃已保存的向量
+     */
+    public synchronized void useVectorModel(String model) {
+        if (model.equals(vectorModel)) {
+            return;
+        }
+        if (vectorModel != null && !vectorByCanonical.isEmpty()) {
+            logger.info("向量模型由 {} 变为 {}，丢弃 {} 个已保存的规范名向量", vectorModel, model, vectorByCanonical.size());
+            vectorByCanonical.clear();
+        }
+        vectorModel = model;
+    }
+
+    /**
+     * 规范名已保存的向量；没有时返回 null
+     */
+    public synchronized double[] vector(String canonical) {
+        return vectorByCanonical.get(canonical);
+    }
+
+    public void putVector(String canonical, double[] vector) {
+        synchronized (this) {
+            vectorByCanonical.put(canonical, vector);
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * 把名称登记为已有规范名的别名
+     */
+    public void registerAlias(String alias, String canonical) {
+        synchronized (this) {
+            canonicalByKey.put(key(alias), canonical);
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * 指定类型的全部规范名
+     */
+    public synchronized List<String> canonicalNames(String type) {
+        List<String> names = new ArrayList<>();
+        typeByCanonical.forEach((name, nameType) -> {
+            if (nameType.equals(type)) {
+                names.add(name);
+            }
+        });
+        return names;
+    }
+
+    /**
+     * 检索词展开：原词，加上它对应的规范名（与原词不同时）
+     */
+    public List<String> expand(String term) {
+        String canonical = resolve(term);
+        return canonical == null || canonical.equals(term) ? List.of(term) : List.of(term, canonical);
+    }
+
+    public synchronized int size() {
+        return canonicalByKey.size();
+    }
+
+    /**
+     * 同义词格式：规范名=别名|别名;规范名=别名
+     */
+    private void applySynonyms(String synonyms) {
+        if (synonyms == null || synonyms.isBlank()) {
+            return;
+        }
+        int count = 0;
+        synchronized (this) {
+            for (String group : synonyms.split(";")) {
+                int separator = group.indexOf('=');
+                String canonical = (separator < 0 ? group : group.substring(0, separator)).trim();
+                if (canonical.isEmpty()) {
+                    continue;
+                }
+                canonicalByKey.put(key(canonical), canonical);
+                if (separator >= 0) {
+                    for (String alias : group.substring(separator + 1).split("\\|")) {
+                        if (!key(alias).isEmpty()) {
+                            canonicalByKey.put(key(alias), canonical);
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        logger.info("实体同义词已加载: {} 个别名", count);
+    }
+
+    private void load() {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            StoredTable stored = objectMapper.readValue(path.toFile(), StoredTable.class);
+            synchronized (this) {
+                if (stored.aliases() != null) {
+                    canonicalByKey.putAll(stored.aliases());
+                }
+                if (stored.types() != null) {
+                    typeByCanonical.putAll(stored.types());
+                }
+                if (stored.vectors() != null) {
+                    vectorByCanonical.putAll(stored.vectors());
+                }
+                vectorModel = stored.vectorModel();
+            }
+            logger.info(
+                "实体别名表已加载: aliases={}, canonical={}, vectors={}",
+                canonicalByKey.size(),
+                typeByCanonical.size(),
+                vectorByCanonical.size()
+            );
+        } catch (IOException e) {
+            logger.warn("读取实体别名表失败，从空表开始 path={}: {}", path, e.getMessage());
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            writer.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        StoredTable stored;
+        synchronized (this) {
+            stored = new StoredTable(
+                new HashMap<>(canonicalByKey),
+                new HashMap<>(typeByCanonical),
+                vectorModel,
+                new HashMap<>(vectorByCanonical)
+            );
+        }
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = parent.resolve(path.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), stored);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("写入实体别名表失败 path={}: {}", path, e.getMessage());
+        }
+    }
+
+    private static boolean isTrimmable(char c) {
+        int type = Character.getType(c);
+        return Character.isWhitespace(c)
+            || type == Character.START_PUNCTUATION
+            || type == Character.END_PUNCTUATION
+            || type == Character.INITIAL_QUOTE_PUNCTUATION
+            || type == Character.FINAL_QUOTE_PUNCTUATION
+            || type == Character.OTHER_PUNCTUATION
+            || type == Character.DASH_PUNCTUATION;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record StoredTable(
+        Map<String, String> aliases,
+        Map<String, String> types,
+        String vectorModel,
+        Map<String, double[]> vectors
+    ) {}
+}
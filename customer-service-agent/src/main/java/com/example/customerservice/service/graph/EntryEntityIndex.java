@@ -0,0 +1,183 @@
+package com.example.customerservice.service.graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 知识条目与图谱实体的倒排索引，以及条目间的相关度排名
+ *
+ * 相关度为按 IDF 加权的 Jaccard：两个条目共享实体的权重和 / 两者实体并集的权重和，
+ * 实体权重 ln(1 + 条目总数 / 引用该实体的条目数)，“保修”这类被大量条目引用的枢纽实体权重很低。
+ *
+ * 每个条目的排名在首次读取时计算并缓存，之后读取为 O(1)；
+ * 条目的实体变化时，只让它自己和与它共享非枢纽实体的条目的缓存失效。
+ * 枢纽实体（被超过 max(50, 条目数/5) 个条目引用）不参与候选生成和失效传播，只计入权重，
+ * 因此只共享枢纽实体的条目不会进入排名；IDF 随条目数变化的漂移在缓存重算时自然修正。
+ */
+public class EntryEntityIndex {
+
+    private static final int MIN_HUB_POSTINGS = 50;
+
+    private final int limit;
+    private final Map<String, Set<Long>> entitiesByEntry = new HashMap<>();
+    private final Map<Long, Set<String>> entriesByEntity = new HashMap<>();
+    private final Map<String, List<String>> rankings = new HashMap<>();
+
+    /**
+     * @param limit 每个条目保留的相关条目数
+     */
+    public EntryEntityIndex(int limit) {
+        this.limit = Math.max(0, limit);
+    }
+
+    /**
+     * 记录条目引用了某个实体
+     */
+    public synchronized void link(String entryId, long entityId) {
+        Set<Long> entities = entitiesByEntry.computeIfAbsent(entryId, k -> new HashSet<>());
+        if (!entities.add(entityId)) {
+            return;
+        }
+        Set<String> entries = entriesByEntity.computeIfAbsent(entityId, k -> new HashSet<>());
+        entries.add(entryId);
+        rankings.remove(entryId);
+        if (entries.size() <= hubThreshold()) {
+            for (String other : entries) {
+                rankings.remove(other);
+            }
+        }
+    }
+
+    /**
+     * 移除条目的全部实体引用
+     */
+    public synchronized void removeEntry(String entryId) {
+        Set<Long> entities = entitiesByEntry.remove(entryId);
+        rankings.remove(entryId);
+        if (entities == null) {
+            return;
+        }
+        int hubThreshold = hubThreshold();
+        for (long entityId : entities) {
+            Set<String> entries = entriesByEntity.get(entityId);
+            if (entries == null) {
+                continue;
+            }
+            entries.remove(entryId);
+            if (entries.isEmpty()) {
+                entriesByEntity.remove(entityId);
+            } else if (entries.size() <= hubThreshold) {
+                for (String other : entries) {
+                    rankings.remove(other);
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entitiesByEntry.clear();
+        entriesByEntity.clear();
+        rankings.clear();
+    }
+
+    /**
+     * 用一次完整扫描得到的索引替换当前内容
+     */
+    public synchronized void replaceWith(EntryEntityIndex rebuilt) {
+        synchronized (rebuilt) {
+            clear();
+            rebuilt.entitiesByEntry.forEach((entryId, entities) -> entitiesByEntry.put(entryId, new HashSet<>(entities)));
+            rebuilt.entriesByEntity.forEach((entityId, entries) -> entriesByEntity.put(entityId, new HashSet<>(entries)));
+        }
+    }
+
+    public synchronized Set<Long> entityIds(String entryId) {
+        Set<Long> entities = entitiesByEntry.get(entryId);
+        return entities != null ? Set.copyOf(entities) : Set.of();
+    }
+
+    /**
+     * 与条目最相关的条目ID，按相关度降序
+     */
+    public synchronized List<String> relatedEntries(String entryId) {
+        List<String> cached = rankings.get(entryId);
+        if (cached != null) {
+            return cached;
+        }
+        Set<Long> entities = entitiesByEntry.get(entryId);
+        if (entities == null) {
+            return List.of();
+        }
+        List<String> ranking = rank(entryId, entities);
+        rankings.put(entryId, ranking);
+        return ranking;
+    }
+
+    /**
+     * 按给定实体集合计算相关条目（条目本身没有实体引用时使用），不缓存
+     */
+    public synchronized List<String> relatedEntries(String entryId, Collection<Long> entityIds) {
+        if (entitiesByEntry.containsKey(entryId)) {
+            return relatedEntries(entryId);
+        }
+        return rank(entryId, new HashSet<>(entityIds));
+    }
+
+    private List<String> rank(String entryId, Set<Long> entities) {
+        if (limit == 0 || entities.isEmpty()) {
+            return List.of();
+        }
+        int hubThreshold = hubThreshold();
+        Map<String, Double> shared = new HashMap<>();
+        double ownWeight = 0;
+        List<Long> hubs = new ArrayList<>();
+        for (long entityId : entities) {
+            Set<String> entries = entriesByEntity.getOrDefault(entityId, Set.of());
+            double weight = weight(entries.size());
+            ownWeight += weight;
+            if (entries.size() > hubThreshold) {
+                hubs.add(entityId);
+                continue;
+            }
+            for (String other : entries) {
+                if (!other.equals(entryId)) {
+                    shared.merge(other, weight, Double::sum);
+                }
+            }
+        }
+
+        List<Map.Entry<String, Double>> scored = new ArrayList<>(shared.size());
+        for (Map.Entry<String, Double> candidate : shared.entrySet()) {
+            Set<Long> otherEntities = entitiesByEntry.get(candidate.getKey());
+            double intersection = candidate.getValue();
+            for (long hub : hubs) {
+                if (otherEntities.contains(hub)) {
+                    intersection += weight(entriesByEntity.get(hub).size());
+                }
+            }
+            double otherWeight = 0;
+            for (long entityId : otherEntities) {
+                otherWeight += weight(entriesByEntity.get(entityId).size());
+            }
+            double union = ownWeight + otherWeight - intersection;
+            if (union > 0) {
+                scored.add(Map.entry(candidate.getKey(), intersection / union));
+            }
+        }
+        scored.sort(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        return scored.stream().limit(limit).map(Map.Entry::getKey).toList();
+    }
+
+    private double weight(int postings) {
+        return Math.log(1.0 + (double) Math.max(1, entitiesByEntry.size()) / Math.max(1, postings));
+    }
+
+    private int hubThreshold() {
+        return Math.max(MIN_HUB_POSTINGS, entitiesByEntry.size() / 5);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.customerservice.service.graph;
+
+import com.example.customerservice.dto.GraphReplicaStatusResponse;
+import com.example.customerservice.service.graph.GraphSnapshot.NodeEntry;
+import com.example.customerservice.service.graph.GraphSnapshot.RelationEntry;
+import jakarta.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 知识图谱的进程内只读副本
+ *
+ * Neo4j 仍是唯一的数据源。KnowledgeGraphService 每次写入后把受影响的节点/关系同步到这里的镜像，
+ * 镜像变化后延迟 refresh-delay-ms 合并发布一个新的 {@link GraphSnapshot}，
+ * 检索路径只读取已发布的快照，不再访问 Neo4j。
+ *
+ * 在第一次完整加载（由 KnowledgeGraphService 对账时流式扫描整张图）之前不发布快照，
+ * 调用方此时应回退到 Neo4j 查询。
+ */
+@Component
+public class GraphReplica {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphReplica.class);
+
+    private final boolean enabled;
+    private final long refreshDelayMs;
+    private final Map<Long, NodeEntry> nodes = new HashMap<>();
+    private final Map<Long, RelationEntry> relations = new HashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "graph-replica-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private boolean loaded;
+    private boolean refreshScheduled;
+    private long version;
+    /** 最早一次尚未发布到快照的写入时间，0 表示没有 */
+    private long pendingSince;
+    private volatile GraphSnapshot snapshot;
+    private volatile long lastBuildMillis;
+
+    public GraphReplica(
+        @Value("${knowledge-graph.replica.enabled:true}") boolean enabled,
+        @Value("${knowledge-graph.replica.refresh-delay-ms:100}") long refreshDelayMs
+    ) {
+        this.enabled = enabled;
+        this.refreshDelayMs = Math.max(0, refreshDelayMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * 当前快照；未启用或尚未完成首次加载时为 null
+     */
+    public GraphSnapshot current() {
+        return enabled ? snapshot : null;
+    }
+
+    public synchronized void upsertNode(long id, String label, String name) {
+        if (!enabled) {
+            return;
+        }
+        NodeEntry entry = new NodeEntry(id, label, name);
+        if (!entry.equals(nodes.put(id, entry))) {
+            changed();
+        }
+    }
+
+    public synchronized void upsertRelation(long id, String type, long source, long target) {
+        if (!enabled) {
+            return;
+        }
+        RelationEntry entry = new RelationEntry(id, type, source, target);
+        if (!entry.equals(relations.put(id, entry))) {
+            changed();
+        }
+    }
+
+    public synchronized void removeRelation(long id) {
+        if (enabled && relations.remove(id) != null) {
+            changed();
+        }
+    }
+
+    public synchronized void removeNode(long id) {
+        if (enabled && nodes.remove(id) != null) {
+            changed();
+        }
+    }
+
+    public synchronized void clear() {
+        if (!enabled) {
+            return;
+        }
+        nodes.clear();
+        relations.clear();
+        changed();
+    }
+
+    /**
+     * 新建一次完整加载
+     */
+    public Loader loader() {
+        return new Loader();
+    }
+
+    /**
+     * 用完整扫描的结果替换镜像，并立即发布快照
+     */
+    public synchronized void replaceWith(Loader loader) {
+        if (!enabled) {
+            return;
+        }
+        nodes.clear();
+        nodes.putAll(loader.nodes);
+        relations.clear();
+        relations.putAll(loader.relations);
+        loaded = true;
+        version++;
+        if (pendingSince == 0) {
+            pendingSince = System.currentTimeMillis();
+        }
+        publish();
+    }
+
+    public synchronized GraphReplicaStatusResponse getStatus() {
+        GraphSnapshot current = snapshot;
+        long now = System.currentTimeMillis();
+        return new GraphReplicaStatusResponse(
+            enabled,
+            enabled && current != null,
+            version,
+            current != null ? current.version() : 0,
+            current != null ? current.nodeCount() : 0,
+            current != null ? current.edgeCount() : 0,
+            pendingSince > 0 ? now - pendingSince : 0,
+            current != null ? current.builtAt() : 0,
+            lastBuildMillis,
+            now
+        );
+    }
+
+    private void changed() {
+        version++;
+        if (pendingSince == 0) {
+            pendingSince = System.currentTimeMillis();
+        }
+        if (loaded && !refreshScheduled) {
+            refreshScheduled = true;
+            refresher.schedule(this::refresh, refreshDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void refresh() {
+        refreshScheduled = false;
+        try {
+            publish();
+        } catch (RuntimeException e) {
+            logger.warn("图谱快照构建失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void publish() {
+        long startedAt = System.nanoTime();
+        snapshot = GraphSnapshot.build(version, nodes.values(), relations.values());
+        lastBuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        pendingSince = 0;
+    }
+
+    /**
+     * 完整加载的暂存区，扫描期间不持有副本的锁
+     */
+    public static final class Loader {
+        private final Map<Long, NodeEntry> nodes = new HashMap<>();
+        private final Map<Long, RelationEntry> relations = new HashMap<>();
+
+        private Loader() {}
+
+        public void addNode(long id, String label, String name) {
+            nodes.put(id, new NodeEntry(id, label, name));
+        }
+
+        public void addRelation(long id, String type, long source, long target) {
+            relations.put(id, new RelationEntry(id, type, source, target));
+        }
+    }
+}
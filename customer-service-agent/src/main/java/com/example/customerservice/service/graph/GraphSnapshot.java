@@ -0,0 +1,390 @@
+package com.example.customerservice.service.graph;
+
+import com.example.customerservice.dto.RetrievedPath;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 知识图谱的只读内存快照
+ *
+ * 节点按 Neo4j ID 升序编号为 0..n-1，ID 查找用二分；标签、名称、关系类型都驻留为字典下标。
+ * 邻接用 CSR 存储：节点 i 的关联边位于 [offsets[i], offsets[i+1])，
+ * adjacentNodes/adjacentEdges 分别是对端节点和边的编号，按无向图处理（每条边出现两次）。
+ *
+ * 快照构建后不再修改，可被任意线程无锁读取；图谱变化时由 {@link GraphReplica} 整体替换。
+ */
+public final class GraphSnapshot {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final long version;
+    private final long builtAt;
+
+    private final long[] nodeIds;
+    private final int[] nodeLabels;
+    private final int[] nodeNames;
+    private final String[] labels;
+    private final String[] names;
+    private final Map<String, Integer> labelIndex;
+    private final int[][] nodesByLabel;
+
+    private final long[] edgeIds;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final int[] edgeTypes;
+    private final String[] types;
+
+    private final int[] offsets;
+    private final int[] adjacentNodes;
+    private final int[] adjacentEdges;
+
+    /** (标签, 关键词) → 名称包含关键词的节点；检索使用的关键词是固定的一小组 */
+    private final Map<String, int[]> containsCache = new ConcurrentHashMap<>();
+
+    private GraphSnapshot(
+        long version,
+        long builtAt,
+        long[] nodeIds,
+        int[] nodeLabels,
+        int[] nodeNames,
+        String[] labels,
+        String[] names,
+        long[] edgeIds,
+        int[] edgeSources,
+        int[] edgeTargets,
+        int[] edgeTypes,
+        String[] types
+    ) {
+        this.version = version;
+        this.builtAt = builtAt;
+        this.nodeIds = nodeIds;
+        this.nodeLabels = nodeLabels;
+        this.nodeNames = nodeNames;
+        this.labels = labels;
+        this.names = names;
+        this.edgeIds = edgeIds;
+        this.edgeSources = edgeSources;
+        this.edgeTargets = edgeTargets;
+        this.edgeTypes = edgeTypes;
+        this.types = types;
+
+        this.labelIndex = new HashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            labelIndex.put(labels[i], i);
+        }
+        int[] labelSizes = new int[labels.length];
+        for (int label : nodeLabels) {
+            labelSizes[label]++;
+        }
+        this.nodesByLabel = new int[labels.length][];
+        for (int i = 0; i < labels.length; i++) {
+            nodesByLabel[i] = new int[labelSizes[i]];
+        }
+        int[] fill = new int[labels.length];
+        for (int node = 0; node < nodeLabels.length; node++) {
+            int label = nodeLabels[node];
+            nodesByLabel[label][fill[label]++] = node;
+        }
+
+        int nodeCount = nodeIds.length;
+        this.offsets = new int[nodeCount + 1];
+        for (int edge = 0; edge < edgeIds.length; edge++) {
+            offsets[edgeSources[edge] + 1]++;
+            offsets[edgeTargets[edge] + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        this.adjacentNodes = new int[offsets[nodeCount]];
+        this.adjacentEdges = new int[offsets[nodeCount]];
+        int[] cursor = Arrays.copyOf(offsets, nodeCount);
+        for (int edge = 0; edge < edgeIds.length; edge++) {
+            int source = edgeSources[edge];
+            int target = edgeTargets[edge];
+            adjacentNodes[cursor[source]] = target;
+            adjacentEdges[cursor[source]++] = edge;
+            adjacentNodes[cursor[target]] = source;
+            adjacentEdges[cursor[target]++] = edge;
+        }
+    }
+
+    /**
+     * 从节点和关系构建快照；端点不在节点集合里的关系会被忽略
+     */
+    static GraphSnapshot build(
+        long version,
+        Collection<NodeEntry> nodeEntries,
+        Collection<RelationEntry> relationEntries
+    ) {
+        NodeEntry[] sortedNodes = nodeEntries.toArray(new NodeEntry[0]);
+        Arrays.sort(sortedNodes, (a, b) -> Long.compare(a.id(), b.id()));
+        int nodeCount = sortedNodes.length;
+        long[] nodeIds = new long[nodeCount];
+        int[] nodeLabels = new int[nodeCount];
+        int[] nodeNames = new int[nodeCount];
+        Dictionary labels = new Dictionary();
+        Dictionary names = new Dictionary();
+        for (int i = 0; i < nodeCount; i++) {
+            nodeIds[i] = sortedNodes[i].id();
+            nodeLabels[i] = labels.intern(sortedNodes[i].label());
+            nodeNames[i] = names.intern(sortedNodes[i].name());
+        }
+
+        RelationEntry[] sortedRelations = relationEntries.toArray(new RelationEntry[0]);
+        Arrays.sort(sortedRelations, (a, b) -> Long.compare(a.id(), b.id()));
+        long[] edgeIds = new long[sortedRelations.length];
+        int[] edgeSources = new int[sortedRelations.length];
+        int[] edgeTargets = new int[sortedRelations.length];
+        int[] edgeTypes = new int[sortedRelations.length];
+        Dictionary types = new Dictionary();
+        int edgeCount = 0;
+        for (RelationEntry relation : sortedRelations) {
+            int source = Arrays.binarySearch(nodeIds, relation.source());
+            int target = Arrays.binarySearch(nodeIds, relation.target());
+            if (source < 0 || target < 0) {
+                continue;
+            }
+            edgeIds[edgeCount] = relation.id();
+            edgeSources[edgeCount] = source;
+            edgeTargets[edgeCount] = target;
+            edgeTypes[edgeCount] = types.intern(relation.type());
+            edgeCount++;
+        }
+
+        return new GraphSnapshot(
+            version,
+            System.currentTimeMillis(),
+            nodeIds,
+            nodeLabels,
+            nodeNames,
+            labels.values(),
+            names.values(),
+            Arrays.copyOf(edgeIds, edgeCount),
+            Arrays.copyOf(edgeSources, edgeCount),
+            Arrays.copyOf(edgeTargets, edgeCount),
+            Arrays.copyOf(edgeTypes, edgeCount),
+            types.values()
+        );
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public long builtAt() {
+        return builtAt;
+    }
+
+    public int nodeCount() {
+        return nodeIds.length;
+    }
+
+    public int edgeCount() {
+        return edgeIds.length;
+    }
+
+    /**
+     * @return 节点编号，不存在时为 -1
+     */
+    public int indexOf(long nodeId) {
+        int index = Arrays.binarySearch(nodeIds, nodeId);
+        return index >= 0 ? index : -1;
+    }
+
+    public long nodeId(int node) {
+        return nodeIds[node];
+    }
+
+    public String label(int node) {
+        return labels[nodeLabels[node]];
+    }
+
+    public String name(int node) {
+        return names[nodeNames[node]];
+    }
+
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    public long edgeId(int edge) {
+        return edgeIds[edge];
+    }
+
+    public int edgeSource(int edge) {
+        return edgeSources[edge];
+    }
+
+    public int edgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    public String edgeType(int edge) {
+        return types[edgeTypes[edge]];
+    }
+
+    /**
+     * 指定标签下名称包含关键词的节点（对应 MATCH (n:Label) WHERE n.name CONTAINS $keyword）
+     */
+    public int[] findByLabelContaining(String label, String keyword) {
+        Integer labelId = labelIndex.get(label);
+        if (labelId == null) {
+            return EMPTY;
+        }
+        return containsCache.computeIfAbsent(label + '\u0000' + keyword, key -> {
+            int[] candidates = nodesByLabel[labelId];
+            int[] matched = new int[candidates.length];
+            int count = 0;
+            for (int node : candidates) {
+                if (names[nodeNames[node]].contains(keyword)) {
+                    matched[count++] = node;
+                }
+            }
+            return Arrays.copyOf(matched, count);
+        });
+    }
+
+    /**
+     * 从一组起点出发 hops 跳内的子图（无向）
+     *
+     * 返回的节点为有关联边的起点及其 hops 跳内可达的节点（按广度优先顺序），
+     * 边为至少一端距起点不超过 hops-1 跳的边，与 MATCH (n)-[r*1..hops]-(m) 覆盖的范围一致。
+     */
+    public Neighborhood neighborhood(int[] seeds, int hops) {
+        int[] distance = new int[nodeIds.length];
+        Arrays.fill(distance, -1);
+        boolean[] edgeSeen = new boolean[edgeIds.length];
+        int[] queue = new int[nodeIds.length];
+        int head = 0;
+        int tail = 0;
+        for (int seed : seeds) {
+            if (distance[seed] == -1 && degree(seed) > 0) {
+                distance[seed] = 0;
+                queue[tail++] = seed;
+            }
+        }
+        int[] edges = new int[edgeIds.length];
+        int edgeCount = 0;
+        while (head < tail) {
+            int node = queue[head++];
+            if (distance[node] >= hops) {
+                continue;
+            }
+            for (int slot = offsets[node]; slot < offsets[node + 1]; slot++) {
+                int edge = adjacentEdges[slot];
+                if (!edgeSeen[edge]) {
+                    edgeSeen[edge] = true;
+                    edges[edgeCount++] = edge;
+                }
+                int next = adjacentNodes[slot];
+                if (distance[next] == -1) {
+                    distance[next] = distance[node] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return new Neighborhood(Arrays.copyOf(queue, tail), Arrays.copyOf(edges, edgeCount));
+    }
+
+    /**
+     * 以指定节点为终点、长度 1..maxHops 的路径（关系不重复），短路径优先，最多 limit 条
+     *
+     * 路径文本与 Neo4j 驱动 Path#toString 的格式一致，如 path[(1)-[3:HAS_SERVICE]->(2)]。
+     */
+    public List<RetrievedPath> pathsTo(int node, int maxHops, int limit) {
+        List<RetrievedPath> paths = new ArrayList<>();
+        int[] pathEdges = new int[maxHops];
+        int[] pathNodes = new int[maxHops + 1];
+        pathNodes[0] = node;
+        for (int length = 1; length <= maxHops && paths.size() < limit; length++) {
+            collectPaths(pathNodes, pathEdges, 0, length, limit, paths);
+        }
+        return paths;
+    }
+
+    private void collectPaths(
+        int[] pathNodes,
+        int[] pathEdges,
+        int depth,
+        int length,
+        int limit,
+        List<RetrievedPath> paths
+    ) {
+        int current = pathNodes[depth];
+        for (int slot = offsets[current]; slot < offsets[current + 1] && paths.size() < limit; slot++) {
+            int edge = adjacentEdges[slot];
+            if (contains(pathEdges, depth, edge)) {
+                continue;
+            }
+            pathEdges[depth] = edge;
+            pathNodes[depth + 1] = adjacentNodes[slot];
+            if (depth + 1 == length) {
+                paths.add(new RetrievedPath(describePath(pathNodes, pathEdges, length), length));
+            } else {
+                collectPaths(pathNodes, pathEdges, depth + 1, length, limit, paths);
+            }
+        }
+    }
+
+    /**
+     * pathNodes 从终点向外记录，输出时反过来从远端节点写到终点
+     */
+    private String describePath(int[] pathNodes, int[] pathEdges, int length) {
+        StringBuilder text = new StringBuilder("path[");
+        for (int i = length; i > 0; i--) {
+            int start = pathNodes[i];
+            int end = pathNodes[i - 1];
+            int edge = pathEdges[i - 1];
+            if (i < length) {
+                text.append(", ");
+            }
+            boolean forward = edgeSources[edge] == start;
+            text.append('(').append(nodeIds[start]).append(')')
+                .append(forward ? "-[" : "<-[")
+                .append(edgeIds[edge]).append(':').append(edgeType(edge))
+                .append(forward ? "]->" : "]-")
+                .append('(').append(nodeIds[end]).append(')');
+        }
+        return text.append(']').toString();
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 子图：节点编号与边编号
+     */
+    public record Neighborhood(int[] nodes, int[] edges) {}
+
+    record NodeEntry(long id, String label, String name) {}
+
+    record RelationEntry(long id, String type, long source, long target) {}
+
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int intern(String value) {
+            String key = value != null ? value : "";
+            return ids.computeIfAbsent(key, k -> {
+                values.add(k);
+                return values.size() - 1;
+            });
+        }
+
+        String[] values() {
+            return values.toArray(new String[0]);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.customerservice.service.graph;
+
+import com.example.customerservice.dto.GraphHubNode;
+import com.example.customerservice.dto.GraphStatsResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 图谱统计计数器
+ *
+ * 按节点ID记录标签、名称和度数，按关系ID记录类型和端点，
+ * 由 KnowledgeGraphService 用每次写入返回的ID增量更新。按ID登记，重复上报是幂等的；
+ * 并发写入造成的少量偏差由定期对账（比对计数、必要时整体重建）纠正。
+ *
+ * 标签/类型计数、度数分布和按度数排序的节点集合都随写入维护，
+ * 读取时返回缓存的不可变快照，开销与图的规模无关。
+ */
+public class GraphStatistics {
+
+    /** 度数分布区间数：0、1、2-3、4-7 …… 直到 int 上限 */
+    private static final int DEGREE_BUCKETS = 33;
+    private static final Comparator<NodeStat> HUB_ORDER = Comparator
+        .comparingInt((NodeStat n) -> n.degree).reversed()
+        .thenComparingLong(n -> n.id);
+
+    private final int topHubCount;
+    private final Map<Long, NodeStat> nodes = new HashMap<>();
+    private final Map<Long, RelationStat> relations = new HashMap<>();
+    private final Map<String, Long> labelCounts = new HashMap<>();
+    private final Map<String, Long> relationTypeCounts = new HashMap<>();
+    private final long[] degreeBuckets = new long[DEGREE_BUCKETS];
+    private final TreeSet<NodeStat> byDegree = new TreeSet<>(HUB_ORDER);
+
+    private boolean initialized;
+    private long reconciledAt;
+    private volatile Snapshot snapshot;
+
+    public GraphStatistics(int topHubCount) {
+        this.topHubCount = Math.max(0, topHubCount);
+    }
+
+    /**
+     * 登记节点（已登记且标签相同时只更新名称）
+     */
+    public synchronized void recordNode(long id, String label, String name) {
+        NodeStat existing = nodes.get(id);
+        if (existing != null && existing.label.equals(label)) {
+            if (!existing.name.equals(name)) {
+                existing.name = name;
+                snapshot = null;
+            }
+            return;
+        }
+        if (existing != null) {
+            // 节点ID被 Neo4j 回收复用
+            removeNode(id);
+        }
+        NodeStat node = new NodeStat(id, label, name);
+        nodes.put(id, node);
+        increment(labelCounts, label, 1);
+        degreeBuckets[0]++;
+        byDegree.add(node);
+        snapshot = null;
+    }
+
+    /**
+     * 登记关系，并把两端节点的度数各加一
+     */
+    public synchronized void recordRelation(long id, String type, long source, long target) {
+        if (relations.containsKey(id)) {
+            return;
+        }
+        relations.put(id, new RelationStat(type, source, target));
+        increment(relationTypeCounts, type, 1);
+        changeDegree(source, 1);
+        changeDegree(target, 1);
+        snapshot = null;
+    }
+
+    public synchronized void removeRelation(long id) {
+        RelationStat relation = relations.remove(id);
+        if (relation == null) {
+            return;
+        }
+        increment(relationTypeCounts, relation.type, -1);
+        changeDegree(relation.source, -1);
+        changeDegree(relation.target, -1);
+        snapshot = null;
+    }
+
+    public synchronized void removeNode(long id) {
+        NodeStat node = nodes.remove(id);
+        if (node == null) {
+            return;
+        }
+        byDegree.remove(node);
+        increment(labelCounts, node.label, -1);
+        degreeBuckets[bucket(node.degree)]--;
+        snapshot = null;
+    }
+
+    public synchronized void clear() {
+        nodes.clear();
+        relations.clear();
+        labelCounts.clear();
+        relationTypeCounts.clear();
+        byDegree.clear();
+        Arrays.fill(degreeBuckets, 0);
+        snapshot = null;
+    }
+
+    /**
+     * 用一次完整扫描得到的统计替换当前内容
+     */
+    public synchronized void replaceWith(GraphStatistics rebuilt, long reconciledAt) {
+        synchronized (rebuilt) {
+            clear();
+            for (NodeStat node : rebuilt.nodes.values()) {
+                recordNode(node.id, node.label, node.name);
+            }
+            rebuilt.relations.forEach((id, relation) ->
+                recordRelation(id, relation.type, relation.source, relation.target)
+            );
+        }
+        markReconciled(reconciledAt);
+    }
+
+    public synchronized void markReconciled(long reconciledAt) {
+        this.initialized = true;
+        this.reconciledAt = reconciledAt;
+        snapshot = null;
+    }
+
+    public synchronized boolean isInitialized() {
+        return initialized;
+    }
+
+    public synchronized long nodeCount() {
+        return nodes.size();
+    }
+
+    public synchronized long relationCount() {
+        return relations.size();
+    }
+
+    public synchronized Map<String, Long> labelCounts() {
+        return new HashMap<>(labelCounts);
+    }
+
+    public synchronized Map<String, Long> relationTypeCounts() {
+        return new HashMap<>(relationTypeCounts);
+    }
+
+    /**
+     * 当前统计；未发生写入时直接复用上次构建的响应内容
+     */
+    public GraphStatsResponse toResponse() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            current = buildSnapshot();
+        }
+        return new GraphStatsResponse(
+            current.nodeCount,
+            current.relationCount,
+            current.labelCounts,
+            current.relationTypeCounts,
+            current.degreeDistribution,
+            current.topHubs,
+            current.reconciledAt
+        );
+    }
+
+    private synchronized Snapshot buildSnapshot() {
+        if (snapshot != null) {
+            return snapshot;
+        }
+        Map<String, Long> degreeDistribution = new LinkedHashMap<>();
+        int last = DEGREE_BUCKETS - 1;
+        while (last > 0 && degreeBuckets[last] == 0) {
+            last--;
+        }
+        for (int i = 0; i <= last; i++) {
+            degreeDistribution.put(bucketLabel(i), degreeBuckets[i]);
+        }
+        List<GraphHubNode> hubs = new ArrayList<>(topHubCount);
+        Iterator<NodeStat> iterator = byDegree.iterator();
+        while (hubs.size() < topHubCount && iterator.hasNext()) {
+            NodeStat node = iterator.next();
+            if (node.degree == 0) {
+                break;
+            }
+            hubs.add(new GraphHubNode(String.valueOf(node.id), node.label, node.name, node.degree));
+        }
+        snapshot = new Snapshot(
+            nodes.size(),
+            relations.size(),
+            sortedByCount(labelCounts),
+            sortedByCount(relationTypeCounts),
+            Collections.unmodifiableMap(degreeDistribution),
+            List.copyOf(hubs),
+            reconciledAt
+        );
+        return snapshot;
+    }
+
+    private void changeDegree(long nodeId, int delta) {
+        NodeStat node = nodes.get(nodeId);
+        if (node == null) {
+            return;
+        }
+        byDegree.remove(node);
+        degreeBuckets[bucket(node.degree)]--;
+        node.degree = Math.max(0, node.degree + delta);
+        degreeBuckets[bucket(node.degree)]++;
+        byDegree.add(node);
+    }
+
+    private static void increment(Map<String, Long> counts, String key, long delta) {
+        counts.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private static Map<String, Long> sortedByCount(Map<String, Long> counts) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return Collections.unmodifiableMap(sorted);
+    }
+
+    static int bucket(int degree) {
+        return degree <= 0 ? 0 : 32 - Integer.numberOfLeadingZeros(degree);
+    }
+
+    private static String bucketLabel(int bucket) {
+        if (bucket <= 1) {
+            return String.valueOf(bucket);
+        }
+        long min = 1L << (bucket - 1);
+        return min + "-" + ((min << 1) - 1);
+    }
+
+    private static final class NodeStat {
+        private final long id;
+        private final String label;
+        private String name;
+        private int degree;
+
+        private NodeStat(long id, String label, String name) {
+            this.id = id;
+            this.label = label;
+            this.name = name;
+        }
+    }
+
+    private record RelationStat(String type, long source, long target) {}
+
+    private record Snapshot(
+        long nodeCount,
+        long relationCount,
+        Map<String, Long> labelCounts,
+        Map<String, Long> relationTypeCounts,
+        Map<String, Long> degreeDistribution,
+        List<GraphHubNode> topHubs,
+        long reconciledAt
+    ) {}
+}
@@ -0,0 +1,279 @@
+package com.example.customerservice.service.retriever;
+
+import com.example.customerservice.dto.HybridAnswerResult;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 知识问答答案缓存
+ *
+ * 按归一化后的问题（{@link #normalize}）缓存 {@link HybridAnswerResult}，条目按 LRU 淘汰，
+ * 每条答案记录计算开始时的知识语料版本，读取时版本不一致即视为过期并丢弃，不会返回过期答案。
+ *
+ * 同时按问题统计被问次数，定期写入 history-path，重启后用于预热最常见的问题。
+ */
+@Component
+public class AnswerCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnswerCache.class);
+    private static final long HISTORY_FLUSH_SECONDS = 60;
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final int historySize;
+    private final Path historyPath;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LinkedHashMap<String, CachedAnswer> answers;
+    private final Map<String, QuestionCount> history = new HashMap<>();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "answer-cache-history");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long hits;
+    private long misses;
+    private long staleMisses;
+    private long evictions;
+    private boolean historyDirty;
+
+    public AnswerCache(
+        @Value("${knowledge.answer-cache.enabled:true}") boolean enabled,
+        @Value("${knowledge.answer-cache.max-entries:2000}") int maxEntries,
+        @Value("${knowledge.answer-cache.history-size:5000}") int historySize,
+        @Value("${knowledge.answer-cache.history-path:./data/answer-cache-questions.json}") String historyPath
+    ) {
+        this.enabled = enabled;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.historySize = Math.max(0, historySize);
+        this.historyPath = Paths.get(historyPath);
+        this.answers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedAnswer> eldest) {
+                if (size() > AnswerCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        if (enabled) {
+            loadHistory();
+            writer.scheduleWithFixedDelay(this::flushHistory, HISTORY_FLUSH_SECONDS, HISTORY_FLUSH_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdownNow();
+        flushHistory();
+    }
+
+    /**
+     * 缓存键：NFKC（全角转半角）、小写、空白合并，去掉首尾空白和标点
+     */
+    public static String normalize(String question) {
+        if (question == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(question, Normalizer.Form.NFKC)
+            .toLowerCase()
+            .replaceAll("\\s+", " ");
+        int start = 0;
+        int end = normalized.length();
+        while (start < end && isTrimmable(normalized.charAt(start))) {
+            start++;
+        }
+        while (end > start && isTrimmable(normalized.charAt(end - 1))) {
+            end--;
+        }
+        return normalized.substring(start, end);
+    }
+
+    /**
+     * 读取与当前语料版本一致的缓存答案，并记一次提问
+     *
+     * @param question 用户问题
+     * @param version  当前知识语料版本
+     */
+    public Optional<HybridAnswerResult> get(String question, long version) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = normalize(question);
+        if (key.isEmpty()) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            recordQuestion(key, question);
+            CachedAnswer cached = answers.get(key);
+            if (cached != null && cached.version() == version) {
+                hits++;
+                return Optional.of(cached.result());
+            }
+            misses++;
+            if (cached != null) {
+                staleMisses++;
+                answers.remove(key);
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 缓存答案
+     *
+     * @param version 开始计算时读取的语料版本；计算期间语料变化的答案下次读取时自然过期
+     */
+    public void put(String question, long version, HybridAnswerResult result) {
+        if (!enabled || result == null) {
+            return;
+        }
+        String key = normalize(question);
+        if (key.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            CachedAnswer existing = answers.get(key);
+            if (existing == null || existing.version() <= version) {
+                answers.put(key, new CachedAnswer(version, result));
+            }
+        }
+    }
+
+    /**
+     * 被问次数最多的问题（原始写法取最近一次），用于预热
+     */
+    public synchronized List<String> topQuestions(int limit) {
+        return history.values().stream()
+            .sorted(Comparator.comparingLong(QuestionCount::count).reversed().thenComparing(QuestionCount::question))
+            .limit(Math.max(0, limit))
+            .map(QuestionCount::question)
+            .toList();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized int size() {
+        return answers.size();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long staleMisses() {
+        return staleMisses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    private void recordQuestion(String key, String question) {
+        if (historySize == 0) {
+            return;
+        }
+        QuestionCount previous = history.get(key);
+        history.put(key, new QuestionCount(question.strip(), previous != null ? previous.count() + 1 : 1));
+        historyDirty = true;
+        if (history.size() > historySize * 2) {
+            // 只保留次数最多的 history-size 个问题
+            List<String> keep = history.entrySet().stream()
+                .sorted(Map.Entry.<String, QuestionCount>comparingByValue(
+                    Comparator.comparingLong(QuestionCount::count)).reversed())
+                .limit(historySize)
+                .map(Map.Entry::getKey)
+                .toList();
+            history.keySet().retainAll(new HashSet<>(keep));
+        }
+    }
+
+    private void loadHistory() {
+        if (!Files.exists(historyPath)) {
+            return;
+        }
+        try {
+            List<QuestionCount> stored = objectMapper.readValue(historyPath.toFile(), new TypeReference<List<QuestionCount>>() {});
+            synchronized (this) {
+                for (QuestionCount count : stored) {
+                    history.merge(normalize(count.question()), count,
+                        (a, b) -> new QuestionCount(a.question(), a.count() + b.count()));
+                }
+            }
+            logger.info("答案缓存问题历史已加载: {} 个问题", stored.size());
+        } catch (IOException e) {
+            logger.warn("读取答案缓存问题历史失败 path={}: {}", historyPath, e.getMessage());
+        }
+    }
+
+    private void flushHistory() {
+        List<QuestionCount> snapshot;
+        synchronized (this) {
+            if (!historyDirty) {
+                return;
+            }
+            historyDirty = false;
+            snapshot = history.values().stream()
+                .sorted(Comparator.comparingLong(QuestionCount::count).reversed())
+                .limit(historySize)
+                .toList();
+        }
+        try {
+            Path parent = historyPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = parent.resolve(historyPath.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            Files.move(temp, historyPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("写入答案缓存问题历史失败 path={}: {}", historyPath, e.getMessage());
+        }
+    }
+
+    private static boolean isTrimmable(char c) {
+        int type = Character.getType(c);
+        return Character.isWhitespace(c)
+            || type == Character.OTHER_PUNCTUATION
+            || type == Character.START_PUNCTUATION
+            || type == Character.END_PUNCTUATION
+            || type == Character.INITIAL_QUOTE_PUNCTUATION
+            || type == Character.FINAL_QUOTE_PUNCTUATION
+            || type == Character.DASH_PUNCTUATION
+            || c == '~';
+    }
+
+    private record CachedAnswer(long version, HybridAnswerResult result) {}
+
+    record QuestionCount(String question, long count) {}
+}
@@ -2,13 +2,19 @@ package com.example.customerservice.service.retriever;
 
 import com.example.customerservice.dto.*;
 import com.example.customerservice.service.KnowledgeGraphService;
+import com.example.customerservice.service.graph.EntityAliasTable;
+import com.example.customerservice.service.graph.GraphReplica;
+import com.example.customerservice.service.graph.GraphSnapshot;
 import org.neo4j.driver.Driver;
-import org.neo4j.driver.Session;
 import org.neo4j.driver.Record;
+import org.neo4j.driver.async.AsyncSession;
+import org.neo4j.driver.async.ResultCursor;
 import org.neo4j.driver.types.Relationship;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -23,6 +29,9 @@ import java.util.stream.Collectors;
  * 3. 子图构建：根据匹配的实体构建N跳内的子图
  * 4. 结果返回：返回检索到的实体、答案上下文和子图结构
  *
+ * 内存副本（{@link GraphReplica}）就绪时，以上步骤都在 CSR 快照上完成，不访问 Neo4j；
+ * 副本未就绪（启动后尚未完成首次加载或已关闭）时走 Neo4j 异步查询。
+ *
  * 支持的实体类型：Product, Service, Order, QA, Concept
  */
 @Component
@@ -49,48 +58,91 @@ public class GraphRAGRetriever {
     /** 实体相关性分数阈值，低于此分数的实体会被过滤 */
     private static final double SCORE_THRESHOLD = 0.3;
 
+    /** 每个实体返回的关联路径数 */
+    private static final int MAX_PATHS_PER_ENTITY = 5;
+
     private final Driver driver;
     private final KnowledgeGraphService knowledgeGraphService;
-
-    public GraphRAGRetriever(Driver driver, KnowledgeGraphService knowledgeGraphService) {
+    private final GraphReplica graphReplica;
+    private final EntityAliasTable entityAliasTable;
+
+    public GraphRAGRetriever(
+        Driver driver,
+        KnowledgeGraphService knowledgeGraphService,
+        GraphReplica graphReplica,
+        EntityAliasTable entityAliasTable
+    ) {
         this.driver = driver;
         this.knowledgeGraphService = knowledgeGraphService;
+        this.graphReplica = graphReplica;
+        this.entityAliasTable = entityAliasTable;
     }
 
     /**
-     * 执行GraphRAG检索
+     * 执行GraphRAG检索（同步）
      *
      * @param query 用户查询问题
      * @param limit 返回结果的数量限制
      * @return 包含答案、检索到的实体和子图结构的搜索结果
+     * @see #searchAsync(String, int)
      */
     public GraphSearchResult search(String query, int limit) {
-        Set<String> matchedEntityIds = new HashSet<>();
-
-        // 第一步：规则匹配 - 根据关键词快速定位实体
-        matchedEntityIds.addAll(ruleBasedMatch(query));
+        return searchAsync(query, limit).block();
+    }
 
-        // 第二步：如果规则匹配没有结果，使用LLM进行实体链接
-        if (matchedEntityIds.isEmpty()) {
-            logger.info("规则匹配未找到实体，尝试LLM实体链接");
-            matchedEntityIds.addAll(llmEntityLinking(query));
+    /**
+     * 执行GraphRAG检索（异步）
+     *
+     * 内存快照可用时直接在快照上检索；否则使用Neo4j异步会话，所有查询以 CompletionStage 串联，
+     * 不阻塞调用线程。同一会话内的查询按顺序执行，会话在检索结束（含出错、取消）时关闭。
+     *
+     * @param query 用户查询问题
+     * @param limit 返回结果的数量限制
+     * @return 包含答案、检索到的实体和子图结构的搜索结果
+     */
+    public Mono<GraphSearchResult> searchAsync(String query, int limit) {
+        GraphSnapshot snapshot = graphReplica.current();
+        if (snapshot != null) {
+            return searchInSnapshot(snapshot, query);
         }
-
-        // 第三步：根据匹配的实体构建子图
-        Map<String, Object> subgraph = buildSubgraph(matchedEntityIds, MAX_HOPS);
-
-        // 第四步：生成答案上下文
-        String answer = generateAnswerContext(query, matchedEntityIds);
-
-        // 返回完整的搜索结果
-        return new GraphSearchResult(
-            answer,
-            buildRetrievedEntities(subgraph, query),
-            (List<GraphNodeResponse>) subgraph.get("nodes"),
-            (List<GraphEdgeResponse>) subgraph.get("edges")
+        return Mono.usingWhen(
+            Mono.fromSupplier(() -> driver.session(AsyncSession.class)),
+            session -> searchInSession(session, query),
+            session -> Mono.fromCompletionStage(session.closeAsync())
         );
     }
 
+    @SuppressWarnings("unchecked")
+    private Mono<GraphSearchResult> searchInSession(AsyncSession session, String query) {
+        // 第一步：规则匹配 - 根据关键词快速定位实体
+        return ruleBasedMatch(session, query)
+            .flatMap(matchedEntityIds -> {
+                // 第二步：如果规则匹配没有结果，使用LLM进行实体链接
+                if (matchedEntityIds.isEmpty()) {
+                    logger.info("规则匹配未找到实体，尝试LLM实体链接");
+                    return llmEntityLinking(query);
+                }
+                return Mono.just(matchedEntityIds);
+            })
+            .flatMap(matchedEntityIds ->
+                // 第三步：根据匹配的实体构建子图
+                buildSubgraph(session, matchedEntityIds, MAX_HOPS).flatMap(subgraph ->
+                    // 第四步：生成答案上下文
+                    generateAnswerContext(session, matchedEntityIds).flatMap(answer ->
+                        buildRetrievedEntities(session, subgraph, query).map(entities ->
+                            // 返回完整的搜索结果
+                            new GraphSearchResult(
+                                answer,
+                                entities,
+                                (List<GraphNodeResponse>) subgraph.get("nodes"),
+                                (List<GraphEdgeResponse>) subgraph.get("edges")
+                            )
+                        )
+                    )
+                )
+            );
+    }
+
     /**
      * 基于规则的实体匹配
      *
@@ -100,31 +152,31 @@ public class GraphRAGRetriever {
      * 匹配策略：
      * - 如果问题包含"产品"、"保修"等关键词，则匹配对应类型的实体
      * - 使用CONTAINS进行模糊匹配
+     * - 关键词经 {@link EntityAliasTable#expand} 补上规范名，例如 "质保" 也能命中已合并到 "保修" 的节点
      *
-     * @param query 用户查询
+     * @param session Neo4j异步会话
+     * @param query   用户查询
      * @return 匹配到的实体ID集合
      */
-    private Set<String> ruleBasedMatch(String query) {
-        Set<String> matchedIds = new HashSet<>();
-        try (Session session = driver.session()) {
-            // 遍历所有实体类型和关键词
-            for (Map.Entry<String, List<String>> entry : KEYWORD_ENTITY_MAP.entrySet()) {
-                String entityType = entry.getKey();
-                for (String keyword : entry.getValue()) {
-                    // 如果查询包含该关键词，则匹配该类型的所有实体
-                    if (query.contains(keyword)) {
-                        var result = session.run(
-                            "MATCH (n:" + entityType + ") WHERE n.name CONTAINS $keyword RETURN id(n) as id",
+    private Mono<Set<String>> ruleBasedMatch(AsyncSession session, String query) {
+        // 遍历所有实体类型和关键词，只对查询中出现的关键词发起查询
+        return Flux.fromIterable(KEYWORD_ENTITY_MAP.entrySet())
+            .concatMap(entry ->
+                Flux.fromIterable(entry.getValue())
+                    .filter(query::contains)
+                    .flatMapIterable(entityAliasTable::expand)
+                    .distinct()
+                    .concatMap(keyword ->
+                        run(
+                            session,
+                            "MATCH (n:" + entry.getKey() + ") WHERE n.name CONTAINS $keyword RETURN id(n) as id",
                             Map.of("keyword", keyword)
-                        );
-                        for (Record record : result.list()) {
-                            matchedIds.add(String.valueOf(record.get("id").asLong()));
-                        }
-                    }
-                }
-            }
-        }
-        return matchedIds;
+                        )
+                    )
+            )
+            .flatMapIterable(records -> records)
+            .map(record -> String.valueOf(record.get("id").asLong()))
+            .collect(Collectors.toCollection(HashSet::new));
     }
 
     /**
@@ -136,11 +188,11 @@ public class GraphRAGRetriever {
      * @param query 用户查询
      * @return 匹配到的实体ID集合
      */
-    private Set<String> llmEntityLinking(String query) {
+    private Mono<Set<String>> llmEntityLinking(String query) {
         Set<String> matchedIds = new HashSet<>();
         logger.debug("LLM entity linking for query: {}", query);
         // TODO: 实现LLM实体链接
-        return matchedIds;
+        return Mono.just(matchedIds);
     }
 
     /**
@@ -149,69 +201,72 @@ public class GraphRAGRetriever {
      * 从匹配的实体出发，查找它们在指定跳数范围内的所有关联节点和边。
      * 用于获取完整的上下文信息。
      *
+     * @param session   Neo4j异步会话
      * @param entityIds 中心实体ID集合
-     * @param hops     最大跳数
+     * @param hops      最大跳数
      * @return 包含节点列表和边列表的Map
      */
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> buildSubgraph(Set<String> entityIds, int hops) {
-        Map<String, Object> subgraph = new HashMap<>();
-        List<GraphNodeResponse> nodes = new ArrayList<>();
-        List<GraphEdgeResponse> edges = new ArrayList<>();
-
+    private Mono<Map<String, Object>> buildSubgraph(
+        AsyncSession session,
+        Set<String> entityIds,
+        int hops
+    ) {
         // 如果没有匹配的实体，返回空子图
         if (entityIds.isEmpty()) {
-            subgraph.put("nodes", nodes);
-            subgraph.put("edges", edges);
-            return subgraph;
+            return Mono.just(assembleSubgraph(List.of()));
         }
 
-        try (Session session = driver.session()) {
-            // 将ID列表转换为逗号分隔的字符串，用于Cypher查询
-            String idsParam = entityIds.stream().collect(Collectors.joining(","));
-
-            // 执行Cypher查询：
-            // 1. 从匹配的实体出发
-            // 2. 查找N跳内的所有关联节点和边
-            // 3. 使用DISTINCT去重
-            var result = session.run(
-                "MATCH (n)-[r*1.." + hops + "]-(m) WHERE id(n) IN [" + idsParam + "] " +
-                "WITH DISTINCT n, r, m " +
-                "RETURN n, r, m"
-            );
+        // 将ID列表转换为逗号分隔的字符串，用于Cypher查询
+        String idsParam = entityIds.stream().collect(Collectors.joining(","));
+
+        // 执行Cypher查询：
+        // 1. 从匹配的实体出发
+        // 2. 查找N跳内的所有关联节点和边
+        // 3. 使用DISTINCT去重
+        return run(
+            session,
+            "MATCH (n)-[r*1.." + hops + "]-(m) WHERE id(n) IN [" + idsParam + "] " +
+            "WITH DISTINCT n, r, m " +
+            "RETURN n, r, m",
+            Map.of()
+        ).map(this::assembleSubgraph);
+    }
 
-            Set<String> seenNodes = new HashSet<>();
-            Set<String> seenEdges = new HashSet<>();
-
-            for (Record record : result.list()) {
-                // 获取当前记录中的中心节点n和关联节点m
-                var n = record.get("n").asNode();
-                var m = record.get("m").asNode();
-                // 获取节点n和m之间的所有关系
-                var rels = record.get("r").asList();
-
-                // 处理中心节点n
-                String nId = String.valueOf(n.id());
-                if (!seenNodes.contains(nId)) {
-                    seenNodes.add(nId);
-                    nodes.add(new GraphNodeResponse(nId, n.labels().iterator().next(), n.get("name").asString(), n.asMap()));
-                }
+    private Map<String, Object> assembleSubgraph(List<Record> records) {
+        Map<String, Object> subgraph = new HashMap<>();
+        List<GraphNodeResponse> nodes = new ArrayList<>();
+        List<GraphEdgeResponse> edges = new ArrayList<>();
+        Set<String> seenNodes = new HashSet<>();
+        Set<String> seenEdges = new HashSet<>();
+
+        for (Record record : records) {
+            // 获取当前记录中的中心节点n和关联节点m
+            var n = record.get("n").asNode();
+            var m = record.get("m").asNode();
+            // 获取节点n和m之间的所有关系
+            var rels = record.get("r").asList();
+
+            // 处理中心节点n
+            String nId = String.valueOf(n.id());
+            if (!seenNodes.contains(nId)) {
+                seenNodes.add(nId);
+                nodes.add(new GraphNodeResponse(nId, n.labels().iterator().next(), n.get("name").asString(), n.asMap()));
+            }
 
-                // 处理关联节点m
-                String mId = String.valueOf(m.id());
-                if (!seenNodes.contains(mId)) {
-                    seenNodes.add(mId);
-                    nodes.add(new GraphNodeResponse(mId, m.labels().iterator().next(), m.get("name").asString(), m.asMap()));
-                }
+            // 处理关联节点m
+            String mId = String.valueOf(m.id());
+            if (!seenNodes.contains(mId)) {
+                seenNodes.add(mId);
+                nodes.add(new GraphNodeResponse(mId, m.labels().iterator().next(), m.get("name").asString(), m.asMap()));
+            }
 
-                // 处理所有关系边
-                for (Object relObj : rels) {
-                    Relationship rel = (Relationship) relObj;
-                    String rId = String.valueOf(rel.id());
-                    if (!seenEdges.contains(rId)) {
-                        seenEdges.add(rId);
-                        edges.add(new GraphEdgeResponse(rId, rel.startNodeElementId(), rel.endNodeElementId(), rel.type()));
-                    }
+            // 处理所有关系边
+            for (Object relObj : rels) {
+                Relationship rel = (Relationship) relObj;
+                String rId = String.valueOf(rel.id());
+                if (!seenEdges.contains(rId)) {
+                    seenEdges.add(rId);
+                    edges.add(new GraphEdgeResponse(rId, rel.startNodeElementId(), rel.endNodeElementId(), rel.type()));
                 }
             }
         }
@@ -224,25 +279,35 @@ public class GraphRAGRetriever {
     /**
      * 根据子图构建检索到的实体列表
      *
+     * @param session  Neo4j异步会话
      * @param subgraph 子图结构（包含nodes和edges）
      * @param query    用户查询，用于计算相关性分数
      * @return 检索到的实体列表
      */
-    private List<RetrievedEntity> buildRetrievedEntities(Map<String, Object> subgraph, String query) {
-        List<RetrievedEntity> entities = new ArrayList<>();
+    @SuppressWarnings("unchecked")
+    private Mono<List<RetrievedEntity>> buildRetrievedEntities(
+        AsyncSession session,
+        Map<String, Object> subgraph,
+        String query
+    ) {
         List<GraphNodeResponse> nodes = (List<GraphNodeResponse>) subgraph.get("nodes");
 
-        for (GraphNodeResponse node : nodes) {
-            // 计算该节点与查询的相关性分数
-            double score = calculateRelevanceScore(node, query);
+        return Flux.fromIterable(nodes)
             // 只返回超过阈值的实体
-            if (score >= SCORE_THRESHOLD) {
-                // 查找该节点的关联路径
-                List<RetrievedPath> paths = findPathsToNode(node.getId());
-                entities.add(new RetrievedEntity(node.getId(), node.getType(), node.getName(), paths, score));
-            }
-        }
-        return entities;
+            .filter(node -> calculateRelevanceScore(node, query) >= SCORE_THRESHOLD)
+            // 查找该节点的关联路径（同一会话内按顺序查询）
+            .concatMap(node ->
+                findPathsToNode(session, node.getId()).map(paths ->
+                    new RetrievedEntity(
+                        node.getId(),
+                        node.getType(),
+                        node.getName(),
+                        paths,
+                        calculateRelevanceScore(node, query)
+                    )
+                )
+            )
+            .collectList();
     }
 
     /**
@@ -272,24 +337,25 @@ public class GraphRAGRetriever {
     /**
      * 查找到指定节点的路径
      *
-     * @param nodeId 目标节点ID
+     * @param session Neo4j异步会话
+     * @param nodeId  目标节点ID
      * @return 该节点的关联路径列表（最多5条）
      */
-    private List<RetrievedPath> findPathsToNode(String nodeId) {
-        List<RetrievedPath> paths = new ArrayList<>();
-        try (Session session = driver.session()) {
-            // 查找1-2跳内到达该节点的路径
-            var result = session.run(
-                "MATCH path = (m)-[r*1..2]-(n) WHERE id(n) = $nodeId RETURN path, length(path) as hops LIMIT 5",
-                Map.of("nodeId", Long.parseLong(nodeId))
-            );
-            for (Record record : result.list()) {
+    private Mono<List<RetrievedPath>> findPathsToNode(AsyncSession session, String nodeId) {
+        // 查找1-2跳内到达该节点的路径
+        return run(
+            session,
+            "MATCH path = (m)-[r*1..2]-(n) WHERE id(n) = $nodeId RETURN path, length(path) as hops LIMIT " + MAX_PATHS_PER_ENTITY,
+            Map.of("nodeId", Long.parseLong(nodeId))
+        ).map(records -> {
+            List<RetrievedPath> paths = new ArrayList<>();
+            for (Record record : records) {
                 String pathStr = record.get("path").asPath().toString();
                 int hops = record.get("hops").asInt();
                 paths.add(new RetrievedPath(pathStr, hops));
             }
-        }
-        return paths;
+            return paths;
+        });
     }
 
     /**
@@ -298,26 +364,166 @@ public class GraphRAGRetriever {
      * 根据检索到的实体，生成用于增强生成的上下文信息。
      * 格式为：实体类型: 实体名称
      *
-     * @param query     用户查询
+     * @param session   Neo4j异步会话
      * @param entityIds 匹配的实体ID集合
      * @return 格式化的上下文字符串
      */
-    private String generateAnswerContext(String query, Set<String> entityIds) {
-        StringBuilder context = new StringBuilder();
-        try (Session session = driver.session()) {
-            for (String id : entityIds) {
-                // 查询该节点的详细信息及其直接关联
-                var result = session.run(
+    private Mono<String> generateAnswerContext(AsyncSession session, Set<String> entityIds) {
+        return Flux.fromIterable(entityIds)
+            // 查询该节点的详细信息及其直接关联
+            .concatMap(id ->
+                run(
+                    session,
                     "MATCH (n) WHERE id(n) = $id OPTIONAL MATCH (n)-[r]-(m) RETURN n.name as name, labels(n)[0] as type, collect({rel: type(r), target: m.name}) as connections",
                     Map.of("id", Long.parseLong(id))
-                );
-                var record = result.single();
-                context.append(record.get("type").asString())
-                       .append(": ")
-                       .append(record.get("name").asString())
-                       .append("\n");
+                )
+            )
+            .filter(records -> !records.isEmpty())
+            .map(records -> records.get(0))
+            .reduceWith(StringBuilder::new, (context, record) ->
+                context
+                    .append(record.get("type").asString())
+                    .append(": ")
+                    .append(record.get("name").asString())
+                    .append("\n")
+            )
+            .map(StringBuilder::toString);
+    }
+
+    // ------------------------------------------------------------ 内存快照
+
+    private Mono<GraphSearchResult> searchInSnapshot(GraphSnapshot snapshot, String query) {
+        Set<String> ruleMatched = ruleBasedMatch(snapshot, query);
+        Mono<Set<String>> matched = ruleMatched.isEmpty()
+            ? Mono.defer(() -> {
+                logger.info("规则匹配未找到实体，尝试LLM实体链接");
+                return llmEntityLinking(query);
+            })
+            : Mono.just(ruleMatched);
+        return matched.map(matchedEntityIds -> {
+            Map<String, Object> subgraph = buildSubgraph(snapshot, matchedEntityIds, MAX_HOPS);
+            @SuppressWarnings("unchecked")
+            List<GraphNodeResponse> nodes = (List<GraphNodeResponse>) subgraph.get("nodes");
+            @SuppressWarnings("unchecked")
+            List<GraphEdgeResponse> edges = (List<GraphEdgeResponse>) subgraph.get("edges");
+            return new GraphSearchResult(
+                generateAnswerContext(snapshot, matchedEntityIds),
+                buildRetrievedEntities(snapshot, nodes, query),
+                nodes,
+                edges
+            );
+        });
+    }
+
+    /**
+     * 基于规则的实体匹配（快照版），语义同 {@link #ruleBasedMatch(AsyncSession, String)}
+     */
+    private Set<String> ruleBasedMatch(GraphSnapshot snapshot, String query) {
+        Set<String> matched = new HashSet<>();
+        for (Map.Entry<String, List<String>> entry : KEYWORD_ENTITY_MAP.entrySet()) {
+            for (String keyword : entry.getValue()) {
+                if (!query.contains(keyword)) {
+                    continue;
+                }
+                for (String term : entityAliasTable.expand(keyword)) {
+                    for (int node : snapshot.findByLabelContaining(entry.getKey(), term)) {
+                        matched.add(String.valueOf(snapshot.nodeId(node)));
+                    }
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 构建N跳子图（快照版），在 CSR 邻接上做多源广度优先遍历
+     */
+    private Map<String, Object> buildSubgraph(GraphSnapshot snapshot, Set<String> entityIds, int hops) {
+        GraphSnapshot.Neighborhood neighborhood = snapshot.neighborhood(indexesOf(snapshot, entityIds), hops);
+        List<GraphNodeResponse> nodes = new ArrayList<>(neighborhood.nodes().length);
+        for (int node : neighborhood.nodes()) {
+            nodes.add(toNodeResponse(snapshot, node));
+        }
+        List<GraphEdgeResponse> edges = new ArrayList<>(neighborhood.edges().length);
+        for (int edge : neighborhood.edges()) {
+            edges.add(new GraphEdgeResponse(
+                String.valueOf(snapshot.edgeId(edge)),
+                String.valueOf(snapshot.nodeId(snapshot.edgeSource(edge))),
+                String.valueOf(snapshot.nodeId(snapshot.edgeTarget(edge))),
+                snapshot.edgeType(edge)
+            ));
+        }
+        Map<String, Object> subgraph = new HashMap<>();
+        subgraph.put("nodes", nodes);
+        subgraph.put("edges", edges);
+        return subgraph;
+    }
+
+    private List<RetrievedEntity> buildRetrievedEntities(
+        GraphSnapshot snapshot,
+        List<GraphNodeResponse> nodes,
+        String query
+    ) {
+        List<RetrievedEntity> entities = new ArrayList<>();
+        for (GraphNodeResponse node : nodes) {
+            double score = calculateRelevanceScore(node, query);
+            if (score >= SCORE_THRESHOLD) {
+                entities.add(new RetrievedEntity(
+                    node.getId(),
+                    node.getType(),
+                    node.getName(),
+                    findPathsToNode(snapshot, node.getId()),
+                    score
+                ));
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * 查找到指定节点的1-2跳路径（快照版），最多5条
+     */
+    private List<RetrievedPath> findPathsToNode(GraphSnapshot snapshot, String nodeId) {
+        int node = snapshot.indexOf(Long.parseLong(nodeId));
+        return node < 0 ? List.of() : snapshot.pathsTo(node, 2, MAX_PATHS_PER_ENTITY);
+    }
+
+    /**
+     * 生成答案上下文（快照版），格式为：实体类型: 实体名称
+     */
+    private String generateAnswerContext(GraphSnapshot snapshot, Set<String> entityIds) {
+        StringBuilder context = new StringBuilder();
+        for (String id : entityIds) {
+            int node = snapshot.indexOf(Long.parseLong(id));
+            if (node >= 0) {
+                context.append(snapshot.label(node)).append(": ").append(snapshot.name(node)).append("\n");
             }
         }
         return context.toString();
     }
-}
\ No newline at end of file
+
+    private static int[] indexesOf(GraphSnapshot snapshot, Set<String> entityIds) {
+        return entityIds.stream()
+            .mapToInt(id -> snapshot.indexOf(Long.parseLong(id)))
+            .filter(index -> index >= 0)
+            .toArray();
+    }
+
+    private static GraphNodeResponse toNodeResponse(GraphSnapshot snapshot, int node) {
+        String name = snapshot.name(node);
+        return new GraphNodeResponse(String.valueOf(snapshot.nodeId(node)), snapshot.label(node), name, Map.of("name", name));
+    }
+
+    /**
+     * 在异步会话中执行查询并取回全部记录
+     */
+    private Mono<List<Record>> run(
+        AsyncSession session,
+        String cypher,
+        Map<String, Object> parameters
+    ) {
+        return Mono.fromCompletionStage(() ->
+            session.runAsync(cypher, parameters).thenCompose(ResultCursor::listAsync)
+        );
+    }
+}
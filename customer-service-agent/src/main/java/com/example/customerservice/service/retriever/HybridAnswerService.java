@@ -1,5 +1,8 @@
 package com.example.customerservice.service.retriever;
 
+import com.example.customerservice.dto.AnswerCacheStatsResponse;
+import com.example.customerservice.dto.AnswerCoalescingStatsResponse;
+import com.example.customerservice.dto.CommunitySummary;
 import com.example.customerservice.dto.GraphSearchResult;
 import com.example.customerservice.dto.HybridAnswerResult;
 import com.example.customerservice.dto.HybridCitation;
@@ -8,18 +11,35 @@ import com.example.customerservice.dto.RetrievedEntity;
 import com.example.customerservice.dto.RetrievedPath;
 import com.example.customerservice.dto.VectorSearchResult;
 import com.example.customerservice.service.KnowledgeBaseService;
+import com.example.customerservice.service.KnowledgeCorpusVersion;
+import com.example.customerservice.service.graph.CommunitySummaryService;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * 混合检索主链路编排服务
  *
  * 负责对向量检索和图谱检索结果做统一编排，
  * 为聊天主链路生成可直接返回的答案和引用信息。
+ *
+ * 概括性问题（{@link CommunitySummaryService#isGlobalQuestion}）的图谱部分优先使用预先生成的社区摘要，
+ * 没有足够相似的摘要时再走 GraphRAG 子图检索。
+ *
+ * 答案经 {@link AnswerCache} 按问题缓存，以 {@link KnowledgeCorpusVersion} 判断是否过期；
+ * 图谱检索出错时的降级答案不缓存。启动完成后按历史提问次数预热前 warm-up-top-n 个问题。
+ *
+ * 缓存未命中时按同一归一化问题合并并发请求（{@link SingleFlight}），突发的相同问题只计算一次。
  */
 @Service
 public class HybridAnswerService {
@@ -29,47 +49,185 @@ public class HybridAnswerService {
     );
 
     private static final int DEFAULT_LIMIT = 5;
+    private static final int COMMUNITY_LIMIT = 3;
 
     private final KnowledgeBaseService knowledgeBaseService;
     private final GraphRAGRetriever graphRAGRetriever;
+    private final CommunitySummaryService communitySummaryService;
+    private final AnswerCache answerCache;
+    private final KnowledgeCorpusVersion corpusVersion;
+    private final int warmUpTopN;
+    private final boolean coalescingEnabled;
+    private final SingleFlight<HybridAnswerResult> singleFlight;
+    private volatile int warmedUp;
 
     public HybridAnswerService(
         KnowledgeBaseService knowledgeBaseService,
-        GraphRAGRetriever graphRAGRetriever
+        GraphRAGRetriever graphRAGRetriever,
+        CommunitySummaryService communitySummaryService,
+        AnswerCache answerCache,
+        KnowledgeCorpusVersion corpusVersion,
+        @Value("${knowledge.answer-cache.warm-up-top-n:50}") int warmUpTopN,
+        @Value("${knowledge.answer-coalescing.enabled:true}") boolean coalescingEnabled,
+        @Value("${knowledge.answer-coalescing.timeout-ms:30000}") long coalescingTimeoutMs
     ) {
         this.knowledgeBaseService = knowledgeBaseService;
         this.graphRAGRetriever = graphRAGRetriever;
+        this.communitySummaryService = communitySummaryService;
+        this.answerCache = answerCache;
+        this.corpusVersion = corpusVersion;
+        this.warmUpTopN = warmUpTopN;
+        this.coalescingEnabled = coalescingEnabled;
+        this.singleFlight = new SingleFlight<>(Duration.ofMillis(Math.max(1, coalescingTimeoutMs)));
+    }
+
+    /**
+     * 启动完成后在后台依次计算历史上最常见的问题，结果写入答案缓存
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!answerCache.isEnabled() || warmUpTopN <= 0) {
+            return;
+        }
+        List<String> questions = answerCache.topQuestions(warmUpTopN);
+        if (questions.isEmpty()) {
+            return;
+        }
+        Flux.fromIterable(questions)
+            .concatMap(question -> coalesce(question)
+                .doOnNext(result -> warmedUp++)
+                .onErrorResume(exception -> {
+                    logger.warn("答案缓存预热失败 question={}: {}", question, exception.getMessage());
+                    return Mono.empty();
+                }))
+            .doOnComplete(() -> logger.info("答案缓存预热完成: {}/{} 个问题", warmedUp, questions.size()))
+            .subscribe();
+    }
+
+    public AnswerCacheStatsResponse getCacheStats() {
+        long hits = answerCache.hits();
+        long misses = answerCache.misses();
+        return new AnswerCacheStatsResponse(
+            answerCache.isEnabled(),
+            answerCache.maxEntries(),
+            answerCache.size(),
+            hits,
+            misses,
+            answerCache.staleMisses(),
+            answerCache.evictions(),
+            hits + misses > 0 ? (double) hits / (hits + misses) : 0,
+            corpusVersion.current(),
+            warmedUp,
+            System.currentTimeMillis()
+        );
+    }
+
+    public AnswerCoalescingStatsResponse getCoalescingStats() {
+        return new AnswerCoalescingStatsResponse(
+            coalescingEnabled,
+            singleFlight.inFlight(),
+            singleFlight.leaders(),
+            singleFlight.coalesced(),
+            singleFlight.timeouts(),
+            singleFlight.abandoned(),
+            System.currentTimeMillis()
+        );
     }
 
     public HybridAnswerResult answerQuestion(String question) {
-        VectorSearchResult vectorResult =
-            knowledgeBaseService.searchKnowledgeBaseStructured(
+        return answerQuestionAsync(question).block();
+    }
+
+    /**
+     * 异步生成混合检索答案
+     * 向量检索与图谱检索同时订阅、并行执行；图谱检索失败时降级为仅向量检索
+     *
+     * @param question 用户问题
+     * @return 混合检索答案
+     */
+    public Mono<HybridAnswerResult> answerQuestionAsync(String question) {
+        Optional<HybridAnswerResult> cached = answerCache.get(question, corpusVersion.current());
+        if (cached.isPresent()) {
+            return Mono.just(cached.get());
+        }
+        return coalesce(question);
+    }
+
+    /**
+     * 同一归一化问题同时只计算一次，并发调用者共享结果；调用者各自取消不影响其他人
+     */
+    private Mono<HybridAnswerResult> coalesce(String question) {
+        String key = AnswerCache.normalize(question);
+        if (!coalescingEnabled || key.isEmpty()) {
+            return computeAndCache(question);
+        }
+        return singleFlight.execute(key, () -> computeAndCache(question));
+    }
+
+    /**
+     * 计算答案并缓存；版本号在计算开始前读取，计算期间语料变化的答案下次读取时即过期
+     */
+    private Mono<HybridAnswerResult> computeAndCache(String question) {
+        long version = corpusVersion.current();
+        return compute(question).doOnNext(result -> {
+            if (!isGraphErrorFallback(result)) {
+                answerCache.put(question, version, result);
+            }
+        });
+    }
+
+    private Mono<HybridAnswerResult> compute(String question) {
+        Mono<VectorSearchResult> vectorSearch =
+            knowledgeBaseService.searchKnowledgeBaseStructuredAsync(
                 question,
                 DEFAULT_LIMIT
             );
+        Mono<GraphContext> graphSearch = CommunitySummaryService.isGlobalQuestion(question)
+            ? communitySummaryService
+                .searchAsync(question, COMMUNITY_LIMIT)
+                .onErrorResume(exception -> {
+                    logger.warn("社区摘要检索失败，改用GraphRAG检索: {}", exception.getMessage());
+                    return Mono.just(List.of());
+                })
+                .flatMap(communities -> communities.isEmpty()
+                    ? graphSearch(question)
+                    : Mono.just(new GraphContext(emptyGraphResult(), communities, false)))
+            : graphSearch(question);
 
-        GraphSearchResult graphResult = emptyGraphResult();
-        boolean graphErrored = false;
+        return Mono.zip(vectorSearch, graphSearch).map(results ->
+            buildResult(results.getT1(), results.getT2())
+        );
+    }
 
-        try {
-            graphResult = graphRAGRetriever.search(question, DEFAULT_LIMIT);
-        } catch (Exception exception) {
-            graphErrored = true;
-            logger.warn("GraphRAG检索失败，自动降级到向量检索", exception);
-        }
+    private Mono<GraphContext> graphSearch(String question) {
+        return graphRAGRetriever
+            .searchAsync(question, DEFAULT_LIMIT)
+            .map(result -> new GraphContext(result, List.of(), false))
+            .onErrorResume(exception -> {
+                logger.warn("GraphRAG检索失败，自动降级到向量检索", exception);
+                return Mono.just(new GraphContext(emptyGraphResult(), List.of(), true));
+            });
+    }
 
+    private HybridAnswerResult buildResult(
+        VectorSearchResult vectorResult,
+        GraphContext graph
+    ) {
+        GraphSearchResult graphResult = graph.result();
+        boolean graphErrored = graph.errored();
         boolean hasVector =
             vectorResult != null &&
             vectorResult.getRetrievedChunks() != null &&
             !vectorResult.getRetrievedChunks().isEmpty();
         boolean hasGraph =
+            !graph.communities().isEmpty() ||
             graphResult != null &&
             graphResult.getRetrievedEntities() != null &&
             !graphResult.getRetrievedEntities().isEmpty();
 
         List<HybridCitation> citations = buildCitations(
             vectorResult,
-            graphResult
+            graph
         );
         String retrievalMode = determineRetrievalMode(hasVector, hasGraph);
         String fallbackMode = determineFallbackMode(
@@ -79,7 +237,7 @@ public class HybridAnswerService {
         );
         String answer = buildAnswer(
             vectorResult,
-            graphResult,
+            graph,
             hasVector,
             hasGraph,
             fallbackMode
@@ -95,7 +253,7 @@ public class HybridAnswerService {
 
     private String buildAnswer(
         VectorSearchResult vectorResult,
-        GraphSearchResult graphResult,
+        GraphContext graph,
         boolean hasVector,
         boolean hasGraph,
         String fallbackMode
@@ -105,7 +263,7 @@ public class HybridAnswerService {
         if (hasVector && hasGraph) {
             answer.append("根据知识库检索和知识图谱分析，为您解答如下：\n\n");
             appendVectorSection(answer, vectorResult.getRetrievedChunks());
-            appendGraphSection(answer, graphResult.getRetrievedEntities());
+            appendGraphSection(answer, graph);
             return answer.toString().trim();
         }
 
@@ -117,7 +275,7 @@ public class HybridAnswerService {
 
         if (hasGraph) {
             answer.append("根据知识图谱分析，为您找到以下关联信息：\n\n");
-            appendGraphSection(answer, graphResult.getRetrievedEntities());
+            appendGraphSection(answer, graph);
             return answer.toString().trim();
         }
 
@@ -145,7 +303,27 @@ public class HybridAnswerService {
         }
     }
 
-    private void appendGraphSection(
+    private void appendGraphSection(StringBuilder answer, GraphContext graph) {
+        if (!graph.communities().isEmpty()) {
+            appendCommunitySection(answer, graph.communities());
+        } else {
+            appendEntitySection(answer, graph.result().getRetrievedEntities());
+        }
+    }
+
+    private void appendCommunitySection(
+        StringBuilder answer,
+        List<CommunitySummary> communities
+    ) {
+        answer.append("【知识图谱概览】\n");
+        int idx = 1;
+        for (CommunitySummary community : communities) {
+            answer.append(idx++).append(". ").append(community.getTitle()).append("\n");
+            answer.append("   ").append(shorten(community.getSummary(), 300)).append("\n\n");
+        }
+    }
+
+    private void appendEntitySection(
         StringBuilder answer,
         List<RetrievedEntity> entities
     ) {
@@ -170,8 +348,9 @@ public class HybridAnswerService {
 
     private List<HybridCitation> buildCitations(
         VectorSearchResult vectorResult,
-        GraphSearchResult graphResult
+        GraphContext graph
     ) {
+        GraphSearchResult graphResult = graph.result();
         List<HybridCitation> citations = new ArrayList<>();
 
         if (vectorResult != null && vectorResult.getRetrievedChunks() != null) {
@@ -194,6 +373,19 @@ public class HybridAnswerService {
                 );
         }
 
+        graph.communities().forEach(community ->
+            citations.add(
+                new HybridCitation(
+                    "graph_community",
+                    community.getTitle(),
+                    shorten(community.getSummary(), 120),
+                    null,
+                    null,
+                    community.getScore()
+                )
+            )
+        );
+
         if (graphResult != null && graphResult.getRetrievedEntities() != null) {
             graphResult
                 .getRetrievedEntities()
@@ -217,6 +409,11 @@ public class HybridAnswerService {
         return citations;
     }
 
+    private static boolean isGraphErrorFallback(HybridAnswerResult result) {
+        return "vector_only_graph_error".equals(result.getFallbackMode())
+            || "no_hit_graph_error".equals(result.getFallbackMode());
+    }
+
     private String determineRetrievalMode(boolean hasVector, boolean hasGraph) {
         if (hasVector && hasGraph) {
             return "hybrid";
@@ -257,6 +454,15 @@ public class HybridAnswerService {
         return new GraphSearchResult("", List.of(), List.of(), List.of());
     }
 
+    /**
+     * 图谱侧结果：GraphRAG 子图检索结果或社区摘要（二者只有一个非空）
+     */
+    private record GraphContext(
+        GraphSearchResult result,
+        List<CommunitySummary> communities,
+        boolean errored
+    ) {}
+
     private String summarizePath(List<RetrievedPath> paths) {
         if (paths == null || paths.isEmpty()) {
             return "";
@@ -6,8 +6,7 @@ import com.example.customerservice.service.KnowledgeBaseService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-
-import java.util.concurrent.CompletableFuture;
+import reactor.core.publisher.Mono;
 
 /**
  * 混合RAG服务
@@ -47,7 +46,10 @@ public class HybridRAGService {
     /** GraphRAG检索器（图谱检索） */
     private final GraphRAGRetriever graphRAGRetriever;
 
-    public HybridRAGService(KnowledgeBaseService knowledgeBaseService, GraphRAGRetriever graphRAGRetriever) {
+    public HybridRAGService(
+        KnowledgeBaseService knowledgeBaseService,
+        GraphRAGRetriever graphRAGRetriever
+    ) {
         this.knowledgeBaseService = knowledgeBaseService;
         this.graphRAGRetriever = graphRAGRetriever;
     }
@@ -56,27 +58,20 @@ public class HybridRAGService {
      * 混合搜索
      *
      * 同时执行向量检索和图谱检索，返回两者的结果。
-     * 两种检索并行执行，提高响应速度。
+     * 两种检索以响应式链路并行执行，只有调用线程等待结果：向量检索内部已切换到检索调度器，
+     * 若再把外层任务提交到同一线程池，并发请求占满线程池后会互相等待而死锁。
      *
      * @param query 用户查询
      * @param limit 返回结果的数量限制
      * @return 包含两种检索结果的混合搜索结果
      */
     public HybridSearchResult hybridSearch(String query, int limit) {
-        // 并行执行两种检索任务
-        CompletableFuture<VectorSearchResult> vectorFuture = CompletableFuture.supplyAsync(
-            () -> knowledgeBaseService.searchKnowledgeBaseStructured(query, limit)
-        );
-
-        CompletableFuture<GraphSearchResult> graphFuture = CompletableFuture.supplyAsync(
-            () -> graphRAGRetriever.search(query, limit)
-        );
-
-        // 等待两种检索都完成
-        VectorSearchResult vectorResult = vectorFuture.join();
-        GraphSearchResult graphResult = graphFuture.join();
-
-        return new HybridSearchResult(vectorResult, graphResult);
+        return Mono.zip(
+                knowledgeBaseService.searchKnowledgeBaseStructuredAsync(query, limit),
+                graphRAGRetriever.searchAsync(query, limit)
+            )
+            .map(results -> new HybridSearchResult(results.getT1(), results.getT2()))
+            .block();
     }
 
     /**
@@ -0,0 +1,302 @@
+package com.example.customerservice.service.retriever;
+
+import io.agentscope.core.rag.model.Document;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 知识片段的 BM25 倒排索引
+ *
+ * 分词：中文按连续汉字片段切出字符 bigram + trigram（单字片段保留单字），
+ * 英文/数字按整词小写（如 iphone、15、ord001），标点和空白作为分隔符。
+ *
+ * 与向量检索互补：短关键词问题（"退货运费"、"保修多久"）能精确命中原文，
+ * 高置信命中时可以直接返回，省掉一次 Embedding 调用。
+ *
+ * 索引随 KnowledgeBaseService 建索引/删除 chunk 增量维护；读写锁保护，检索之间互不阻塞。
+ */
+@Component
+public class LexicalIndex {
+
+    private final double k1;
+    private final double b;
+    private final int fusionK;
+    private final boolean lexicalOnlyEnabled;
+    private final double lexicalOnlyMinCoverage;
+    private final double lexicalOnlyMinMargin;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, IndexedChunk> chunks = new HashMap<>();
+    private final Map<String, Map<String, Integer>> postings = new HashMap<>();
+    private long totalLength;
+
+    public LexicalIndex(
+        @Value("${knowledge.lexical.k1:1.2}") double k1,
+        @Value("${knowledge.lexical.b:0.75}") double b,
+        @Value("${knowledge.lexical.fusion-k:60}") int fusionK,
+        @Value("${knowledge.lexical.lexical-only.enabled:true}") boolean lexicalOnlyEnabled,
+        @Value("${knowledge.lexical.lexical-only.min-coverage:0.8}") double lexicalOnlyMinCoverage,
+        @Value("${knowledge.lexical.lexical-only.min-margin:1.5}") double lexicalOnlyMinMargin
+    ) {
+        this.k1 = k1;
+        this.b = b;
+        this.fusionK = Math.max(1, fusionK);
+        this.lexicalOnlyEnabled = lexicalOnlyEnabled;
+        this.lexicalOnlyMinCoverage = lexicalOnlyMinCoverage;
+        this.lexicalOnlyMinMargin = lexicalOnlyMinMargin;
+    }
+
+    /**
+     * 索引（或覆盖）一批 chunk，文本取自标题 + 正文
+     */
+    public void addAll(List<Document> documents) {
+        lock.writeLock().lock();
+        try {
+            for (Document document : documents) {
+                String chunkId = document.getMetadata().getChunkId();
+                removeLocked(chunkId);
+                String title = document.getPayloadValueAs("title", String.class);
+                String content = document.getMetadata().getContentText();
+                Map<String, Integer> termFrequencies = new HashMap<>();
+                int length = 0;
+                for (String term : tokenize((title != null ? title : "") + "\n" + (content != null ? content : ""))) {
+                    termFrequencies.merge(term, 1, Integer::sum);
+                    length++;
+                }
+                chunks.put(chunkId, new IndexedChunk(document, length, termFrequencies.keySet()));
+                totalLength += length;
+                termFrequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new HashMap<>()).put(chunkId, frequency)
+                );
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除一批 chunk
+     */
+    public void removeAll(Collection<String> chunkIds) {
+        if (chunkIds == null || chunkIds.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            chunkIds.forEach(this::removeLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return chunks.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * BM25 检索
+     *
+     * 返回的 Document 是新实例，score 为相对首条命中的归一化分数（0~1]。
+     * 首条命中覆盖了查询中至少 min-coverage 比例的词项，且分数领先第二条 min-margin 倍以上时
+     * 视为高置信，调用方可以跳过向量检索。
+     */
+    public LexicalSearchResult search(String query, int limit) {
+        return search(query, limit, document -> true);
+    }
+
+    /**
+     * 只在满足 filter 的 chunk 中做 BM25 检索（分类/标签范围检索），置信度也只在范围内比较
+     */
+    public LexicalSearchResult search(String query, int limit, Predicate<Document> filter) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new LexicalSearchResult(List.of(), false);
+        }
+
+        lock.readLock().lock();
+        List<ScoredChunk> ranked;
+        try {
+            int documentCount = chunks.size();
+            if (documentCount == 0) {
+                return new LexicalSearchResult(List.of(), false);
+            }
+            double averageLength = (double) totalLength / documentCount;
+            Map<String, ScoredChunk> scores = new HashMap<>();
+            for (String term : queryTerms) {
+                Map<String, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                posting.forEach((chunkId, frequency) -> {
+                    IndexedChunk chunk = chunks.get(chunkId);
+                    if (!filter.test(chunk.document)) {
+                        return;
+                    }
+                    double norm = k1 * (1 - b + b * chunk.length / averageLength);
+                    ScoredChunk scored = scores.computeIfAbsent(chunkId, key -> new ScoredChunk(chunk));
+                    scored.score += idf * frequency * (k1 + 1) / (frequency + norm);
+                    scored.matchedTerms++;
+                });
+            }
+            ranked = new ArrayList<>(scores.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (ranked.isEmpty()) {
+            return new LexicalSearchResult(List.of(), false);
+        }
+        ranked.sort(Comparator.comparingDouble((ScoredChunk chunk) -> chunk.score).reversed());
+        ScoredChunk top = ranked.get(0);
+        double coverage = (double) top.matchedTerms / queryTerms.size();
+        boolean leading = ranked.size() == 1 || top.score >= ranked.get(1).score * lexicalOnlyMinMargin;
+        boolean highConfidence = lexicalOnlyEnabled && coverage >= lexicalOnlyMinCoverage && leading;
+
+        List<Document> hits = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            ScoredChunk scored = ranked.get(i);
+            Document hit = new Document(scored.chunk.document.getMetadata());
+            hit.setScore(scored.score / top.score);
+            hits.add(hit);
+        }
+        return new LexicalSearchResult(hits, highConfidence);
+    }
+
+    /**
+     * 倒数排名融合（RRF）：score = Σ 1 / (fusion-k + rank)，按 chunkId 合并两路结果
+     *
+     * 融合后的分数除以两路都排第一时的最大值，落在 (0, 1] 区间，便于和原有的相似度分数一起展示。
+     */
+    public List<Document> fuse(List<Document> vectorHits, List<Document> lexicalHits, int limit) {
+        Map<String, Document> documents = new LinkedHashMap<>();
+        Map<String, Double> fused = new HashMap<>();
+        accumulate(vectorHits, documents, fused);
+        accumulate(lexicalHits, documents, fused);
+        double maxScore = 2.0 / (fusionK + 1);
+        return fused.entrySet()
+            .stream()
+            .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+            .limit(limit)
+            .map(entry -> {
+                Document document = new Document(documents.get(entry.getKey()).getMetadata());
+                document.setScore(entry.getValue() / maxScore);
+                return document;
+            })
+            .toList();
+    }
+
+    private void accumulate(
+        List<Document> hits,
+        Map<String, Document> documents,
+        Map<String, Double> fused
+    ) {
+        if (hits == null) {
+            return;
+        }
+        for (int rank = 0; rank < hits.size(); rank++) {
+            Document hit = hits.get(rank);
+            String key = hit.getMetadata().getChunkId() != null ? hit.getMetadata().getChunkId() : hit.getId();
+            documents.putIfAbsent(key, hit);
+            fused.merge(key, 1.0 / (fusionK + rank + 1), Double::sum);
+        }
+    }
+
+    private void removeLocked(String chunkId) {
+        IndexedChunk removed = chunks.remove(chunkId);
+        if (removed == null) {
+            return;
+        }
+        totalLength -= removed.length;
+        for (String term : removed.terms) {
+            Map<String, Integer> posting = postings.get(term);
+            if (posting != null && posting.remove(chunkId) != null && posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * 中文字符 bigram/trigram + 英文数字整词（包级可见以便测试）
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        StringBuilder han = new StringBuilder();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN) {
+                flushWord(word, terms);
+                han.append(c);
+            } else if (Character.isLetterOrDigit(c)) {
+                flushHan(han, terms);
+                word.append(Character.toLowerCase(c));
+            } else {
+                flushHan(han, terms);
+                flushWord(word, terms);
+            }
+        }
+        return terms;
+    }
+
+    private static void flushHan(StringBuilder han, List<String> terms) {
+        int length = han.length();
+        if (length == 1) {
+            terms.add(han.toString());
+        }
+        for (int i = 0; i + 2 <= length; i++) {
+            terms.add(han.substring(i, i + 2));
+        }
+        for (int i = 0; i + 3 <= length; i++) {
+            terms.add(han.substring(i, i + 3));
+        }
+        han.setLength(0);
+    }
+
+    private static void flushWord(StringBuilder word, List<String> terms) {
+        if (word.length() > 0) {
+            terms.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private record IndexedChunk(Document document, int length, Set<String> terms) {}
+
+    private static final class ScoredChunk {
+
+        private final IndexedChunk chunk;
+        private double score;
+        private int matchedTerms;
+
+        private ScoredChunk(IndexedChunk chunk) {
+            this.chunk = chunk;
+        }
+    }
+
+    /**
+     * 词法检索结果
+     *
+     * @param hits           命中的 chunk，按 BM25 分数降序
+     * @param highConfidence 是否可以直接作为最终结果（跳过向量检索）
+     */
+    public record LexicalSearchResult(List<Document> hits, boolean highConfidence) {}
+}
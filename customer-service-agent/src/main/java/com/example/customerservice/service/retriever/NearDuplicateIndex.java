@@ -0,0 +1,428 @@
+package com.example.customerservice.service.retriever;
+
+import io.agentscope.core.rag.model.Document;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 知识条目与片段的近似重复索引（MinHash + LSH）
+ *
+ * 文本去掉空白和标点、转小写后切成字符 shingle，每个条目/片段保存 bands × rows 个 MinHash 值；
+ * 签名按 band 分桶，任一 band 完全相同的两项成为候选，再用签名估计的 Jaccard 与阈值比较。
+ * 候选概率约为 1 - (1 - s^rows)^bands，默认 16 × 8 时 Jaccard 0.8 的两项漏检率约 0.1%。
+ *
+ * 条目级签名取正文，片段级签名取片段正文；随 KnowledgeBaseService 建索引/删除增量维护，读写锁保护。
+ */
+@Component
+public class NearDuplicateIndex {
+
+    /**
+     * 入库时发现近似重复条目的处理方式
+     */
+    public enum Mode {
+        /** 不检测 */
+        OFF,
+        /** 照常入库，在操作结果中标注重复 */
+        FLAG,
+        /** 不再入库，直接返回已有条目 */
+        MERGE;
+
+        public static Mode from(String value) {
+            try {
+                return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("不支持的去重模式: " + value);
+            }
+        }
+    }
+
+    /**
+     * 与查询文本近似重复的已有条目（或片段）
+     */
+    public record Match(String id, String entryId, double similarity) {}
+
+    /**
+     * 一组互为近似重复的条目（或片段），similarity 为组内成立的重复关系中最低的相似度
+     */
+    public record Cluster(List<String> ids, List<String> entryIds, double similarity) {}
+
+    private final Mode mode;
+    private final double threshold;
+    private final int bands;
+    private final int rows;
+    private final int shingleSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Table entryTable;
+    private final Table chunkTable;
+
+    public NearDuplicateIndex(
+        @Value("${knowledge.dedup.mode:flag}") String mode,
+        @Value("${knowledge.dedup.threshold:0.8}") double threshold,
+        @Value("${knowledge.dedup.bands:16}") int bands,
+        @Value("${knowledge.dedup.rows:8}") int rows,
+        @Value("${knowledge.dedup.shingle-size:3}") int shingleSize
+    ) {
+        this.mode = Mode.from(mode);
+        this.threshold = threshold;
+        this.bands = Math.max(1, bands);
+        this.rows = Math.max(1, rows);
+        this.shingleSize = Math.max(1, shingleSize);
+        this.entryTable = new Table();
+        this.chunkTable = new Table();
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public double threshold() {
+        return threshold;
+    }
+
+    /**
+     * 索引（或覆盖）条目正文
+     */
+    public void addEntry(String entryId, String content) {
+        if (mode == Mode.OFF) {
+            return;
+        }
+        int[] signature = signature(content);
+        lock.writeLock().lock();
+        try {
+            entryTable.remove(entryId);
+            if (signature != null) {
+                entryTable.put(entryId, entryId, signature);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 索引（或覆盖）一批片段，payload 中的 entryId 记为所属条目
+     */
+    public void addChunks(List<Document> documents) {
+        if (mode == Mode.OFF) {
+            return;
+        }
+        // 签名在锁外计算
+        int[][] signatures = new int[documents.size()][];
+        for (int i = 0; i < signatures.length; i++) {
+            signatures[i] = signature(documents.get(i).getMetadata().getContentText());
+        }
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < signatures.length; i++) {
+                Document document = documents.get(i);
+                String chunkId = document.getMetadata().getChunkId();
+                chunkTable.remove(chunkId);
+                if (signatures[i] != null) {
+                    String entryId = document.getPayloadValueAs("entryId", String.class);
+                    chunkTable.put(chunkId, entryId != null ? entryId : chunkId, signatures[i]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeChunks(Collection<String> chunkIds) {
+        if (chunkIds == null || chunkIds.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            chunkIds.forEach(chunkTable::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除条目签名及其全部片段签名
+     */
+    public void removeEntry(String entryId) {
+        lock.writeLock().lock();
+        try {
+            entryTable.remove(entryId);
+            chunkTable.removeOwner(entryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 与给定正文近似重复的已有条目，按相似度降序；excludeEntryId 的条目不参与比较
+     */
+    public List<Match> findDuplicateEntries(String content, String excludeEntryId) {
+        if (mode == Mode.OFF) {
+            return List.of();
+        }
+        int[] signature = signature(content);
+        if (signature == null) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Match> matches = new ArrayList<>();
+            for (String candidate : entryTable.candidates(signature)) {
+                if (candidate.equals(excludeEntryId)) {
+                    continue;
+                }
+                double similarity = similarity(signature, entryTable.signatures.get(candidate));
+                if (similarity >= threshold) {
+                    matches.add(new Match(candidate, candidate, similarity));
+                }
+            }
+            matches.sort(Comparator.comparingDouble(Match::similarity).reversed().thenComparing(Match::id));
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 条目的片段中，与其他条目的片段近似重复的数量
+     */
+    public int countDuplicateChunks(String entryId) {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (String chunkId : chunkTable.idsByOwner.getOrDefault(entryId, Set.of())) {
+                int[] signature = chunkTable.signatures.get(chunkId);
+                for (String candidate : chunkTable.candidates(signature)) {
+                    if (!entryId.equals(chunkTable.owners.get(candidate))
+                        && similarity(signature, chunkTable.signatures.get(candidate)) >= threshold) {
+                        count++;
+                        break;
+                    }
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前所有近似重复的条目分组，按组大小降序
+     */
+    public List<Cluster> entryClusters() {
+        lock.readLock().lock();
+        try {
+            return clusters(entryTable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前所有近似重复的片段分组，按组大小降序
+     */
+    public List<Cluster> chunkClusters() {
+        lock.readLock().lock();
+        try {
+            return clusters(chunkTable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Cluster> clusters(Table table) {
+        Map<String, String> parents = new HashMap<>();
+        List<Link> links = new ArrayList<>();
+        for (Map.Entry<String, int[]> item : table.signatures.entrySet()) {
+            String id = item.getKey();
+            for (String candidate : table.candidates(item.getValue())) {
+                if (candidate.compareTo(id) <= 0) {
+                    continue;
+                }
+                double similarity = similarity(item.getValue(), table.signatures.get(candidate));
+                if (similarity >= threshold) {
+                    union(parents, id, candidate);
+                    links.add(new Link(id, candidate, similarity));
+                }
+            }
+        }
+
+        Map<String, TreeSet<String>> groups = new HashMap<>();
+        Map<String, Double> lowest = new HashMap<>();
+        for (Link link : links) {
+            String root = find(parents, link.a());
+            TreeSet<String> group = groups.computeIfAbsent(root, key -> new TreeSet<>());
+            group.add(link.a());
+            group.add(link.b());
+            lowest.merge(root, link.similarity(), Math::min);
+        }
+        List<Cluster> clusters = new ArrayList<>();
+        for (Map.Entry<String, TreeSet<String>> group : groups.entrySet()) {
+            Set<String> entryIds = new LinkedHashSet<>();
+            for (String id : group.getValue()) {
+                entryIds.add(table.owners.get(id));
+            }
+            clusters.add(new Cluster(List.copyOf(group.getValue()), List.copyOf(entryIds), lowest.get(group.getKey())));
+        }
+        clusters.sort(Comparator.comparingInt((Cluster c) -> c.ids().size()).reversed()
+            .thenComparing(c -> c.ids().get(0)));
+        return clusters;
+    }
+
+    private static String find(Map<String, String> parents, String id) {
+        String root = parents.computeIfAbsent(id, key -> key);
+        while (!root.equals(parents.get(root))) {
+            root = parents.get(root);
+        }
+        parents.put(id, root);
+        return root;
+    }
+
+    private static String union(Map<String, String> parents, String a, String b) {
+        String rootA = find(parents, a);
+        String rootB = find(parents, b);
+        if (!rootA.equals(rootB)) {
+            parents.put(rootB, rootA);
+        }
+        return rootA;
+    }
+
+    /**
+     * 文本的 MinHash 签名；没有可用字符时返回 null
+     */
+    int[] signature(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        text.toLowerCase(Locale.ROOT).codePoints()
+            .filter(Character::isLetterOrDigit)
+            .forEach(normalized::appendCodePoint);
+        int[] codePoints = normalized.codePoints().toArray();
+        if (codePoints.length == 0) {
+            return null;
+        }
+
+        int[] signature = new int[bands * rows];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        int shingles = Math.max(1, codePoints.length - shingleSize + 1);
+        for (int start = 0; start < shingles; start++) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = start; i < Math.min(codePoints.length, start + shingleSize); i++) {
+                hash = (hash ^ codePoints[i]) * 0x100000001b3L;
+            }
+            hash = mix(hash);
+            // 双哈希 h1 + i·h2 派生各个哈希函数
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < signature.length; i++) {
+                int value = h1 + i * h2;
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private record Link(String a, String b, double similarity) {}
+
+    /**
+     * 一类签名（条目或片段）及其 LSH 分桶，调用方持有锁
+     */
+    private final class Table {
+        private final Map<String, int[]> signatures = new HashMap<>();
+        private final Map<String, String> owners = new HashMap<>();
+        private final Map<String, Set<String>> idsByOwner = new HashMap<>();
+        private final List<Map<Long, Set<String>>> buckets = new ArrayList<>();
+
+        private Table() {
+            for (int band = 0; band < bands; band++) {
+                buckets.add(new HashMap<>());
+            }
+        }
+
+        private void put(String id, String owner, int[] signature) {
+            signatures.put(id, signature);
+            owners.put(id, owner);
+            idsByOwner.computeIfAbsent(owner, key -> new HashSet<>()).add(id);
+            for (int band = 0; band < bands; band++) {
+                buckets.get(band).computeIfAbsent(bandKey(signature, band), key -> new HashSet<>()).add(id);
+            }
+        }
+
+        private void remove(String id) {
+            int[] signature = signatures.remove(id);
+            if (signature == null) {
+                return;
+            }
+            String owner = owners.remove(id);
+            Set<String> ids = idsByOwner.get(owner);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                idsByOwner.remove(owner);
+            }
+            for (int band = 0; band < bands; band++) {
+                Map<Long, Set<String>> bucket = buckets.get(band);
+                long key = bandKey(signature, band);
+                Set<String> members = bucket.get(key);
+                if (members != null && members.remove(id) && members.isEmpty()) {
+                    bucket.remove(key);
+                }
+            }
+        }
+
+        private void removeOwner(String owner) {
+            Set<String> ids = idsByOwner.get(owner);
+            if (ids != null) {
+                new ArrayList<>(ids).forEach(this::remove);
+            }
+        }
+
+        private Set<String> candidates(int[] signature) {
+            Set<String> candidates = new HashSet<>();
+            for (int band = 0; band < bands; band++) {
+                Set<String> members = buckets.get(band).get(bandKey(signature, band));
+                if (members != null) {
+                    candidates.addAll(members);
+                }
+            }
+            return candidates;
+        }
+
+        private long bandKey(int[] signature, int band) {
+            long key = band;
+            for (int i = band * rows; i < (band + 1) * rows; i++) {
+                key = key * 0x9e3779b97f4a7c15L + signature[i];
+            }
+            return mix(key);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.customerservice.service.retriever;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import reactor.core.publisher.Mono;
+
+/**
+ * 同键请求合并（single-flight）
+ *
+ * 同一个键同时只有一次计算在进行，期间到达的调用者订阅同一个结果，计算结束后从表中移除，
+ * 之后的调用重新计算。共享计算超过 timeout 时所有等待者收到 {@link TimeoutException}；
+ * 单个调用者取消只让它自己退出，所有调用者都取消后才取消共享计算。
+ */
+final class SingleFlight<T> {
+
+    private final Duration timeout;
+    private final Map<String, Mono<T>> flights = new ConcurrentHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    SingleFlight(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * 有同键计算在进行时加入它，否则订阅 computation 开始新的计算
+     */
+    Mono<T> execute(String key, Supplier<Mono<T>> computation) {
+        return Mono.defer(() -> {
+            Mono<T> existing = flights.get(key);
+            if (existing != null) {
+                coalesced.increment();
+                return existing;
+            }
+            AtomicReference<Mono<T>> self = new AtomicReference<>();
+            Mono<T> flight = Mono.defer(computation)
+                .timeout(timeout)
+                .doOnError(TimeoutException.class, error -> timeouts.increment())
+                .doOnCancel(abandoned::increment)
+                // 先移出表再向等待者发出结果；极少数在移出前拿到引用、结束后才订阅的调用会重新计算一次
+                .doOnTerminate(() -> flights.remove(key, self.get()))
+                .doOnCancel(() -> flights.remove(key, self.get()))
+                .share();
+            self.set(flight);
+            existing = flights.putIfAbsent(key, flight);
+            if (existing != null) {
+                coalesced.increment();
+                return existing;
+            }
+            leaders.increment();
+            return flight;
+        });
+    }
+
+    int inFlight() {
+        return flights.size();
+    }
+
+    long leaders() {
+        return leaders.sum();
+    }
+
+    long coalesced() {
+        return coalesced.sum();
+    }
+
+    long timeouts() {
+        return timeouts.sum();
+    }
+
+    long abandoned() {
+        return abandoned.sum();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.customerservice.service.runtime;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 阻塞任务执行器
+ *
+ * 聊天轮次（Agent调用）、检索扇出（向量检索 + 图谱检索）都包含阻塞的网络调用。
+ * 统一在这里选择执行模型：
+ * - 平台线程模式（默认）：检索使用固定大小的命名线程池，聊天轮次使用 Reactor boundedElastic
+ * - 虚拟线程模式（agent.runtime.virtual-threads=true 且运行在 Java 21+）：两者都使用每任务一个虚拟线程，
+ *   Tomcat 请求线程也同时切换为虚拟线程（见 TomcatVirtualThreadConfig）
+ *
+ * 开启虚拟线程但JVM不支持时，自动退回平台线程模式并输出警告。
+ */
+@Component
+public class BlockingTaskExecutors {
+
+    private static final Logger logger = LoggerFactory.getLogger(
+        BlockingTaskExecutors.class
+    );
+
+    private final boolean virtualThreadsRequested;
+    private final boolean virtualThreadsActive;
+    private final ExecutorService retrievalExecutor;
+    private final Scheduler retrievalScheduler;
+    private final Scheduler chatTurnScheduler;
+
+    public BlockingTaskExecutors(
+        @Value("${agent.runtime.virtual-threads:false}") boolean virtualThreads,
+        @Value("${agent.runtime.retrieval-pool-size:32}") int retrievalPoolSize
+    ) {
+        this.virtualThreadsRequested = virtualThreads;
+        Optional<ExecutorService> virtualExecutor = virtualThreads
+            ? VirtualThreads.newPerTaskExecutor()
+            : Optional.empty();
+        this.virtualThreadsActive = virtualExecutor.isPresent();
+
+        if (virtualThreadsActive) {
+            this.retrievalExecutor = virtualExecutor.get();
+            this.chatTurnScheduler = Schedulers.fromExecutorService(
+                VirtualThreads.newPerTaskExecutor().orElseThrow(),
+                "chat-turn-virtual"
+            );
+            logger.info("虚拟线程模式已启用：聊天轮次与检索扇出运行在虚拟线程上");
+        } else {
+            if (virtualThreads) {
+                logger.warn(
+                    "已配置 agent.runtime.virtual-threads=true，但当前 Java {} 不支持虚拟线程，退回平台线程模式",
+                    Runtime.version().feature()
+                );
+            }
+            this.retrievalExecutor = newPlatformPool(
+                "retrieval",
+                Math.max(2, retrievalPoolSize)
+            );
+            this.chatTurnScheduler = Schedulers.boundedElastic();
+        }
+        this.retrievalScheduler = Schedulers.fromExecutorService(
+            retrievalExecutor,
+            "retrieval"
+        );
+    }
+
+    /**
+     * 检索扇出执行器（向量检索、图谱检索并行执行）
+     */
+    public ExecutorService retrieval() {
+        return retrievalExecutor;
+    }
+
+    /**
+     * 检索调度器，供响应式链路隔离内部阻塞的检索调用（如同步HTTP实现的Embedding）
+     */
+    public Scheduler retrievalScheduler() {
+        return retrievalScheduler;
+    }
+
+    /**
+     * 聊天轮次调度器（执行包含阻塞Agent调用的单轮对话）
+     */
+    public Scheduler chatTurns() {
+        return chatTurnScheduler;
+    }
+
+    /**
+     * 为Tomcat创建请求执行器
+     *
+     * @return 虚拟线程模式下返回虚拟线程执行器，否则返回空（沿用Tomcat默认线程池）
+     */
+    public Optional<ExecutorService> newRequestExecutor() {
+        return virtualThreadsActive ? VirtualThreads.newPerTaskExecutor() : Optional.empty();
+    }
+
+    public boolean isVirtualThreadsRequested() {
+        return virtualThreadsRequested;
+    }
+
+    public boolean isVirtualThreadsActive() {
+        return virtualThreadsActive;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retrievalExecutor.shutdown();
+        if (virtualThreadsActive) {
+            chatTurnScheduler.dispose();
+        }
+    }
+
+    private static ExecutorService newPlatformPool(String name, int size) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(
+            size,
+            size,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            factory
+        );
+    }
+}
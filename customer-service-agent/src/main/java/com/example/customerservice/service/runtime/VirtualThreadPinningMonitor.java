@@ -0,0 +1,135 @@
+package com.example.customerservice.service.runtime;
+
+import com.example.customerservice.dto.RuntimeThreadingResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 虚拟线程钉住（pinning）诊断
+ *
+ * 虚拟线程在 synchronized 块或本地方法中阻塞时无法卸载，会占住承载它的平台线程。
+ * 虚拟线程模式下通过 JFR 事件流订阅 jdk.VirtualThreadPinned，
+ * 按应用代码中最近的栈帧统计热点，并以警告日志输出首次出现的位置。
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(
+        VirtualThreadPinningMonitor.class
+    );
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.example.customerservice";
+    private static final int MAX_HOTSPOTS = 50;
+
+    private final BlockingTaskExecutors executors;
+    private final Duration threshold;
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final Map<String, LongAdder> hotspots = new ConcurrentHashMap<>();
+
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(
+        BlockingTaskExecutors executors,
+        @Value("${agent.runtime.pinning-threshold-ms:20}") long thresholdMs
+    ) {
+        this.executors = executors;
+        this.threshold = Duration.ofMillis(Math.max(0, thresholdMs));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!executors.isVirtualThreadsActive()) {
+            return;
+        }
+        try {
+            recordingStream = new RecordingStream();
+            recordingStream
+                .enable(PINNED_EVENT)
+                .withThreshold(threshold)
+                .withStackTrace();
+            recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+            recordingStream.startAsync();
+            logger.info("虚拟线程钉住诊断已启动，阈值: {}ms", threshold.toMillis());
+        } catch (RuntimeException e) {
+            logger.warn("虚拟线程钉住诊断启动失败: {}", e.getMessage());
+            recordingStream = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    public RuntimeThreadingResponse getRuntimeThreading() {
+        Map<String, Long> topHotspots = new LinkedHashMap<>();
+        hotspots
+            .entrySet()
+            .stream()
+            .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+            .limit(10)
+            .forEach(entry -> topHotspots.put(entry.getKey(), entry.getValue().sum()));
+
+        return new RuntimeThreadingResponse(
+            Runtime.version().feature(),
+            executors.isVirtualThreadsRequested(),
+            executors.isVirtualThreadsActive(),
+            recordingStream != null,
+            pinnedEvents.sum(),
+            topHotspots,
+            Instant.now().toEpochMilli()
+        );
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.increment();
+        String location = locate(event.getStackTrace());
+        if (hotspots.size() >= MAX_HOTSPOTS && !hotspots.containsKey(location)) {
+            location = "other";
+        }
+        LongAdder counter = hotspots.computeIfAbsent(location, key -> new LongAdder());
+        if (counter.sum() == 0) {
+            logger.warn(
+                "检测到虚拟线程被钉住，持续 {}ms，位置: {}",
+                event.getDuration().toMillis(),
+                location
+            );
+        }
+        counter.increment();
+    }
+
+    private String locate(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APP_PACKAGE)) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        if (frames.isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame top = frames.get(0);
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.customerservice.service.runtime;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 虚拟线程运行时探测
+ *
+ * 项目以 Java 17 为编译目标，虚拟线程（Java 21）相关API只能通过反射调用；
+ * 运行在 Java 21+ 上时返回每任务一个虚拟线程的执行器，否则返回空。
+ */
+public final class VirtualThreads {
+
+    private static final Method NEW_VIRTUAL_EXECUTOR = findVirtualExecutorFactory();
+
+    private VirtualThreads() {}
+
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * 创建虚拟线程执行器
+     *
+     * @return 当前JVM支持虚拟线程时返回执行器，否则返回空
+     */
+    public static Optional<ExecutorService> newPerTaskExecutor() {
+        if (NEW_VIRTUAL_EXECUTOR == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Method findVirtualExecutorFactory() {
+        try {
+            return java.util.concurrent.Executors.class.getMethod(
+                "newVirtualThreadPerTaskExecutor"
+            );
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
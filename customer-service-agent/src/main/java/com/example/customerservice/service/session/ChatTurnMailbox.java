@@ -0,0 +1,197 @@
+package com.example.customerservice.service.session;
+
+import com.example.customerservice.dto.ChatMessageResult;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * 用户会话信箱
+ *
+ * 同一用户的Agent实例及其对话记忆不是线程安全的，因此同一用户的消息按到达顺序逐条执行；
+ * 不同用户的信箱互不影响，完全并行。
+ *
+ * - 排队中的轮次只是一个待完成的 Mono，不占用任何线程，上一轮结束时再触发下一轮
+ * - 每个用户最多排队 mailbox-capacity 条消息（不含正在执行的一条），超出时拒绝
+ * - 相同内容的消息已在排队或执行中时，按 duplicate-policy 合并为同一结果（coalesce）或直接拒绝（reject）
+ * - 信箱的所有状态变更都在 ConcurrentHashMap.compute 内完成，空闲信箱会被自动移除
+ */
+@Component
+public class ChatTurnMailbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(
+        ChatTurnMailbox.class
+    );
+
+    private final Map<String, UserMailbox> mailboxes = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final boolean coalesceDuplicates;
+
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ChatTurnMailbox(
+        @Value("${agent.session.mailbox-capacity:4}") int capacity,
+        @Value("${agent.session.duplicate-policy:coalesce}") String duplicatePolicy
+    ) {
+        this.capacity = Math.max(0, capacity);
+        this.coalesceDuplicates = !"reject".equalsIgnoreCase(duplicatePolicy);
+    }
+
+    /**
+     * 提交一个用户轮次
+     *
+     * @param userId  用户ID
+     * @param message 用户消息，用于识别重复提交
+     * @param turn    轮次的执行逻辑，轮到该消息时才会调用
+     * @return 轮次结果；调用方取消订阅不会中断已开始的轮次
+     */
+    public Mono<ChatMessageResult> submit(
+        String userId,
+        String message,
+        Supplier<Mono<ChatMessageResult>> turn
+    ) {
+        return Mono.defer(() -> enqueue(userId, normalize(message), turn));
+    }
+
+    public int getActiveMailboxCount() {
+        return mailboxes.size();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private Mono<ChatMessageResult> enqueue(
+        String userId,
+        String key,
+        Supplier<Mono<ChatMessageResult>> work
+    ) {
+        Turn[] started = new Turn[1];
+        AtomicReference<Mono<ChatMessageResult>> outcome = new AtomicReference<>();
+
+        mailboxes.compute(userId, (id, box) -> {
+            UserMailbox mailbox = box != null ? box : new UserMailbox();
+            Turn existing = mailbox.inFlight.get(key);
+            if (existing != null) {
+                if (coalesceDuplicates) {
+                    coalesced.increment();
+                    outcome.set(existing.sink.asMono());
+                } else {
+                    rejected.increment();
+                    outcome.set(
+                        Mono.error(
+                            new ChatTurnRejectedException("相同的消息正在处理中，请勿重复提交")
+                        )
+                    );
+                }
+                return mailbox;
+            }
+            if (mailbox.running && mailbox.pending.size() >= capacity) {
+                rejected.increment();
+                outcome.set(
+                    Mono.error(
+                        new ChatTurnRejectedException("当前会话排队消息过多，请稍后再试")
+                    )
+                );
+                return mailbox;
+            }
+
+            Turn turn = new Turn(key, work);
+            mailbox.inFlight.put(key, turn);
+            if (mailbox.running) {
+                mailbox.pending.addLast(turn);
+            } else {
+                mailbox.running = true;
+                started[0] = turn;
+            }
+            outcome.set(turn.sink.asMono());
+            return mailbox;
+        });
+
+        if (started[0] != null) {
+            execute(userId, started[0]);
+        }
+        return outcome.get();
+    }
+
+    private void execute(String userId, Turn turn) {
+        Mono<ChatMessageResult> work;
+        try {
+            work = turn.work.get();
+        } catch (RuntimeException e) {
+            work = Mono.error(e);
+        }
+        if (work == null) {
+            work = Mono.empty();
+        }
+        work
+            .doFinally(signal -> complete(userId, turn))
+            .subscribe(
+                turn.sink::tryEmitValue,
+                turn.sink::tryEmitError,
+                turn.sink::tryEmitEmpty
+            );
+    }
+
+    private void complete(String userId, Turn finished) {
+        Turn[] next = new Turn[1];
+        mailboxes.computeIfPresent(userId, (id, mailbox) -> {
+            mailbox.inFlight.remove(finished.key, finished);
+            next[0] = mailbox.pending.pollFirst();
+            if (next[0] == null) {
+                mailbox.running = false;
+                return mailbox.inFlight.isEmpty() ? null : mailbox;
+            }
+            return mailbox;
+        });
+        if (next[0] != null) {
+            logger.debug("用户 {} 的排队消息开始执行", userId);
+            execute(userId, next[0]);
+        }
+    }
+
+    private String normalize(String message) {
+        if (message == null) {
+            return "";
+        }
+        return message.strip().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * 单个用户的信箱状态，只在 ConcurrentHashMap.compute 内访问
+     */
+    private static final class UserMailbox {
+
+        private final Deque<Turn> pending = new ArrayDeque<>();
+        private final Map<String, Turn> inFlight = new HashMap<>();
+        private boolean running;
+    }
+
+    private static final class Turn {
+
+        private final String key;
+        private final Supplier<Mono<ChatMessageResult>> work;
+        private final Sinks.One<ChatMessageResult> sink = Sinks.one();
+
+        private Turn(String key, Supplier<Mono<ChatMessageResult>> work) {
+            this.key = key;
+            this.work = work;
+        }
+    }
+}
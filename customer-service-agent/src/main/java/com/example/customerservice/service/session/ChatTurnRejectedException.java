@@ -0,0 +1,12 @@
+package com.example.customerservice.service.session;
+
+/**
+ * 会话轮次被拒绝异常
+ * 用户排队中的消息超过上限，或重复提交正在处理中的相同消息时抛出
+ */
+public class ChatTurnRejectedException extends RuntimeException {
+
+    public ChatTurnRejectedException(String message) {
+        super(message);
+    }
+}
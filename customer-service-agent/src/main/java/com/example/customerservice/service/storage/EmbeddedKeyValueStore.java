@@ -0,0 +1,476 @@
+package com.example.customerservice.service.storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 进程内键值存储：追加写的批次日志 + 内存有序表 + 压缩
+ *
+ * 数据按表（table）组织，每张表是 key → value 的有序表（ConcurrentSkipListMap），
+ * 写入 O(log n)，读取无锁，可与写入并发。
+ *
+ * 目录结构（gen 为代号，每次压缩加一）：
+ * - CURRENT：当前代号
+ * - kv-{gen}.log：批次日志，每条记录为 [长度][CRC32][批次内容]
+ *
+ * 一个 {@link WriteBatch} 内的全部修改（可跨多张表）写成一条日志记录，落盘后才应用到内存表；
+ * 启动重放时长度不完整或 CRC 不符的尾部记录整条丢弃，所以批次要么全部生效要么全部不生效。
+ * 内存表按批次顺序逐条应用，读者可能短暂看到批次的一部分，
+ * 需要跨表一致视图的调用方（CategoryService、TagService）自行用读写锁保护。
+ *
+ * 日志体积超过存活数据的 compactionRatio 倍时，后台线程把存活数据写成新一代日志并切换 CURRENT，
+ * 压缩期间提交等待，读取不受影响。
+ */
+public class EmbeddedKeyValueStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedKeyValueStore.class);
+
+    private static final String CURRENT_FILE = "CURRENT";
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int COMPACTION_BATCH_SIZE = 4096;
+
+    private final Path directory;
+    private final KeyValueStoreOptions options;
+    private final Map<String, ConcurrentSkipListMap<String, String>> tables = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final ExecutorService maintenance;
+
+    private long generation;
+    private FileChannel log;
+    private long logBytes;
+    private long liveBytes;
+    private boolean closed;
+
+    public EmbeddedKeyValueStore(Path directory, KeyValueStoreOptions options) throws IOException {
+        this.directory = directory;
+        this.options = options;
+        Files.createDirectories(directory);
+        this.generation = readCurrentGeneration();
+        this.log = openLog(generation);
+        deleteStaleLogs();
+        this.maintenance = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kv-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info(
+            "键值存储已加载: path={}, tables={}, log={}KB, live={}KB, generation={}",
+            directory,
+            tables.keySet(),
+            logBytes / 1024,
+            liveBytes / 1024,
+            generation
+        );
+    }
+
+    public String get(String table, String key) {
+        ConcurrentSkipListMap<String, String> entries = tables.get(table);
+        return entries != null ? entries.get(key) : null;
+    }
+
+    /**
+     * 表的只读视图（按 key 有序，随后续提交变化）
+     */
+    public NavigableMap<String, String> entries(String table) {
+        ConcurrentSkipListMap<String, String> entries = tables.get(table);
+        return entries != null ? Collections.unmodifiableNavigableMap(entries) : Collections.emptyNavigableMap();
+    }
+
+    /**
+     * 以 prefix 开头的 key 的只读视图
+     */
+    public NavigableMap<String, String> entriesWithPrefix(String table, String prefix) {
+        return entries(table).subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    public int size(String table) {
+        ConcurrentSkipListMap<String, String> entries = tables.get(table);
+        return entries != null ? entries.size() : 0;
+    }
+
+    /**
+     * 原子提交一批修改：写入一条日志记录（按配置 fsync）后应用到内存表
+     *
+     * 写日志失败时截回提交前的长度并抛出异常，内存表保持不变。
+     */
+    public void commit(WriteBatch batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        byte[] payload = encode(batch.operations);
+        writeLock.lock();
+        try {
+            ensureOpen();
+            long start = logBytes;
+            try {
+                appendRecord(log, payload);
+                if (options.syncOnCommit()) {
+                    log.force(false);
+                }
+            } catch (IOException e) {
+                try {
+                    log.truncate(start);
+                    log.position(start);
+                } catch (IOException truncateFailure) {
+                    e.addSuppressed(truncateFailure);
+                }
+                throw e;
+            }
+            logBytes = start + RECORD_HEADER_BYTES + payload.length;
+            for (Operation operation : batch.operations) {
+                apply(operation);
+            }
+            if (shouldCompact() && compactionScheduled.compareAndSet(false, true)) {
+                try {
+                    maintenance.execute(this::compactQuietly);
+                } catch (RejectedExecutionException e) {
+                    compactionScheduled.set(false);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 立即把存活数据写成新一代日志，丢弃被覆盖和删除的记录
+     */
+    public void compact() throws IOException {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            long next = generation + 1;
+            Path target = logFile(next);
+            long before = logBytes;
+            FileChannel channel = FileChannel.open(
+                target,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+            );
+            try {
+                List<Operation> chunk = new ArrayList<>(COMPACTION_BATCH_SIZE);
+                for (Map.Entry<String, ConcurrentSkipListMap<String, String>> table : tables.entrySet()) {
+                    for (Map.Entry<String, String> entry : table.getValue().entrySet()) {
+                        chunk.add(new Operation(table.getKey(), entry.getKey(), entry.getValue()));
+                        if (chunk.size() == COMPACTION_BATCH_SIZE) {
+                            appendRecord(channel, encode(chunk));
+                            chunk.clear();
+                        }
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    appendRecord(channel, encode(chunk));
+                }
+                channel.force(true);
+                writeCurrentGeneration(next);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                Files.deleteIfExists(target);
+                throw e;
+            }
+            FileChannel old = log;
+            long oldGeneration = generation;
+            log = channel;
+            logBytes = channel.size();
+            generation = next;
+            old.close();
+            Files.deleteIfExists(logFile(oldGeneration));
+            logger.info(
+                "键值存储压缩完成: generation={}, log {}KB -> {}KB",
+                next,
+                before / 1024,
+                logBytes / 1024
+            );
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        maintenance.shutdown();
+        try {
+            maintenance.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            log.force(true);
+            log.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void apply(Operation operation) {
+        ConcurrentSkipListMap<String, String> table = tables.computeIfAbsent(
+            operation.table(),
+            name -> new ConcurrentSkipListMap<>()
+        );
+        String previous = operation.value() != null
+            ? table.put(operation.key(), operation.value())
+            : table.remove(operation.key());
+        if (previous != null) {
+            liveBytes -= entryBytes(operation.table(), operation.key(), previous);
+        }
+        if (operation.value() != null) {
+            liveBytes += entryBytes(operation.table(), operation.key(), operation.value());
+        }
+    }
+
+    private boolean shouldCompact() {
+        return logBytes >= options.minCompactionBytes() &&
+            logBytes > liveBytes * options.compactionRatio();
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (Exception e) {
+            logger.warn("键值存储压缩失败，继续追加旧日志", e);
+        } finally {
+            compactionScheduled.set(false);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("键值存储已关闭");
+        }
+    }
+
+    // ==================== 持久化 ====================
+
+    /**
+     * 重放日志到内存表，截掉崩溃留下的不完整或校验失败的尾部，返回定位到末尾的写通道
+     */
+    private FileChannel openLog(long number) throws IOException {
+        Path path = logFile(number);
+        long validLength = 0;
+        if (Files.exists(path)) {
+            long fileSize = Files.size(path);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                while (true) {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    // 损坏的头部可能给出超出文件剩余长度的值，按不完整尾部处理，避免按它分配内存
+                    if (length < 0 || length > fileSize - validLength - RECORD_HEADER_BYTES) {
+                        logger.warn("键值存储日志记录长度 {} 无效，丢弃 {} 之后的记录: {}", length, validLength, path);
+                        break;
+                    }
+                    byte[] payload = new byte[length];
+                    in.readFully(payload);
+                    if (crc(payload) != checksum) {
+                        logger.warn("键值存储日志校验失败，丢弃 {} 之后的记录: {}", validLength, path);
+                        break;
+                    }
+                    for (Operation operation : decode(payload)) {
+                        apply(operation);
+                    }
+                    validLength += RECORD_HEADER_BYTES + length;
+                }
+            } catch (EOFException e) {
+                // 日志尾部不完整，截断到最后一条完整记录
+            }
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() > validLength) {
+            logger.warn("键值存储日志截断 {} 字节不完整尾部: {}", channel.size() - validLength, path);
+            channel.truncate(validLength);
+        }
+        channel.position(validLength);
+        logBytes = validLength;
+        return channel;
+    }
+
+    private static void appendRecord(FileChannel channel, byte[] payload) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        header.putInt(payload.length).putInt(crc(payload)).flip();
+        ByteBuffer body = ByteBuffer.wrap(payload);
+        ByteBuffer[] buffers = { header, body };
+        while (body.hasRemaining()) {
+            channel.write(buffers);
+        }
+    }
+
+    private static byte[] encode(List<Operation> operations) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * operations.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(operations.size());
+        for (Operation operation : operations) {
+            out.writeByte(operation.value() != null ? OP_PUT : OP_DELETE);
+            writeString(out, operation.table());
+            writeString(out, operation.key());
+            if (operation.value() != null) {
+                writeString(out, operation.value());
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static List<Operation> decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int count = in.readInt();
+        List<Operation> operations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte type = in.readByte();
+            String table = readString(in);
+            String key = readString(in);
+            String value = type == OP_PUT ? readString(in) : null;
+            operations.add(new Operation(table, key, value));
+        }
+        return operations;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 条目在日志中的近似字节数（压缩触发判断用）
+     */
+    private static long entryBytes(String table, String key, String value) {
+        return 13 + utf8Length(table) + utf8Length(key) + utf8Length(value);
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            length += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+        }
+        return length;
+    }
+
+    private long readCurrentGeneration() throws IOException {
+        Path current = directory.resolve(CURRENT_FILE);
+        if (!Files.exists(current)) {
+            writeCurrentGeneration(0);
+            return 0;
+        }
+        return Long.parseLong(Files.readString(current).trim());
+    }
+
+    private void writeCurrentGeneration(long number) throws IOException {
+        Path target = directory.resolve(CURRENT_FILE);
+        Path temp = directory.resolve(CURRENT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(
+            temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            channel.write(ByteBuffer.wrap(Long.toString(number).getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 删除压缩中断或切换后遗留的其他代日志
+     */
+    private void deleteStaleLogs() throws IOException {
+        Path currentLog = logFile(generation);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith("kv-") && name.endsWith(".log") && !file.equals(currentLog)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path logFile(long number) {
+        return directory.resolve("kv-" + number + ".log");
+    }
+
+    private record Operation(String table, String key, String value) {}
+
+    /**
+     * 一次原子提交的修改集合，value 为 null 表示删除
+     */
+    public static final class WriteBatch {
+
+        private final List<Operation> operations = new ArrayList<>();
+
+        public WriteBatch put(String table, String key, String value) {
+            operations.add(new Operation(
+                Objects.requireNonNull(table),
+                Objects.requireNonNull(key),
+                Objects.requireNonNull(value)
+            ));
+            return this;
+        }
+
+        public WriteBatch delete(String table, String key) {
+            operations.add(new Operation(Objects.requireNonNull(table), Objects.requireNonNull(key), null));
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return operations.isEmpty();
+        }
+
+        public int size() {
+            return operations.size();
+        }
+    }
+}
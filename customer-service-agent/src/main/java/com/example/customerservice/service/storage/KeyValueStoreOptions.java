@@ -0,0 +1,19 @@
+package com.example.customerservice.service.storage;
+
+/**
+ * 内嵌键值存储参数
+ *
+ * @param syncOnCommit       每次提交都 fsync；为 false 时只写入操作系统缓存，进程崩溃不丢数据，断电可能丢最近的提交
+ * @param compactionRatio    日志体积超过存活数据的该倍数时后台压缩
+ * @param minCompactionBytes 日志小于该体积时不压缩
+ */
+public record KeyValueStoreOptions(
+    boolean syncOnCommit,
+    double compactionRatio,
+    long minCompactionBytes
+) {
+
+    public static KeyValueStoreOptions defaults() {
+        return new KeyValueStoreOptions(true, 2.0, 4L * 1024 * 1024);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.customerservice.service.vector;
+
+import io.agentscope.core.rag.model.Document;
+import io.agentscope.core.rag.store.dto.SearchDocumentDto;
+import java.util.List;
+import reactor.core.publisher.Mono;
+
+/**
+ * 支持在向量库内部按 payload 过滤的检索
+ *
+ * VDBStoreBase 只有无条件检索，分类/标签范围检索若在 Java 侧后过滤，
+ * 需要多取结果且范围较小时容易取不满；实现本接口的向量库把过滤条件下推到检索过程中。
+ */
+public interface FilterableVectorStore {
+
+    Mono<List<Document>> search(SearchDocumentDto request, PayloadFilter filter);
+}
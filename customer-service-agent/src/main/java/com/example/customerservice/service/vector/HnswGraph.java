@@ -0,0 +1,393 @@
+package com.example.customerservice.service.vector;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntPredicate;
+
+/**
+ * HNSW（Hierarchical Navigable Small World）近邻图
+ *
+ * 节点号即 {@link MappedVectorStorage} 的槽位号，相似度为归一化向量的内积。
+ *
+ * 并发模型：
+ * - 插入、删除标记只由持有写锁的单个线程执行
+ * - 每层邻居表是不可变 int[]，修改时整体替换（写时复制），读线程无锁遍历时
+ *   要么看到旧表要么看到新表
+ * - 新节点的邻居表先填好，再发布 size 和入口点，读线程不会看到半初始化的节点
+ */
+final class HnswGraph {
+
+    private static final int[] NO_NEIGHBORS = new int[0];
+
+    private final MappedVectorStorage vectors;
+    private final int m;
+    private final int maxLayerZero;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+
+    private volatile Node[] nodes = new Node[64];
+    private volatile int size;
+    private volatile EntryPoint entryPoint;
+
+    HnswGraph(MappedVectorStorage vectors, int m, int efConstruction, long seed) {
+        this.vectors = vectors;
+        this.m = Math.max(2, m);
+        this.maxLayerZero = this.m * 2;
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.levelMultiplier = 1.0 / Math.log(this.m);
+        this.random = new SplittableRandom(seed);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isDeleted(int node) {
+        return !isLive(node);
+    }
+
+    void markDeleted(int node) {
+        nodes[node].deleted = true;
+    }
+
+    /**
+     * 插入槽位 node 对应的向量（node 必须等于当前 size）
+     */
+    void insert(int node, float[] vector) {
+        if (node != size) {
+            throw new IllegalStateException("HNSW节点必须按槽位顺序插入: " + node + " != " + size);
+        }
+        int level = randomLevel();
+        Node created = new Node(level);
+        ensureCapacity(node + 1);
+
+        EntryPoint entry = entryPoint;
+        if (entry == null) {
+            nodes[node] = created;
+            size = node + 1;
+            entryPoint = new EntryPoint(node, level);
+            return;
+        }
+
+        int current = entry.node;
+        float currentScore = vectors.dot(vector, current);
+        for (int layer = entry.level; layer > level; layer--) {
+            int[] greedy = greedyStep(vector, current, currentScore, layer);
+            current = greedy[0];
+            currentScore = Float.intBitsToFloat(greedy[1]);
+        }
+
+        int topLayer = Math.min(level, entry.level);
+        List<List<Candidate>> selectedByLayer = new ArrayList<>(topLayer + 1);
+        List<Candidate> entryCandidates = List.of(new Candidate(current, currentScore));
+        for (int layer = topLayer; layer >= 0; layer--) {
+            List<Candidate> found = searchLayer(vector, entryCandidates, efConstruction, layer, null);
+            List<Candidate> selected = selectNeighbors(found, m);
+            created.links.set(layer, toIds(selected));
+            selectedByLayer.add(selected);
+            entryCandidates = found;
+        }
+
+        // 先发布新节点，再添加反向边，读线程经反向边到达时邻居表已完整
+        nodes[node] = created;
+        size = node + 1;
+        for (int i = 0; i < selectedByLayer.size(); i++) {
+            int layer = topLayer - i;
+            int limit = layer == 0 ? maxLayerZero : m;
+            for (Candidate neighbor : selectedByLayer.get(i)) {
+                link(neighbor.node, node, neighbor.score, layer, limit);
+            }
+        }
+        if (level > entry.level) {
+            entryPoint = new EntryPoint(node, level);
+        }
+    }
+
+    /**
+     * 检索与 query 最相近的 k 个未删除节点，按相似度降序
+     */
+    List<Candidate> search(float[] query, int k, int ef) {
+        return search(query, k, ef, node -> true);
+    }
+
+    /**
+     * 带过滤条件的检索：遍历路径不受过滤影响，只有满足 filter 的未删除节点进入结果。
+     * 过滤条件很严格时结果可能不足 k 条，由调用方决定是否退化为精确扫描。
+     */
+    List<Candidate> search(float[] query, int k, int ef, IntPredicate filter) {
+        EntryPoint entry = entryPoint;
+        if (entry == null || k <= 0) {
+            return List.of();
+        }
+        int current = entry.node;
+        float currentScore = vectors.dot(query, current);
+        for (int layer = entry.level; layer > 0; layer--) {
+            int[] greedy = greedyStep(query, current, currentScore, layer);
+            current = greedy[0];
+            currentScore = Float.intBitsToFloat(greedy[1]);
+        }
+        List<Candidate> found = searchLayer(
+            query,
+            List.of(new Candidate(current, currentScore)),
+            Math.max(ef, k),
+            0,
+            node -> isLive(node) && filter.test(node)
+        );
+        return found.size() > k ? new ArrayList<>(found.subList(0, k)) : found;
+    }
+
+    /**
+     * 把图结构（层级、邻居表、删除标记、入口点）写入快照
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        int count = size;
+        EntryPoint entry = entryPoint;
+        out.writeInt(count);
+        out.writeInt(entry == null ? -1 : entry.node);
+        out.writeInt(entry == null ? -1 : entry.level);
+        for (int i = 0; i < count; i++) {
+            Node node = nodes[i];
+            out.writeInt(node.level);
+            out.writeBoolean(node.deleted);
+            for (int layer = 0; layer <= node.level; layer++) {
+                int[] links = node.links.get(layer);
+                out.writeInt(links.length);
+                for (int link : links) {
+                    out.writeInt(link);
+                }
+            }
+        }
+    }
+
+    /**
+     * 从快照恢复图结构，返回快照中的节点数
+     */
+    int readFrom(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        int entryNode = in.readInt();
+        int entryLevel = in.readInt();
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            Node node = new Node(in.readInt());
+            node.deleted = in.readBoolean();
+            for (int layer = 0; layer <= node.level; layer++) {
+                int[] links = new int[in.readInt()];
+                for (int j = 0; j < links.length; j++) {
+                    links[j] = in.readInt();
+                }
+                node.links.set(layer, links);
+            }
+            nodes[i] = node;
+        }
+        size = count;
+        entryPoint = entryNode < 0 ? null : new EntryPoint(entryNode, entryLevel);
+        return count;
+    }
+
+    private int randomLevel() {
+        double uniform = 1.0 - random.nextDouble();
+        return (int) Math.floor(-Math.log(uniform) * levelMultiplier);
+    }
+
+    /**
+     * 在 layer 层上贪心移动到局部最优节点，返回 {节点, 相似度的 float 位}
+     */
+    private int[] greedyStep(float[] query, int start, float startScore, int layer) {
+        int current = start;
+        float best = startScore;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : neighbors(current, layer)) {
+                float score = vectors.dot(query, neighbor);
+                if (score > best) {
+                    best = score;
+                    current = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return new int[] { current, Float.floatToIntBits(best) };
+    }
+
+    private List<Candidate> searchLayer(
+        float[] query,
+        List<Candidate> entries,
+        int ef,
+        int layer,
+        IntPredicate accept
+    ) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>(Candidate.BY_SCORE_DESC);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(Candidate.BY_SCORE_ASC);
+        PriorityQueue<Candidate> live = accept != null
+            ? new PriorityQueue<>(Candidate.BY_SCORE_ASC)
+            : results;
+        for (Candidate entry : entries) {
+            visited.set(entry.node);
+            frontier.add(entry);
+            results.add(entry);
+            if (accept != null && accept.test(entry.node)) {
+                live.add(entry);
+            }
+        }
+        trim(results, ef);
+        trim(live, ef);
+
+        while (!frontier.isEmpty()) {
+            Candidate closest = frontier.poll();
+            if (results.size() >= ef && closest.score < results.peek().score) {
+                break;
+            }
+            for (int neighbor : neighbors(closest.node, layer)) {
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float score = vectors.dot(query, neighbor);
+                if (results.size() < ef || score > results.peek().score) {
+                    Candidate candidate = new Candidate(neighbor, score);
+                    frontier.add(candidate);
+                    results.add(candidate);
+                    trim(results, ef);
+                    if (accept != null && accept.test(neighbor)) {
+                        live.add(candidate);
+                        trim(live, ef);
+                    }
+                }
+            }
+        }
+
+        List<Candidate> ordered = new ArrayList<>(live);
+        ordered.sort(Candidate.BY_SCORE_DESC);
+        return ordered;
+    }
+
+    /**
+     * 启发式邻居选择：候选 c 只有在比已选邻居更接近查询点时才保留，
+     * 使邻居分布在不同方向上，提升聚簇数据的召回率
+     */
+    private List<Candidate> selectNeighbors(List<Candidate> candidates, int limit) {
+        List<Candidate> sorted = new ArrayList<>(candidates);
+        sorted.sort(Candidate.BY_SCORE_DESC);
+        List<Candidate> selected = new ArrayList<>(limit);
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate candidate : sorted) {
+            if (selected.size() >= limit) {
+                break;
+            }
+            float[] candidateVector = vectors.read(candidate.node);
+            boolean diverse = true;
+            for (Candidate chosen : selected) {
+                if (vectors.dot(candidateVector, chosen.node) > candidate.score) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                skipped.add(candidate);
+            }
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < limit; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * 给已有节点 target 增加指向 source 的反向边，超过上限时重新做邻居选择
+     */
+    private void link(int target, int source, float score, int layer, int limit) {
+        Node node = nodes[target];
+        int[] current = node.links.get(layer);
+        for (int existing : current) {
+            if (existing == source) {
+                return;
+            }
+        }
+        if (current.length < limit) {
+            int[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = source;
+            node.links.set(layer, grown);
+            return;
+        }
+        float[] targetVector = vectors.read(target);
+        List<Candidate> candidates = new ArrayList<>(current.length + 1);
+        for (int existing : current) {
+            candidates.add(new Candidate(existing, vectors.dot(targetVector, existing)));
+        }
+        candidates.add(new Candidate(source, score));
+        node.links.set(layer, toIds(selectNeighbors(candidates, limit)));
+    }
+
+    private boolean isLive(int node) {
+        Node current = nodes[node];
+        return current != null && !current.deleted;
+    }
+
+    private int[] neighbors(int node, int layer) {
+        Node current = nodes[node];
+        if (current == null || layer > current.level) {
+            return NO_NEIGHBORS;
+        }
+        return current.links.get(layer);
+    }
+
+    private void ensureCapacity(int required) {
+        Node[] current = nodes;
+        if (required > current.length) {
+            nodes = Arrays.copyOf(current, Math.max(required, current.length * 2));
+        }
+    }
+
+    private static void trim(PriorityQueue<Candidate> queue, int limit) {
+        while (queue.size() > limit) {
+            queue.poll();
+        }
+    }
+
+    private static int[] toIds(List<Candidate> candidates) {
+        int[] ids = new int[candidates.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = candidates.get(i).node;
+        }
+        return ids;
+    }
+
+    private static final class Node {
+
+        private final int level;
+        private final AtomicReferenceArray<int[]> links;
+        private volatile boolean deleted;
+
+        private Node(int level) {
+            this.level = level;
+            this.links = new AtomicReferenceArray<>(level + 1);
+            for (int layer = 0; layer <= level; layer++) {
+                links.set(layer, NO_NEIGHBORS);
+            }
+        }
+    }
+
+    private record EntryPoint(int node, int level) {}
+
+    /**
+     * 检索候选：节点号 + 与查询向量的相似度
+     */
+    record Candidate(int node, float score) {
+        static final Comparator<Candidate> BY_SCORE_ASC = Comparator.comparingDouble(Candidate::score);
+        static final Comparator<Candidate> BY_SCORE_DESC = BY_SCORE_ASC.reversed();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.customerservice.service.vector;
+
+import java.time.Duration;
+
+/**
+ * 内嵌 HNSW 向量库参数
+ *
+ * @param m                   每层邻居数上限（第0层为 2m）
+ * @param efConstruction      建图时的候选队列长度，越大建图越慢、图质量越高
+ * @param efSearch            检索时的候选队列长度，越大召回越高、延迟越高
+ * @param quantization        向量存储精度
+ * @param compactionThreshold 删除标记占比超过该值时后台压缩
+ * @param flushInterval       图快照与向量文件的刷盘间隔
+ */
+public record HnswStoreOptions(
+    int m,
+    int efConstruction,
+    int efSearch,
+    Quantization quantization,
+    double compactionThreshold,
+    Duration flushInterval
+) {
+
+    public static HnswStoreOptions defaults() {
+        return new HnswStoreOptions(16, 200, 64, Quantization.FLOAT32, 0.2, Duration.ofSeconds(5));
+    }
+
+    /**
+     * 向量量化方式
+     * - FLOAT32：每个分量4字节
+     * - INT8：每个向量4字节缩放系数 + 每个分量1字节，内存约为 FLOAT32 的 1/4
+     */
+    public enum Quantization {
+        FLOAT32,
+        INT8;
+
+        public static Quantization parse(String value) {
+            return "int8".equalsIgnoreCase(value) ? INT8 : FLOAT32;
+        }
+    }
+}
@@ -0,0 +1,768 @@
+package com.example.customerservice.service.vector;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.agentscope.core.message.TextBlock;
+import io.agentscope.core.rag.model.Document;
+import io.agentscope.core.rag.model.DocumentMetadata;
+import io.agentscope.core.rag.store.VDBStoreBase;
+import io.agentscope.core.rag.store.dto.SearchDocumentDto;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 进程内 HNSW 向量库，可替代 MilvusStore 作为 SimpleKnowledge 的 embeddingStore
+ *
+ * 目录结构（gen 为代号，每次压缩加一）：
+ * - store.properties：当前代号、维度、量化方式
+ * - vectors-{gen}.dat：内存映射的向量文件（堆外）
+ * - records-{gen}.log：追加写的记录日志（INSERT 带文本与 payload，DELETE 为删除标记）
+ * - graph-{gen}.snapshot：HNSW 图快照，启动时加载后只需重放快照之后的日志
+ *
+ * 并发：
+ * - 写入（add/delete）串行执行，检索无锁，可与写入并发
+ * - 删除只打标记，检索跳过；删除占比超过阈值时后台线程重建到新一代文件，
+ *   重建期间检索和写入继续使用旧一代，只在切换到新一代时短暂持有写锁并补上重建期间的写入
+ *
+ * delete 同时接受文档 ID 和 chunkId（KnowledgeBaseService 按 chunkId 删除）。
+ *
+ * 带 {@link PayloadFilter} 的检索在图遍历时只收集满足条件的节点；
+ * 范围太小导致图检索取不满时，退化为对满足条件节点的精确扫描。
+ */
+public class HnswVectorStore implements VDBStoreBase, FilterableVectorStore, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HnswVectorStore.class);
+
+    private static final String STORE_PROPERTIES = "store.properties";
+    private static final int SNAPSHOT_MAGIC = 0x484E5357;
+    private static final int MIN_COMPACTION_NODES = 64;
+    private static final byte LOG_INSERT = 1;
+    private static final byte LOG_DELETE = 2;
+
+    private final Path directory;
+    private final int dimensions;
+    private final HnswStoreOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService maintenance;
+
+    private volatile Generation current;
+    private boolean dirty;
+    private boolean closed;
+
+    public HnswVectorStore(Path directory, int dimensions, HnswStoreOptions options)
+        throws IOException {
+        this.directory = directory;
+        this.dimensions = dimensions;
+        this.options = options;
+        Files.createDirectories(directory);
+        this.current = openCurrentGeneration();
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hnsw-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, options.flushInterval().toMillis());
+        maintenance.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info(
+            "HNSW向量库已加载: path={}, live={}, deleted={}, generation={}",
+            directory,
+            current.liveCount,
+            current.deletedCount,
+            current.number
+        );
+    }
+
+    @Override
+    public Mono<Void> add(List<Document> documents) {
+        return Mono.<Void>fromRunnable(() -> addAll(documents))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<List<Document>> search(SearchDocumentDto request) {
+        return search(request, PayloadFilter.NONE);
+    }
+
+    @Override
+    public Mono<List<Document>> search(SearchDocumentDto request, PayloadFilter filter) {
+        return Mono.fromCallable(() -> searchNow(request, filter));
+    }
+
+    @Override
+    public Mono<Boolean> delete(String id) {
+        return Mono.fromCallable(() -> deleteNow(id)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * 未删除的向量数
+     */
+    public int liveCount() {
+        return current.liveCount;
+    }
+
+    /**
+     * 已打删除标记、尚未压缩的向量数
+     */
+    public int deletedCount() {
+        return current.deletedCount;
+    }
+
+    /**
+     * 把记录日志、向量文件和图快照刷到磁盘
+     */
+    public void flush() throws IOException {
+        writeLock.lock();
+        try {
+            if (!closed && dirty) {
+                writeSnapshot(current);
+                dirty = false;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 立即把未删除的向量重建到新一代文件，丢弃删除标记
+     *
+     * 重建在写锁外进行：先记下旧一代当前的节点数，把其中未删除的节点复制到新一代并写好图快照，
+     * 期间 add/delete 继续写旧一代；再持有写锁补上这段时间的写入（已复制节点上的删除、新增节点），
+     * 写入 store.properties 后切换。
+     */
+    public void compact() throws IOException {
+        compactionLock.lock();
+        try {
+            Generation old;
+            int copied;
+            writeLock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                old = current;
+                copied = old.graph.size();
+            } finally {
+                writeLock.unlock();
+            }
+
+            Generation next = createGeneration(old.number + 1);
+            try {
+                int[] copies = new int[copied];
+                for (int node = 0; node < copied; node++) {
+                    copies[node] = old.graph.isDeleted(node) ? -1 : copyNode(old, node, next);
+                }
+                writeSnapshot(next);
+                swapIn(old, next, copies);
+            } catch (IOException | RuntimeException e) {
+                next.close();
+                deleteGenerationFiles(next.number);
+                throw e;
+            }
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    private void swapIn(Generation old, Generation next, int[] copies) throws IOException {
+        writeLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("HNSW向量库已关闭，放弃压缩结果");
+            }
+            int replayed = 0;
+            for (int node = 0; node < copies.length; node++) {
+                if (copies[node] >= 0 && old.graph.isDeleted(node)) {
+                    markDeleted(next, copies[node]);
+                    replayed++;
+                }
+            }
+            for (int node = copies.length; node < old.graph.size(); node++) {
+                if (!old.graph.isDeleted(node)) {
+                    copyNode(old, node, next);
+                    replayed++;
+                }
+            }
+            // 快照之后补上的写入只在记录日志里，重新打开时重放
+            next.log.sync();
+            writeStoreProperties(next.number);
+            current = next;
+            dirty = replayed > 0;
+            try {
+                old.close();
+            } catch (IOException e) {
+                logger.warn("关闭HNSW旧一代文件失败: generation={}", old.number, e);
+            }
+            deleteGenerationFiles(old.number);
+            logger.info(
+                "HNSW向量库压缩完成: generation={}, live={}, removed={}, replayed={}",
+                next.number,
+                next.liveCount,
+                old.deletedCount,
+                replayed
+            );
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // 不中断正在进行的压缩：FileChannel 被中断会直接关闭
+        maintenance.shutdown();
+        try {
+            maintenance.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (dirty) {
+                writeSnapshot(current);
+            }
+            closed = true;
+            current.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void addAll(List<Document> documents) {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            Generation generation = current;
+            for (Document document : documents) {
+                double[] embedding = document.getEmbedding();
+                if (embedding == null || embedding.length != dimensions) {
+                    throw new IllegalArgumentException(
+                        "文档向量维度不匹配: 期望 " + dimensions + "，实际 " +
+                        (embedding == null ? 0 : embedding.length)
+                    );
+                }
+                DocumentMetadata metadata = document.getMetadata();
+                StoredRecord record = new StoredRecord(
+                    document.getId(),
+                    metadata.getDocId(),
+                    metadata.getChunkId(),
+                    metadata.getContentText(),
+                    metadata.getPayload() == null ? Map.of() : new LinkedHashMap<>(metadata.getPayload())
+                );
+                Integer existing = generation.nodesByKey.get(record.id());
+                if (existing != null) {
+                    markDeleted(generation, existing);
+                }
+                insert(generation, record, normalize(embedding));
+            }
+            generation.log.flush();
+            dirty = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入HNSW向量库失败", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private List<Document> searchNow(SearchDocumentDto request, PayloadFilter filter) {
+        double[] embedding = request.getQueryEmbedding();
+        if (embedding == null || embedding.length != dimensions) {
+            throw new IllegalArgumentException("查询向量维度不匹配: 期望 " + dimensions);
+        }
+        Generation generation = current;
+        int limit = request.getLimit();
+        Double threshold = request.getScoreThreshold();
+        float[] query = normalize(embedding);
+        List<HnswGraph.Candidate> hits;
+        if (filter.isEmpty()) {
+            hits = generation.graph.search(query, limit, Math.max(options.efSearch(), limit));
+        } else {
+            StoredRecord[] records = generation.records;
+            hits = generation.graph.search(
+                query,
+                limit,
+                Math.max(options.efSearch(), limit),
+                node -> node < records.length && records[node] != null && filter.test(records[node].payload())
+            );
+            if (hits.size() < limit) {
+                hits = exactFilteredSearch(generation, query, limit, filter);
+            }
+        }
+        List<Document> documents = new ArrayList<>(hits.size());
+        for (HnswGraph.Candidate hit : hits) {
+            if (threshold != null && hit.score() < threshold) {
+                continue;
+            }
+            Document document = generation.records[hit.node()].toDocument();
+            document.setScore((double) hit.score());
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    /**
+     * 对满足过滤条件的未删除节点做精确内积排序
+     */
+    private static List<HnswGraph.Candidate> exactFilteredSearch(
+        Generation generation,
+        float[] query,
+        int limit,
+        PayloadFilter filter
+    ) {
+        StoredRecord[] records = generation.records;
+        int size = Math.min(generation.graph.size(), records.length);
+        PriorityQueue<HnswGraph.Candidate> top = new PriorityQueue<>(
+            Comparator.comparingDouble(HnswGraph.Candidate::score)
+        );
+        for (int node = 0; node < size; node++) {
+            StoredRecord record = records[node];
+            if (record == null || generation.graph.isDeleted(node) || !filter.test(record.payload())) {
+                continue;
+            }
+            top.add(new HnswGraph.Candidate(node, generation.vectors.dot(query, node)));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<HnswGraph.Candidate> ordered = new ArrayList<>(top);
+        ordered.sort(Comparator.comparingDouble(HnswGraph.Candidate::score).reversed());
+        return ordered;
+    }
+
+    private boolean deleteNow(String id) throws IOException {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            Generation generation = current;
+            Integer node = generation.nodesByKey.get(id);
+            if (node == null) {
+                return false;
+            }
+            markDeleted(generation, node);
+            generation.log.flush();
+            dirty = true;
+            if (shouldCompact(generation) && compactionScheduled.compareAndSet(false, true)) {
+                maintenance.execute(this::compactQuietly);
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void insert(Generation generation, StoredRecord record, float[] vector)
+        throws IOException {
+        publish(generation, generation.vectors.append(vector), record, vector);
+    }
+
+    /**
+     * 把旧一代的节点复制到新一代，向量按存储的原始字节复制
+     */
+    private int copyNode(Generation source, int node, Generation target) throws IOException {
+        int copy = target.vectors.appendCopy(source.vectors, node);
+        publish(target, copy, source.records[node], target.vectors.read(copy));
+        return copy;
+    }
+
+    private void publish(Generation generation, int node, StoredRecord record, float[] vector)
+        throws IOException {
+        generation.putRecord(node, record);
+        generation.log.appendInsert(node, objectMapper.writeValueAsBytes(record));
+        generation.graph.insert(node, vector);
+        generation.index(node, record);
+        generation.liveCount++;
+    }
+
+    private void markDeleted(Generation generation, int node) throws IOException {
+        generation.graph.markDeleted(node);
+        generation.unindex(node, generation.records[node]);
+        generation.log.appendDelete(node);
+        generation.liveCount--;
+        generation.deletedCount++;
+    }
+
+    private boolean shouldCompact(Generation generation) {
+        int total = generation.liveCount + generation.deletedCount;
+        return total >= MIN_COMPACTION_NODES &&
+            generation.deletedCount > total * options.compactionThreshold();
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (Exception e) {
+            logger.warn("HNSW向量库压缩失败，保留删除标记继续服务", e);
+        } finally {
+            compactionScheduled.set(false);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("HNSW向量库刷盘失败", e);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("HNSW向量库已关闭");
+        }
+    }
+
+    // ==================== 持久化 ====================
+
+    private Generation openCurrentGeneration() throws IOException {
+        Path propertiesFile = directory.resolve(STORE_PROPERTIES);
+        if (!Files.exists(propertiesFile)) {
+            Generation generation = createGeneration(0);
+            writeStoreProperties(0);
+            return generation;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(propertiesFile)) {
+            properties.load(in);
+        }
+        int storedDimensions = Integer.parseInt(properties.getProperty("dimensions"));
+        String storedQuantization = properties.getProperty("quantization");
+        if (storedDimensions != dimensions || !options.quantization().name().equals(storedQuantization)) {
+            throw new IllegalStateException(
+                "HNSW向量库配置与已有数据不一致: 目录 " + directory + " 为 " + storedDimensions + " 维/" +
+                storedQuantization + "，当前配置为 " + dimensions + " 维/" + options.quantization() +
+                "。请删除该目录后重建知识库索引"
+            );
+        }
+        return loadGeneration(Long.parseLong(properties.getProperty("generation")));
+    }
+
+    private Generation createGeneration(long number) throws IOException {
+        deleteGenerationFiles(number);
+        MappedVectorStorage vectors = new MappedVectorStorage(
+            vectorsFile(number), dimensions, options.quantization(), 0
+        );
+        return new Generation(
+            number,
+            vectors,
+            new HnswGraph(vectors, options.m(), options.efConstruction(), number),
+            RecordLog.open(logFile(number), List.of())
+        );
+    }
+
+    private Generation loadGeneration(long number) throws IOException {
+        List<LogEntry> entries = new ArrayList<>();
+        RecordLog log = RecordLog.open(logFile(number), entries);
+        int nodeCount = 0;
+        for (LogEntry entry : entries) {
+            if (entry.type == LOG_INSERT) {
+                nodeCount = Math.max(nodeCount, entry.node + 1);
+            }
+        }
+        MappedVectorStorage vectors = new MappedVectorStorage(
+            vectorsFile(number), dimensions, options.quantization(), nodeCount
+        );
+        HnswGraph graph = new HnswGraph(vectors, options.m(), options.efConstruction(), number);
+        int restored = readSnapshot(number, graph, nodeCount);
+        if (restored == 0) {
+            graph = new HnswGraph(vectors, options.m(), options.efConstruction(), number);
+        }
+        Generation generation = new Generation(number, vectors, graph, log);
+
+        for (LogEntry entry : entries) {
+            if (entry.type == LOG_INSERT) {
+                StoredRecord record = objectMapper.readValue(entry.record, StoredRecord.class);
+                generation.putRecord(entry.node, record);
+                if (entry.node >= restored) {
+                    graph.insert(entry.node, vectors.read(entry.node));
+                }
+                generation.index(entry.node, record);
+                generation.liveCount++;
+            }
+        }
+        for (LogEntry entry : entries) {
+            if (entry.type == LOG_DELETE && entry.node < nodeCount) {
+                graph.markDeleted(entry.node);
+                generation.unindex(entry.node, generation.records[entry.node]);
+                generation.liveCount--;
+                generation.deletedCount++;
+            }
+        }
+        dirty = restored < nodeCount;
+        return generation;
+    }
+
+    /**
+     * 读取图快照，返回恢复的节点数；快照缺失或与日志不一致时返回0（从日志重建）
+     */
+    private int readSnapshot(long number, HnswGraph graph, int nodeCount) {
+        Path snapshot = snapshotFile(number);
+        if (!Files.exists(snapshot)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != dimensions) {
+                logger.warn("HNSW图快照格式不匹配，将从记录日志重建: {}", snapshot);
+                return 0;
+            }
+            int restored = graph.readFrom(in);
+            if (restored > nodeCount) {
+                logger.warn("HNSW图快照领先于记录日志，将从记录日志重建: {}", snapshot);
+                return 0;
+            }
+            return restored;
+        } catch (IOException e) {
+            logger.warn("读取HNSW图快照失败，将从记录日志重建: {}", snapshot, e);
+            return 0;
+        }
+    }
+
+    private void writeSnapshot(Generation generation) throws IOException {
+        generation.log.sync();
+        generation.vectors.force();
+        Path target = snapshotFile(generation.number);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(dimensions);
+            generation.graph.writeTo(out);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeStoreProperties(long generation) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("generation", Long.toString(generation));
+        properties.setProperty("dimensions", Integer.toString(dimensions));
+        properties.setProperty("quantization", options.quantization().name());
+        Path target = directory.resolve(STORE_PROPERTIES);
+        Path temp = directory.resolve(STORE_PROPERTIES + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "HNSW vector store");
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteGenerationFiles(long number) {
+        for (Path file : List.of(vectorsFile(number), logFile(number), snapshotFile(number))) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("删除HNSW旧文件失败: {}", file, e);
+            }
+        }
+    }
+
+    private Path vectorsFile(long number) {
+        return directory.resolve("vectors-" + number + ".dat");
+    }
+
+    private Path logFile(long number) {
+        return directory.resolve("records-" + number + ".log");
+    }
+
+    private Path snapshotFile(long number) {
+        return directory.resolve("graph-" + number + ".snapshot");
+    }
+
+    private static float[] normalize(double[] embedding) {
+        double norm = 0;
+        for (double value : embedding) {
+            norm += value * value;
+        }
+        norm = norm == 0 ? 1 : Math.sqrt(norm);
+        float[] vector = new float[embedding.length];
+        for (int i = 0; i < embedding.length; i++) {
+            vector[i] = (float) (embedding[i] / norm);
+        }
+        return vector;
+    }
+
+    // ==================== 内部结构 ====================
+
+    /**
+     * 一代索引：向量文件 + 图 + 记录日志 + 内存中的记录与 ID 映射
+     */
+    private static final class Generation {
+
+        private final long number;
+        private final MappedVectorStorage vectors;
+        private final HnswGraph graph;
+        private final RecordLog log;
+        private final Map<String, Integer> nodesByKey = new ConcurrentHashMap<>();
+        private volatile StoredRecord[] records = new StoredRecord[64];
+        private volatile int liveCount;
+        private volatile int deletedCount;
+
+        private Generation(long number, MappedVectorStorage vectors, HnswGraph graph, RecordLog log) {
+            this.number = number;
+            this.vectors = vectors;
+            this.graph = graph;
+            this.log = log;
+        }
+
+        /**
+         * 记录必须在图节点发布之前写入，检索线程拿到节点时记录已可见
+         */
+        private void putRecord(int node, StoredRecord record) {
+            StoredRecord[] current = records;
+            if (node >= current.length) {
+                current = Arrays.copyOf(current, Math.max(node + 1, current.length * 2));
+            }
+            current[node] = record;
+            records = current;
+        }
+
+        private void index(int node, StoredRecord record) {
+            nodesByKey.put(record.id(), node);
+            if (record.chunkId() != null) {
+                nodesByKey.put(record.chunkId(), node);
+            }
+        }
+
+        private void unindex(int node, StoredRecord record) {
+            nodesByKey.remove(record.id(), node);
+            if (record.chunkId() != null) {
+                nodesByKey.remove(record.chunkId(), node);
+            }
+        }
+
+        private void close() throws IOException {
+            log.close();
+            vectors.close();
+        }
+    }
+
+    /**
+     * 与向量一起保存的文档内容与 payload（entryId、title 等）
+     */
+    record StoredRecord(
+        String id,
+        String docId,
+        String chunkId,
+        String content,
+        Map<String, Object> payload
+    ) {
+        Document toDocument() {
+            DocumentMetadata metadata = new DocumentMetadata(
+                TextBlock.builder().text(content).build(),
+                docId,
+                chunkId,
+                payload
+            );
+            return new Document(metadata);
+        }
+    }
+
+    private record LogEntry(byte type, int node, byte[] record) {}
+
+    /**
+     * 追加写的记录日志，启动时截掉崩溃留下的不完整尾部
+     */
+    private static final class RecordLog implements Closeable {
+
+        private final FileOutputStream file;
+        private final DataOutputStream out;
+
+        private RecordLog(FileOutputStream file) {
+            this.file = file;
+            this.out = new DataOutputStream(new BufferedOutputStream(file));
+        }
+
+        static RecordLog open(Path path, List<LogEntry> entries) throws IOException {
+            long validLength = 0;
+            if (Files.exists(path)) {
+                long fileSize = Files.size(path);
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                    while (true) {
+                        byte type = in.readByte();
+                        int node = in.readInt();
+                        byte[] record = null;
+                        long length = 5;
+                        if (type == LOG_INSERT) {
+                            int recordLength = in.readInt();
+                            // 损坏的长度字段按不完整尾部处理，避免按它分配内存
+                            if (recordLength < 0 || recordLength > fileSize - validLength - length - 4) {
+                                logger.warn("向量记录日志长度 {} 无效，丢弃 {} 之后的记录: {}", recordLength, validLength, path);
+                                break;
+                            }
+                            record = new byte[recordLength];
+                            in.readFully(record);
+                            length += 4 + record.length;
+                        } else if (type != LOG_DELETE) {
+                            break;
+                        }
+                        entries.add(new LogEntry(type, node, record));
+                        validLength += length;
+                    }
+                } catch (EOFException e) {
+                    // 日志尾部不完整，截断到最后一条完整记录
+                }
+                try (RandomAccessFile raf = new RandomAccessFile(path.toFile(), "rw")) {
+                    raf.setLength(validLength);
+                }
+            }
+            return new RecordLog(new FileOutputStream(path.toFile(), true));
+        }
+
+        void appendInsert(int node, byte[] record) throws IOException {
+            out.writeByte(LOG_INSERT);
+            out.writeInt(node);
+            out.writeInt(record.length);
+            out.write(record);
+        }
+
+        void appendDelete(int node) throws IOException {
+            out.writeByte(LOG_DELETE);
+            out.writeInt(node);
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        void sync() throws IOException {
+            out.flush();
+            file.getFD().sync();
+        }
+
+        @Override
+        public void close() throws IOException {
+            sync();
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.customerservice.service.vector;
+
+import com.example.customerservice.dto.IndexProfileBenchmarkResponse;
+import com.example.customerservice.dto.IndexProfileBenchmarkResult;
+import com.example.customerservice.dto.IndexProfileResponse;
+import io.agentscope.core.rag.Knowledge;
+import io.agentscope.core.rag.knowledge.SimpleKnowledge;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Milvus 索引档位管理：查看、切换档位，以及在当前语料上评估各档位的延迟与召回率
+ *
+ * 评估方式：从集合读取最多 corpusLimit 条向量作为语料，随机抽取 queries 条作为查询，
+ * 在内存中暴力计算余弦 top-k 作为基准；依次应用每个档位（必要时重建索引），
+ * 预热后统计单次检索 p50/p99 与 recall@k，最后切回评估前的档位。
+ * 评估期间索引会被反复重建，只应在维护窗口执行。
+ */
+@Service
+public class IndexProfileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexProfileService.class);
+
+    private final Knowledge knowledgeBase;
+
+    public IndexProfileService(Knowledge knowledgeBase) {
+        this.knowledgeBase = knowledgeBase;
+    }
+
+    public List<IndexProfileResponse> listProfiles() {
+        ProfiledMilvusStore store = store();
+        MilvusIndexProfile active = store.getActiveProfile();
+        return store.getProfiles()
+            .values()
+            .stream()
+            .map(profile -> toResponse(profile, active))
+            .toList();
+    }
+
+    public synchronized IndexProfileResponse applyProfile(String name) {
+        ProfiledMilvusStore store = store();
+        store.applyProfile(name);
+        return toResponse(store.getActiveProfile(), store.getActiveProfile());
+    }
+
+    public synchronized IndexProfileBenchmarkResponse benchmark(int k, int queryCount, int corpusLimit) {
+        if (k <= 0 || queryCount <= 0 || corpusLimit <= 0) {
+            throw new IllegalArgumentException("k、queries、corpus 必须为正数");
+        }
+        ProfiledMilvusStore store = store();
+        List<Map.Entry<String, float[]>> corpus = new ArrayList<>(store.sampleVectors(corpusLimit).entrySet());
+        if (corpus.isEmpty()) {
+            throw new IllegalStateException("集合中没有向量，无法评估索引档位");
+        }
+        corpus.forEach(entry -> normalize(entry.getValue()));
+
+        Random random = new Random(42);
+        int queries = Math.min(queryCount, corpus.size());
+        List<float[]> queryVectors = new ArrayList<>(queries);
+        List<Set<String>> truth = new ArrayList<>(queries);
+        for (int i = 0; i < queries; i++) {
+            float[] query = corpus.get(random.nextInt(corpus.size())).getValue();
+            queryVectors.add(query);
+            truth.add(exactTopK(corpus, query, k));
+        }
+
+        MilvusIndexProfile original = store.getActiveProfile();
+        List<IndexProfileBenchmarkResult> results = new ArrayList<>();
+        try {
+            for (MilvusIndexProfile profile : store.getProfiles().values()) {
+                long applyStart = System.currentTimeMillis();
+                store.applyProfile(profile.name());
+                long applyMillis = System.currentTimeMillis() - applyStart;
+                results.add(measure(store, profile, queryVectors, truth, k, applyMillis));
+            }
+        } finally {
+            if (original != null) {
+                store.applyProfile(original.name());
+            } else {
+                logger.warn("评估前未应用索引档位，评估后保持最后一个档位");
+            }
+        }
+        MilvusIndexProfile active = store.getActiveProfile();
+        return new IndexProfileBenchmarkResponse(
+            corpus.size(),
+            queries,
+            k,
+            active != null ? active.name() : null,
+            results
+        );
+    }
+
+    private static IndexProfileBenchmarkResult measure(
+        ProfiledMilvusStore store,
+        MilvusIndexProfile profile,
+        List<float[]> queries,
+        List<Set<String>> truth,
+        int k,
+        long applyMillis
+    ) {
+        // 预热：刚 load 的集合首批查询明显偏慢
+        for (float[] query : queries) {
+            store.searchIds(query, k, profile);
+        }
+        long[] latencies = new long[queries.size()];
+        int expectedTotal = 0;
+        int found = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            long start = System.nanoTime();
+            List<String> hits = store.searchIds(queries.get(i), k, profile);
+            latencies[i] = System.nanoTime() - start;
+            Set<String> expected = truth.get(i);
+            expectedTotal += expected.size();
+            found += (int) hits.stream().filter(expected::contains).count();
+        }
+        Arrays.sort(latencies);
+        IndexProfileBenchmarkResult result = new IndexProfileBenchmarkResult(
+            profile.name(),
+            profile.indexType().name(),
+            applyMillis,
+            expectedTotal == 0 ? 0 : (double) found / expectedTotal,
+            latencies[latencies.length / 2] / 1e6,
+            latencies[(int) Math.min(latencies.length - 1, Math.ceil(latencies.length * 0.99) - 1)] / 1e6
+        );
+        logger.info(
+            "索引档位 {}: recall@{} {}，p50 {}ms，p99 {}ms",
+            profile.name(),
+            k,
+            String.format("%.3f", result.getRecallAtK()),
+            String.format("%.3f", result.getP50Millis()),
+            String.format("%.3f", result.getP99Millis())
+        );
+        return result;
+    }
+
+    private static Set<String> exactTopK(List<Map.Entry<String, float[]>> corpus, float[] query, int k) {
+        double[] scores = new double[corpus.size()];
+        for (int i = 0; i < scores.length; i++) {
+            float[] vector = corpus.get(i).getValue();
+            double dot = 0;
+            for (int d = 0; d < vector.length; d++) {
+                dot += vector[d] * query[d];
+            }
+            scores[i] = dot;
+        }
+        Set<String> ids = new HashSet<>();
+        IntStream.range(0, scores.length)
+            .boxed()
+            .sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed())
+            .limit(k)
+            .forEach(i -> ids.add(corpus.get(i).getKey()));
+        return ids;
+    }
+
+    private static void normalize(float[] vector) {
+        double norm = 0;
+        for (float component : vector) {
+            norm += component * component;
+        }
+        if (norm == 0) {
+            return;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+    }
+
+    private static IndexProfileResponse toResponse(MilvusIndexProfile profile, MilvusIndexProfile active) {
+        return new IndexProfileResponse(
+            profile.name(),
+            profile.indexType().name(),
+            profile.buildParams(),
+            profile.searchParams(),
+            active != null && active.name().equals(profile.name())
+        );
+    }
+
+    private ProfiledMilvusStore store() {
+        if (
+            knowledgeBase instanceof SimpleKnowledge simpleKnowledge &&
+            simpleKnowledge.getEmbeddingStore() instanceof ProfiledMilvusStore store
+        ) {
+            return store;
+        }
+        throw new IllegalStateException("当前向量库不是 Milvus（vector-store.type=milvus 时才支持索引档位）");
+    }
+}
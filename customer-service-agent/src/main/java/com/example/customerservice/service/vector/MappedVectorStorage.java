@@ -0,0 +1,181 @@
+package com.example.customerservice.service.vector;
+
+import com.example.customerservice.service.vector.HnswStoreOptions.Quantization;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 内存映射的定长向量存储
+ *
+ * 向量按槽位顺序追加到文件中，文件按段（每段 SEGMENT_SLOTS 个槽位）分别映射，
+ * 扩容时只映射新段，已有段的映射保持不变，读线程无需加锁。
+ *
+ * INT8 槽位先写4字节缩放系数，再写每个分量1字节（对称量化）。
+ *
+ * 写入只由持有写锁的单个线程执行；读线程只读取 size 之前的槽位。
+ */
+final class MappedVectorStorage implements Closeable {
+
+    static final int SEGMENT_SLOTS = 4096;
+
+    private final FileChannel channel;
+    private final int dimensions;
+    private final Quantization quantization;
+    private final int slotBytes;
+
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private volatile int size;
+
+    MappedVectorStorage(Path file, int dimensions, Quantization quantization, int size)
+        throws IOException {
+        this.dimensions = dimensions;
+        this.quantization = quantization;
+        this.slotBytes = quantization == Quantization.INT8 ? 4 + dimensions : dimensions * 4;
+        this.channel = FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        );
+        long existingSlots = channel.size() / slotBytes;
+        if (existingSlots < size) {
+            throw new IOException(
+                "向量文件不完整: " + file + "，期望至少 " + size + " 个槽位，实际 " + existingSlots
+            );
+        }
+        ensureCapacity(size);
+        this.size = size;
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 追加一个已归一化的向量，返回槽位号
+     */
+    int append(float[] vector) throws IOException {
+        int slot = size;
+        ensureCapacity(slot + 1);
+        MappedByteBuffer segment = segments[slot / SEGMENT_SLOTS];
+        int offset = (slot % SEGMENT_SLOTS) * slotBytes;
+        if (quantization == Quantization.INT8) {
+            float max = 0f;
+            for (float value : vector) {
+                max = Math.max(max, Math.abs(value));
+            }
+            float scale = max == 0f ? 1f : max / 127f;
+            segment.putFloat(offset, scale);
+            for (int i = 0; i < dimensions; i++) {
+                segment.put(offset + 4 + i, (byte) Math.round(vector[i] / scale));
+            }
+        } else {
+            for (int i = 0; i < dimensions; i++) {
+                segment.putFloat(offset + i * 4, vector[i]);
+            }
+        }
+        size = slot + 1;
+        return slot;
+    }
+
+    /**
+     * 按原样追加另一份存储中某个槽位的字节（压缩时使用），INT8 量化码和缩放系数不经反量化再量化，精度不随压缩次数下降
+     */
+    int appendCopy(MappedVectorStorage source, int sourceSlot) throws IOException {
+        if (source.quantization != quantization || source.dimensions != dimensions) {
+            throw new IllegalArgumentException("向量存储格式不一致，无法复制槽位");
+        }
+        int slot = size;
+        ensureCapacity(slot + 1);
+        MappedByteBuffer segment = segments[slot / SEGMENT_SLOTS];
+        int offset = (slot % SEGMENT_SLOTS) * slotBytes;
+        MappedByteBuffer sourceSegment = source.segments[sourceSlot / SEGMENT_SLOTS];
+        int sourceOffset = (sourceSlot % SEGMENT_SLOTS) * slotBytes;
+        for (int i = 0; i < slotBytes; i++) {
+            segment.put(offset + i, sourceSegment.get(sourceOffset + i));
+        }
+        size = slot + 1;
+        return slot;
+    }
+
+    /**
+     * 查询向量与槽位向量的内积（均已归一化时即余弦相似度）
+     */
+    float dot(float[] query, int slot) {
+        MappedByteBuffer segment = segments[slot / SEGMENT_SLOTS];
+        int offset = (slot % SEGMENT_SLOTS) * slotBytes;
+        float sum = 0f;
+        if (quantization == Quantization.INT8) {
+            float scale = segment.getFloat(offset);
+            int base = offset + 4;
+            for (int i = 0; i < dimensions; i++) {
+                sum += query[i] * segment.get(base + i);
+            }
+            return sum * scale;
+        }
+        for (int i = 0; i < dimensions; i++) {
+            sum += query[i] * segment.getFloat(offset + i * 4);
+        }
+        return sum;
+    }
+
+    /**
+     * 读取槽位向量（INT8 时为反量化后的值）
+     */
+    float[] read(int slot) {
+        MappedByteBuffer segment = segments[slot / SEGMENT_SLOTS];
+        int offset = (slot % SEGMENT_SLOTS) * slotBytes;
+        float[] vector = new float[dimensions];
+        if (quantization == Quantization.INT8) {
+            float scale = segment.getFloat(offset);
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] = segment.get(offset + 4 + i) * scale;
+            }
+        } else {
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] = segment.getFloat(offset + i * 4);
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * 把已写入的向量刷到磁盘
+     */
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void ensureCapacity(int slots) throws IOException {
+        int required = (slots + SEGMENT_SLOTS - 1) / SEGMENT_SLOTS;
+        MappedByteBuffer[] current = segments;
+        if (required <= current.length) {
+            return;
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(current, required);
+        long segmentBytes = (long) SEGMENT_SLOTS * slotBytes;
+        for (int i = current.length; i < required; i++) {
+            grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * segmentBytes, segmentBytes);
+            grown[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        segments = grown;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.customerservice.service.vector;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.milvus.v2.common.IndexParam;
+import io.milvus.v2.service.index.response.DescribeIndexResp;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Milvus 索引档位：索引类型 + 建索引参数 + 检索参数
+ *
+ * 例如 HNSW 的 M/efConstruction 与检索时的 ef，IVF 系列的 nlist 与 nprobe。
+ * 配置文件中的参数值都是字符串，构造时把数字字符串转换为 Integer/Double，
+ * 否则 Milvus 会把检索参数当作字符串拒绝。
+ *
+ * @param name         档位名（low-latency、high-recall、low-memory 等）
+ * @param indexType    向量字段索引类型
+ * @param buildParams  建索引参数
+ * @param searchParams 检索参数
+ */
+public record MilvusIndexProfile(
+    String name,
+    IndexParam.IndexType indexType,
+    Map<String, Object> buildParams,
+    Map<String, Object> searchParams
+) {
+
+    private static final ObjectMapper PARAMS_MAPPER = new ObjectMapper();
+
+    public static MilvusIndexProfile of(
+        String name,
+        String indexType,
+        Map<String, ?> buildParams,
+        Map<String, ?> searchParams
+    ) {
+        IndexParam.IndexType type;
+        try {
+            type = IndexParam.IndexType.valueOf(indexType.trim().toUpperCase());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("不支持的Milvus索引类型: " + indexType + "（档位 " + name + "）");
+        }
+        return new MilvusIndexProfile(name, type, typed(buildParams), typed(searchParams));
+    }
+
+    /**
+     * 当前索引是否已经是本档位（类型一致且建索引参数一致）
+     */
+    boolean matches(DescribeIndexResp.IndexDesc current) {
+        if (current == null || current.getIndexType() != indexType) {
+            return false;
+        }
+        Map<String, String> actual = new HashMap<>();
+        if (current.getExtraParams() != null) {
+            actual.putAll(current.getExtraParams());
+            // 部分 Milvus 版本把建索引参数整体放在 params JSON 中
+            String nested = current.getExtraParams().get("params");
+            if (nested != null) {
+                try {
+                    PARAMS_MAPPER.readValue(nested, new TypeReference<Map<String, Object>>() {})
+                        .forEach((key, value) -> actual.put(key, String.valueOf(value)));
+                } catch (Exception ignored) {
+                    // 非 JSON 时按扁平参数比较
+                }
+            }
+        }
+        for (Map.Entry<String, Object> expected : buildParams.entrySet()) {
+            if (!String.valueOf(expected.getValue()).equals(actual.get(expected.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, Object> typed(Map<String, ?> params) {
+        Map<String, Object> typed = new LinkedHashMap<>();
+        if (params == null) {
+            return typed;
+        }
+        params.forEach((key, value) -> typed.put(key, number(value)));
+        return typed;
+    }
+
+    private static Object number(Object value) {
+        if (!(value instanceof String text)) {
+            return value;
+        }
+        try {
+            return Integer.valueOf(text.trim());
+        } catch (NumberFormatException notInteger) {
+            try {
+                return Double.valueOf(text.trim());
+            } catch (NumberFormatException notNumber) {
+                return text;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.customerservice.service.vector;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 按知识片段 payload 中的分类/标签过滤
+ *
+ * 建索引时 KnowledgeBaseService 把条目所属分类及其全部祖先分类的 ID 写入 payload.categoryIds，
+ * 标签 ID 写入 payload.tagIds，因此：
+ * - categoryId：片段属于该分类或其任一子分类
+ * - tagIds：片段带有其中任一标签
+ * 两个条件同时给出时取交集，均为空表示不过滤。
+ *
+ * @param categoryId 分类范围，可为 null
+ * @param tagIds     标签范围，可为空
+ */
+public record PayloadFilter(String categoryId, Set<String> tagIds) {
+
+    public static final String CATEGORY_IDS = "categoryIds";
+    public static final String TAG_IDS = "tagIds";
+
+    public static final PayloadFilter NONE = new PayloadFilter(null, Set.of());
+
+    public PayloadFilter {
+        categoryId = categoryId == null || categoryId.isBlank() ? null : categoryId.trim();
+        tagIds = tagIds == null
+            ? Set.of()
+            : tagIds.stream()
+                .filter(tagId -> tagId != null && !tagId.isBlank())
+                .map(String::trim)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    public static PayloadFilter of(String categoryId, Collection<String> tagIds) {
+        return new PayloadFilter(categoryId, tagIds == null ? Set.of() : new LinkedHashSet<>(tagIds));
+    }
+
+    public boolean isEmpty() {
+        return categoryId == null && tagIds.isEmpty();
+    }
+
+    /**
+     * 在 Java 侧判断 payload 是否满足过滤条件（进程内向量库与词法索引使用）
+     */
+    public boolean test(Map<String, Object> payload) {
+        if (isEmpty()) {
+            return true;
+        }
+        if (payload == null) {
+            return false;
+        }
+        if (categoryId != null && !contains(payload.get(CATEGORY_IDS), Set.of(categoryId))) {
+            return false;
+        }
+        return tagIds.isEmpty() || contains(payload.get(TAG_IDS), tagIds);
+    }
+
+    /**
+     * 转换为 Milvus 标量过滤表达式（payload 为 JSON 字段）；无条件时返回空串
+     */
+    public String toMilvusExpression() {
+        StringBuilder expression = new StringBuilder();
+        if (categoryId != null) {
+            expression.append("json_contains(payload[\"").append(CATEGORY_IDS).append("\"], ")
+                .append(quote(categoryId)).append(')');
+        }
+        if (!tagIds.isEmpty()) {
+            if (expression.length() > 0) {
+                expression.append(" and ");
+            }
+            expression.append("json_contains_any(payload[\"").append(TAG_IDS).append("\"], [")
+                .append(tagIds.stream().map(PayloadFilter::quote).collect(Collectors.joining(", ")))
+                .append("])");
+        }
+        return expression.toString();
+    }
+
+    private static boolean contains(Object values, Set<String> expected) {
+        if (!(values instanceof Collection<?> collection)) {
+            return false;
+        }
+        for (Object value : collection) {
+            if (value != null && expected.contains(value.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+}
@@ -0,0 +1,364 @@
+package com.example.customerservice.service.vector;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.agentscope.core.message.ContentBlock;
+import io.agentscope.core.message.TextBlock;
+import io.agentscope.core.rag.exception.VectorStoreException;
+import io.agentscope.core.rag.model.Document;
+import io.agentscope.core.rag.model.DocumentMetadata;
+import io.agentscope.core.rag.store.MilvusStore;
+import io.agentscope.core.rag.store.VDBStoreBase;
+import io.agentscope.core.rag.store.dto.SearchDocumentDto;
+import io.agentscope.core.util.JsonUtils;
+import io.milvus.v2.client.MilvusClientV2;
+import io.milvus.v2.common.IndexParam;
+import io.milvus.v2.service.collection.request.LoadCollectionReq;
+import io.milvus.v2.service.collection.request.ReleaseCollectionReq;
+import io.milvus.v2.service.index.request.CreateIndexReq;
+import io.milvus.v2.service.index.request.DescribeIndexReq;
+import io.milvus.v2.service.index.request.DropIndexReq;
+import io.milvus.v2.service.index.response.DescribeIndexResp;
+import io.milvus.v2.service.vector.request.QueryReq;
+import io.milvus.v2.service.vector.request.SearchReq;
+import io.milvus.v2.service.vector.request.UpsertReq;
+import io.milvus.v2.service.vector.request.data.FloatVec;
+import io.milvus.v2.service.vector.response.QueryResp;
+import io.milvus.v2.service.vector.response.SearchResp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 按索引档位检索的 Milvus 向量库
+ *
+ * MilvusStore 建集合时固定使用 AUTOINDEX，检索也不传任何检索参数。
+ * 这里删除仍委托给 MilvusStore，检索改为直接调用 Milvus 客户端并带上当前档位的检索参数；
+ * 切换档位时按需重建向量字段索引（release → drop index → create index → load）。
+ * 写入使用 upsert 而不是 MilvusStore 的 insert：Milvus 不校验主键唯一，重建片段时 insert 会留下带旧 payload 的重复行。
+ *
+ * 字段名与文档还原方式与 MilvusStore 保持一致，两者读写同一个集合。
+ * 分类/标签范围检索把 {@link PayloadFilter} 转换为 payload JSON 字段上的过滤表达式，由 Milvus 在检索时过滤。
+ */
+public class ProfiledMilvusStore implements VDBStoreBase, FilterableVectorStore, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfiledMilvusStore.class);
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_VECTOR = "vector";
+    private static final String FIELD_DOC_ID = "doc_id";
+    private static final String FIELD_CHUNK_ID = "chunk_id";
+    private static final String FIELD_CONTENT = "content";
+    private static final String FIELD_PAYLOAD = "payload";
+    private static final Gson GSON = new Gson();
+    private static final List<String> OUTPUT_FIELDS = List.of(
+        FIELD_ID, FIELD_DOC_ID, FIELD_CHUNK_ID, FIELD_CONTENT, FIELD_PAYLOAD
+    );
+
+    private final MilvusStore delegate;
+    private final Map<String, MilvusIndexProfile> profiles;
+    private volatile MilvusIndexProfile activeProfile;
+
+    public ProfiledMilvusStore(MilvusStore delegate, Map<String, MilvusIndexProfile> profiles) {
+        this.delegate = delegate;
+        this.profiles = Collections.unmodifiableMap(new LinkedHashMap<>(profiles));
+    }
+
+    /**
+     * 按主键 upsert 写入；文档ID由 docId、chunkId 和内容决定，同一片段重新写入时替换原有行
+     */
+    @Override
+    public Mono<Void> add(List<Document> documents) {
+        if (documents == null || documents.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> upsertNow(documents))
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+
+    @Override
+    public Mono<Boolean> delete(String id) {
+        return delegate.delete(id);
+    }
+
+    @Override
+    public Mono<List<Document>> search(SearchDocumentDto request) {
+        return search(request, PayloadFilter.NONE);
+    }
+
+    @Override
+    public Mono<List<Document>> search(SearchDocumentDto request, PayloadFilter filter) {
+        return Mono.fromCallable(() -> searchNow(request, activeProfile, filter))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Map<String, MilvusIndexProfile> getProfiles() {
+        return profiles;
+    }
+
+    /**
+     * 当前档位；未应用任何档位时为 null（使用集合已有索引和默认检索参数）
+     */
+    public MilvusIndexProfile getActiveProfile() {
+        return activeProfile;
+    }
+
+    /**
+     * 应用档位：索引类型或建索引参数不同时重建索引，期间集合不可检索
+     *
+     * @return 是否重建了索引
+     */
+    public synchronized boolean applyProfile(String name) {
+        MilvusIndexProfile profile = profiles.get(name);
+        if (profile == null) {
+            throw new IllegalArgumentException("索引档位不存在: " + name + "，可选: " + profiles.keySet());
+        }
+        MilvusClientV2 client = client();
+        String collection = delegate.getCollectionName();
+        DescribeIndexResp.IndexDesc current = describeVectorIndex(client, collection);
+        if (profile.matches(current)) {
+            client.loadCollection(LoadCollectionReq.builder().collectionName(collection).build());
+            activeProfile = profile;
+            logger.info("Milvus索引已是档位 {}（{}），无需重建", name, profile.indexType());
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        client.releaseCollection(ReleaseCollectionReq.builder().collectionName(collection).build());
+        if (current != null) {
+            client.dropIndex(
+                DropIndexReq.builder()
+                    .collectionName(collection)
+                    .indexName(current.getIndexName())
+                    .build()
+            );
+        }
+        client.createIndex(
+            CreateIndexReq.builder()
+                .collectionName(collection)
+                .indexParams(List.of(
+                    IndexParam.builder()
+                        .fieldName(FIELD_VECTOR)
+                        .indexType(profile.indexType())
+                        .metricType(delegate.getMetricType())
+                        .extraParams(profile.buildParams())
+                        .build()
+                ))
+                .build()
+        );
+        client.loadCollection(LoadCollectionReq.builder().collectionName(collection).build());
+        activeProfile = profile;
+        logger.info(
+            "Milvus索引已迁移到档位 {}: {} -> {} {}，耗时 {}ms",
+            name,
+            current != null ? current.getIndexType() : "无索引",
+            profile.indexType(),
+            profile.buildParams(),
+            System.currentTimeMillis() - start
+        );
+        return true;
+    }
+
+    /**
+     * 读取集合中的向量（最多 limit 条，文档ID → 向量），用于在当前语料上评估档位
+     */
+    public Map<String, float[]> sampleVectors(int limit) {
+        QueryResp response = client().query(
+            QueryReq.builder()
+                .collectionName(delegate.getCollectionName())
+                .filter(FIELD_ID + " != \"\"")
+                .outputFields(List.of(FIELD_ID, FIELD_VECTOR))
+                .limit(limit)
+                .build()
+        );
+        Map<String, float[]> vectors = new LinkedHashMap<>();
+        for (QueryResp.QueryResult result : response.getQueryResults()) {
+            Object value = result.getEntity().get(FIELD_VECTOR);
+            if (value instanceof List<?> components) {
+                float[] vector = new float[components.size()];
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = ((Number) components.get(i)).floatValue();
+                }
+                vectors.put(String.valueOf(result.getEntity().get(FIELD_ID)), vector);
+            }
+        }
+        return vectors;
+    }
+
+    /**
+     * 按指定档位的检索参数检索，只返回文档 ID（档位评估用）
+     */
+    public List<String> searchIds(float[] query, int limit, MilvusIndexProfile profile) {
+        List<String> ids = new ArrayList<>();
+        for (SearchResp.SearchResult result : rawSearch(query, limit, profile, List.of(FIELD_ID), "")) {
+            ids.add(String.valueOf(result.getId()));
+        }
+        return ids;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private void upsertNow(List<Document> documents) {
+        List<JsonObject> rows = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            rows.add(toRow(document));
+        }
+        client().upsert(
+            UpsertReq.builder()
+                .collectionName(delegate.getCollectionName())
+                .data(rows)
+                .build()
+        );
+    }
+
+    private JsonObject toRow(Document document) {
+        double[] embedding = document.getEmbedding();
+        if (embedding == null) {
+            throw new IllegalArgumentException("文档缺少向量: " + document.getId());
+        }
+        if (embedding.length != delegate.getDimensions()) {
+            throw new IllegalArgumentException(
+                "向量维度不匹配: 期望 " + delegate.getDimensions() + "，实际 " + embedding.length
+            );
+        }
+        List<Float> vector = new ArrayList<>(embedding.length);
+        for (double component : embedding) {
+            vector.add((float) component);
+        }
+        DocumentMetadata metadata = document.getMetadata();
+        String content;
+        try {
+            content = JsonUtils.getJsonCodec().toJson(metadata.getContent());
+        } catch (Exception e) {
+            content = metadata.getContentText();
+        }
+        JsonObject row = new JsonObject();
+        row.addProperty(FIELD_ID, document.getId());
+        row.add(FIELD_VECTOR, GSON.toJsonTree(vector));
+        row.addProperty(FIELD_DOC_ID, metadata.getDocId());
+        row.addProperty(FIELD_CHUNK_ID, metadata.getChunkId());
+        row.addProperty(FIELD_CONTENT, content);
+        if (metadata.getPayload() != null && !metadata.getPayload().isEmpty()) {
+            row.add(FIELD_PAYLOAD, GSON.toJsonTree(metadata.getPayload()).getAsJsonObject());
+        }
+        return row;
+    }
+
+    private List<Document> searchNow(
+        SearchDocumentDto request,
+        MilvusIndexProfile profile,
+        PayloadFilter filter
+    ) {
+        double[] embedding = request.getQueryEmbedding();
+        if (embedding == null) {
+            throw new IllegalArgumentException("查询向量不能为空");
+        }
+        float[] query = new float[embedding.length];
+        for (int i = 0; i < embedding.length; i++) {
+            query[i] = (float) embedding[i];
+        }
+        Double threshold = request.getScoreThreshold();
+        List<Document> documents = new ArrayList<>();
+        for (SearchResp.SearchResult result : rawSearch(
+            query,
+            request.getLimit(),
+            profile,
+            OUTPUT_FIELDS,
+            filter.toMilvusExpression()
+        )) {
+            double score = result.getScore();
+            if (threshold != null && score < threshold) {
+                continue;
+            }
+            documents.add(toDocument(result.getEntity(), score));
+        }
+        return documents;
+    }
+
+    private List<SearchResp.SearchResult> rawSearch(
+        float[] query,
+        int limit,
+        MilvusIndexProfile profile,
+        List<String> outputFields,
+        String filterExpression
+    ) {
+        SearchReq.SearchReqBuilder builder = SearchReq.builder()
+            .collectionName(delegate.getCollectionName())
+            .annsField(FIELD_VECTOR)
+            .data(List.of(new FloatVec(query)))
+            .limit(limit)
+            .outputFields(outputFields);
+        if (profile != null && !profile.searchParams().isEmpty()) {
+            builder.searchParams(profile.searchParams());
+        }
+        if (!filterExpression.isEmpty()) {
+            builder.filter(filterExpression);
+        }
+        List<List<SearchResp.SearchResult>> results = client()
+            .search(builder.build())
+            .getSearchResults();
+        return results == null || results.isEmpty() ? List.of() : results.get(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Document toDocument(Map<String, Object> entity, double score) {
+        String content = String.valueOf(entity.get(FIELD_CONTENT));
+        ContentBlock block;
+        try {
+            block = JsonUtils.getJsonCodec().fromJson(content, ContentBlock.class);
+        } catch (Exception e) {
+            block = TextBlock.builder().text(content).build();
+        }
+        Map<String, Object> payload = Map.of();
+        Object rawPayload = entity.get(FIELD_PAYLOAD);
+        if (rawPayload != null) {
+            try {
+                payload = JsonUtils.getJsonCodec().fromJson(String.valueOf(rawPayload), Map.class);
+            } catch (Exception e) {
+                logger.warn("Milvus payload 解析失败，使用空 payload", e);
+            }
+        }
+        Document document = new Document(
+            new DocumentMetadata(
+                block,
+                String.valueOf(entity.get(FIELD_DOC_ID)),
+                String.valueOf(entity.get(FIELD_CHUNK_ID)),
+                payload
+            )
+        );
+        document.setScore(score);
+        return document;
+    }
+
+    private MilvusClientV2 client() {
+        try {
+            return delegate.getClient();
+        } catch (VectorStoreException e) {
+            throw new IllegalStateException("Milvus客户端不可用: " + e.getMessage(), e);
+        }
+    }
+
+    private static DescribeIndexResp.IndexDesc describeVectorIndex(MilvusClientV2 client, String collection) {
+        try {
+            return client.describeIndex(
+                DescribeIndexReq.builder()
+                    .collectionName(collection)
+                    .fieldName(FIELD_VECTOR)
+                    .build()
+            ).getIndexDescByFieldName(FIELD_VECTOR);
+        } catch (RuntimeException e) {
+            // 集合上还没有向量索引
+            return null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.customerservice.service.vector;
+
+/**
+ * 向量计算工具
+ */
+public final class VectorMath {
+
+    private VectorMath() {
+    }
+
+    /**
+     * 余弦相似度；维度不同或任一向量为零向量时返回 0
+     */
+    public static double cosine(double[] a, double[] b) {
+        if (a.length != b.length) {
+            return 0;
+        }
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return normA == 0 || normB == 0 ? 0 : dot / Math.sqrt(normA * normB);
+    }
+}
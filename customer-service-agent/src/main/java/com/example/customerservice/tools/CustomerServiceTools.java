@@ -1,7 +1,9 @@
 package com.example.customerservice.tools;
 
+import com.example.customerservice.dto.KnowledgeOperationResponse;
 import com.example.customerservice.service.AgentActivityLogger;
 import com.example.customerservice.service.KnowledgeBaseService;
+import com.example.customerservice.service.runtime.BlockingTaskExecutors;
 import io.agentscope.core.message.ContentBlock;
 import io.agentscope.core.message.TextBlock;
 import io.agentscope.core.rag.Knowledge;
@@ -22,6 +24,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 /**
  * 客服工具类，包含处理常见客服场景的工具方法
@@ -40,6 +43,9 @@ public class CustomerServiceTools {
     @Autowired
     private KnowledgeBaseService knowledgeBaseService;
 
+    @Autowired
+    private BlockingTaskExecutors executors;
+
     // 注入Knowledge Bean用于向量数据库操作
     private Knowledge knowledgeBase;
 
@@ -325,9 +331,10 @@ public class CustomerServiceTools {
         }
 
         try {
-            knowledgeBaseService.createManagedEntry(title, content, "tool");
+            KnowledgeOperationResponse response = knowledgeBaseService.createManagedEntry(title, content, "tool");
             String result = String.format(
-                "成功添加知识到知识库\n标题: %s\n内容: %s",
+                "%s\n标题: %s\n内容: %s",
+                response.getMessage(),
                 title,
                 content
             );
@@ -354,7 +361,7 @@ public class CustomerServiceTools {
         name = "retrieve_knowledge",
         description = "从知识库中检索相关客服知识"
     )
-    public String retrieveKnowledge(
+    public Mono<String> retrieveKnowledge(
         @ToolParam(name = "query", description = "查询内容") String query
     ) {
         activityLogger.logToolCallStart("retrieve_knowledge", "query=" + query);
@@ -363,58 +370,58 @@ public class CustomerServiceTools {
             logger.error("知识库未初始化");
             String errorMessage = "错误：知识库未初始化";
             activityLogger.logToolCallEnd("retrieve_knowledge", errorMessage);
-            return errorMessage;
+            return Mono.just(errorMessage);
         }
 
-        try {
-            // 创建检索配置
-            RetrieveConfig config = RetrieveConfig.builder().limit(3).build();
-            logger.debug("创建检索配置，限制返回结果数: {}", config.getLimit());
-
-            // 从知识库检索相关文档
-            List<Document> results = knowledgeBase
-                .retrieve(query, config)
-                .block();
-
-            if (results == null || results.isEmpty()) {
-                logger.info("未找到相关知识，查询内容: {}", query);
-                String result = "未找到相关知识";
-                activityLogger.logToolCallEnd("retrieve_knowledge", result);
-                return result;
-            }
+        // 创建检索配置
+        RetrieveConfig config = RetrieveConfig.builder().limit(3).build();
+        logger.debug("创建检索配置，限制返回结果数: {}", config.getLimit());
+
+        // 从知识库检索相关文档（Embedding为同步HTTP调用，切换到检索调度器执行）
+        return Mono.defer(() -> knowledgeBase.retrieve(query, config))
+            .subscribeOn(executors.retrievalScheduler())
+            .defaultIfEmpty(List.of())
+            .map(results -> {
+                if (results.isEmpty()) {
+                    logger.info("未找到相关知识，查询内容: {}", query);
+                    String result = "未找到相关知识";
+                    activityLogger.logToolCallEnd("retrieve_knowledge", result);
+                    return result;
+                }
 
-            logger.info("成功检索到{}个相关文档", results.size());
+                logger.info("成功检索到{}个相关文档", results.size());
 
-            StringBuilder resultBuilder = new StringBuilder();
-            resultBuilder.append("检索到以下相关知识:\n\n");
+                StringBuilder resultBuilder = new StringBuilder();
+                resultBuilder.append("检索到以下相关知识:\n\n");
 
-            for (int i = 0; i < results.size(); i++) {
-                Document doc = results.get(i);
-                DocumentMetadata metadata = doc.getMetadata();
-                ContentBlock contentBlock = metadata.getContent();
+                for (int i = 0; i < results.size(); i++) {
+                    Document doc = results.get(i);
+                    DocumentMetadata metadata = doc.getMetadata();
+                    ContentBlock contentBlock = metadata.getContent();
 
-                resultBuilder.append(
-                    String.format("[%d] 相似度: %.2f\n", i + 1, doc.getScore())
-                );
-                if (contentBlock instanceof TextBlock) {
-                    resultBuilder
-                        .append(((TextBlock) contentBlock).getText())
-                        .append("\n\n");
+                    resultBuilder.append(
+                        String.format("[%d] 相似度: %.2f\n", i + 1, doc.getScore())
+                    );
+                    if (contentBlock instanceof TextBlock) {
+                        resultBuilder
+                            .append(((TextBlock) contentBlock).getText())
+                            .append("\n\n");
+                    }
                 }
-            }
 
-            String result = resultBuilder.toString();
-            logger.debug("返回检索结果，结果长度: {}", result.length());
-            activityLogger.logToolCallEnd("retrieve_knowledge", result);
-            return result;
-        } catch (Exception e) {
-            logger.error("检索知识失败", e);
-            String errorMessage = String.format(
-                "检索知识失败: %s",
-                e.getMessage()
-            );
-            activityLogger.logToolCallError("retrieve_knowledge", errorMessage);
-            return errorMessage;
-        }
+                String result = resultBuilder.toString();
+                logger.debug("返回检索结果，结果长度: {}", result.length());
+                activityLogger.logToolCallEnd("retrieve_knowledge", result);
+                return result;
+            })
+            .onErrorResume(e -> {
+                logger.error("检索知识失败", e);
+                String errorMessage = String.format(
+                    "检索知识失败: %s",
+                    e.getMessage()
+                );
+                activityLogger.logToolCallError("retrieve_knowledge", errorMessage);
+                return Mono.just(errorMessage);
+            });
     }
 }
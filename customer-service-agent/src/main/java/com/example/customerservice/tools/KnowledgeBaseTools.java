@@ -1,5 +1,6 @@
 package com.example.customerservice.tools;
 
+import com.example.customerservice.dto.HybridAnswerResult;
 import com.example.customerservice.service.AgentActivityLogger;
 import com.example.customerservice.service.retriever.HybridAnswerService;
 import io.agentscope.core.tool.Tool;
@@ -8,6 +9,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 /**
  * 知识库工具类，包含知识库搜索功能
@@ -31,6 +33,7 @@ public class KnowledgeBaseTools {
 
     /**
      * 根据问题检索相关文档
+     * 返回 Mono，由Agent工具执行器异步订阅，不阻塞Agent所在线程
      *
      * @param question 用户问题
      * @return 相关文档内容
@@ -39,7 +42,7 @@ public class KnowledgeBaseTools {
         name = "search_knowledge_base",
         description = "在知识库中搜索与问题相关的信息"
     )
-    public String searchKnowledgeBase(
+    public Mono<String> searchKnowledgeBase(
         @ToolParam(
             name = "question",
             description = "用户提出的问题"
@@ -50,20 +53,21 @@ public class KnowledgeBaseTools {
             "question=" + question
         );
         logger.info("开始搜索知识库，问题: {}", question);
-        try {
-            String result = hybridAnswerService.answerQuestion(question).getAnswer();
-            logger.info(
-                "知识库搜索完成，结果长度: {}",
-                result != null ? result.length() : 0
+        return hybridAnswerService
+            .answerQuestionAsync(question)
+            .map(HybridAnswerResult::getAnswer)
+            .doOnNext(result -> {
+                logger.info(
+                    "知识库搜索完成，结果长度: {}",
+                    result != null ? result.length() : 0
+                );
+                activityLogger.logToolCallEnd("search_knowledge_base", result);
+            })
+            .doOnError(e ->
+                activityLogger.logToolCallError(
+                    "search_knowledge_base",
+                    e.getMessage()
+                )
             );
-            activityLogger.logToolCallEnd("search_knowledge_base", result);
-            return result;
-        } catch (Exception e) {
-            activityLogger.logToolCallError(
-                "search_knowledge_base",
-                e.getMessage()
-            );
-            throw e;
-        }
     }
 }
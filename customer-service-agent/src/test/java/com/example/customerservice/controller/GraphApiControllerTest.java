@@ -0,0 +1,86 @@
+package com.example.customerservice.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.customerservice.dto.GraphEdgeResponse;
+import com.example.customerservice.dto.GraphNodeResponse;
+import com.example.customerservice.service.KnowledgeGraphService;
+import com.example.customerservice.service.KnowledgeGraphService.NodeProjection;
+import com.example.customerservice.service.graph.CommunitySummaryService;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(GraphApiController.class)
+class GraphApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private KnowledgeGraphService knowledgeGraphService;
+
+    @MockBean
+    private CommunitySummaryService communitySummaryService;
+
+    @Test
+    void shouldPageNodesAfterCursorWithProjection() throws Exception {
+        when(knowledgeGraphService.getNodesAfter(41L, 2, NodeProjection.SUMMARY)).thenReturn(List.of(
+            new GraphNodeResponse("42", "Product", "会员卡", Map.of("entryCount", 3)),
+            new GraphNodeResponse("57", "Service", "退款", Map.of("entryCount", 1))
+        ));
+
+        mockMvc.perform(get("/api/graph/nodes")
+                .param("after", "41")
+                .param("limit", "2")
+                .param("projection", "summary"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value("42"))
+            .andExpect(jsonPath("$[0].properties.entryCount").value(3))
+            .andExpect(jsonPath("$[1].id").value("57"));
+
+        mockMvc.perform(get("/api/graph/nodes").param("projection", "everything"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStreamGraphAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<GraphNodeResponse> nodes = invocation.getArgument(1);
+            Consumer<GraphEdgeResponse> edges = invocation.getArgument(2);
+            nodes.accept(new GraphNodeResponse("1", "Product", "会员卡", Map.of()));
+            nodes.accept(new GraphNodeResponse("2", "Service", "退款", Map.of()));
+            edges.accept(new GraphEdgeResponse("7", "1", "2", "HAS_SERVICE"));
+            return null;
+        }).when(knowledgeGraphService).streamGraph(eq(NodeProjection.NONE), any(Consumer.class), any(Consumer.class));
+
+        MvcResult started = mockMvc.perform(get("/api/graph/export").param("projection", "none"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(
+                "{\"kind\":\"node\",\"id\":\"1\",\"type\":\"Product\",\"name\":\"会员卡\",\"properties\":{}}\n"
+                    + "{\"kind\":\"node\",\"id\":\"2\",\"type\":\"Service\",\"name\":\"退款\",\"properties\":{}}\n"
+                    + "{\"kind\":\"edge\",\"id\":\"7\",\"source\":\"1\",\"target\":\"2\",\"relation\":\"HAS_SERVICE\"}\n"
+            ));
+    }
+}
@@ -1,18 +1,27 @@
 package com.example.customerservice.controller;
 
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.example.customerservice.dto.DuplicateClusterResponse;
+import com.example.customerservice.dto.DuplicateReportResponse;
 import com.example.customerservice.dto.KnowledgeEntryCreateRequest;
 import com.example.customerservice.dto.KnowledgeEntryListResponse;
 import com.example.customerservice.dto.KnowledgeEntryResponse;
 import com.example.customerservice.dto.KnowledgeOperationResponse;
 import com.example.customerservice.dto.KnowledgeStatusResponse;
+import com.example.customerservice.dto.RetrievedChunk;
+import com.example.customerservice.dto.VectorSearchResult;
 import com.example.customerservice.service.KnowledgeBaseService;
+import com.example.customerservice.service.vector.PayloadFilter;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +29,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
 
 @WebMvcTest(KnowledgeController.class)
 class KnowledgeControllerTest {
@@ -32,7 +43,9 @@ class KnowledgeControllerTest {
 
     @Test
     void shouldReturnKnowledgeEntries() throws Exception {
-        when(knowledgeBaseService.listEntries()).thenReturn(
+        when(knowledgeBaseService.listEntries(argThat(request ->
+            request.getLimit() == null && request.isIncludeContent()
+        ))).thenReturn(
             new KnowledgeEntryListResponse(
                 List.of(
                     new KnowledgeEntryResponse(
@@ -42,6 +55,8 @@ class KnowledgeControllerTest {
                         "7天无理由退货",
                         "seed",
                         "text",
+                        List.of(),
+                        List.of(),
                         1710000000000L,
                         1710000001000L
                     )
@@ -59,6 +74,53 @@ class KnowledgeControllerTest {
             .andExpect(jsonPath("$.entries[0].content").value("7天无理由退货，拆封后如无损坏也可申请售后。"));
     }
 
+    @Test
+    void shouldPageKnowledgeEntriesWithoutContent() throws Exception {
+        when(knowledgeBaseService.listEntries(argThat(request ->
+            "cursor-1".equals(request.getCursor()) &&
+            request.getLimit() == 20 &&
+            !request.isIncludeContent() &&
+            "seed".equals(request.getSource()) &&
+            "cat-1".equals(request.getCategoryId()) &&
+            "tag-1".equals(request.getTagId())
+        ))).thenReturn(
+            new KnowledgeEntryListResponse(
+                List.of(
+                    new KnowledgeEntryResponse(
+                        "kb-2",
+                        "保修政策",
+                        null,
+                        "智能手表享受一年保修服务",
+                        "seed",
+                        "text",
+                        List.of("cat-1"),
+                        List.of("tag-1"),
+                        1710000000000L,
+                        1710000002000L
+                    )
+                ),
+                41,
+                1710000009999L,
+                "cursor-2"
+            )
+        );
+
+        mockMvc.perform(
+            get("/api/knowledge/entries")
+                .param("cursor", "cursor-1")
+                .param("limit", "20")
+                .param("includeContent", "false")
+                .param("source", "seed")
+                .param("categoryId", "cat-1")
+                .param("tagId", "tag-1")
+        )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(41))
+            .andExpect(jsonPath("$.nextCursor").value("cursor-2"))
+            .andExpect(jsonPath("$.entries[0].contentPreview").value("智能手表享受一年保修服务"))
+            .andExpect(jsonPath("$.entries[0].content").doesNotExist());
+    }
+
     @Test
     void shouldCreateKnowledgeEntry() throws Exception {
         when(
@@ -119,4 +181,61 @@ class KnowledgeControllerTest {
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.message").value("知识库刷新完成"));
     }
+
+    @Test
+    void shouldReportDuplicateClusters() throws Exception {
+        when(knowledgeBaseService.getDuplicateReport()).thenReturn(
+            new DuplicateReportResponse(
+                "flag",
+                0.8,
+                List.of(
+                    new DuplicateClusterResponse(
+                        List.of("kb-1", "kb-2"),
+                        List.of("kb-1", "kb-2"),
+                        List.of("退换货政策", "退货说明"),
+                        0.91
+                    )
+                ),
+                List.of(),
+                1710000070000L
+            )
+        );
+
+        mockMvc.perform(get("/api/knowledge/duplicates"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.mode").value("flag"))
+            .andExpect(jsonPath("$.entryClusters[0].entryIds[1]").value("kb-2"))
+            .andExpect(jsonPath("$.entryClusters[0].titles[0]").value("退换货政策"))
+            .andExpect(jsonPath("$.chunkClusters").isEmpty());
+    }
+
+    @Test
+    void shouldSearchWithinCategoryAndTags() throws Exception {
+        when(
+            knowledgeBaseService.searchKnowledgeBaseScopedAsync(
+                eq("保修多久"),
+                eq(3),
+                eq(PayloadFilter.of("cat-1", List.of("tag-1")))
+            )
+        ).thenReturn(
+            Mono.just(
+                new VectorSearchResult(
+                    "根据知识库中的信息，为您找到以下相关内容：",
+                    List.of(new RetrievedChunk("智能手表保修一年", 0.92, "保修政策"))
+                )
+            )
+        );
+
+        MvcResult pending = mockMvc.perform(
+            post("/api/knowledge/search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"query\":\"保修多久\",\"limit\":3,\"categoryId\":\"cat-1\",\"tagIds\":[\"tag-1\"]}")
+        )
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.retrievedChunks[0].source").value("保修政策"));
+    }
 }
@@ -7,12 +7,21 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.example.customerservice.dto.ActivityPipelineStatsResponse;
+import com.example.customerservice.dto.AnswerCacheStatsResponse;
+import com.example.customerservice.dto.AnswerCoalescingStatsResponse;
+import com.example.customerservice.dto.GraphReplicaStatusResponse;
 import com.example.customerservice.dto.MonitoringResetResponse;
 import com.example.customerservice.dto.MonitoringStatusResponse;
 import com.example.customerservice.dto.MonitoringSummary;
 import com.example.customerservice.dto.MonitoringSummaryResponse;
+import com.example.customerservice.dto.TripleExtractionStatsResponse;
 import com.example.customerservice.service.AgentMonitoringService;
 import com.example.customerservice.service.ChatSessionService;
+import com.example.customerservice.service.extractor.LLMTripleExtractor;
+import com.example.customerservice.service.graph.GraphReplica;
+import com.example.customerservice.service.retriever.HybridAnswerService;
+import com.example.customerservice.service.runtime.VirtualThreadPinningMonitor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -31,6 +40,18 @@ class MonitoringControllerTest {
     @MockBean
     private ChatSessionService chatSessionService;
 
+    @MockBean
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @MockBean
+    private GraphReplica graphReplica;
+
+    @MockBean
+    private LLMTripleExtractor llmTripleExtractor;
+
+    @MockBean
+    private HybridAnswerService hybridAnswerService;
+
     @Test
     void shouldReturnStructuredMonitoringSummary() throws Exception {
         when(chatSessionService.getActiveSessionCount()).thenReturn(3);
@@ -77,4 +98,86 @@ class MonitoringControllerTest {
 
         verify(monitoringService).resetAndGetResponse();
     }
+
+    @Test
+    void shouldReturnActivityPipelineStats() throws Exception {
+        when(monitoringService.getActivityPipelineStats()).thenReturn(
+            new ActivityPipelineStatsResponse(120, 118, 30, 2, 0, 8192, 0.8, 200, 1710000033333L)
+        );
+
+        mockMvc.perform(get("/api/monitoring/activity"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.publishedEvents").value(120))
+            .andExpect(jsonPath("$.writtenEvents").value(118))
+            .andExpect(jsonPath("$.sampledOutEvents").value(30))
+            .andExpect(jsonPath("$.droppedEvents").value(2))
+            .andExpect(jsonPath("$.bufferCapacity").value(8192))
+            .andExpect(jsonPath("$.checkedAt").value(1710000033333L));
+    }
+
+    @Test
+    void shouldReturnGraphReplicaStaleness() throws Exception {
+        when(graphReplica.getStatus()).thenReturn(
+            new GraphReplicaStatusResponse(true, true, 42, 40, 1200, 3400, 85, 1710000040000L, 3, 1710000044444L)
+        );
+
+        mockMvc.perform(get("/api/monitoring/graph-replica"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.ready").value(true))
+            .andExpect(jsonPath("$.version").value(42))
+            .andExpect(jsonPath("$.snapshotVersion").value(40))
+            .andExpect(jsonPath("$.edgeCount").value(3400))
+            .andExpect(jsonPath("$.stalenessMs").value(85))
+            .andExpect(jsonPath("$.checkedAt").value(1710000044444L));
+    }
+
+    @Test
+    void shouldReturnTripleExtractionQueueAndServiceTimes() throws Exception {
+        when(llmTripleExtractor.getStats()).thenReturn(
+            new TripleExtractionStatsResponse(4, 4, 7, 120, 110, 6, 9, 15, 112, 1, 98000, 21000, true, 3500, 120, 3480, 2100000, 12, 850.5, 4200, 2300.25, 9100, 1710000055555L)
+        );
+
+        mockMvc.perform(get("/api/monitoring/triple-extraction"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.maxInFlight").value(4))
+            .andExpect(jsonPath("$.waiting").value(7))
+            .andExpect(jsonPath("$.retries").value(9))
+            .andExpect(jsonPath("$.batchRequests").value(15))
+            .andExpect(jsonPath("$.promptTokens").value(98000))
+            .andExpect(jsonPath("$.cacheEnabled").value(true))
+            .andExpect(jsonPath("$.cacheHits").value(3500))
+            .andExpect(jsonPath("$.avgQueueMillis").value(850.5))
+            .andExpect(jsonPath("$.avgServiceMillis").value(2300.25));
+    }
+
+    @Test
+    void shouldReturnAnswerCacheHitRatio() throws Exception {
+        when(hybridAnswerService.getCacheStats()).thenReturn(
+            new AnswerCacheStatsResponse(true, 2000, 120, 300, 100, 20, 5, 0.75, 57, 50, 1710000066666L)
+        );
+
+        mockMvc.perform(get("/api/monitoring/answer-cache"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.enabled").value(true))
+            .andExpect(jsonPath("$.entries").value(120))
+            .andExpect(jsonPath("$.staleMisses").value(20))
+            .andExpect(jsonPath("$.hitRatio").value(0.75))
+            .andExpect(jsonPath("$.corpusVersion").value(57))
+            .andExpect(jsonPath("$.warmedUp").value(50));
+    }
+
+    @Test
+    void shouldReturnCoalescedRequestCounts() throws Exception {
+        when(hybridAnswerService.getCoalescingStats()).thenReturn(
+            new AnswerCoalescingStatsResponse(true, 2, 40, 360, 1, 3, 1710000077777L)
+        );
+
+        mockMvc.perform(get("/api/monitoring/answer-coalescing"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.inFlight").value(2))
+            .andExpect(jsonPath("$.leaders").value(40))
+            .andExpect(jsonPath("$.coalesced").value(360))
+            .andExpect(jsonPath("$.timeouts").value(1))
+            .andExpect(jsonPath("$.abandoned").value(3));
+    }
 }
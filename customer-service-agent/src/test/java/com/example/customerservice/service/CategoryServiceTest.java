@@ -0,0 +1,191 @@
+package com.example.customerservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.customerservice.dto.CategoryResponse;
+import com.example.customerservice.dto.CategoryTreeResponse;
+import com.example.customerservice.dto.CategoryTreeResponse.CategoryNode;
+import com.example.customerservice.entity.Category;
+import com.example.customerservice.entity.EntryCategory;
+import com.example.customerservice.service.storage.EmbeddedKeyValueStore;
+import com.example.customerservice.service.storage.KeyValueStoreOptions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CategoryServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<EmbeddedKeyValueStore> stores = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (EmbeddedKeyValueStore store : stores) {
+            store.close();
+        }
+    }
+
+    @Test
+    void shouldMaintainAncestorSubtreeCountsOnAssociationChanges() throws Exception {
+        CategoryService service = open(openStore());
+        CategoryResponse root = service.createCategory("售后", null);
+        CategoryResponse middle = service.createCategory("退货", root.getId());
+        CategoryResponse leaf = service.createCategory("运费", middle.getId());
+
+        service.addEntryToCategory("kb-1", leaf.getId());
+        service.addEntryToCategory("kb-2", middle.getId());
+        service.addEntryToCategory("kb-1", leaf.getId());
+        assertThat(service.getEntryCount(leaf.getId())).isEqualTo(1);
+        assertThat(service.getSubtreeEntryCount(leaf.getId())).isEqualTo(1);
+        assertThat(service.getSubtreeEntryCount(middle.getId())).isEqualTo(2);
+        assertThat(service.getSubtreeEntryCount(root.getId())).isEqualTo(2);
+        assertThat(service.getEntryIdsForCategoryScope(root.getId())).containsExactlyInAnyOrder("kb-1", "kb-2");
+
+        service.removeEntryFromCategory("kb-1", leaf.getId());
+        assertThat(service.getSubtreeEntryCount(leaf.getId())).isZero();
+        assertThat(service.getSubtreeEntryCount(middle.getId())).isEqualTo(1);
+        assertThat(service.getSubtreeEntryCount(root.getId())).isEqualTo(1);
+        assertThat(service.getEntryIdsForCategoryScope(root.getId())).containsExactly("kb-2");
+    }
+
+    @Test
+    void shouldMoveChildrenUpAndRebuildTreeWhenDeletingMiddleCategory() throws Exception {
+        CategoryService service = open(openStore());
+        CategoryResponse root = service.createCategory("售后", null);
+        CategoryResponse middle = service.createCategory("退货", root.getId());
+        CategoryResponse leaf = service.createCategory("运费", middle.getId());
+        CategoryResponse grandchild = service.createCategory("偏远地区", leaf.getId());
+        service.addEntryToCategory("kb-1", middle.getId());
+        service.addEntryToCategory("kb-2", leaf.getId());
+        service.addEntryToCategory("kb-3", grandchild.getId());
+        CategoryTreeResponse before = service.getCategoryTree();
+        assertThat(service.getCategoryTree()).isSameAs(before);
+
+        service.deleteCategory(middle.getId());
+
+        CategoryResponse movedLeaf = find(service, leaf.getId());
+        assertThat(movedLeaf.getParentId()).isEqualTo(root.getId());
+        assertThat(movedLeaf.getPath()).isEqualTo("/售后/运费");
+        assertThat(movedLeaf.getLevel()).isEqualTo(1);
+        CategoryResponse movedGrandchild = find(service, grandchild.getId());
+        assertThat(movedGrandchild.getPath()).isEqualTo("/售后/运费/偏远地区");
+        assertThat(movedGrandchild.getLevel()).isEqualTo(2);
+        assertThat(service.getSubtreeEntryCount(leaf.getId())).isEqualTo(2);
+        assertThat(service.getSubtreeEntryCount(root.getId())).isEqualTo(2);
+
+        CategoryTreeResponse after = service.getCategoryTree();
+        assertThat(after).isNotSameAs(before);
+        CategoryNode rootNode = after.getCategories().get(0);
+        assertThat(rootNode.getSubtreeEntryCount()).isEqualTo(2);
+        assertThat(rootNode.getChildren()).extracting(CategoryNode::getId).containsExactly(leaf.getId());
+        CategoryNode leafNode = rootNode.getChildren().get(0);
+        assertThat(leafNode.getLevel()).isEqualTo(1);
+        assertThat(leafNode.getEntryCount()).isEqualTo(1);
+        assertThat(leafNode.getSubtreeEntryCount()).isEqualTo(2);
+        assertThat(leafNode.getChildren()).extracting(CategoryNode::getPath).containsExactly("/售后/运费/偏远地区");
+    }
+
+    @Test
+    void shouldRewriteDescendantPathsOnRename() throws Exception {
+        CategoryService service = open(openStore());
+        CategoryResponse root = service.createCategory("售后", null);
+        CategoryResponse middle = service.createCategory("退货", root.getId());
+        CategoryResponse leaf = service.createCategory("运费", middle.getId());
+        CategoryTreeResponse before = service.getCategoryTree();
+
+        CategoryResponse renamed = service.updateCategory(middle.getId(), "退换货");
+
+        assertThat(renamed.getPath()).isEqualTo("/售后/退换货");
+        assertThat(find(service, leaf.getId()).getPath()).isEqualTo("/售后/退换货/运费");
+        assertThat(find(service, leaf.getId()).getLevel()).isEqualTo(2);
+        assertThat(service.getCategoryTree()).isNotSameAs(before);
+        service.updateCategory(root.getId(), "客服");
+        assertThat(find(service, middle.getId()).getPath()).isEqualTo("/客服/退换货");
+        assertThat(find(service, leaf.getId()).getPath()).isEqualTo("/客服/退换货/运费");
+    }
+
+    @Test
+    void shouldPersistCategoryDeletionWithAssociationsAndReparentedChildren() throws Exception {
+        EmbeddedKeyValueStore store = openStore();
+        CategoryService service = open(store);
+        CategoryResponse root = service.createCategory("售后", null);
+        CategoryResponse middle = service.createCategory("退货", root.getId());
+        CategoryResponse leaf = service.createCategory("运费", middle.getId());
+        service.addEntryToCategory("kb-1", middle.getId());
+        service.addEntryToCategory("kb-2", leaf.getId());
+
+        service.deleteCategory(middle.getId());
+        store.close();
+        stores.remove(store);
+
+        CategoryService reopened = open(openStore());
+        assertThat(reopened.listCategories()).extracting(CategoryResponse::getId)
+            .containsExactlyInAnyOrder(root.getId(), leaf.getId());
+        assertThat(reopened.getCategoryIdsForEntry("kb-1")).isEmpty();
+        assertThat(reopened.getEntryIdsForCategory(middle.getId())).isEmpty();
+        CategoryResponse movedLeaf = find(reopened, leaf.getId());
+        assertThat(movedLeaf.getParentId()).isEqualTo(root.getId());
+        assertThat(movedLeaf.getPath()).isEqualTo("/售后/运费");
+        assertThat(movedLeaf.getLevel()).isEqualTo(1);
+        assertThat(reopened.getCategoryIdsForEntry("kb-2")).containsExactly(leaf.getId());
+        assertThat(reopened.getSubtreeEntryCount(root.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void shouldImportLegacyFilesOnlyOnce() throws Exception {
+        Category root = new Category("cat-root", "售后", null, "/售后", 0, 1L, 1L);
+        Category child = new Category("cat-child", "退货", "cat-root", "/售后/退货", 1, 2L, 2L);
+        objectMapper.writeValue(legacyDirectory().resolve("categories.json").toFile(), List.of(root, child));
+        objectMapper.writeValue(legacyDirectory().resolve("entry-categories.json").toFile(),
+            List.of(new EntryCategory("ec-1", "kb-1", "cat-child")));
+
+        EmbeddedKeyValueStore store = openStore();
+        CategoryService service = open(store);
+        assertThat(service.listCategories()).extracting(CategoryResponse::getId)
+            .containsExactly("cat-root", "cat-child");
+        assertThat(service.getCategoryIdsForEntry("kb-1")).containsExactly("cat-child");
+        assertThat(service.getSubtreeEntryCount("cat-root")).isEqualTo(1);
+
+        // 导入后的修改以存储为准，旧文件不再被读取
+        service.deleteCategory("cat-child");
+        store.close();
+        stores.remove(store);
+
+        CategoryService reopened = open(openStore());
+        assertThat(reopened.listCategories()).extracting(CategoryResponse::getId).containsExactly("cat-root");
+        assertThat(reopened.getCategoryIdsForEntry("kb-1")).isEmpty();
+    }
+
+    private CategoryService open(EmbeddedKeyValueStore store) throws IOException {
+        CategoryService service = new CategoryService(objectMapper, event -> {}, store, legacyDirectory().toString());
+        service.init();
+        return service;
+    }
+
+    private EmbeddedKeyValueStore openStore() throws IOException {
+        EmbeddedKeyValueStore store = new EmbeddedKeyValueStore(
+            directory.resolve("classification"), new KeyValueStoreOptions(false, 2.0, Long.MAX_VALUE));
+        stores.add(store);
+        return store;
+    }
+
+    private Path legacyDirectory() throws IOException {
+        return Files.createDirectories(directory.resolve("legacy"));
+    }
+
+    private static CategoryResponse find(CategoryService service, String id) {
+        return service.listCategories().stream()
+            .filter(category -> category.getId().equals(id))
+            .findFirst()
+            .orElseThrow();
+    }
+}
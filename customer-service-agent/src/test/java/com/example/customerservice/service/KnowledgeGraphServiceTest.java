@@ -0,0 +1,80 @@
+package com.example.customerservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.customerservice.dto.GraphStatsResponse;
+import com.example.customerservice.service.graph.GraphReplica;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.Values;
+
+class KnowledgeGraphServiceTest {
+
+    private final Driver driver = mock(Driver.class);
+    private final Session session = mock(Session.class);
+    private final GraphReplica replica = new GraphReplica(true, 0);
+    private final KnowledgeGraphService service =
+        new KnowledgeGraphService(driver, replica, new KnowledgeCorpusVersion(replica), 10, 300, 10);
+
+    @Test
+    void shouldKeepWritesThatLandWhileReconcileIsScanning() throws Exception {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        // 扫描在写入之前读到的是空图，写入完成后才结束
+        Result nodeScan = mock(Result.class);
+        when(nodeScan.hasNext()).thenAnswer(invocation -> {
+            scanning.countDown();
+            assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+            return false;
+        });
+        Result edgeScan = mock(Result.class);
+        when(driver.session()).thenReturn(session);
+        when(session.run(anyString())).thenAnswer(invocation ->
+            invocation.<String>getArgument(0).startsWith("MATCH (n)") ? nodeScan : edgeScan
+        );
+        Result first = tripleResult();
+        Result second = tripleResult();
+        when(session.run(anyString(), anyMap())).thenReturn(first, second);
+
+        CompletableFuture<Void> reconcile = CompletableFuture.runAsync(service::reconcile);
+        assertThat(scanning.await(5, TimeUnit.SECONDS)).isTrue();
+        service.addTriple("kb-1", "智能手表", "Product", "HAS_SERVICE", "保修", "Service");
+        service.addTriple("kb-2", "智能手表", "Product", "HAS_SERVICE", "保修", "Service");
+        written.countDown();
+        reconcile.get(5, TimeUnit.SECONDS);
+
+        GraphStatsResponse stats = service.getStats();
+        assertThat(stats.getNodeCount()).isEqualTo(2);
+        assertThat(stats.getEdgeCount()).isEqualTo(1);
+        // 重放的写入由副本的后台刷新发布
+        long deadline = System.currentTimeMillis() + 5000;
+        while (replica.current().nodeCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(replica.current().nodeCount()).isEqualTo(2);
+        assertThat(replica.current().edgeCount()).isEqualTo(1);
+        assertThat(service.findRelatedEntryIds("kb-1", List.of())).containsExactly("kb-2");
+    }
+
+    private static Result tripleResult() {
+        Record record = mock(Record.class);
+        when(record.get("subjectId")).thenReturn(Values.value(1L));
+        when(record.get("objectId")).thenReturn(Values.value(2L));
+        when(record.get("relationId")).thenReturn(Values.value(3L));
+        Result result = mock(Result.class);
+        when(result.hasNext()).thenReturn(true, false);
+        when(result.next()).thenReturn(record);
+        return result;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.customerservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.customerservice.dto.TagResponse;
+import com.example.customerservice.entity.Tag;
+import com.example.customerservice.service.storage.EmbeddedKeyValueStore;
+import com.example.customerservice.service.storage.KeyValueStoreOptions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TagServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldImportLegacyFilesOnceAndPersistDeletions() throws Exception {
+        Path legacy = Files.createDirectories(directory.resolve("legacy"));
+        objectMapper.writeValue(legacy.resolve("tags.json").toFile(),
+            List.of(new Tag("tag-1", "退货", 1L), new Tag("tag-2", "物流", 2L)));
+        objectMapper.writeValue(legacy.resolve("entry-tags.json").toFile(),
+            Map.of("kb-1", List.of("tag-1", "tag-2")));
+
+        try (EmbeddedKeyValueStore store = openStore()) {
+            TagService service = open(store, legacy);
+            assertThat(service.getTagIdsForEntry("kb-1")).containsExactlyInAnyOrder("tag-1", "tag-2");
+            service.deleteTag("tag-1");
+        }
+
+        try (EmbeddedKeyValueStore store = openStore()) {
+            TagService reopened = open(store, legacy);
+            assertThat(reopened.listTags()).extracting(TagResponse::getId).containsExactly("tag-2");
+            assertThat(reopened.getTagIdsForEntry("kb-1")).containsExactly("tag-2");
+            assertThat(reopened.getEntryIdsForTag("tag-1")).isEmpty();
+        }
+    }
+
+    private TagService open(EmbeddedKeyValueStore store, Path legacy) {
+        TagService service = new TagService(objectMapper, event -> {}, store, legacy.toString());
+        service.init();
+        return service;
+    }
+
+    private EmbeddedKeyValueStore openStore() throws Exception {
+        return new EmbeddedKeyValueStore(directory.resolve("classification"), new KeyValueStoreOptions(false, 2.0, Long.MAX_VALUE));
+    }
+}
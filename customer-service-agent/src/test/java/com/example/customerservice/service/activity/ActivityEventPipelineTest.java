@@ -0,0 +1,53 @@
+package com.example.customerservice.service.activity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.customerservice.dto.ActivityPipelineStatsResponse;
+import org.junit.jupiter.api.Test;
+
+class ActivityEventPipelineTest {
+
+    @Test
+    void shouldDropRoutineEventsOnOverflowButKeepRoomForErrors() {
+        // 未启动写入线程，事件留在缓冲区中直到 flush
+        ActivityEventPipeline pipeline = new ActivityEventPipeline(16, 1.0, 20);
+        for (int i = 0; i < 20; i++) {
+            pipeline.publish(ActivityEvent.Type.TOOL_CALL, "tool", i, "payload");
+        }
+        ActivityPipelineStatsResponse stats = pipeline.getStats();
+        assertThat(stats.getPublishedEvents()).isEqualTo(14);
+        assertThat(stats.getDroppedEvents()).isEqualTo(6);
+
+        for (int i = 0; i < 3; i++) {
+            pipeline.publish(ActivityEvent.Type.ERROR, "agent", i, "boom");
+        }
+        stats = pipeline.getStats();
+        assertThat(stats.getPublishedEvents()).isEqualTo(16);
+        assertThat(stats.getDroppedEvents()).isEqualTo(7);
+        assertThat(stats.getBufferedEvents()).isEqualTo(16);
+
+        assertThat(pipeline.flush()).isEqualTo(16);
+        assertThat(pipeline.getStats().getWrittenEvents()).isEqualTo(16);
+        assertThat(pipeline.getStats().getBufferedEvents()).isZero();
+    }
+
+    @Test
+    void shouldSampleRoutineEventsButNeverErrors() {
+        ActivityEventPipeline disabled = new ActivityEventPipeline(64, 0.0, 20);
+        for (int i = 0; i < 10; i++) {
+            disabled.publish(ActivityEvent.Type.AGENT_RESPONSE, "agent", i, "ok");
+        }
+        disabled.publish(ActivityEvent.Type.ERROR, "agent", 0, "boom");
+        assertThat(disabled.getStats().getSampledOutEvents()).isEqualTo(10);
+        assertThat(disabled.getStats().getPublishedEvents()).isEqualTo(1);
+
+        ActivityEventPipeline half = new ActivityEventPipeline(8192, 0.5, 20);
+        for (int i = 0; i < 4000; i++) {
+            half.publish(ActivityEvent.Type.AGENT_RESPONSE, "agent", i, "ok");
+        }
+        ActivityPipelineStatsResponse stats = half.getStats();
+        assertThat(stats.getPublishedEvents() + stats.getSampledOutEvents()).isEqualTo(4000);
+        assertThat(stats.getPublishedEvents()).isBetween(1600L, 2400L);
+        assertThat(stats.getDroppedEvents()).isZero();
+    }
+}
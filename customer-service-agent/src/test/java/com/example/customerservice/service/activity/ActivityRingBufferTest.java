@@ -0,0 +1,47 @@
+package com.example.customerservice.service.activity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ActivityRingBufferTest {
+
+    @Test
+    void shouldRejectOffersWhenFullAndAcceptAgainAfterDrain() {
+        ActivityRingBuffer<Integer> buffer = new ActivityRingBuffer<>(5);
+        assertThat(buffer.capacity()).isEqualTo(8);
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(8)).isFalse();
+        assertThat(buffer.size()).isEqualTo(8);
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drain(drained::add, 3)).isEqualTo(3);
+        assertThat(drained).containsExactly(0, 1, 2);
+        for (int i = 8; i < 11; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(11)).isFalse();
+        buffer.drain(drained::add, Integer.MAX_VALUE);
+        assertThat(drained).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void shouldKeepHeadroomFreeForUnreservedOffers() {
+        ActivityRingBuffer<String> buffer = new ActivityRingBuffer<>(8);
+        for (int i = 0; i < 6; i++) {
+            assertThat(buffer.offer("info", 2)).isTrue();
+        }
+        assertThat(buffer.offer("info", 2)).isFalse();
+
+        assertThat(buffer.offer("error")).isTrue();
+        assertThat(buffer.offer("error")).isTrue();
+        assertThat(buffer.offer("error")).isFalse();
+        assertThat(buffer.size()).isEqualTo(8);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.customerservice.service.extractor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.customerservice.service.graph.EntityAliasTable;
+import io.agentscope.core.embedding.EmbeddingModel;
+import io.agentscope.core.message.ContentBlock;
+import io.agentscope.core.message.TextBlock;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+class EntityCanonicalizerTest {
+
+    private static final Map<String, double[]> VECTORS = Map.of(
+        "智能手表", new double[] { 1, 0, 0 },
+        "智能腕表", new double[] { 0.98, 0.1, 0 },
+        "蓝牙耳机", new double[] { 0, 1, 0 },
+        "iPhone 15", new double[] { 0, 0, 1 },
+        "iPhone 15 Pro", new double[] { 0, 0.1, 0.99 },
+        "X1", new double[] { 0.7, 0.7, 0 },
+        "X2", new double[] { 0.72, 0.69, 0 }
+    );
+
+    @TempDir
+    Path dir;
+
+    private final List<EntityAliasTable> aliasTables = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        // 等待后台写入结束，避免临时目录删除时别名表仍在写文件
+        aliasTables.forEach(EntityAliasTable::shutdown);
+    }
+
+    @Test
+    void shouldNormalizeWidthCaseAndPunctuation() {
+        EntityCanonicalizer canonicalizer = canonicalizer(aliasTable(""));
+
+        assertThat(canonicalizer.canonicalize("AirPods Pro", "Concept")).isEqualTo("AirPods Pro");
+        assertThat(canonicalizer.canonicalize("airpods  pro。", "Concept")).isEqualTo("AirPods Pro");
+        assertThat(canonicalizer.canonicalize("ＡＩＲＰＯＤＳ　ＰＲＯ", "Concept")).isEqualTo("AirPods Pro");
+        assertThat(EntityAliasTable.key("“保修政策”")).isEqualTo("保修政策");
+    }
+
+    @Test
+    void shouldApplySynonymsAndExpandQueryTerms() {
+        EntityAliasTable aliasTable = aliasTable("保修=质保|保修政策;退款=退钱");
+        EntityCanonicalizer canonicalizer = canonicalizer(aliasTable);
+
+        assertThat(canonicalizer.canonicalize("质保", "Service")).isEqualTo("保修");
+        assertThat(canonicalizer.canonicalize("保修政策", "Service")).isEqualTo("保修");
+        assertThat(canonicalizer.canonicalize("退钱", "Concept")).isEqualTo("退款");
+        assertThat(aliasTable.expand("质保")).containsExactly("质保", "保修");
+        assertThat(aliasTable.expand("维修")).containsExactly("维修");
+    }
+
+    @Test
+    void shouldMergeSimilarNamesByEmbeddingAndPersistAliases() {
+        EntityAliasTable aliasTable = aliasTable("");
+        EntityCanonicalizer canonicalizer = canonicalizer(aliasTable);
+
+        assertThat(canonicalizer.canonicalize("智能手表", "Product")).isEqualTo("智能手表");
+        assertThat(canonicalizer.canonicalize("智能腕表", "Product")).isEqualTo("智能手表");
+        assertThat(canonicalizer.canonicalize("蓝牙耳机", "Product")).isEqualTo("蓝牙耳机");
+        // 没有向量的名称：Embedding 失败时跳过聚类，登记为新的规范名
+        assertThat(canonicalizer.canonicalize("充电器", "Product")).isEqualTo("充电器");
+        aliasTable.shutdown();
+
+        EntityAliasTable reloaded = aliasTable("");
+        assertThat(reloaded.resolve("智能腕表")).isEqualTo("智能手表");
+        assertThat(reloaded.canonicalNames("Product")).containsExactlyInAnyOrder("智能手表", "蓝牙耳机", "充电器");
+    }
+
+    @Test
+    void shouldKeepNamesWithDifferentModelNumbersApart() {
+        EntityAliasTable aliasTable = aliasTable("");
+        EntityCanonicalizer canonicalizer = canonicalizer(aliasTable);
+
+        // 向量余弦都在 0.99 以上，但型号不同
+        assertThat(canonicalizer.canonicalize("iPhone 15", "Product")).isEqualTo("iPhone 15");
+        assertThat(canonicalizer.canonicalize("iPhone 15 Pro", "Product")).isEqualTo("iPhone 15 Pro");
+        assertThat(canonicalizer.canonicalize("X1", "Product")).isEqualTo("X1");
+        assertThat(canonicalizer.canonicalize("X2", "Product")).isEqualTo("X2");
+        assertThat(aliasTable.canonicalNames("Product"))
+            .containsExactlyInAnyOrder("iPhone 15", "iPhone 15 Pro", "X1", "X2");
+    }
+
+    @Test
+    void shouldNotClusterTypesOutsideTheConfiguredList() {
+        EntityAliasTable aliasTable = aliasTable("");
+        EntityCanonicalizer canonicalizer =
+            new EntityCanonicalizer(aliasTable, new FakeEmbeddingModel(), true, 0.92, "Service", 16);
+
+        assertThat(canonicalizer.canonicalize("智能手表", "Product")).isEqualTo("智能手表");
+        assertThat(canonicalizer.canonicalize("智能腕表", "Product")).isEqualTo("智能腕表");
+    }
+
+    @Test
+    void shouldReuseSavedCanonicalVectorsAfterRestart() {
+        EntityAliasTable aliasTable = aliasTable("");
+        canonicalizer(aliasTable).canonicalize("智能手表", "Product");
+        canonicalizer(aliasTable).canonicalize("蓝牙耳机", "Product");
+        aliasTable.shutdown();
+
+        FakeEmbeddingModel embeddingModel = new FakeEmbeddingModel();
+        EntityAliasTable reloaded = aliasTable("");
+        EntityCanonicalizer canonicalizer = new EntityCanonicalizer(reloaded, embeddingModel, true, 0.92, "Product,Service", 16);
+
+        assertThat(canonicalizer.canonicalize("智能腕表", "Product")).isEqualTo("智能手表");
+        // 只计算新名称的向量，已有规范名的向量从别名表读取
+        assertThat(embeddingModel.calls).isEqualTo(1);
+    }
+
+    @Test
+    void shouldMergeEmbeddingVariantsIntoSynonymCanonicalNames() {
+        EntityAliasTable aliasTable = aliasTable("智能手表=手表|智能表");
+        EntityCanonicalizer canonicalizer = canonicalizer(aliasTable);
+
+        assertThat(aliasTable.canonicalNames("Product")).isEmpty();
+        assertThat(canonicalizer.canonicalize("手表", "Product")).isEqualTo("智能手表");
+        assertThat(aliasTable.canonicalNames("Product")).containsExactly("智能手表");
+        assertThat(canonicalizer.canonicalize("智能腕表", "Product")).isEqualTo("智能手表");
+    }
+
+    private EntityAliasTable aliasTable(String synonyms) {
+        EntityAliasTable aliasTable = new EntityAliasTable(dir.resolve("entity-aliases.json").toString(), synonyms);
+        aliasTables.add(aliasTable);
+        return aliasTable;
+    }
+
+    private static EntityCanonicalizer canonicalizer(EntityAliasTable aliasTable) {
+        return new EntityCanonicalizer(aliasTable, new FakeEmbeddingModel(), true, 0.92, "Product,Service", 16);
+    }
+
+    private static final class FakeEmbeddingModel implements EmbeddingModel {
+
+        private int calls;
+
+        @Override
+        public Mono<double[]> embed(ContentBlock block) {
+            calls++;
+            double[] vector = VECTORS.get(((TextBlock) block).getText());
+            return vector == null ? Mono.error(new IllegalStateException("no vector")) : Mono.just(vector);
+        }
+
+        @Override
+        public String getModelName() {
+            return "fake";
+        }
+
+        @Override
+        public int getDimensions() {
+            return 3;
+        }
+    }
+}
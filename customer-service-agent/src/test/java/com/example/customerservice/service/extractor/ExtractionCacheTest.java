@@ -0,0 +1,48 @@
+package com.example.customerservice.service.extractor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExtractionCacheTest {
+
+    private static final List<Map<String, String>> TRIPLES =
+        List.of(Map.of("subject", "智能手表", "relation", "HAS_SERVICE", "object", "保修"));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntryWhenFull() {
+        ExtractionCache cache = new ExtractionCache(true, directory.toString(), 2, 1 << 20);
+        cache.put("a", TRIPLES);
+        cache.put("b", TRIPLES);
+        cache.shutdown();
+
+        ExtractionCache reloaded = new ExtractionCache(true, directory.toString(), 2, 1 << 20);
+        assertThat(reloaded.get("a")).contains(TRIPLES);
+        reloaded.put("c", TRIPLES);
+        reloaded.shutdown();
+
+        assertThat(reloaded.size()).isEqualTo(2);
+        assertThat(reloaded.evictions()).isEqualTo(1);
+        assertThat(reloaded.get("b")).isEmpty();
+        assertThat(Files.exists(directory.resolve("b.json"))).isFalse();
+        assertThat(reloaded.get("a")).isPresent();
+        assertThat(reloaded.get("c")).isPresent();
+    }
+
+    @Test
+    void shouldKeyOnEveryPart() {
+        assertThat(ExtractionCache.key("model", "prompt", "text"))
+            .isEqualTo(ExtractionCache.key("model", "prompt", "text"))
+            .isNotEqualTo(ExtractionCache.key("model-2", "prompt", "text"))
+            .isNotEqualTo(ExtractionCache.key("model", "prompt", "text2"))
+            .isNotEqualTo(ExtractionCache.key("model", "prompttext", ""));
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.customerservice.service.extractor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.customerservice.dto.TripleExtractionStatsResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+class LLMTripleExtractorTest {
+
+    private static final String COMPLETION =
+        "{\"choices\":[{\"message\":{\"content\":\"[{\\\"subject\\\":\\\"智能手表\\\",\\\"relation\\\":\\\"HAS_SERVICE\\\",\\\"object\\\":\\\"保修\\\"}]\"}}]}";
+
+    @TempDir
+    Path cacheDir;
+
+    private static final String TRIPLE =
+        "{\\\"subject\\\":\\\"智能手表\\\",\\\"relation\\\":\\\"HAS_SERVICE\\\",\\\"object\\\":\\\"保修\\\"}";
+
+    private DisposableServer server;
+    private ExtractionCache cache;
+    private LLMTripleExtractor extractor;
+
+    @AfterEach
+    void tearDown() {
+        if (extractor != null) {
+            extractor.shutdown();
+        }
+        if (cache != null) {
+            cache.shutdown();
+        }
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    @Test
+    void shouldRetryThrottledResponsesWithBackoff() {
+        AtomicInteger calls = new AtomicInteger();
+        server = HttpServer.create().port(0)
+            .route(routes -> routes.post("/v1/chat/completions", (request, response) -> {
+                if (calls.incrementAndGet() <= 2) {
+                    return response.status(429).send();
+                }
+                return response.header("Content-Type", "application/json;charset=UTF-8").sendString(Mono.just(COMPLETION), StandardCharsets.UTF_8);
+            }))
+            .bindNow();
+        extractor = extractor(4, 3, 60000);
+
+        List<Map<String, String>> triples = extractor.extractTriples("智能手表享受一年保修").block();
+
+        assertThat(triples).containsExactly(Map.of("subject", "智能手表", "relation", "HAS_SERVICE", "object", "保修"));
+        assertThat(calls).hasValue(3);
+        TripleExtractionStatsResponse stats = extractor.getStats();
+        assertThat(stats.getRetries()).isEqualTo(2);
+        assertThat(stats.getSucceeded()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCapConcurrentCallsAndQueueTheRest() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        server = HttpServer.create().port(0)
+            .route(routes -> routes.post("/v1/chat/completions", (request, response) -> {
+                peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                return response.header("Content-Type", "application/json;charset=UTF-8").sendString(
+                    Mono.delay(Duration.ofMillis(100))
+                        .doOnNext(tick -> active.decrementAndGet())
+                        .thenReturn(COMPLETION),
+                    StandardCharsets.UTF_8
+                );
+            }))
+            .bindNow();
+        extractor = extractor(2, 0, 60000);
+
+        List<List<Map<String, String>>> results = Flux.range(0, 6)
+            .flatMap(i -> extractor.extractTriples("文本" + i))
+            .collectList()
+            .block();
+
+        assertThat(results).hasSize(6).allSatisfy(triples -> assertThat(triples).hasSize(1));
+        assertThat(peak).hasValue(2);
+        TripleExtractionStatsResponse stats = extractor.getStats();
+        assertThat(stats.getRequests()).isEqualTo(6);
+        assertThat(stats.getInFlight()).isZero();
+        assertThat(stats.getMaxQueueMillis()).isGreaterThanOrEqualTo(150);
+    }
+
+    @Test
+    void shouldGiveUpOnHungProviderAfterResponseTimeout() {
+        server = HttpServer.create().port(0)
+            .route(routes -> routes.post("/v1/chat/completions", (request, response) -> Mono.never()))
+            .bindNow();
+        extractor = extractor(1, 0, 200);
+
+        assertThat(extractor.extractTriples("文本").block(Duration.ofSeconds(5))).isEmpty();
+        assertThat(extractor.getStats().getFailed()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldServeUnchangedTextFromCacheWithoutCallingProvider() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        server = HttpServer.create().port(0)
+            .route(routes -> routes.post("/v1/chat/completions", (request, response) -> {
+                calls.incrementAndGet();
+                return response.header("Content-Type", "application/json;charset=UTF-8").sendString(Mono.just(COMPLETION), StandardCharsets.UTF_8);
+            }))
+            .bindNow();
+        cache = new ExtractionCache(true, cacheDir.toString(), 100, 1 << 20);
+        extractor = extractor(4, 0, 60000);
+
+        List<Map<String, String>> first = extractor.extractTriples("智能手表享受一年保修").block();
+        cache.shutdown();
+
+        // 重启后（新的缓存实例读取同一目录）相同文本不再调用 LLM
+        cache = new ExtractionCache(true, cacheDir.toString(), 100, 1 << 20);
+        extractor.shutdown();
+        extractor = extractor(4, 0, 60000);
+        List<Map<String, String>> second = extractor.extractTriples("智能手表享受一年保修").block();
+
+        assertThat(second).isEqualTo(first).hasSize(1);
+        assertThat(calls).hasValue(1);
+        assertThat(extractor.getStats().getCacheHits()).isEqualTo(1);
+        assertThat(extractor.getStats().getRequests()).isZero();
+    }
+
+    @Test
+    void shouldNotCacheUnparseableResponses() {
+        AtomicInteger calls = new AtomicInteger();
+        server = HttpServer.create().port(0)
+            .route(routes -> routes.post("/v1/chat/completions", (request, response) -> {
+                calls.incrementAndGet();
+                return response.header("Content-Type", "application/json;charset=UTF-8")
+                    .sendString(Mono.just("{\"choices\":[{\"message\":{\"content\":\"抱歉\"}}]}"), StandardCharsets.UTF_8);
+            }))
+            .bindNow();
+        cache = new ExtractionCache(true, cacheDir.toString(), 100, 1 << 20);
+        extractor = extractor(4, 0, 60000);
+
+        assertThat(extractor.extractTriples("文本").block()).isEmpty();
+        assertThat(extractor.extractTriples("文本").block()).isEmpty();
+
+        assertThat(calls).hasValue(2);
+        assertThat(extractor.getStats().getFailed()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldPackShortDocumentsIntoOneRequestKeyedByDocumentId() {
+        AtomicInteger calls = new AtomicInteger();
+        server = HttpServer.create().port(0)
+            .route(routes -> routes.post("/v1/chat/completions", (request, response) -> response
+                .header("Content-Type", "application/json;charset=UTF-8")
+                .sendString(request.receive().aggregate().asString(StandardCharsets.UTF_8).map(body -> {
+                    calls.incrementAndGet();
+                    if (!body.contains("<<<DOC")) {
+                        return COMPLETION;
+                    }
+                    // 第 2 篇故意漏掉，应单独补抽
+                    return completion("{\\\"d1\\\":[" + TRIPLE + "],\\\"d3\\\":[]}");
+                }), StandardCharsets.UTF_8)))
+            .bindNow();
+        extractor = extractor(4, 0, 60000);
+
+        Map<String, List<Map<String, String>>> results = extractor.extractTriplesBatch(texts(3)).block();
+
+        assertThat(results).containsOnlyKeys("entry-0", "entry-1", "entry-2");
+        assertThat(results.get("entry-0")).hasSize(1);
+        assertThat(results.get("entry-1")).hasSize(1);
+        assertThat(results.get("entry-2")).isEmpty();
+        // 1 次合并请求 + 1 次补抽
+        assertThat(calls).hasValue(2);
+        TripleExtractionStatsResponse stats = extractor.getStats();
+        assertThat(stats.getBatchRequests()).isEqualTo(1);
+        assertThat(stats.getBatchedDocuments()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeyBatchResultsByBatchPromptAndReuseThem() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        server = HttpServer.create().port(0)
+            .route(routes -> routes.post("/v1/chat/completions", (request, response) -> {
+                calls.incrementAndGet();
+                return response.header("Content-Type", "application/json;charset=UTF-8")
+                    .sendString(Mono.just(completion("{\\\"d1\\\":[" + TRIPLE + "],\\\"d2\\\":[]}")), StandardCharsets.UTF_8);
+            }))
+            .bindNow();
+        cache = new ExtractionCache(true, cacheDir.toString(), 100, 1 << 20);
+        extractor = extractor(4, 0, 60000);
+        Map<String, String> texts = texts(2);
+        String text = texts.get("entry-0");
+        assertThat(extractor.batchCacheKey(text)).isNotEqualTo(extractor.cacheKey(text));
+
+        extractor.extractTriplesBatch(texts).block();
+        // 缓存异步落盘
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // 批量结果只写在批量提示词的键下，修改单篇提示词不会读到它，修改批量提示词会让它失效
+        assertThat(cache.contains(extractor.batchCacheKey(text))).isTrue();
+        assertThat(cache.contains(extractor.cacheKey(text))).isFalse();
+        assertThat(extractor.extractTriples(text).block()).hasSize(1);
+        assertThat(extractor.extractTriplesBatch(texts).block().get("entry-1")).isEmpty();
+        assertThat(calls).hasValue(1);
+        assertThat(cache.hits()).isEqualTo(3);
+        assertThat(cache.misses()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldSplitUnparseableBatchDownToSingleDocumentCalls() {
+        AtomicInteger batchCalls = new AtomicInteger();
+        AtomicInteger singleCalls = new AtomicInteger();
+        server = HttpServer.create().port(0)
+            .route(routes -> routes.post("/v1/chat/completions", (request, response) -> response
+                .header("Content-Type", "application/json;charset=UTF-8")
+                .sendString(request.receive().aggregate().asString(StandardCharsets.UTF_8).map(body -> {
+                    if (body.contains("<<<DOC")) {
+                        batchCalls.incrementAndGet();
+                        return completion("抱歉，内容太长");
+                    }
+                    singleCalls.incrementAndGet();
+                    return COMPLETION;
+                }), StandardCharsets.UTF_8)))
+            .bindNow();
+        extractor = extractor(4, 0, 60000);
+
+        Map<String, List<Map<String, String>>> results = extractor.extractTriplesBatch(texts(4)).block();
+
+        assertThat(results).hasSize(4).allSatisfy((id, triples) -> assertThat(triples).hasSize(1));
+        // 4 篇 → 拆成 2+2 → 各拆成单篇
+        assertThat(batchCalls).hasValue(3);
+        assertThat(singleCalls).hasValue(4);
+        assertThat(extractor.getStats().getBatchSplits()).isEqualTo(3);
+    }
+
+    private static Map<String, String> texts(int count) {
+        Map<String, String> texts = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            texts.put("entry-" + i, "智能手表保修政策 " + i);
+        }
+        return texts;
+    }
+
+    private static String completion(String escapedContent) {
+        return "{\"choices\":[{\"message\":{\"content\":\"" + escapedContent + "\"}}]}";
+    }
+
+    private LLMTripleExtractor extractor(int maxInFlight, int maxRetries, long responseTimeoutMs) {
+        if (cache == null) {
+            cache = new ExtractionCache(false, cacheDir.toString(), 100, 1 << 20);
+        }
+        return new LLMTripleExtractor(
+            WebClient.builder(),
+            cache,
+            "test-key",
+            "http://localhost:" + server.port(),
+            "test-model",
+            8,
+            1000,
+            responseTimeoutMs,
+            maxInFlight,
+            maxRetries,
+            10,
+            50,
+            8,
+            3000
+        );
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.customerservice.service.extractor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.customerservice.dto.PreprocessedEntities;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class RulePreprocessorTest {
+
+    /** 改为单次扫描之前的正则，作为产品、订单、服务三类结果的对照 */
+    private static final Pattern PRODUCT_PATTERN = Pattern.compile("[产品商品][：:]([^\n，,。]+)");
+    private static final Pattern ORDER_PATTERN = Pattern.compile("[订单单号][：:]([A-Z0-9]+)");
+    private static final Pattern SERVICE_PATTERN = Pattern.compile("(保修|质保|维修|退换|退款|退货|换货)[^。，,\n]*(?:的|是|方式|政策|条件|范围)?");
+
+    private static final String[] FRAGMENTS = {
+        "产品：", "商品:", "作品：", "订单：", "单号:", "ORD2024", "abc", "A1", "保修", "质保", "维修", "退换货",
+        "退款", "换货", "政策", "，", ",", "。", "\n", "：", ":", " ", "智能手表", "iPhone 15 Pro", "?", "答案：",
+    };
+
+    private final RulePreprocessor preprocessor = new RulePreprocessor(List.of(), List.of());
+
+    @Test
+    void shouldMatchRegexRulesOnRandomText() {
+        Random random = new Random(11L);
+        for (int round = 0; round < 2000; round++) {
+            StringBuilder text = new StringBuilder();
+            int parts = 1 + random.nextInt(30);
+            for (int i = 0; i < parts; i++) {
+                text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+
+            PreprocessedEntities entities = preprocessor.preprocess(text.toString());
+
+            assertThat(entities.getProducts()).as(text.toString()).isEqualTo(findAll(PRODUCT_PATTERN, text));
+            assertThat(entities.getOrders()).as(text.toString()).isEqualTo(findAll(ORDER_PATTERN, text));
+            assertThat(entities.getServices()).as(text.toString()).isEqualTo(findAll(SERVICE_PATTERN, text));
+        }
+    }
+
+    @Test
+    void shouldPairQuestionLineWithFollowingAnswerLine() {
+        PreprocessedEntities entities = preprocessor.preprocess(
+            "保修政策\n智能手表如何保修？\n答案：联系客服处理\n退货需要什么?\n答: 保持原包装\n普通一行\n答：没有问题的答案"
+        );
+
+        assertThat(entities.getQas()).containsExactly(
+            new PreprocessedEntities.QaPair("智能手表如何保修", "联系客服处理"),
+            new PreprocessedEntities.QaPair("退货需要什么", "保持原包装")
+        );
+        assertThat(entities.containsQuestion("退货需要什么")).isTrue();
+    }
+
+    @Test
+    void shouldRecognizeConfiguredLexicon() {
+        RulePreprocessor withLexicon = new RulePreprocessor(List.of("AirPods Pro", "AirPods"), List.of("以旧换新"));
+
+        PreprocessedEntities entities = withLexicon.preprocess("产品：AirPods Pro\n购买 AirPods Pro 可参加以旧换新，保修一年");
+
+        assertThat(entities.getProducts()).containsExactly("AirPods Pro");
+        assertThat(entities.getServices()).containsExactly("以旧换新", "保修");
+        assertThat(entities.containsProduct("AirPods Pro")).isTrue();
+        assertThat(entities.containsProduct("AirPods")).isFalse();
+    }
+
+    private static List<String> findAll(Pattern pattern, CharSequence text) {
+        List<String> values = new ArrayList<>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            values.add(matcher.group(1).trim());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.customerservice.service.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.customerservice.service.graph.GraphSnapshot.NodeEntry;
+import com.example.customerservice.service.graph.GraphSnapshot.RelationEntry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class CommunityDetectorTest {
+
+    @Test
+    void shouldSplitTwoCliquesJoinedByOneEdge() {
+        List<NodeEntry> nodes = new ArrayList<>();
+        List<RelationEntry> relations = new ArrayList<>();
+        long relationId = 1000;
+        for (long base : new long[] { 0, 10 }) {
+            for (long i = 1; i <= 5; i++) {
+                nodes.add(new NodeEntry(base + i, "Concept", "n" + (base + i)));
+                for (long j = 1; j < i; j++) {
+                    relations.add(new RelationEntry(relationId++, "RELATED_TO", base + j, base + i));
+                }
+            }
+        }
+        relations.add(new RelationEntry(relationId, "RELATED_TO", 5, 11));
+        nodes.add(new NodeEntry(99, "Concept", "孤立"));
+        GraphSnapshot snapshot = GraphSnapshot.build(1, nodes, relations);
+
+        int[] community = CommunityDetector.detect(snapshot, null);
+
+        assertThat(community[snapshot.indexOf(99)]).isEqualTo(-1);
+        for (long i = 2; i <= 5; i++) {
+            assertThat(community[snapshot.indexOf(i)]).isEqualTo(community[snapshot.indexOf(1)]);
+            assertThat(community[snapshot.indexOf(10 + i)]).isEqualTo(community[snapshot.indexOf(11)]);
+        }
+        assertThat(community[snapshot.indexOf(1)]).isNotEqualTo(community[snapshot.indexOf(11)]);
+        assertThat(CommunityDetector.modularity(snapshot, community)).isGreaterThan(0.4);
+
+        // 以上一次的划分为初始社区，结果不变
+        assertThat(CommunityDetector.detect(snapshot, community)).containsExactly(community);
+    }
+
+    @Test
+    void shouldRecoverPlantedPartition() {
+        Random random = new Random(5L);
+        int groups = 10;
+        int groupSize = 20;
+        List<NodeEntry> nodes = new ArrayList<>();
+        List<RelationEntry> relations = new ArrayList<>();
+        for (int i = 0; i < groups * groupSize; i++) {
+            nodes.add(new NodeEntry(i, "Concept", "n" + i));
+            for (int j = 0; j < i; j++) {
+                double p = i / groupSize == j / groupSize ? 0.3 : 0.005;
+                if (random.nextDouble() < p) {
+                    relations.add(new RelationEntry(relations.size(), "RELATED_TO", j, i));
+                }
+            }
+        }
+        GraphSnapshot snapshot = GraphSnapshot.build(1, nodes, relations);
+
+        int[] community = CommunityDetector.detect(snapshot, null);
+
+        Set<Integer> distinct = new HashSet<>();
+        int agreeing = 0;
+        for (int group = 0; group < groups; group++) {
+            int first = community[snapshot.indexOf((long) group * groupSize)];
+            distinct.add(first);
+            for (int k = 0; k < groupSize; k++) {
+                if (community[snapshot.indexOf((long) group * groupSize + k)] == first) {
+                    agreeing++;
+                }
+            }
+        }
+        assertThat(distinct).hasSize(groups);
+        assertThat(agreeing).isGreaterThanOrEqualTo(groups * groupSize * 95 / 100);
+        assertThat(CommunityDetector.modularity(snapshot, community)).isGreaterThan(0.6);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.customerservice.service.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.customerservice.dto.CommunitySummary;
+import com.example.customerservice.service.KnowledgeCorpusVersion;
+import io.agentscope.core.embedding.EmbeddingModel;
+import io.agentscope.core.message.ContentBlock;
+import io.agentscope.core.message.TextBlock;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+class CommunitySummaryServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final GraphReplica replica = new GraphReplica(true, 0);
+    private final CharacterEmbeddingModel embeddingModel = new CharacterEmbeddingModel();
+
+    @Test
+    void shouldSummarizeOnlyChangedCommunitiesAndAnswerGlobalQuestions() {
+        GraphReplica.Loader loader = afterSalesAndShipping(replica);
+        replica.replaceWith(loader);
+        CommunitySummaryService service = service();
+
+        service.refresh();
+        assertThat(service.list()).hasSize(2);
+        assertThat(service.lastSummarized()).isEqualTo(2);
+        assertThat(embeddingModel.calls.get()).isEqualTo(2);
+
+        // 快照没有变化时不重算
+        service.refresh();
+        assertThat(embeddingModel.calls.get()).isEqualTo(2);
+
+        // 物流社区新增一个实体：售后社区沿用原摘要，只为物流社区重新生成
+        loader.addNode(16, "Concept", "配送时效");
+        loader.addRelation(216, "RELATED_TO", 12, 16);
+        loader.addRelation(217, "RELATED_TO", 13, 16);
+        replica.replaceWith(loader);
+        service.refresh();
+        assertThat(service.lastReused()).isEqualTo(1);
+        assertThat(service.lastSummarized()).isEqualTo(1);
+        assertThat(embeddingModel.calls.get()).isEqualTo(3);
+
+        List<CommunitySummary> hits = service.searchAsync("你们有哪些保修维修退款服务", 1).block();
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).getMembers()).contains("保修", "维修", "退款");
+        assertThat(hits.get(0).getSummary()).contains("Service 4 个");
+
+        // 重启后从文件恢复
+        CommunitySummaryService reloaded = service();
+        assertThat(reloaded.list()).extracting(CommunitySummary::getId)
+            .containsExactlyElementsOf(service.list().stream().map(CommunitySummary::getId).toList());
+    }
+
+    @Test
+    void shouldRecognizeGlobalQuestions() {
+        assertThat(CommunitySummaryService.isGlobalQuestion("你们有哪些售后服务")).isTrue();
+        assertThat(CommunitySummaryService.isGlobalQuestion("总结一下退换货政策")).isTrue();
+        assertThat(CommunitySummaryService.isGlobalQuestion("智能手表如何保修")).isFalse();
+    }
+
+    private CommunitySummaryService service() {
+        return new CommunitySummaryService(
+            replica, embeddingModel, new KnowledgeCorpusVersion(replica), true, dir.resolve("communities.json").toString(), 0, 3, 12, 0
+        );
+    }
+
+    /**
+     * 售后社区 1..5、物流社区 11..15，两者之间只有一条边
+     */
+    private static GraphReplica.Loader afterSalesAndShipping(GraphReplica replica) {
+        GraphReplica.Loader loader = replica.loader();
+        String[][] nodes = {
+            { "1", "Service", "保修" }, { "2", "Service", "维修" }, { "3", "Service", "退款" },
+            { "4", "Service", "退换货" }, { "5", "Product", "智能手表" },
+            { "11", "Concept", "订单查询" }, { "12", "Concept", "物流" }, { "13", "Concept", "发货" },
+            { "14", "Order", "快递单号" }, { "15", "Concept", "签收" },
+        };
+        for (String[] node : nodes) {
+            loader.addNode(Long.parseLong(node[0]), node[1], node[2]);
+        }
+        long relationId = 100;
+        for (long base : new long[] { 0, 10 }) {
+            for (long i = 1; i <= 5; i++) {
+                for (long j = 1; j < i; j++) {
+                    loader.addRelation(relationId++, "RELATED_TO", base + j, base + i);
+                }
+            }
+        }
+        loader.addRelation(relationId, "RELATED_TO", 5, 11);
+        return loader;
+    }
+
+    /**
+     * 按字符计数的向量，共享字符越多越相似
+     */
+    private static final class CharacterEmbeddingModel implements EmbeddingModel {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Mono<double[]> embed(ContentBlock block) {
+            String text = ((TextBlock) block).getText();
+            if (!text.startsWith("你们")) {
+                calls.incrementAndGet();
+            }
+            double[] vector = new double[512];
+            text.chars().forEach(c -> vector[c % vector.length]++);
+            return Mono.just(vector);
+        }
+
+        @Override
+        public String getModelName() {
+            return "characters";
+        }
+
+        @Override
+        public int getDimensions() {
+            return 512;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.customerservice.service.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class EntryEntityIndexTest {
+
+    @Test
+    void shouldRankBySharedRareEntitiesAndRefreshAfterChanges() {
+        EntryEntityIndex index = new EntryEntityIndex(10);
+        // 100 为所有条目都引用的“保修”，权重最低
+        link(index, "A", 100, 1, 2);
+        link(index, "B", 100, 1, 2, 3);
+        link(index, "C", 100, 1);
+        link(index, "D", 100);
+
+        assertThat(index.relatedEntries("A")).containsExactly("B", "C", "D");
+        assertThat(index.relatedEntries("unknown")).isEmpty();
+
+        index.removeEntry("B");
+        assertThat(index.relatedEntries("A")).containsExactly("C", "D");
+
+        // D 的实体变得与 A 完全一致，A 的缓存排名随之失效
+        link(index, "D", 1, 2);
+        assertThat(index.relatedEntries("A")).containsExactly("D", "C");
+    }
+
+    @Test
+    void shouldRankByGivenEntitiesWhenEntryHasNoReferences() {
+        EntryEntityIndex index = new EntryEntityIndex(1);
+        link(index, "A", 1, 2);
+        link(index, "B", 2);
+
+        assertThat(index.relatedEntries("new", List.of(1L, 2L))).containsExactly("A");
+        assertThat(index.relatedEntries("new", List.of(3L))).isEmpty();
+        // 已有引用的条目忽略给定实体
+        assertThat(index.relatedEntries("B", List.of(3L))).containsExactly("A");
+    }
+
+    private static void link(EntryEntityIndex index, String entryId, long... entityIds) {
+        for (long entityId : entityIds) {
+            index.link(entryId, entityId);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.customerservice.service.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.customerservice.dto.RetrievedPath;
+import com.example.customerservice.service.graph.GraphSnapshot.NodeEntry;
+import com.example.customerservice.service.graph.GraphSnapshot.RelationEntry;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class GraphSnapshotTest {
+
+    // 会员卡(1) -HAS_SERVICE-> 退款(2) -RELATED_TO-> 七天无理由(4) <-MENTIONS- 常见问题(7)；积分(9) 孤立
+    private final GraphSnapshot snapshot = GraphSnapshot.build(
+        1,
+        List.of(
+            new NodeEntry(7, "QA", "常见问题"),
+            new NodeEntry(1, "Product", "会员卡"),
+            new NodeEntry(2, "Service", "退款服务"),
+            new NodeEntry(4, "Concept", "七天无理由"),
+            new NodeEntry(9, "Product", "积分")
+        ),
+        List.of(
+            new RelationEntry(3, "HAS_SERVICE", 1, 2),
+            new RelationEntry(5, "RELATED_TO", 2, 4),
+            new RelationEntry(8, "MENTIONS", 7, 4),
+            // 端点不存在的关系被忽略
+            new RelationEntry(11, "MENTIONS", 7, 99)
+        )
+    );
+
+    @Test
+    void shouldMatchByLabelAndNameFragment() {
+        assertThat(snapshot.nodeCount()).isEqualTo(5);
+        assertThat(snapshot.edgeCount()).isEqualTo(3);
+        assertThat(ids(snapshot.findByLabelContaining("Service", "退款"))).containsExactly(2L);
+        assertThat(ids(snapshot.findByLabelContaining("Product", "退款"))).isEmpty();
+        assertThat(ids(snapshot.findByLabelContaining("Order", "订单"))).isEmpty();
+    }
+
+    @Test
+    void shouldCollectNeighborhoodWithinHops() {
+        int[] seeds = { snapshot.indexOf(1), snapshot.indexOf(9) };
+
+        GraphSnapshot.Neighborhood oneHop = snapshot.neighborhood(seeds, 1);
+        assertThat(ids(oneHop.nodes())).containsExactly(1L, 2L);
+        assertThat(edgeIds(oneHop.edges())).containsExactly(3L);
+
+        GraphSnapshot.Neighborhood threeHops = snapshot.neighborhood(seeds, 3);
+        assertThat(ids(threeHops.nodes())).containsExactly(1L, 2L, 4L, 7L);
+        assertThat(edgeIds(threeHops.edges())).containsExactlyInAnyOrder(3L, 5L, 8L);
+    }
+
+    @Test
+    void shouldDescribePathsEndingAtNodeShortestFirst() {
+        List<RetrievedPath> paths = snapshot.pathsTo(snapshot.indexOf(4), 2, 5);
+
+        assertThat(paths).extracting(RetrievedPath::getPath).containsExactly(
+            "path[(2)-[5:RELATED_TO]->(4)]",
+            "path[(7)-[8:MENTIONS]->(4)]",
+            "path[(1)-[3:HAS_SERVICE]->(2), (2)-[5:RELATED_TO]->(4)]"
+        );
+        assertThat(paths).extracting(RetrievedPath::getHopCount).containsExactly(1, 1, 2);
+        assertThat(snapshot.pathsTo(snapshot.indexOf(1), 2, 1)).extracting(RetrievedPath::getPath)
+            .containsExactly("path[(2)<-[3:HAS_SERVICE]-(1)]");
+    }
+
+    private long[] ids(int[] nodes) {
+        return Arrays.stream(nodes).mapToLong(snapshot::nodeId).toArray();
+    }
+
+    private long[] edgeIds(int[] edges) {
+        return Arrays.stream(edges).mapToLong(snapshot::edgeId).toArray();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.customerservice.service.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.example.customerservice.dto.GraphHubNode;
+import com.example.customerservice.dto.GraphStatsResponse;
+import org.junit.jupiter.api.Test;
+
+class GraphStatisticsTest {
+
+    @Test
+    void shouldMaintainHistogramsAndHubsIncrementally() {
+        GraphStatistics statistics = new GraphStatistics(2);
+        statistics.recordNode(1, "Product", "会员卡");
+        statistics.recordNode(2, "Service", "退款");
+        statistics.recordNode(3, "Service", "换货");
+        statistics.recordNode(4, "Concept", "七天无理由");
+        statistics.recordRelation(10, "HAS_SERVICE", 1, 2);
+        statistics.recordRelation(11, "HAS_SERVICE", 1, 3);
+        statistics.recordRelation(12, "RELATED_TO", 2, 4);
+        // 重复上报同一关系不重复计数
+        statistics.recordRelation(11, "HAS_SERVICE", 1, 3);
+
+        GraphStatsResponse stats = statistics.toResponse();
+        assertThat(stats.getNodeCount()).isEqualTo(4);
+        assertThat(stats.getEdgeCount()).isEqualTo(3);
+        assertThat(stats.getLabelCounts()).containsExactly(
+            entry("Service", 2L),
+            entry("Concept", 1L),
+            entry("Product", 1L)
+        );
+        assertThat(stats.getRelationTypeCounts()).containsEntry("HAS_SERVICE", 2L).containsEntry("RELATED_TO", 1L);
+        assertThat(stats.getDegreeDistribution()).containsEntry("1", 2L).containsEntry("2-3", 2L);
+        assertThat(stats.getTopHubs()).extracting(GraphHubNode::getId).containsExactly("1", "2");
+
+        statistics.removeRelation(10);
+        statistics.removeRelation(11);
+        statistics.removeNode(1);
+
+        stats = statistics.toResponse();
+        assertThat(stats.getNodeCount()).isEqualTo(3);
+        assertThat(stats.getLabelCounts()).doesNotContainKey("Product");
+        assertThat(stats.getRelationTypeCounts()).containsOnlyKeys("RELATED_TO");
+        assertThat(stats.getDegreeDistribution()).containsExactly(
+            entry("0", 1L),
+            entry("1", 2L)
+        );
+        assertThat(stats.getTopHubs()).extracting(GraphHubNode::getDegree).containsExactly(1, 1);
+    }
+
+    @Test
+    void shouldReuseSnapshotUntilNextWrite() {
+        GraphStatistics statistics = new GraphStatistics(5);
+        statistics.recordNode(1, "Product", "会员卡");
+
+        GraphStatsResponse first = statistics.toResponse();
+        assertThat(statistics.toResponse().getLabelCounts()).isSameAs(first.getLabelCounts());
+
+        statistics.recordNode(2, "Product", "积分");
+        assertThat(statistics.toResponse().getLabelCounts()).isNotSameAs(first.getLabelCounts())
+            .containsEntry("Product", 2L);
+    }
+}
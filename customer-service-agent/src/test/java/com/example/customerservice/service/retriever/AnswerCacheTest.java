@@ -0,0 +1,75 @@
+package com.example.customerservice.service.retriever;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.customerservice.dto.HybridAnswerResult;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AnswerCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldNormalizeWidthCaseWhitespaceAndEdgePunctuation() {
+        assertThat(AnswerCache.normalize("  ＩＰＨＯＮＥ   保修多久？ ")).isEqualTo("iphone 保修多久");
+        assertThat(AnswerCache.normalize("「退货运费」谁承担!")).isEqualTo("退货运费」谁承担");
+    }
+
+    @Test
+    void shouldHitOnlyForSameCorpusVersion() {
+        AnswerCache cache = cache(10);
+        HybridAnswerResult result = answer("一年保修");
+        cache.put("智能手表保修多久？", 3, result);
+
+        assertThat(cache.get("智能手表保修多久", 3)).containsSame(result);
+        assertThat(cache.get("智能手表保修多久", 4)).isEmpty();
+        assertThat(cache.get("智能手表保修多久", 3)).isEmpty();
+
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(2);
+        assertThat(cache.staleMisses()).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedAnswer() {
+        AnswerCache cache = cache(2);
+        cache.put("a", 1, answer("A"));
+        cache.put("b", 1, answer("B"));
+        cache.get("a", 1);
+        cache.put("c", 1, answer("C"));
+
+        assertThat(cache.get("a", 1)).isPresent();
+        assertThat(cache.get("b", 1)).isEmpty();
+        assertThat(cache.get("c", 1)).isPresent();
+        assertThat(cache.evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldPersistMostAskedQuestionsForWarmUp() {
+        AnswerCache cache = cache(10);
+        cache.get("怎么退货", 1);
+        cache.get("怎么退货？", 1);
+        cache.get("物流多久", 1);
+        cache.get("怎么退货", 1);
+        cache.get("保修多久", 1);
+        cache.get("保修多久", 1);
+        cache.shutdown();
+
+        AnswerCache restarted = cache(10);
+        assertThat(restarted.topQuestions(2)).containsExactly("怎么退货", "保修多久");
+        restarted.shutdown();
+    }
+
+    private AnswerCache cache(int maxEntries) {
+        return new AnswerCache(true, maxEntries, 100, dir.resolve("questions.json").toString());
+    }
+
+    private static HybridAnswerResult answer(String text) {
+        return new HybridAnswerResult(text, List.of(), "hybrid", "none");
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.customerservice.service.retriever;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.customerservice.dto.GraphSearchResult;
+import com.example.customerservice.dto.VectorSearchResult;
+import com.example.customerservice.service.KnowledgeBaseService;
+import com.example.customerservice.service.runtime.BlockingTaskExecutors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class HybridRAGServiceTest {
+
+    private static final int POOL_SIZE = 2;
+    private static final int CALLERS = 16;
+
+    private final BlockingTaskExecutors executors = new BlockingTaskExecutors(false, POOL_SIZE);
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        executors.shutdown();
+    }
+
+    @Test
+    void shouldNotDeadlockWhenConcurrentSearchesSaturateRetrievalPool() throws Exception {
+        KnowledgeBaseService knowledgeBaseService = mock(KnowledgeBaseService.class);
+        GraphRAGRetriever graphRAGRetriever = mock(GraphRAGRetriever.class);
+        // 所有调用者都进入检索后才放行向量检索，保证检索线程池排满
+        CountDownLatch allStarted = new CountDownLatch(CALLERS);
+        when(knowledgeBaseService.searchKnowledgeBaseStructuredAsync(anyString(), anyInt())).thenAnswer(invocation -> {
+            allStarted.countDown();
+            return Mono.fromCallable(() -> {
+                    allStarted.await(5, TimeUnit.SECONDS);
+                    return new VectorSearchResult("向量", List.of());
+                })
+                .subscribeOn(executors.retrievalScheduler());
+        });
+        when(graphRAGRetriever.searchAsync(anyString(), anyInt()))
+            .thenReturn(Mono.just(new GraphSearchResult("图谱", List.of(), List.of(), List.of())));
+        HybridRAGService service = new HybridRAGService(knowledgeBaseService, graphRAGRetriever);
+
+        List<CompletableFuture<HybridRAGService.HybridSearchResult>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> service.hybridSearch("退货", 5), callers));
+        }
+
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<HybridRAGService.HybridSearchResult> result : results) {
+            assertThat(result.get().vectorResult().getAnswer()).isEqualTo("向量");
+            assertThat(result.get().graphResult().getAnswer()).isEqualTo("图谱");
+        }
+    }
+}
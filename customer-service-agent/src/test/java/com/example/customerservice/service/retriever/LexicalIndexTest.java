@@ -0,0 +1,89 @@
+package com.example.customerservice.service.retriever;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.agentscope.core.message.TextBlock;
+import io.agentscope.core.rag.model.Document;
+import io.agentscope.core.rag.model.DocumentMetadata;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class LexicalIndexTest {
+
+    private final LexicalIndex index = new LexicalIndex(1.2, 0.75, 60, true, 0.8, 1.5);
+
+    @Test
+    void shouldTokenizeChineseIntoBigramsAndTrigrams() {
+        assertThat(LexicalIndex.tokenize("退货运费"))
+            .containsExactly("退货", "货运", "运费", "退货运", "货运费");
+        assertThat(LexicalIndex.tokenize("iPhone 15 保"))
+            .containsExactly("iphone", "15", "保");
+    }
+
+    @Test
+    void shouldAnswerExactPhraseWithHighConfidence() {
+        index.addAll(List.of(
+            chunk("kb-1", "退换货政策", "7天无理由退货，退货运费由买家承担。"),
+            chunk("kb-2", "保修政策", "智能手表享受一年保修服务。"),
+            chunk("kb-3", "物流说明", "订单发货后48小时内更新物流信息。")
+        ));
+
+        LexicalIndex.LexicalSearchResult result = index.search("退货运费", 5);
+
+        assertThat(result.highConfidence()).isTrue();
+        assertThat(result.hits().get(0).getMetadata().getChunkId()).isEqualTo("kb-1-chunk-0");
+        assertThat(result.hits().get(0).getScore()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldNotClaimHighConfidenceForLooseMatch() {
+        index.addAll(List.of(
+            chunk("kb-1", "退换货政策", "7天无理由退货。"),
+            chunk("kb-2", "保修政策", "智能手表享受一年保修服务。")
+        ));
+
+        LexicalIndex.LexicalSearchResult result = index.search("手表坏了怎么办理售后", 5);
+
+        assertThat(result.highConfidence()).isFalse();
+        assertThat(result.hits()).extracting(hit -> hit.getMetadata().getChunkId())
+            .containsExactly("kb-2-chunk-0");
+    }
+
+    @Test
+    void shouldRemoveDeletedChunks() {
+        index.addAll(List.of(chunk("kb-1", "退换货政策", "退货运费由买家承担。")));
+        index.removeAll(List.of("kb-1-chunk-0"));
+
+        assertThat(index.size()).isZero();
+        assertThat(index.search("退货运费", 5).hits()).isEmpty();
+    }
+
+    @Test
+    void shouldFuseByReciprocalRank() {
+        Document shared = chunk("kb-1", "保修政策", "一年保修");
+        Document vectorOnly = chunk("kb-2", "维修流程", "寄修流程");
+        Document lexicalOnly = chunk("kb-3", "退换货政策", "七天退货");
+
+        List<Document> fused = index.fuse(
+            List.of(vectorOnly, shared),
+            List.of(shared, lexicalOnly),
+            3
+        );
+
+        assertThat(fused).extracting(doc -> doc.getMetadata().getChunkId())
+            .containsExactly("kb-1-chunk-0", "kb-2-chunk-0", "kb-3-chunk-0");
+        assertThat(fused.get(0).getScore()).isLessThanOrEqualTo(1.0);
+    }
+
+    private static Document chunk(String entryId, String title, String content) {
+        return new Document(
+            new DocumentMetadata(
+                TextBlock.builder().text(content).build(),
+                entryId,
+                entryId + "-chunk-0",
+                Map.of("title", title, "entryId", entryId)
+            )
+        );
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.customerservice.service.retriever;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.agentscope.core.message.TextBlock;
+import io.agentscope.core.rag.model.Document;
+import io.agentscope.core.rag.model.DocumentMetadata;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class NearDuplicateIndexTest {
+
+    private static final String RETURN_POLICY =
+        "自签收之日起7天内，商品未经使用且包装完好的，可申请无理由退货。退货运费由买家承担，质量问题由商家承担运费。" +
+        "退款将在商家收到退货并验收通过后3个工作日内原路退回。";
+
+    private final NearDuplicateIndex index = new NearDuplicateIndex("flag", 0.8, 16, 8, 3);
+
+    @Test
+    void shouldFindNearDuplicateEntriesIgnoringWhitespaceAndPunctuation() {
+        index.addEntry("kb-1", RETURN_POLICY);
+        index.addEntry("kb-2", "智能手表享受一年免费保修服务，人为损坏不在保修范围内，需要到授权维修点检测后付费维修。");
+
+        String reformatted = RETURN_POLICY.replace("，", " ").replace("。", "\n") + "  ";
+        assertThat(index.findDuplicateEntries(reformatted, null))
+            .extracting(NearDuplicateIndex.Match::entryId)
+            .containsExactly("kb-1");
+        assertThat(index.findDuplicateEntries(reformatted, "kb-1")).isEmpty();
+        assertThat(index.findDuplicateEntries("订单发货后48小时内更新物流信息，可在订单详情查看快递单号。", null)).isEmpty();
+
+        index.removeEntry("kb-1");
+        assertThat(index.findDuplicateEntries(reformatted, null)).isEmpty();
+    }
+
+    @Test
+    void shouldClusterDuplicateChunksAcrossEntries() {
+        index.addChunks(List.of(
+            chunk("kb-1", 0, RETURN_POLICY),
+            chunk("kb-1", 1, "会员积分可在下单时抵扣现金，100积分抵扣1元，积分有效期为一年。")
+        ));
+        index.addChunks(List.of(chunk("kb-2", 0, RETURN_POLICY + "如有疑问请联系客服。")));
+        index.addChunks(List.of(chunk("kb-3", 0, "智能手表享受一年免费保修服务。")));
+
+        assertThat(index.countDuplicateChunks("kb-2")).isEqualTo(1);
+        assertThat(index.countDuplicateChunks("kb-3")).isZero();
+
+        List<NearDuplicateIndex.Cluster> clusters = index.chunkClusters();
+        assertThat(clusters).hasSize(1);
+        assertThat(clusters.get(0).ids()).containsExactly("kb-1-chunk-0", "kb-2-chunk-0");
+        assertThat(clusters.get(0).entryIds()).containsExactly("kb-1", "kb-2");
+        assertThat(clusters.get(0).similarity()).isGreaterThanOrEqualTo(0.8);
+
+        index.removeChunks(List.of("kb-2-chunk-0"));
+        assertThat(index.chunkClusters()).isEmpty();
+    }
+
+    private static Document chunk(String entryId, int index, String content) {
+        return new Document(
+            new DocumentMetadata(
+                TextBlock.builder().text(content).build(),
+                entryId,
+                entryId + "-chunk-" + index,
+                Map.of("entryId", entryId)
+            )
+        );
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.customerservice.service.retriever;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String> singleFlight = new SingleFlight<>(Duration.ofSeconds(5));
+
+    @Test
+    void shouldShareOneComputationAmongConcurrentCallers() throws Exception {
+        Sinks.One<String> answer = Sinks.one();
+        AtomicInteger computations = new AtomicInteger();
+
+        CompletableFuture<String> first = singleFlight.execute("退货", () -> {
+            computations.incrementAndGet();
+            return answer.asMono();
+        }).toFuture();
+        CompletableFuture<String> second = singleFlight.execute("退货", () -> {
+            computations.incrementAndGet();
+            return Mono.just("不应计算");
+        }).toFuture();
+
+        assertThat(singleFlight.inFlight()).isEqualTo(1);
+        answer.tryEmitValue("7天无理由");
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("7天无理由");
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("7天无理由");
+
+        assertThat(computations.get()).isEqualTo(1);
+        assertThat(singleFlight.leaders()).isEqualTo(1);
+        assertThat(singleFlight.coalesced()).isEqualTo(1);
+        assertThat(singleFlight.inFlight()).isZero();
+
+        assertThat(singleFlight.execute("退货", () -> Mono.just("重新计算")).block()).isEqualTo("重新计算");
+        assertThat(singleFlight.leaders()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepComputingUntilLastCallerCancels() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mono<String> never = Mono.<String>never().doOnCancel(() -> cancelled.set(true));
+
+        Disposable first = singleFlight.execute("物流", () -> never).subscribe();
+        Disposable second = singleFlight.execute("物流", () -> never).subscribe();
+
+        first.dispose();
+        assertThat(cancelled).isFalse();
+        assertThat(singleFlight.inFlight()).isEqualTo(1);
+
+        second.dispose();
+        assertThat(cancelled).isTrue();
+        assertThat(singleFlight.abandoned()).isEqualTo(1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    void shouldFailAllWaitersWhenSharedComputationTimesOut() {
+        SingleFlight<String> shortFlight = new SingleFlight<>(Duration.ofMillis(50));
+
+        CompletableFuture<String> first = shortFlight.execute("保修", Mono::never).toFuture();
+        CompletableFuture<String> second = shortFlight.execute("保修", Mono::never).toFuture();
+
+        assertThatThrownBy(() -> first.get(1, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(TimeoutException.class);
+        assertThatThrownBy(() -> second.get(1, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(shortFlight.timeouts()).isEqualTo(1);
+        assertThat(shortFlight.inFlight()).isZero();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.customerservice.service.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.customerservice.dto.ChatMessageResult;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class ChatTurnMailboxTest {
+
+    @Test
+    void shouldRunTurnsOfSameUserInOrder() {
+        ChatTurnMailbox mailbox = new ChatTurnMailbox(4, "coalesce");
+        Sinks.One<ChatMessageResult> firstTurn = Sinks.one();
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+        Mono<ChatMessageResult> first = mailbox.submit("user001", "第一条", () -> {
+            started.add("第一条");
+            return firstTurn.asMono();
+        });
+        Mono<ChatMessageResult> second = mailbox.submit("user001", "第二条", () -> {
+            started.add("第二条");
+            return Mono.just(result("第二条回复"));
+        });
+
+        first.subscribe();
+        second.subscribe();
+        assertThat(started).containsExactly("第一条");
+
+        firstTurn.tryEmitValue(result("第一条回复"));
+
+        assertThat(started).containsExactly("第一条", "第二条");
+        assertThat(second.block().getResponse()).isEqualTo("第二条回复");
+        assertThat(mailbox.getActiveMailboxCount()).isZero();
+    }
+
+    @Test
+    void shouldRunDifferentUsersInParallel() {
+        ChatTurnMailbox mailbox = new ChatTurnMailbox(4, "coalesce");
+        AtomicInteger started = new AtomicInteger();
+
+        mailbox.submit("user001", "你好", () -> {
+            started.incrementAndGet();
+            return Mono.never();
+        }).subscribe();
+        mailbox.submit("user002", "你好", () -> {
+            started.incrementAndGet();
+            return Mono.never();
+        }).subscribe();
+
+        assertThat(started.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCoalesceDuplicateInFlightMessage() {
+        ChatTurnMailbox mailbox = new ChatTurnMailbox(4, "coalesce");
+        Sinks.One<ChatMessageResult> turn = Sinks.one();
+        AtomicInteger executions = new AtomicInteger();
+
+        Mono<ChatMessageResult> first = mailbox.submit("user001", "保修多久？", () -> {
+            executions.incrementAndGet();
+            return turn.asMono();
+        });
+        Mono<ChatMessageResult> duplicate = mailbox.submit("user001", " 保修多久？ ", () -> {
+            executions.incrementAndGet();
+            return Mono.just(result("不应执行"));
+        });
+
+        first.subscribe();
+        CompletableFuture<ChatMessageResult> coalesced = duplicate.toFuture();
+        turn.tryEmitValue(result("保修一年"));
+
+        assertThat(coalesced.join().getResponse()).isEqualTo("保修一年");
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(mailbox.getCoalescedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFullOrDuplicateUnderRejectPolicy() {
+        ChatTurnMailbox mailbox = new ChatTurnMailbox(1, "reject");
+
+        mailbox.submit("user001", "第一条", Mono::never).subscribe();
+        mailbox.submit("user001", "第二条", Mono::never).subscribe();
+
+        assertThatThrownBy(() ->
+            mailbox.submit("user001", "第三条", Mono::never).block()
+        ).isInstanceOf(ChatTurnRejectedException.class);
+        assertThatThrownBy(() ->
+            mailbox.submit("user001", "第一条", Mono::never).block()
+        ).isInstanceOf(ChatTurnRejectedException.class);
+        assertThat(mailbox.getRejectedCount()).isEqualTo(2);
+    }
+
+    private ChatMessageResult result(String response) {
+        return new ChatMessageResult(
+            response,
+            List.of(),
+            "agent",
+            "none",
+            1710000000000L
+        );
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.customerservice.service.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.customerservice.service.storage.EmbeddedKeyValueStore.WriteBatch;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EmbeddedKeyValueStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReplayCommittedBatchesAcrossTables() throws Exception {
+        try (EmbeddedKeyValueStore store = new EmbeddedKeyValueStore(directory, options())) {
+            store.commit(new WriteBatch()
+                .put("categories", "cat-1", "{\"name\":\"售后\"}")
+                .put("entry-categories", "ec-1", "kb-1")
+                .put("entry-categories", "ec-2", "kb-2"));
+            store.commit(new WriteBatch()
+                .delete("categories", "cat-1")
+                .delete("entry-categories", "ec-1"));
+        }
+
+        try (EmbeddedKeyValueStore store = new EmbeddedKeyValueStore(directory, options())) {
+            assertThat(store.get("categories", "cat-1")).isNull();
+            assertThat(store.entries("entry-categories")).containsOnlyKeys("ec-2");
+            assertThat(store.get("entry-categories", "ec-2")).isEqualTo("kb-2");
+        }
+    }
+
+    @Test
+    void shouldDropTornBatchAsAWhole() throws Exception {
+        try (EmbeddedKeyValueStore store = new EmbeddedKeyValueStore(directory, options())) {
+            store.commit(new WriteBatch().put("tags", "tag-1", "退货"));
+            store.commit(new WriteBatch()
+                .delete("tags", "tag-1")
+                .put("entry-tags", "kb-1\u0000tag-2", ""));
+        }
+        // 模拟崩溃：第二个批次只写了一半
+        Path log = directory.resolve("kv-0.log");
+        long size = Files.size(log);
+        try (var channel = Files.newByteChannel(log, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 5);
+        }
+
+        try (EmbeddedKeyValueStore store = new EmbeddedKeyValueStore(directory, options())) {
+            assertThat(store.get("tags", "tag-1")).isEqualTo("退货");
+            assertThat(store.size("entry-tags")).isZero();
+
+            store.commit(new WriteBatch().put("tags", "tag-3", "保修"));
+        }
+        try (EmbeddedKeyValueStore store = new EmbeddedKeyValueStore(directory, options())) {
+            assertThat(store.entries("tags")).containsOnlyKeys("tag-1", "tag-3");
+        }
+    }
+
+    @Test
+    void shouldTreatCorruptRecordLengthAsTornTail() throws Exception {
+        try (EmbeddedKeyValueStore store = new EmbeddedKeyValueStore(directory, options())) {
+            store.commit(new WriteBatch().put("tags", "tag-1", "退货"));
+        }
+        // 模拟崩溃：尾部留下一个长度字段损坏的记录头
+        Path log = directory.resolve("kv-0.log");
+        long size = Files.size(log);
+        try (var channel = Files.newByteChannel(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(12).putInt(Integer.MAX_VALUE).putInt(0).putInt(0).flip());
+        }
+
+        try (EmbeddedKeyValueStore store = new EmbeddedKeyValueStore(directory, options())) {
+            assertThat(Files.size(log)).isEqualTo(size);
+            assertThat(store.get("tags", "tag-1")).isEqualTo("退货");
+            store.commit(new WriteBatch().put("tags", "tag-2", "保修"));
+        }
+        try (EmbeddedKeyValueStore store = new EmbeddedKeyValueStore(directory, options())) {
+            assertThat(store.entries("tags")).containsOnlyKeys("tag-1", "tag-2");
+        }
+    }
+
+    @Test
+    void shouldCompactToNewGenerationKeepingLiveEntries() throws Exception {
+        try (EmbeddedKeyValueStore store = new EmbeddedKeyValueStore(directory, options())) {
+            for (int i = 0; i < 200; i++) {
+                store.commit(new WriteBatch().put("entry-tags", "kb-" + (i % 10), "v" + i));
+            }
+            long before = Files.size(directory.resolve("kv-0.log"));
+            store.compact();
+
+            assertThat(Files.exists(directory.resolve("kv-0.log"))).isFalse();
+            assertThat(Files.size(directory.resolve("kv-1.log"))).isLessThan(before / 10);
+            assertThat(store.entriesWithPrefix("entry-tags", "kb-1")).containsOnlyKeys("kb-1");
+            store.commit(new WriteBatch().put("entry-tags", "kb-1", "after"));
+        }
+
+        try (EmbeddedKeyValueStore store = new EmbeddedKeyValueStore(directory, options())) {
+            assertThat(store.size("entry-tags")).isEqualTo(10);
+            assertThat(store.get("entry-tags", "kb-1")).isEqualTo("after");
+            assertThat(store.get("entry-tags", "kb-9")).isEqualTo("v199");
+        }
+    }
+
+    private static KeyValueStoreOptions options() {
+        return new KeyValueStoreOptions(false, 2.0, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.customerservice.service.vector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.agentscope.core.message.TextBlock;
+import io.agentscope.core.rag.model.Document;
+import io.agentscope.core.rag.model.DocumentMetadata;
+import io.agentscope.core.rag.store.dto.SearchDocumentDto;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HnswVectorStoreTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldFindNearestNeighborsWithPayload() throws Exception {
+        List<Document> documents = randomDocuments(500, 7);
+        try (HnswVectorStore store = new HnswVectorStore(directory, DIMENSIONS, options())) {
+            store.add(documents).block();
+
+            double recall = recallAt10(store, documents, new Random(11));
+            assertThat(recall).isGreaterThan(0.9);
+
+            Document hit = store.search(query(documents.get(42).getEmbedding(), 1)).block().get(0);
+            assertThat(hit.getMetadata().getChunkId()).isEqualTo("entry-42-chunk-0");
+            assertThat(hit.getPayloadValueAs("entryId", String.class)).isEqualTo("entry-42");
+            assertThat(hit.getPayloadValueAs("title", String.class)).isEqualTo("标题42");
+            assertThat(hit.getMetadata().getContentText()).isEqualTo("内容42");
+            assertThat(hit.getScore()).isGreaterThan(0.99);
+        }
+    }
+
+    @Test
+    void shouldSkipDeletedAndCompactInBackground() throws Exception {
+        List<Document> documents = randomDocuments(200, 3);
+        try (HnswVectorStore store = new HnswVectorStore(directory, DIMENSIONS, options())) {
+            store.add(documents).block();
+
+            assertThat(store.delete("entry-5-chunk-0").block()).isTrue();
+            assertThat(store.delete(documents.get(6).getId()).block()).isTrue();
+            assertThat(store.delete("missing").block()).isFalse();
+
+            List<Document> hits = store.search(query(documents.get(5).getEmbedding(), 10)).block();
+            assertThat(hits).extracting(d -> d.getMetadata().getChunkId())
+                .doesNotContain("entry-5-chunk-0", "entry-6-chunk-0");
+
+            // 共删除41条，超过 200 * 0.2 时触发后台压缩
+            for (int i = 10; i < 49; i++) {
+                store.delete("entry-" + i + "-chunk-0").block();
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (store.deletedCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(store.deletedCount()).isZero();
+            assertThat(store.liveCount()).isEqualTo(159);
+            assertThat(store.search(query(documents.get(100).getEmbedding(), 1)).block().get(0)
+                .getMetadata().getChunkId()).isEqualTo("entry-100-chunk-0");
+        }
+    }
+
+    @Test
+    void shouldRestoreFromDiskAfterReopen() throws Exception {
+        List<Document> documents = randomDocuments(300, 5);
+        try (HnswVectorStore store = new HnswVectorStore(directory, DIMENSIONS, options())) {
+            store.add(documents.subList(0, 200)).block();
+            store.flush();
+            // 快照之后的写入只在记录日志里，重新打开时需要重放
+            store.add(documents.subList(200, 300)).block();
+            store.delete("entry-7-chunk-0").block();
+        }
+
+        try (HnswVectorStore reopened = new HnswVectorStore(directory, DIMENSIONS, options())) {
+            assertThat(reopened.liveCount()).isEqualTo(299);
+            assertThat(reopened.search(query(documents.get(250).getEmbedding(), 1)).block().get(0)
+                .getMetadata().getChunkId()).isEqualTo("entry-250-chunk-0");
+            assertThat(reopened.search(query(documents.get(7).getEmbedding(), 5)).block())
+                .extracting(d -> d.getMetadata().getChunkId())
+                .doesNotContain("entry-7-chunk-0");
+        }
+
+        assertThatThrownBy(() -> new HnswVectorStore(directory, DIMENSIONS * 2, options()))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldTruncateLogRecordWithCorruptLength() throws Exception {
+        List<Document> documents = randomDocuments(50, 15);
+        try (HnswVectorStore store = new HnswVectorStore(directory, DIMENSIONS, options())) {
+            store.add(documents).block();
+        }
+        // 模拟崩溃：尾部留下一个长度字段损坏的插入记录
+        Path log = directory.resolve("records-0.log");
+        long size = Files.size(log);
+        for (int corrupt : new int[] { -1, Integer.MAX_VALUE }) {
+            try (var channel = Files.newByteChannel(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.allocate(13).put((byte) 1).putInt(50).putInt(corrupt).putInt(0).flip());
+            }
+
+            try (HnswVectorStore reopened = new HnswVectorStore(directory, DIMENSIONS, options())) {
+                assertThat(Files.size(log)).isEqualTo(size);
+                assertThat(reopened.liveCount()).isEqualTo(50);
+            }
+        }
+    }
+
+    @Test
+    void shouldKeepRecallWithInt8Quantization() throws Exception {
+        List<Document> documents = randomDocuments(500, 9);
+        HnswStoreOptions int8 = new HnswStoreOptions(
+            16, 200, 64, HnswStoreOptions.Quantization.INT8, 0.2, Duration.ofMinutes(1)
+        );
+        try (HnswVectorStore store = new HnswVectorStore(directory, DIMENSIONS, int8)) {
+            store.add(documents).block();
+            assertThat(recallAt10(store, documents, new Random(13))).isGreaterThan(0.85);
+        }
+    }
+
+    @Test
+    void shouldKeepQuantizedCodesAcrossCompactions() throws Exception {
+        List<Document> documents = randomDocuments(200, 17);
+        HnswStoreOptions int8 = new HnswStoreOptions(
+            16, 200, 64, HnswStoreOptions.Quantization.INT8, 0.9, Duration.ofMinutes(1)
+        );
+        try (HnswVectorStore store = new HnswVectorStore(directory, DIMENSIONS, int8)) {
+            store.add(documents).block();
+            double before = store.search(query(documents.get(150).getEmbedding(), 1)).block().get(0).getScore();
+
+            for (int round = 0; round < 3; round++) {
+                store.delete("entry-" + round + "-chunk-0").block();
+                store.compact();
+            }
+
+            Document hit = store.search(query(documents.get(150).getEmbedding(), 1)).block().get(0);
+            assertThat(hit.getMetadata().getChunkId()).isEqualTo("entry-150-chunk-0");
+            // 量化码按字节复制，压缩多少次得分都不变
+            assertThat(hit.getScore()).isEqualTo(before);
+        }
+    }
+
+    @Test
+    void shouldKeepWritesMadeWhileCompacting() throws Exception {
+        List<Document> documents = randomDocuments(3000, 19);
+        try (HnswVectorStore store = new HnswVectorStore(directory, DIMENSIONS, options())) {
+            store.add(documents.subList(0, 2000)).block();
+            for (int i = 0; i < 500; i++) {
+                store.delete("entry-" + i + "-chunk-0").block();
+            }
+
+            CompletableFuture<Void> compaction = CompletableFuture.runAsync(() -> {
+                try {
+                    store.compact();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            // 压缩不持有写锁重建，期间的写入不被阻塞，切换时补到新一代
+            for (int i = 2000; i < 3000; i += 100) {
+                store.add(documents.subList(i, i + 100)).block();
+            }
+            for (int i = 500; i < 600; i++) {
+                store.delete("entry-" + i + "-chunk-0").block();
+            }
+            compaction.get(30, TimeUnit.SECONDS);
+
+            assertThat(store.liveCount()).isEqualTo(2400);
+            assertThat(store.search(query(documents.get(2999).getEmbedding(), 1)).block().get(0)
+                .getMetadata().getChunkId()).isEqualTo("entry-2999-chunk-0");
+            assertThat(store.search(query(documents.get(550).getEmbedding(), 5)).block())
+                .extracting(d -> d.getMetadata().getChunkId())
+                .doesNotContain("entry-550-chunk-0");
+        }
+
+        try (HnswVectorStore reopened = new HnswVectorStore(directory, DIMENSIONS, options())) {
+            assertThat(reopened.liveCount()).isEqualTo(2400);
+            assertThat(reopened.search(query(documents.get(2500).getEmbedding(), 1)).block().get(0)
+                .getMetadata().getChunkId()).isEqualTo("entry-2500-chunk-0");
+        }
+    }
+
+    @Test
+    void shouldSearchOnlyWithinPayloadFilter() throws Exception {
+        List<Document> documents = randomDocuments(500, 5);
+        List<Document> classified = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            Document source = documents.get(i);
+            DocumentMetadata metadata = new DocumentMetadata(
+                source.getMetadata().getContent(),
+                source.getMetadata().getDocId(),
+                source.getMetadata().getChunkId(),
+                Map.of(
+                    "entryId", "entry-" + i,
+                    PayloadFilter.CATEGORY_IDS, List.of("cat-root", i % 25 == 0 ? "cat-rare" : "cat-common"),
+                    PayloadFilter.TAG_IDS, List.of(i % 2 == 0 ? "tag-even" : "tag-odd")
+                )
+            );
+            Document document = new Document(metadata);
+            document.setEmbedding(source.getEmbedding());
+            classified.add(document);
+        }
+        try (HnswVectorStore store = new HnswVectorStore(directory, DIMENSIONS, options())) {
+            store.add(classified).block();
+            double[] probe = classified.get(3).getEmbedding();
+
+            // 20 条 cat-rare，图检索取不满时退化为精确扫描
+            List<Document> rare = store.search(query(probe, 10), PayloadFilter.of("cat-rare", null)).block();
+            List<String> expectedRare = IntStream.range(0, classified.size())
+                .filter(i -> i % 25 == 0)
+                .boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> -VectorMath.cosine(probe, classified.get(i).getEmbedding())))
+                .limit(10)
+                .map(i -> "entry-" + i + "-chunk-0")
+                .toList();
+            assertThat(rare).extracting(d -> d.getMetadata().getChunkId()).containsExactlyElementsOf(expectedRare);
+
+            List<Document> odd = store.search(query(probe, 10), PayloadFilter.of("cat-root", List.of("tag-odd"))).block();
+            assertThat(odd).hasSize(10);
+            assertThat(odd).allSatisfy(d -> assertThat(d.getMetadata().getPayload().get(PayloadFilter.TAG_IDS))
+                .isEqualTo(List.of("tag-odd")));
+            assertThat(odd.get(0).getMetadata().getChunkId()).isEqualTo("entry-3-chunk-0");
+        }
+    }
+
+    private static HnswStoreOptions options() {
+        return new HnswStoreOptions(
+            16, 200, 64, HnswStoreOptions.Quantization.FLOAT32, 0.2, Duration.ofMinutes(1)
+        );
+    }
+
+    private static double recallAt10(HnswVectorStore store, List<Document> documents, Random random) {
+        int queries = 50;
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            double[] query = randomVector(random);
+            Set<String> expected = documents.stream()
+                .sorted(Comparator.comparingDouble((Document d) -> -VectorMath.cosine(query, d.getEmbedding())))
+                .limit(10)
+                .map(Document::getId)
+                .collect(Collectors.toSet());
+            List<Document> hits = store.search(query(query, 10)).block();
+            found += (int) hits.stream().filter(d -> expected.contains(d.getId())).count();
+        }
+        return found / (queries * 10.0);
+    }
+
+    private static List<Document> randomDocuments(int count, long seed) {
+        Random random = new Random(seed);
+        List<Document> documents = new ArrayList<>(count);
+        IntStream.range(0, count).forEach(i -> {
+            DocumentMetadata metadata = new DocumentMetadata(
+                TextBlock.builder().text("内容" + i).build(),
+                "entry-" + i,
+                "entry-" + i + "-chunk-0",
+                Map.of("entryId", "entry-" + i, "title", "标题" + i)
+            );
+            Document document = new Document(metadata);
+            document.setEmbedding(randomVector(random));
+            documents.add(document);
+        });
+        return documents;
+    }
+
+    private static double[] randomVector(Random random) {
+        double[] vector = new double[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static SearchDocumentDto query(double[] embedding, int limit) {
+        return SearchDocumentDto.builder().queryEmbedding(embedding).limit(limit).build();
+    }
+}
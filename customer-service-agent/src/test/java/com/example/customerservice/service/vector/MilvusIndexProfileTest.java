@@ -0,0 +1,57 @@
+package com.example.customerservice.service.vector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.milvus.v2.common.IndexParam;
+import io.milvus.v2.service.index.response.DescribeIndexResp;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class MilvusIndexProfileTest {
+
+    @Test
+    void shouldConvertNumericParams() {
+        MilvusIndexProfile profile = MilvusIndexProfile.of(
+            "high-recall",
+            "hnsw",
+            Map.of("M", "32", "efConstruction", "360"),
+            Map.of("ef", "256", "radius", "0.5")
+        );
+
+        assertThat(profile.indexType()).isEqualTo(IndexParam.IndexType.HNSW);
+        assertThat(profile.buildParams()).containsEntry("M", 32).containsEntry("efConstruction", 360);
+        assertThat(profile.searchParams()).containsEntry("ef", 256).containsEntry("radius", 0.5);
+    }
+
+    @Test
+    void shouldRejectUnknownIndexType() {
+        assertThatThrownBy(() -> MilvusIndexProfile.of("broken", "BTREE_PLUS", Map.of(), Map.of()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldMatchExistingIndexByTypeAndBuildParams() {
+        MilvusIndexProfile profile = MilvusIndexProfile.of(
+            "low-latency",
+            "HNSW",
+            Map.of("M", "8", "efConstruction", "64"),
+            Map.of("ef", "32")
+        );
+
+        assertThat(profile.matches(index(IndexParam.IndexType.HNSW, Map.of("M", "8", "efConstruction", "64")))).isTrue();
+        assertThat(profile.matches(index(IndexParam.IndexType.HNSW, Map.of("params", "{\"M\":8,\"efConstruction\":64}")))).isTrue();
+        assertThat(profile.matches(index(IndexParam.IndexType.HNSW, Map.of("M", "16", "efConstruction", "64")))).isFalse();
+        assertThat(profile.matches(index(IndexParam.IndexType.AUTOINDEX, Map.of()))).isFalse();
+        assertThat(profile.matches(null)).isFalse();
+    }
+
+    private static DescribeIndexResp.IndexDesc index(IndexParam.IndexType type, Map<String, String> params) {
+        return DescribeIndexResp.IndexDesc.builder()
+            .indexName("vector")
+            .fieldName("vector")
+            .indexType(type)
+            .extraParams(params)
+            .build();
+    }
+}
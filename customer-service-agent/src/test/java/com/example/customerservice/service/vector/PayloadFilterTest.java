@@ -0,0 +1,33 @@
+package com.example.customerservice.service.vector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class PayloadFilterTest {
+
+    @Test
+    void shouldRenderMilvusJsonExpression() {
+        assertThat(PayloadFilter.of(null, null).toMilvusExpression()).isEmpty();
+        assertThat(PayloadFilter.of("cat-1", List.of("tag-a", "tag-\"b")).toMilvusExpression()).isEqualTo(
+            "json_contains(payload[\"categoryIds\"], \"cat-1\") and " +
+            "json_contains_any(payload[\"tagIds\"], [\"tag-a\", \"tag-\\\"b\"])"
+        );
+    }
+
+    @Test
+    void shouldMatchCategoryScopeAndAnyTag() {
+        Map<String, Object> payload = Map.of(
+            PayloadFilter.CATEGORY_IDS, List.of("cat-root", "cat-child"),
+            PayloadFilter.TAG_IDS, List.of("tag-a")
+        );
+
+        assertThat(PayloadFilter.of("cat-root", List.of("tag-b", "tag-a")).test(payload)).isTrue();
+        assertThat(PayloadFilter.of("cat-other", null).test(payload)).isFalse();
+        assertThat(PayloadFilter.of(null, List.of("tag-b")).test(payload)).isFalse();
+        assertThat(PayloadFilter.of("cat-root", null).test(Map.of("entryId", "kb-1"))).isFalse();
+        assertThat(PayloadFilter.NONE.test(Map.of())).isTrue();
+    }
+}
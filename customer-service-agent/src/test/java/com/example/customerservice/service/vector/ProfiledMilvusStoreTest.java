@@ -0,0 +1,67 @@
+package com.example.customerservice.service.vector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.gson.JsonObject;
+import io.agentscope.core.message.TextBlock;
+import io.agentscope.core.rag.model.Document;
+import io.agentscope.core.rag.model.DocumentMetadata;
+import io.agentscope.core.rag.store.MilvusStore;
+import io.milvus.v2.client.MilvusClientV2;
+import io.milvus.v2.service.vector.request.InsertReq;
+import io.milvus.v2.service.vector.request.UpsertReq;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class ProfiledMilvusStoreTest {
+
+    @Test
+    void shouldUpsertSoRewrittenChunksReplaceTheirRows() throws Exception {
+        MilvusClientV2 client = mock(MilvusClientV2.class);
+        MilvusStore delegate = mock(MilvusStore.class);
+        when(delegate.getClient()).thenReturn(client);
+        when(delegate.getCollectionName()).thenReturn("knowledge");
+        when(delegate.getDimensions()).thenReturn(2);
+        ProfiledMilvusStore store = new ProfiledMilvusStore(delegate, Map.of());
+
+        // 分类变更前后同一片段内容不变，只有 payload 中的分类ID不同
+        Document before = chunk(List.of("cat-1"));
+        Document after = chunk(List.of("cat-2"));
+        assertThat(after.getId()).isEqualTo(before.getId());
+        store.add(List.of(before)).block();
+        store.add(List.of(after)).block();
+
+        ArgumentCaptor<UpsertReq> requests = ArgumentCaptor.forClass(UpsertReq.class);
+        verify(client, times(2)).upsert(requests.capture());
+        verify(client, never()).insert(any(InsertReq.class));
+        verify(delegate, never()).add(any());
+        UpsertReq latest = requests.getAllValues().get(1);
+        assertThat(latest.getCollectionName()).isEqualTo("knowledge");
+        JsonObject row = latest.getData().get(0);
+        assertThat(row.get("id").getAsString()).isEqualTo(before.getId());
+        assertThat(row.get("chunk_id").getAsString()).isEqualTo("kb-1-chunk-0");
+        assertThat(row.getAsJsonObject("payload").getAsJsonArray("categoryIds").get(0).getAsString())
+            .isEqualTo("cat-2");
+    }
+
+    private static Document chunk(List<String> categoryIds) {
+        Document document = new Document(
+            DocumentMetadata.builder()
+                .content(TextBlock.builder().text("7天无理由退货").build())
+                .docId("kb-1")
+                .chunkId("kb-1-chunk-0")
+                .payload(Map.of(PayloadFilter.CATEGORY_IDS, categoryIds))
+                .build()
+        );
+        document.setEmbedding(new double[] { 0.6, 0.8 });
+        return document;
+    }
+}